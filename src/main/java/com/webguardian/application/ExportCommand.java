@@ -0,0 +1,109 @@
+package com.webguardian.application;
+
+import com.webguardian.application.config.WebGuardianConfig;
+import com.webguardian.core.entities.ExportFormat;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import com.webguardian.infrastructure.persistence.GzipCheckResultExporter;
+import com.webguardian.infrastructure.persistence.H2SiteRepository;
+import com.webguardian.infrastructure.persistence.segment.SegmentedSiteRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Export de l'historique des vérifications en ligne de commande, sans démarrer la surveillance :
+ * <pre>
+ * export &lt;fichier&gt; [--config=config.properties] [--site=ID] [--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--format=csv|ndjson]
+ * </pre>
+ * Par défaut, tous les sites sur les 30 derniers jours, au format déduit du nom du fichier (CSV sinon).
+ */
+@Slf4j
+final class ExportCommand {
+    static final String NAME = "export";
+    private static final int DEFAULT_DAYS = 30;
+    private static final String USAGE = "Usage: export <fichier> [--config=config.properties] [--site=ID] " +
+            "[--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--format=csv|ndjson]";
+    
+    private ExportCommand() {
+    }
+    
+    /**
+     * Exécute l'export
+     * @param args Les arguments de la ligne de commande, « export » compris
+     * @return Le code de sortie du processus
+     */
+    static int run(String[] args) {
+        if (args.length < 2 || args[1].startsWith("--")) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        
+        Path file = Paths.get(args[1]);
+        String configPath = "config.properties";
+        Long siteId = null;
+        LocalDate fromDate = LocalDate.now().minusDays(DEFAULT_DAYS);
+        LocalDate toDate = LocalDate.now();
+        ExportFormat format = file.getFileName().toString().contains(".ndjson") ? ExportFormat.NDJSON : ExportFormat.CSV;
+        
+        try {
+            for (int i = 2; i < args.length; i++) {
+                String arg = args[i];
+                String value = arg.substring(arg.indexOf('=') + 1);
+                if (arg.startsWith("--config=")) {
+                    configPath = value;
+                } else if (arg.startsWith("--site=")) {
+                    siteId = Long.parseLong(value);
+                } else if (arg.startsWith("--from=")) {
+                    fromDate = LocalDate.parse(value);
+                } else if (arg.startsWith("--to=")) {
+                    toDate = LocalDate.parse(value);
+                } else if (arg.startsWith("--format=")) {
+                    format = ExportFormat.fromName(value);
+                } else {
+                    System.err.println("Argument inconnu: " + arg);
+                    System.err.println(USAGE);
+                    return 2;
+                }
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.err.println("Argument invalide: " + e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        }
+        
+        if (fromDate.isAfter(toDate)) {
+            System.err.println("La date de début doit être antérieure à la date de fin.");
+            return 2;
+        }
+        
+        WebGuardianConfig config = WebGuardianConfig.loadFromProperties(configPath);
+        H2SiteRepository h2Repository = WebGuardianApplication.createH2Repository(config);
+        SegmentedSiteRepository segmentedRepository = WebGuardianApplication.createSegmentedRepository(config, h2Repository);
+        SiteRepositoryPort siteRepository = segmentedRepository != null ? segmentedRepository : h2Repository;
+        
+        try {
+            LocalDateTime from = fromDate.atStartOfDay();
+            LocalDateTime to = toDate.atTime(LocalTime.MAX);
+            long count = new GzipCheckResultExporter(siteRepository).export(siteId, from, to, format, file);
+            System.out.println(count + " résultats exportés dans " + file.toAbsolutePath());
+            return 0;
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de l'export de l'historique: {}", e.getMessage(), e);
+            System.err.println("Export impossible: " + e.getMessage());
+            return 1;
+        } finally {
+            if (segmentedRepository != null) {
+                segmentedRepository.close();
+            }
+            h2Repository.close();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.webguardian.application;
 
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.Incident;
 import com.webguardian.core.entities.MonitoredSite;
 import com.webguardian.core.ports.NotificationPort;
 import lombok.extern.slf4j.Slf4j;
@@ -119,4 +120,78 @@ public class MultiChannelNotificationService implements NotificationPort {
         
         return false;
     }
+    
+    @Override
+    public boolean sendSystemAlert(String title, String message) {
+        log.debug("Envoi d'une alerte système via {} canaux", notificationServices.size());
+        
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        
+        for (NotificationPort service : notificationServices) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return service.sendSystemAlert(title, message);
+                } catch (Exception e) {
+                    log.error("Erreur lors de l'envoi d'alerte système via {}: {}", 
+                            service.getClass().getSimpleName(), e.getMessage(), e);
+                    return false;
+                }
+            }));
+        }
+        
+        // Attendre que toutes les notifications soient envoyées
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        
+        // Vérifier si au moins un service a réussi
+        for (CompletableFuture<Boolean> future : futures) {
+            if (future.join()) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    @Override
+    public boolean sendIncidentNotification(Incident incident) {
+        log.debug("Envoi de l'incident #{} via {} canaux", incident.getId(), notificationServices.size());
+        
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        
+        for (NotificationPort service : notificationServices) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return service.sendIncidentNotification(incident);
+                } catch (Exception e) {
+                    log.error("Erreur lors de l'envoi d'incident via {}: {}", 
+                            service.getClass().getSimpleName(), e.getMessage(), e);
+                    return false;
+                }
+            }));
+        }
+        
+        // Attendre que toutes les notifications soient envoyées
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        
+        // Vérifier si au moins un service a réussi
+        for (CompletableFuture<Boolean> future : futures) {
+            if (future.join()) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    @Override
+    public void withdrawSite(MonitoredSite site) {
+        for (NotificationPort service : notificationServices) {
+            try {
+                service.withdrawSite(site);
+            } catch (Exception e) {
+                log.error("Erreur lors du retrait de {} via {}: {}",
+                        site.getUrl(), service.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
 }
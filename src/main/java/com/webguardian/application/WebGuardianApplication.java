@@ -3,22 +3,42 @@ package com.webguardian.application;
 import com.webguardian.application.config.WebGuardianConfig;
 import com.webguardian.application.discord.DiscordCommandHandler;
 import com.webguardian.application.discord.ReportCommandListener;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.RetentionPolicy;
+import com.webguardian.core.ports.NotificationPort;
+import com.webguardian.core.ports.SiteRepositoryPort;
 import com.webguardian.core.usecases.MonitoringService;
 import com.webguardian.core.usecases.ReportService;
+import com.webguardian.core.usecases.RetentionService;
+import com.webguardian.core.usecases.StatusTransitionSettings;
+import com.webguardian.infrastructure.notifications.CorrelatingNotificationService;
 import com.webguardian.infrastructure.notifications.DiscordNotificationService;
 import com.webguardian.infrastructure.notifications.EmailNotificationService;
+import com.webguardian.infrastructure.persistence.AsyncSiteRepository;
+import com.webguardian.infrastructure.persistence.ConnectionPoolSettings;
+import com.webguardian.infrastructure.persistence.GzipCheckResultExporter;
+import com.webguardian.infrastructure.persistence.GzipCsvCheckResultArchiver;
 import com.webguardian.infrastructure.persistence.H2SiteRepository;
+import com.webguardian.infrastructure.persistence.journal.CheckResultJournal;
+import com.webguardian.infrastructure.persistence.journal.JournalingSiteRepository;
+import com.webguardian.infrastructure.persistence.segment.CheckResultSegmentStore;
+import com.webguardian.infrastructure.persistence.segment.SegmentedSiteRepository;
+import com.webguardian.infrastructure.scheduling.AdaptiveIntervalSettings;
+import com.webguardian.infrastructure.scheduling.CheckDispatcher;
+import com.webguardian.infrastructure.scheduling.OverloadPolicy;
 import com.webguardian.infrastructure.scheduling.QuartzSchedulerService;
+import com.webguardian.infrastructure.scheduling.SchedulerLagMonitor;
+import com.webguardian.infrastructure.scheduling.SchedulerService;
+import com.webguardian.infrastructure.scheduling.TimingWheelSchedulerService;
 import com.webguardian.infrastructure.web.OkHttpSiteChecker;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.requests.GatewayIntent;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Point d'entrée principal de l'application WebGuardian
@@ -26,6 +46,11 @@ import java.util.concurrent.Executors;
 @Slf4j
 public class WebGuardianApplication {
     public static void main(String[] args) {
+        // Export de l'historique en ligne de commande, sans démarrer la surveillance
+        if (args.length > 0 && ExportCommand.NAME.equals(args[0])) {
+            System.exit(ExportCommand.run(args));
+        }
+        
         try {
             log.info("Démarrage de WebGuardian...");
             
@@ -38,14 +63,37 @@ public class WebGuardianApplication {
             WebGuardianConfig config = WebGuardianConfig.loadFromProperties(configPath);
             log.info("Configuration chargée depuis {}", configPath);
             
-            // Création du pool de threads
-            ExecutorService executorService = Executors.newFixedThreadPool(
-                    config.getThreadPoolSize());
-            
             // Initialisation des composants
             OkHttpSiteChecker siteChecker = new OkHttpSiteChecker();
-            H2SiteRepository siteRepository = new H2SiteRepository(config.getDbUrl(), 
-                    config.getDbUsername(), config.getDbPassword(), config.getDbPoolSize());
+            H2SiteRepository h2Repository = createH2Repository(config);
+            
+            // Résultats bruts dans des segments projetés en mémoire si configuré
+            SegmentedSiteRepository segmentedRepository = createSegmentedRepository(config, h2Repository);
+            SiteRepositoryPort storageRepository = segmentedRepository != null ? segmentedRepository : h2Repository;
+            
+            // Résultats conservés dans un journal local lorsque la base est indisponible
+            JournalingSiteRepository journalingRepository = config.isStorageJournalEnabled()
+                    ? new JournalingSiteRepository(storageRepository, new CheckResultJournal(
+                            config.getStorageJournalDirectory(),
+                            config.getStorageJournalForceEvery(),
+                            config.getStorageJournalMaxSizeMb() * 1024L * 1024L),
+                            config.getStorageJournalReplayBatchSize(),
+                            config.getStorageJournalMaxReplayAttempts())
+                    : null;
+            if (journalingRepository != null) {
+                journalingRepository.start(
+                        Duration.ofMillis(config.getStorageJournalForceIntervalMillis()),
+                        Duration.ofSeconds(config.getStorageJournalReplayIntervalSeconds()));
+            }
+            SiteRepositoryPort siteRepository = journalingRepository != null ? journalingRepository : storageRepository;
+            
+            // Accès asynchrones à la base sur un pool dédié, borné
+            AsyncSiteRepository asyncRepository = new AsyncSiteRepository(
+                    siteRepository,
+                    config.getDbAsyncThreads(),
+                    config.getDbAsyncQueueCapacity(),
+                    config.getDbAsyncWriteBatchSize(),
+                    config.getDbAsyncMaxPendingWrites());
             
             // Initialisation de JDA (Discord)
             JDA jda = initializeDiscord(config);
@@ -70,18 +118,31 @@ public class WebGuardianApplication {
             notificationService.addNotificationService(discordNotificationService);
             notificationService.addNotificationService(emailNotificationService);
             
+            // Regroupement des pannes simultanées en incidents, pour les notifications des sites
+            CorrelatingNotificationService correlatingNotificationService =
+                    config.getNotificationCorrelationWindowSeconds() > 0
+                            ? new CorrelatingNotificationService(
+                                    notificationService,
+                                    TimeUnit.SECONDS.toMillis(config.getNotificationCorrelationWindowSeconds()),
+                                    config.getNotificationCorrelationMinSites())
+                            : null;
+            
             // Service de monitoring
             MonitoringService monitoringService = new MonitoringService(
                     siteChecker,
                     siteRepository,
-                    notificationService);
-            
-            // Planificateur
-            QuartzSchedulerService schedulerService = new QuartzSchedulerService(monitoringService);
-            schedulerService.initialize();
-            
-            // Récupération du planificateur Quartz
-            Scheduler scheduler = schedulerService.getScheduler();
+                    correlatingNotificationService != null ? correlatingNotificationService : notificationService,
+                    asyncRepository,
+                    StatusTransitionSettings.builder()
+                            .failThreshold(config.getStatusFailThreshold())
+                            .failWindow(config.getStatusFailWindow())
+                            .recoverThreshold(config.getStatusRecoverThreshold())
+                            .recoverWindow(config.getStatusRecoverWindow())
+                            .flapWindow(config.getStatusFlapWindow())
+                            .flapEnterChanges(config.getStatusFlapEnterChanges())
+                            .flapLeaveChanges(config.getStatusFlapLeaveChanges())
+                            .build(),
+                    config.getDependenciesChildBackoff());
             
             // Service de rapport
             ReportService reportService = new ReportService(
@@ -89,37 +150,64 @@ public class WebGuardianApplication {
                     siteRepository,
                     notificationService);
             
+            // Service de rétention de l'historique
+            RetentionService retentionService = new RetentionService(
+                    siteRepository,
+                    RetentionPolicy.builder()
+                            .rawRetentionDays(config.getRetentionRawDays())
+                            .rollupRetentionDays(config.getRetentionRollupDays())
+                            .chunkSize(config.getRetentionChunkSize())
+                            .build(),
+                    config.isRetentionArchiveEnabled()
+                            ? new GzipCsvCheckResultArchiver(config.getRetentionArchiveDirectory())
+                            : null);
+            
+            // Planificateur
+            SchedulerService schedulerService = createSchedulerService(
+                    config, monitoringService, retentionService, notificationService);
+            schedulerService.initialize();
+            
             // Gestionnaire de commandes Discord
             DiscordCommandHandler commandHandler = new DiscordCommandHandler(
                     monitoringService,
                     config.getDiscordAuthorizedChannels(),
-                    config.getDiscordCommandPrefix());
+                    config.getDiscordCommandPrefix(),
+                    schedulerService,
+                    h2Repository::getPoolMetrics);
             
             // Gestionnaire de commandes de rapport
             ReportCommandListener reportCommandListener = new ReportCommandListener(
                     config.getDiscordAuthorizedChannels(),
                     config.getDiscordCommandPrefix(),
-                    reportService);
+                    reportService,
+                    new GzipCheckResultExporter(siteRepository));
             
             // Ajout des listeners
             jda.addEventListener(commandHandler);
             jda.addEventListener(reportCommandListener);
             
-            // Intégration du service de monitoring dans le planificateur
-            try {
-                scheduler.getContext().put("monitoringService", monitoringService);
-            } catch (SchedulerException e) {
-                log.error("Erreur lors de l'ajout du service de monitoring au contexte du planificateur", e);
-            }
-            
-            // Chargement des sites existants dans le planificateur
-            schedulerService.scheduleAllSites(siteRepository.findAll());
+            // Chargement des sites existants et de leurs dépendances dans le planificateur
+            List<MonitoredSite> sites = siteRepository.findAll();
+            monitoringService.loadDependencies(sites);
+            schedulerService.scheduleAllSites(sites);
+            schedulerService.scheduleRetention(config.getRetentionIntervalHours());
+            schedulerService.scheduleSitePurge(config.getRetentionSitePurgeIntervalMinutes());
             
             // Un hook pour l'arrêt propre
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 log.info("Arrêt de WebGuardian...");
                 schedulerService.shutdown();
-                executorService.shutdown();
+                if (correlatingNotificationService != null) {
+                    correlatingNotificationService.close();
+                }
+                asyncRepository.close();
+                if (journalingRepository != null) {
+                    journalingRepository.close();
+                }
+                if (segmentedRepository != null) {
+                    segmentedRepository.close();
+                }
+                h2Repository.close();
                 log.info("Au revoir !");
             }));
             
@@ -131,6 +219,78 @@ public class WebGuardianApplication {
         }
     }
     
+    /**
+     * Crée le planificateur configuré : Quartz par défaut, ou roue temporelle native si elle est demandée
+     */
+    static SchedulerService createSchedulerService(WebGuardianConfig config, MonitoringService monitoringService,
+                                                   RetentionService retentionService,
+                                                   NotificationPort notificationService) {
+        SchedulerLagMonitor lagMonitor = new SchedulerLagMonitor(notificationService,
+                config.getSchedulerLagAlertThresholdMillis(), config.getSchedulerLagAlertAfter());
+        OverloadPolicy overloadPolicy = OverloadPolicy.fromName(config.getSchedulerOverloadPolicy());
+        
+        if (!"wheel".equalsIgnoreCase(config.getSchedulerEngine())) {
+            if (config.isSchedulerAdaptiveEnabled()) {
+                log.warn("Intervalles adaptatifs non pris en charge par Quartz, intervalles fixes utilisés");
+            }
+            return new QuartzSchedulerService(monitoringService, retentionService, lagMonitor, overloadPolicy);
+        }
+        return new TimingWheelSchedulerService(
+                monitoringService,
+                retentionService,
+                new CheckDispatcher(config.getThreadPoolSize(), config.getSchedulerCriticalThreads()),
+                config.getSchedulerWheelTickMillis(),
+                config.getSchedulerWheelSize(),
+                lagMonitor,
+                overloadPolicy,
+                config.isSchedulerAdaptiveEnabled()
+                        ? AdaptiveIntervalSettings.builder()
+                                .fastIntervalMillis(TimeUnit.SECONDS.toMillis(config.getSchedulerAdaptiveFastIntervalSeconds()))
+                                .maxIntervalMillis(TimeUnit.SECONDS.toMillis(config.getSchedulerAdaptiveMaxIntervalSeconds()))
+                                .confirmChecks(config.getSchedulerAdaptiveConfirmChecks())
+                                .stretchAfter(config.getSchedulerAdaptiveStretchAfter())
+                                .build()
+                        : null);
+    }
+    
+    /**
+     * Crée le repository H2 et ses pools de connexions (ingest, config, reporting)
+     */
+    static H2SiteRepository createH2Repository(WebGuardianConfig config) {
+        return new H2SiteRepository(config.getDbUrl(), 
+                config.getDbUsername(), config.getDbPassword(),
+                ConnectionPoolSettings.builder()
+                        .name("ingest")
+                        .maximumPoolSize(config.getDbPoolSize())
+                        .connectionTimeoutMillis(config.getDbIngestTimeoutMillis())
+                        .build(),
+                ConnectionPoolSettings.builder()
+                        .name("config")
+                        .maximumPoolSize(config.getDbConfigPoolSize())
+                        .connectionTimeoutMillis(config.getDbConfigTimeoutMillis())
+                        .build(),
+                ConnectionPoolSettings.builder()
+                        .name("reporting")
+                        .maximumPoolSize(config.getDbReportingPoolSize())
+                        .connectionTimeoutMillis(config.getDbReportingTimeoutMillis())
+                        .readOnly(true)
+                        .fetchSize(config.getDbReportingFetchSize())
+                        .build());
+    }
+    
+    /**
+     * Crée le stockage des résultats bruts dans des segments projetés en mémoire, si configuré
+     * @return Le repository, ou null si les résultats sont stockés dans H2
+     */
+    static SegmentedSiteRepository createSegmentedRepository(WebGuardianConfig config, H2SiteRepository h2Repository) {
+        return "segments".equalsIgnoreCase(config.getStorageEngine())
+                ? new SegmentedSiteRepository(h2Repository, new CheckResultSegmentStore(
+                        config.getStorageSegmentsDirectory(),
+                        Duration.ofHours(config.getStorageSegmentsWindowHours()),
+                        config.getStorageSegmentsCapacity()))
+                : null;
+    }
+    
     /**
      * Initialise JDA (Discord)
      */
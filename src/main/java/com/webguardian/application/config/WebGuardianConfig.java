@@ -47,6 +47,16 @@ public class WebGuardianConfig {
     private String dbUsername = "sa";
     private String dbPassword = "";
     private int dbPoolSize = 10;
+    private long dbIngestTimeoutMillis = 5000;
+    private int dbConfigPoolSize = 4;
+    private long dbConfigTimeoutMillis = 10000;
+    private int dbReportingPoolSize = 3;
+    private long dbReportingTimeoutMillis = 30000;
+    private int dbReportingFetchSize = 500;
+    private int dbAsyncThreads = 4;
+    private int dbAsyncQueueCapacity = 1000;
+    private int dbAsyncWriteBatchSize = 100;
+    private int dbAsyncMaxPendingWrites = 10000;
     
     // Monitoring
     private int defaultCheckIntervalMinutes = 5;
@@ -55,6 +65,61 @@ public class WebGuardianConfig {
     private int threadPoolSize = 10;
     private boolean checkSslByDefault = true;
     
+    // Changements d'état
+    private int statusFailThreshold = 1;
+    private int statusFailWindow = 1;
+    private int statusRecoverThreshold = 1;
+    private int statusRecoverWindow = 1;
+    private int statusFlapWindow = 21;
+    private int statusFlapEnterChanges = 0;
+    private int statusFlapLeaveChanges = 2;
+    
+    // Regroupement des pannes simultanées
+    private int notificationCorrelationWindowSeconds = 10;
+    private int notificationCorrelationMinSites = 3;
+    
+    // Dépendances entre sites
+    private int dependenciesChildBackoff = 1;
+    
+    // Planification
+    private String schedulerEngine = "quartz";
+    private long schedulerWheelTickMillis = 100;
+    private int schedulerWheelSize = 4096;
+    private String schedulerOverloadPolicy = "coalesce";
+    private long schedulerLagAlertThresholdMillis = 30000;
+    private int schedulerLagAlertAfter = 3;
+    private int schedulerCriticalThreads = 2;
+    private boolean schedulerAdaptiveEnabled = false;
+    private int schedulerAdaptiveFastIntervalSeconds = 15;
+    private int schedulerAdaptiveMaxIntervalSeconds = 1800;
+    private int schedulerAdaptiveConfirmChecks = 3;
+    private int schedulerAdaptiveStretchAfter = 12;
+    
+    // Rétention
+    private int retentionRawDays = 30;
+    private int retentionRollupDays = 365;
+    private int retentionChunkSize = 1000;
+    private int retentionIntervalHours = 24;
+    private boolean retentionArchiveEnabled = false;
+    private String retentionArchiveDirectory = "./archives";
+    private int retentionSitePurgeIntervalMinutes = 1;
+    
+    // Stockage des résultats bruts
+    private String storageEngine = "h2";
+    private String storageSegmentsDirectory = "./segments";
+    private int storageSegmentsWindowHours = 24;
+    private int storageSegmentsCapacity = 1000000;
+    
+    // Journal local des résultats non enregistrés en base
+    private boolean storageJournalEnabled = true;
+    private String storageJournalDirectory = "./journal";
+    private int storageJournalForceEvery = 64;
+    private long storageJournalForceIntervalMillis = 1000;
+    private int storageJournalReplayIntervalSeconds = 10;
+    private int storageJournalReplayBatchSize = 500;
+    private int storageJournalMaxReplayAttempts = 5;
+    private int storageJournalMaxSizeMb = 256;
+    
     private static WebGuardianConfig instance;
     
     /**
@@ -140,6 +205,20 @@ public class WebGuardianConfig {
                 config.setDbUsername(getProperty(properties, "db.username", "sa"));
                 config.setDbPassword(getProperty(properties, "db.password", ""));
                 config.setDbPoolSize(Integer.parseInt(getProperty(properties, "db.pool_size", "10")));
+                config.setDbIngestTimeoutMillis(Long.parseLong(getProperty(properties, "db.pool.ingest.timeout_ms", "5000")));
+                config.setDbConfigPoolSize(Integer.parseInt(getProperty(properties, "db.pool.config.size", "4")));
+                config.setDbConfigTimeoutMillis(Long.parseLong(getProperty(properties, "db.pool.config.timeout_ms", "10000")));
+                config.setDbReportingPoolSize(Integer.parseInt(getProperty(properties, "db.pool.reporting.size", "3")));
+                config.setDbReportingTimeoutMillis(Long.parseLong(
+                        getProperty(properties, "db.pool.reporting.timeout_ms", "30000")));
+                config.setDbReportingFetchSize(Integer.parseInt(
+                        getProperty(properties, "db.pool.reporting.fetch_size", "500")));
+                config.setDbAsyncThreads(Integer.parseInt(getProperty(properties, "db.async.threads", "4")));
+                config.setDbAsyncQueueCapacity(Integer.parseInt(getProperty(properties, "db.async.queue_capacity", "1000")));
+                config.setDbAsyncWriteBatchSize(Integer.parseInt(
+                        getProperty(properties, "db.async.write_batch_size", "100")));
+                config.setDbAsyncMaxPendingWrites(Integer.parseInt(
+                        getProperty(properties, "db.async.max_pending_writes", "10000")));
                 
                 // Monitoring
                 config.setDefaultCheckIntervalMinutes(Integer.parseInt(
@@ -153,6 +232,94 @@ public class WebGuardianConfig {
                 config.setCheckSslByDefault(Boolean.parseBoolean(
                         getProperty(properties, "monitoring.check_ssl", "true")));
                 
+                // Planification
+                config.setSchedulerEngine(getProperty(properties, "scheduler.engine", "quartz"));
+                config.setSchedulerWheelTickMillis(Long.parseLong(
+                        getProperty(properties, "scheduler.wheel.tick_ms", "100")));
+                config.setSchedulerWheelSize(Integer.parseInt(
+                        getProperty(properties, "scheduler.wheel.size", "4096")));
+                config.setSchedulerOverloadPolicy(getProperty(properties, "scheduler.overload.policy", "coalesce"));
+                config.setSchedulerLagAlertThresholdMillis(Long.parseLong(
+                        getProperty(properties, "scheduler.lag.alert_threshold_ms", "30000")));
+                config.setSchedulerLagAlertAfter(Integer.parseInt(
+                        getProperty(properties, "scheduler.lag.alert_after", "3")));
+                config.setSchedulerCriticalThreads(Integer.parseInt(
+                        getProperty(properties, "scheduler.dispatch.critical_threads", "2")));
+                config.setSchedulerAdaptiveEnabled(Boolean.parseBoolean(
+                        getProperty(properties, "scheduler.adaptive.enabled", "false")));
+                config.setSchedulerAdaptiveFastIntervalSeconds(Integer.parseInt(
+                        getProperty(properties, "scheduler.adaptive.fast_interval_s", "15")));
+                config.setSchedulerAdaptiveMaxIntervalSeconds(Integer.parseInt(
+                        getProperty(properties, "scheduler.adaptive.max_interval_s", "1800")));
+                config.setSchedulerAdaptiveConfirmChecks(Integer.parseInt(
+                        getProperty(properties, "scheduler.adaptive.confirm_checks", "3")));
+                config.setSchedulerAdaptiveStretchAfter(Integer.parseInt(
+                        getProperty(properties, "scheduler.adaptive.stretch_after", "12")));
+                
+                // Changements d'état
+                config.setStatusFailThreshold(Integer.parseInt(
+                        getProperty(properties, "status.fail_threshold", "1")));
+                config.setStatusFailWindow(Integer.parseInt(
+                        getProperty(properties, "status.fail_window", "1")));
+                config.setStatusRecoverThreshold(Integer.parseInt(
+                        getProperty(properties, "status.recover_threshold", "1")));
+                config.setStatusRecoverWindow(Integer.parseInt(
+                        getProperty(properties, "status.recover_window", "1")));
+                config.setStatusFlapWindow(Integer.parseInt(
+                        getProperty(properties, "status.flap.window", "21")));
+                config.setStatusFlapEnterChanges(Integer.parseInt(
+                        getProperty(properties, "status.flap.enter_changes", "0")));
+                config.setStatusFlapLeaveChanges(Integer.parseInt(
+                        getProperty(properties, "status.flap.leave_changes", "2")));
+                
+                // Regroupement des pannes simultanées
+                config.setNotificationCorrelationWindowSeconds(Integer.parseInt(
+                        getProperty(properties, "notification.correlation.window_s", "10")));
+                config.setNotificationCorrelationMinSites(Integer.parseInt(
+                        getProperty(properties, "notification.correlation.min_sites", "3")));
+                
+                // Dépendances entre sites
+                config.setDependenciesChildBackoff(Integer.parseInt(
+                        getProperty(properties, "dependencies.child_backoff", "1")));
+                
+                // Rétention
+                config.setRetentionRawDays(Integer.parseInt(
+                        getProperty(properties, "retention.raw_days", "30")));
+                config.setRetentionRollupDays(Integer.parseInt(
+                        getProperty(properties, "retention.rollup_days", "365")));
+                config.setRetentionChunkSize(Integer.parseInt(
+                        getProperty(properties, "retention.chunk_size", "1000")));
+                config.setRetentionIntervalHours(Integer.parseInt(
+                        getProperty(properties, "retention.interval_hours", "24")));
+                config.setRetentionArchiveEnabled(Boolean.parseBoolean(
+                        getProperty(properties, "retention.archive_enabled", "false")));
+                config.setRetentionArchiveDirectory(getProperty(properties, "retention.archive_directory", "./archives"));
+                config.setRetentionSitePurgeIntervalMinutes(Integer.parseInt(
+                        getProperty(properties, "retention.site_purge_interval_minutes", "1")));
+                
+                // Stockage
+                config.setStorageEngine(getProperty(properties, "storage.engine", "h2"));
+                config.setStorageSegmentsDirectory(getProperty(properties, "storage.segments.directory", "./segments"));
+                config.setStorageSegmentsWindowHours(Integer.parseInt(
+                        getProperty(properties, "storage.segments.window_hours", "24")));
+                config.setStorageSegmentsCapacity(Integer.parseInt(
+                        getProperty(properties, "storage.segments.capacity", "1000000")));
+                config.setStorageJournalEnabled(Boolean.parseBoolean(
+                        getProperty(properties, "storage.journal.enabled", "true")));
+                config.setStorageJournalDirectory(getProperty(properties, "storage.journal.directory", "./journal"));
+                config.setStorageJournalForceEvery(Integer.parseInt(
+                        getProperty(properties, "storage.journal.force_every", "64")));
+                config.setStorageJournalForceIntervalMillis(Long.parseLong(
+                        getProperty(properties, "storage.journal.force_interval_ms", "1000")));
+                config.setStorageJournalReplayIntervalSeconds(Integer.parseInt(
+                        getProperty(properties, "storage.journal.replay_interval_seconds", "10")));
+                config.setStorageJournalReplayBatchSize(Integer.parseInt(
+                        getProperty(properties, "storage.journal.replay_batch_size", "500")));
+                config.setStorageJournalMaxReplayAttempts(Integer.parseInt(
+                        getProperty(properties, "storage.journal.max_replay_attempts", "5")));
+                config.setStorageJournalMaxSizeMb(Integer.parseInt(
+                        getProperty(properties, "storage.journal.max_size_mb", "256")));
+                
                 log.info("Configuration chargée depuis le fichier de propriétés: {}", filePath);
             } catch (IOException e) {
                 log.error("Erreur lors du chargement des propriétés: {}", e.getMessage(), e);
@@ -179,6 +346,16 @@ public class WebGuardianConfig {
                 properties.setProperty("db.username", "sa");
                 properties.setProperty("db.password", "");
                 properties.setProperty("db.pool_size", "10");
+                properties.setProperty("db.pool.ingest.timeout_ms", "5000");
+                properties.setProperty("db.pool.config.size", "4");
+                properties.setProperty("db.pool.config.timeout_ms", "10000");
+                properties.setProperty("db.pool.reporting.size", "3");
+                properties.setProperty("db.pool.reporting.timeout_ms", "30000");
+                properties.setProperty("db.pool.reporting.fetch_size", "500");
+                properties.setProperty("db.async.threads", "4");
+                properties.setProperty("db.async.queue_capacity", "1000");
+                properties.setProperty("db.async.write_batch_size", "100");
+                properties.setProperty("db.async.max_pending_writes", "10000");
                 
                 properties.setProperty("monitoring.default_interval", "5");
                 properties.setProperty("monitoring.default_timeout", "30");
@@ -186,6 +363,52 @@ public class WebGuardianConfig {
                 properties.setProperty("monitoring.thread_pool", "10");
                 properties.setProperty("monitoring.check_ssl", "true");
                 
+                properties.setProperty("scheduler.engine", "quartz");
+                properties.setProperty("scheduler.wheel.tick_ms", "100");
+                properties.setProperty("scheduler.wheel.size", "4096");
+                properties.setProperty("scheduler.overload.policy", "coalesce");
+                properties.setProperty("scheduler.lag.alert_threshold_ms", "30000");
+                properties.setProperty("scheduler.lag.alert_after", "3");
+                properties.setProperty("scheduler.dispatch.critical_threads", "2");
+                properties.setProperty("scheduler.adaptive.enabled", "false");
+                properties.setProperty("scheduler.adaptive.fast_interval_s", "15");
+                properties.setProperty("scheduler.adaptive.max_interval_s", "1800");
+                properties.setProperty("scheduler.adaptive.confirm_checks", "3");
+                properties.setProperty("scheduler.adaptive.stretch_after", "12");
+                
+                properties.setProperty("status.fail_threshold", "1");
+                properties.setProperty("status.fail_window", "1");
+                properties.setProperty("status.recover_threshold", "1");
+                properties.setProperty("status.recover_window", "1");
+                properties.setProperty("status.flap.window", "21");
+                properties.setProperty("status.flap.enter_changes", "0");
+                properties.setProperty("status.flap.leave_changes", "2");
+                
+                properties.setProperty("notification.correlation.window_s", "10");
+                properties.setProperty("notification.correlation.min_sites", "3");
+                
+                properties.setProperty("dependencies.child_backoff", "1");
+                
+                properties.setProperty("retention.raw_days", "30");
+                properties.setProperty("retention.rollup_days", "365");
+                properties.setProperty("retention.chunk_size", "1000");
+                properties.setProperty("retention.interval_hours", "24");
+                properties.setProperty("retention.archive_enabled", "false");
+                properties.setProperty("retention.archive_directory", "./archives");
+                properties.setProperty("retention.site_purge_interval_minutes", "1");
+                properties.setProperty("storage.engine", "h2");
+                properties.setProperty("storage.segments.directory", "./segments");
+                properties.setProperty("storage.segments.window_hours", "24");
+                properties.setProperty("storage.segments.capacity", "1000000");
+                properties.setProperty("storage.journal.enabled", "true");
+                properties.setProperty("storage.journal.directory", "./journal");
+                properties.setProperty("storage.journal.force_every", "64");
+                properties.setProperty("storage.journal.force_interval_ms", "1000");
+                properties.setProperty("storage.journal.replay_interval_seconds", "10");
+                properties.setProperty("storage.journal.replay_batch_size", "500");
+                properties.setProperty("storage.journal.max_replay_attempts", "5");
+                properties.setProperty("storage.journal.max_size_mb", "256");
+                
                 properties.store(fos, "WebGuardian Configuration");
                 log.info("Fichier de configuration par défaut créé: {}", filePath);
             } catch (IOException e) {
@@ -2,21 +2,36 @@ package com.webguardian.application.discord;
 
 import com.webguardian.core.entities.CheckResult;
 import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.PendingSiteDeletion;
+import com.webguardian.core.entities.SitePage;
+import com.webguardian.core.entities.SiteState;
 import com.webguardian.core.usecases.MonitoringService;
+import com.webguardian.infrastructure.persistence.ConnectionPoolMetrics;
+import com.webguardian.infrastructure.scheduling.CheckDensityMetrics;
+import com.webguardian.infrastructure.scheduling.SchedulerLagMetrics;
+import com.webguardian.infrastructure.scheduling.SchedulerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
 
 import java.awt.*;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +44,12 @@ public class DiscordCommandHandler extends ListenerAdapter {
     private final MonitoringService monitoringService;
     private final List<String> authorizedChannels;
     private final String prefix;
+    private final SchedulerService schedulerService;
+    private final Supplier<List<ConnectionPoolMetrics>> poolMetrics;
+    
+    // Taille d'une page de la liste des sites (limite de 25 champs par embed Discord)
+    private static final int SITE_PAGE_SIZE = 25;
+    private static final String SITE_PAGE_BUTTON = "sites";
     
     // Patterns for command parsing
     private static final Pattern URL_PATTERN = 
@@ -109,7 +130,11 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 break;
                 
             case "list":
-                handleListSites(event);
+                handleListSites(event, parts.length > 2 ? parts[2] : "");
+                break;
+                
+            case "purges":
+                handlePendingDeletions(event);
                 break;
                 
             case "status":
@@ -120,6 +145,14 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 handleConfigSite(event, parts.length > 2 ? parts[2] : "");
                 break;
                 
+            case "scheduler":
+                sendSchedulerMetrics(event);
+                break;
+                
+            case "pools":
+                sendPoolMetrics(event);
+                break;
+                
             default:
                 sendUsage(event);
         }
@@ -146,6 +179,7 @@ public class DiscordCommandHandler extends ListenerAdapter {
         boolean checkContent = false;
         String contentCheckString = null;
         boolean sslCheck = url.startsWith("https://");
+        MonitoredSite.Priority priority = MonitoredSite.Priority.NORMAL;
         
         // Extraction des options
         Matcher optionsMatcher = OPTIONS_PATTERN.matcher(args);
@@ -200,6 +234,13 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 case "ssl-check":
                     sslCheck = value == null || Boolean.parseBoolean(value);
                     break;
+                
+                case "priority":
+                    MonitoredSite.Priority parsed = parsePriority(value);
+                    if (parsed != null) {
+                        priority = parsed;
+                    }
+                    break;
             }
         }
         
@@ -213,13 +254,20 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 .checkContent(checkContent)
                 .contentCheckString(contentCheckString)
                 .sslCheck(sslCheck)
+                .priority(priority)
                 .notifyOnIssue(true)
                 .build();
         
-        // Ajout du site via le service
-        MonitoredSite addedSite = monitoringService.addSite(site);
-        
-        // Envoi de la confirmation
+        // Ajout du site via le service, confirmation envoyée une fois le site enregistré
+        monitoringService.addSiteAsync(site)
+                .thenAccept(addedSite -> sendSiteAdded(event, addedSite))
+                .exceptionally(e -> replyError(event, e));
+    }
+    
+    /**
+     * Envoie la confirmation de l'ajout d'un site
+     */
+    private void sendSiteAdded(MessageReceivedEvent event, MonitoredSite addedSite) {
         EmbedBuilder builder = new EmbedBuilder()
                 .setTitle("✅ Site ajouté à la surveillance")
                 .setColor(Color.GREEN)
@@ -249,37 +297,139 @@ public class DiscordCommandHandler extends ListenerAdapter {
         }
         
         String url = urlMatcher.group(1);
-        boolean removed = monitoringService.removeSite(url);
-        
+        // Le site est lu avant sa suppression pour annuler sa planification aussitôt,
+        // sans attendre que sa prochaine échéance constate qu'il n'existe plus
+        monitoringService.getSiteByUrlAsync(url)
+                .thenCompose(site -> monitoringService.removeSiteAsync(url)
+                        .thenApply(removed -> unscheduleRemovedSite(site, removed)))
+                .thenAccept(removed -> sendSiteRemoved(event, url, removed))
+                .exceptionally(e -> replyError(event, e));
+    }
+    
+    private boolean unscheduleRemovedSite(Optional<MonitoredSite> site, boolean removed) {
+        if (removed && site.isPresent()) {
+            schedulerService.unscheduleSite(site.get());
+        }
+        return removed;
+    }
+    
+    /**
+     * Envoie la confirmation du retrait d'un site
+     */
+    private void sendSiteRemoved(MessageReceivedEvent event, String url, boolean removed) {
         if (removed) {
-            event.getChannel().sendMessage("✅ Site retiré de la surveillance: " + url).queue();
+            event.getChannel().sendMessage("✅ Site retiré de la surveillance: " + url
+                    + "\nSon historique sera supprimé en arrière-plan (" + prefix + "monitor purges pour suivre la purge).").queue();
         } else {
             event.getChannel().sendMessage("❌ Site non trouvé: " + url).queue();
         }
     }
     
     /**
-     * Gère la commande pour lister les sites surveillés
+     * Gère la commande pour lister les sites surveillés, page par page
      */
-    private void handleListSites(MessageReceivedEvent event) {
-        List<MonitoredSite> sites = monitoringService.getAllSites();
+    private void handleListSites(MessageReceivedEvent event, String args) {
+        MonitoredSite.SiteStatus status = null;
+        if (!args.isBlank()) {
+            try {
+                status = MonitoredSite.SiteStatus.valueOf(args.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                event.getChannel().sendMessage("❌ Statut invalide. Valeurs possibles: "
+                        + Arrays.toString(MonitoredSite.SiteStatus.values())).queue();
+                return;
+            }
+        }
         
-        if (sites.isEmpty()) {
-            event.getChannel().sendMessage("Aucun site n'est actuellement surveillé.").queue();
+        MonitoredSite.SiteStatus filter = status;
+        monitoringService.getSitesAfterAsync(null, SITE_PAGE_SIZE, filter)
+                .thenAccept(page -> sendFirstSitePage(event, filter, page))
+                .exceptionally(e -> replyError(event, e));
+    }
+    
+    /**
+     * Envoie la première page de la liste des sites
+     */
+    private void sendFirstSitePage(MessageReceivedEvent event, MonitoredSite.SiteStatus status, SitePage page) {
+        if (page.getSites().isEmpty()) {
+            event.getChannel().sendMessage(status == null
+                    ? "Aucun site n'est actuellement surveillé."
+                    : "Aucun site surveillé avec le statut " + status + ".").queue();
             return;
         }
         
+        event.getChannel().sendMessageEmbeds(buildSitePageEmbed(page))
+                .setActionRow(buildSitePageButtons(page))
+                .queue();
+    }
+    
+    /**
+     * Gère les boutons de navigation de la liste des sites : chaque clic ne lit qu'une page
+     */
+    @Override
+    public void onButtonInteraction(ButtonInteractionEvent event) {
+        String[] parts = event.getComponentId().split(":");
+        if (parts.length != 4 || !SITE_PAGE_BUTTON.equals(parts[0])) {
+            return;
+        }
+        if (!authorizedChannels.contains(event.getChannel().getId())) {
+            return;
+        }
+        
+        long cursor;
+        MonitoredSite.SiteStatus status;
+        try {
+            cursor = Long.parseLong(parts[2]);
+            status = "ALL".equals(parts[3]) ? null : MonitoredSite.SiteStatus.valueOf(parts[3]);
+        } catch (IllegalArgumentException e) {
+            event.reply("❌ Bouton invalide: " + event.getComponentId()).setEphemeral(true).queue();
+            return;
+        }
+        
+        // Accusé de réception immédiat : la page est éditée une fois lue par le pool de la base
+        event.deferEdit().queue();
+        CompletableFuture<SitePage> page = "next".equals(parts[1])
+                ? monitoringService.getSitesAfterAsync(cursor, SITE_PAGE_SIZE, status)
+                : monitoringService.getSitesBeforeAsync(cursor, SITE_PAGE_SIZE, status);
+        page.thenAccept(sitePage -> event.getHook().editOriginalEmbeds(buildSitePageEmbed(sitePage))
+                        .setActionRow(buildSitePageButtons(sitePage))
+                        .queue())
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    log.error("Erreur lors de la navigation dans la liste des sites: {}", cause.getMessage(), cause);
+                    event.getHook().sendMessage("❌ Erreur: " + cause.getMessage()).setEphemeral(true).queue();
+                    return null;
+                });
+    }
+    
+    /**
+     * Signale dans le canal l'échec d'une commande traitée de façon asynchrone
+     */
+    private Void replyError(MessageReceivedEvent event, Throwable error) {
+        Throwable cause = unwrap(error);
+        log.error("Erreur lors du traitement de la commande: {}", cause.getMessage(), cause);
+        event.getChannel().sendMessage("❌ Erreur: " + cause.getMessage()).queue();
+        return null;
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * Construit l'embed d'une page de sites
+     */
+    private MessageEmbed buildSitePageEmbed(SitePage page) {
         EmbedBuilder builder = new EmbedBuilder()
                 .setTitle("📋 Sites surveillés")
                 .setColor(new Color(64, 138, 237))
-                .setDescription("Liste des sites actuellement surveillés");
+                .setDescription(page.getStatus() == null
+                        ? "Liste des sites actuellement surveillés"
+                        : "Sites surveillés avec le statut " + page.getStatus());
         
-        for (int i = 0; i < sites.size(); i++) {
-            MonitoredSite site = sites.get(i);
-            
+        for (MonitoredSite site : page.getSites()) {
             // Détermination de l'emoji de statut
             String statusEmoji;
-            switch (site.getCurrentStatus()) {
+            switch (site.getCurrentStatus() != null ? site.getCurrentStatus() : MonitoredSite.SiteStatus.UNKNOWN) {
                 case UP:
                     statusEmoji = "✅";
                     break;
@@ -292,6 +442,9 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 case MAINTENANCE:
                     statusEmoji = "🔧";
                     break;
+                case FLAPPING:
+                    statusEmoji = "🔁";
+                    break;
                 default:
                     statusEmoji = "❓";
             }
@@ -305,13 +458,108 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 siteInfo += " (maintenance)";
             }
             
-            builder.addField(site.getUrl(), siteInfo, false);
-            
-            // Discord limite les embeds à 25 champs
-            if (i >= 24 && sites.size() > 25) {
-                builder.setFooter("Affichage limité à 25 sites sur " + sites.size());
-                break;
+            // Dernier résultat connu, lu dans l'état matérialisé du site
+            SiteState state = page.getStates().get(site.getId());
+            if (state != null) {
+                siteInfo += String.format("\n%s · vérifié <t:%d:R>",
+                        state.getLastResponseTimeMillis() != null ? state.getLastResponseTimeMillis() + " ms" : "pas de réponse",
+                        state.getLastCheckedAt().atZone(ZoneId.systemDefault()).toEpochSecond());
+                if (state.getConsecutiveFailures() > 0) {
+                    siteInfo += " · " + state.getConsecutiveFailures() + " échec(s) consécutif(s)";
+                }
             }
+            
+            builder.addField(site.getUrl(), siteInfo, false);
+        }
+        
+        if (page.getSites().isEmpty()) {
+            builder.setDescription("Aucun site sur cette page");
+        } else {
+            builder.setFooter(String.format("Sites #%d à #%d",
+                    page.getSites().get(0).getId(),
+                    page.getSites().get(page.getSites().size() - 1).getId()));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Construit les boutons précédent/suivant d'une page de sites
+     * (identifiant : sites:sens:curseur:statut)
+     */
+    private List<Button> buildSitePageButtons(SitePage page) {
+        String status = page.getStatus() != null ? page.getStatus().name() : "ALL";
+        Long previous = page.getPreviousCursor();
+        Long next = page.getNextCursor();
+        
+        return List.of(
+                Button.secondary(SITE_PAGE_BUTTON + ":previous:" + (previous != null ? previous : 0) + ":" + status,
+                        "◀ Précédent").withDisabled(previous == null),
+                Button.secondary(SITE_PAGE_BUTTON + ":next:" + (next != null ? next : 0) + ":" + status,
+                        "Suivant ▶").withDisabled(next == null));
+    }
+    
+    /**
+     * Gère la commande pour suivre la purge de l'historique des sites supprimés
+     */
+    private void handlePendingDeletions(MessageReceivedEvent event) {
+        monitoringService.getPendingDeletionsAsync()
+                .thenAccept(deletions -> sendPendingDeletions(event, deletions))
+                .exceptionally(e -> replyError(event, e));
+    }
+    
+    private void sendPendingDeletions(MessageReceivedEvent event, List<PendingSiteDeletion> deletions) {
+        if (deletions.isEmpty()) {
+            event.getChannel().sendMessage("Aucune purge d'historique en cours.").queue();
+            return;
+        }
+        
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle("🗑️ Purges en cours")
+                .setColor(new Color(128, 128, 128))
+                .setDescription("Historique des sites supprimés restant à purger");
+        
+        for (int i = 0; i < deletions.size() && i < 25; i++) {
+            PendingSiteDeletion deletion = deletions.get(i);
+            builder.addField(deletion.getSite().getUrl(),
+                    deletion.getRemainingCheckResults() + " résultats restants", false);
+        }
+        
+        event.getChannel().sendMessageEmbeds(builder.build()).queue();
+    }
+    
+    /**
+     * Affiche le retard des vérifications et leur densité, tels que mesurés par le planificateur
+     */
+    private void sendSchedulerMetrics(MessageReceivedEvent event) {
+        SchedulerLagMetrics lag = schedulerService.getLagMetrics();
+        CheckDensityMetrics.Snapshot density = schedulerService.getCheckDensity().snapshot();
+        
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle("⏱️ Planificateur")
+                .setColor(new Color(128, 128, 128))
+                .addField("Vérifications", String.valueOf(lag.getCount()), true)
+                .addField("Retard p50 / p95 / p99", lag.percentileMillis(0.50) + " / "
+                        + lag.percentileMillis(0.95) + " / " + lag.percentileMillis(0.99) + " ms", true)
+                .addField("Abandonnées / fusionnées", lag.getSkipped() + " / " + lag.getCoalesced(), true)
+                .addField("Densité", String.format("moyenne %.2f/s, pic %d/s, rapport pic/moyenne %.2f",
+                        density.getMean(), density.getPeak(), density.getPeakToMeanRatio()), false);
+        
+        event.getChannel().sendMessageEmbeds(builder.build()).queue();
+    }
+    
+    /**
+     * Affiche l'attente des connexions de chaque pool de la base
+     */
+    private void sendPoolMetrics(MessageReceivedEvent event) {
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle("🔌 Pools de connexions")
+                .setColor(new Color(128, 128, 128));
+        
+        for (ConnectionPoolMetrics metrics : poolMetrics.get()) {
+            builder.addField(metrics.getPoolName(), String.format(
+                    "%d connexions obtenues\nAttente moyenne %.2f ms, max %d ms\n%d expirations\n%d actives, %d threads en attente",
+                    metrics.getAcquisitions(), metrics.getAverageWaitMillis(), metrics.getMaxWaitMillis(),
+                    metrics.getTimeouts(), metrics.getActiveConnections(), metrics.getPendingThreads()), true);
         }
         
         event.getChannel().sendMessageEmbeds(builder.build()).queue();
@@ -329,11 +577,21 @@ public class DiscordCommandHandler extends ListenerAdapter {
         
         String url = urlMatcher.group(1);
         
-        // Message de chargement
-        Message loadingMsg = event.getChannel().sendMessage("🔄 Vérification du site " + url + "...").complete();
-        
-        Optional<CheckResult> resultOpt = monitoringService.checkSiteNow(url);
-        
+        // Message de chargement, puis vérification hors du thread des événements
+        event.getChannel().sendMessage("🔄 Vérification du site " + url + "...").queue(loadingMsg ->
+                monitoringService.checkSiteNowAsync(url)
+                        .thenAccept(resultOpt -> sendCheckStatus(event, url, loadingMsg, resultOpt))
+                        .exceptionally(e -> {
+                            loadingMsg.delete().queue();
+                            return replyError(event, e);
+                        }));
+    }
+    
+    /**
+     * Envoie le résultat d'une vérification immédiate
+     */
+    private void sendCheckStatus(MessageReceivedEvent event, String url, Message loadingMsg,
+                                 Optional<CheckResult> resultOpt) {
         if (resultOpt.isEmpty()) {
             loadingMsg.editMessage("❌ Site non trouvé dans la liste de surveillance: " + url).queue();
             return;
@@ -411,11 +669,16 @@ public class DiscordCommandHandler extends ListenerAdapter {
         
         String url = urlMatcher.group(1);
         
-        // Recherche du site
-        Optional<MonitoredSite> siteOpt = monitoringService.getAllSites().stream()
-                .filter(s -> s.getUrl().equals(url))
-                .findFirst();
-        
+        // Recherche du site, puis application des options une fois le site lu
+        monitoringService.getSiteByUrlAsync(url)
+                .thenAccept(siteOpt -> applySiteConfig(event, args, url, siteOpt))
+                .exceptionally(e -> replyError(event, e));
+    }
+    
+    /**
+     * Applique les options de la commande de configuration à un site
+     */
+    private void applySiteConfig(MessageReceivedEvent event, String args, String url, Optional<MonitoredSite> siteOpt) {
         if (siteOpt.isEmpty()) {
             event.getChannel().sendMessage("❌ Site non trouvé dans la liste de surveillance: " + url).queue();
             return;
@@ -484,12 +747,32 @@ public class DiscordCommandHandler extends ListenerAdapter {
                     site.setSslCheck(value == null || Boolean.parseBoolean(value));
                     break;
                     
+                case "priority":
+                    MonitoredSite.Priority priority = parsePriority(value);
+                    if (priority != null) {
+                        site.setPriority(priority);
+                    } else {
+                        event.getChannel().sendMessage("❌ Valeur de priorité invalide: " + value).queue();
+                        updated = false;
+                    }
+                    break;
+                
                 case "maintenance":
                     boolean maintenance = value == null || Boolean.parseBoolean(value);
-                    monitoringService.setMaintenanceMode(url, maintenance);
-                    event.getChannel().sendMessage(maintenance ? 
-                            "🔧 Mode maintenance activé pour " + site.getName() :
-                            "✅ Mode maintenance désactivé pour " + site.getName()).queue();
+                    monitoringService.setMaintenanceModeAsync(url, maintenance)
+                            .thenAccept(ignored -> event.getChannel().sendMessage(maintenance ? 
+                                    "🔧 Mode maintenance activé pour " + site.getName() :
+                                    "✅ Mode maintenance désactivé pour " + site.getName()).queue())
+                            .exceptionally(e -> replyError(event, e));
+                    return;
+                
+                case "depends-on":
+                    List<String> parentUrls = parseDependencies(value);
+                    monitoringService.setDependenciesAsync(url, parentUrls)
+                            .thenAccept(ignored -> event.getChannel().sendMessage(parentUrls.isEmpty() ?
+                                    "✅ " + site.getName() + " ne dépend plus d'aucun site" :
+                                    "🔗 " + site.getName() + " dépend de " + String.join(", ", parentUrls)).queue())
+                            .exceptionally(e -> replyError(event, e));
                     return;
                     
                 default:
@@ -499,8 +782,10 @@ public class DiscordCommandHandler extends ListenerAdapter {
         }
         
         if (updated) {
-            monitoringService.addSite(site); // Réutilisation de la méthode pour sauvegarder les modifications
-            event.getChannel().sendMessage("✅ Configuration mise à jour pour " + site.getName()).queue();
+            monitoringService.updateSiteAsync(site)
+                    .thenAccept(savedSite -> event.getChannel()
+                            .sendMessage("✅ Configuration mise à jour pour " + savedSite.getName()).queue())
+                    .exceptionally(e -> replyError(event, e));
         } else {
             sendConfigUsage(event);
         }
@@ -562,15 +847,21 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 .setColor(new Color(75, 0, 130))
                 .setDescription("Commandes disponibles pour WebGuardian")
                 .addField(prefix + "monitor add [url] [options]", 
-                        "Ajoute un site à surveiller\nOptions: --name=nom --interval=min --timeout=sec --retries=n --content-check=texte --ssl-check=true/false", false)
+                        "Ajoute un site à surveiller\nOptions: --name=nom --interval=min --timeout=sec --retries=n --content-check=texte --ssl-check=true/false --priority=critical/high/normal/low", false)
                 .addField(prefix + "monitor remove [url]", 
                         "Retire un site de la surveillance", false)
-                .addField(prefix + "monitor list", 
-                        "Liste tous les sites surveillés", false)
+                .addField(prefix + "monitor list [statut]", 
+                        "Liste les sites surveillés, page par page\nStatut: up, down, degraded, maintenance, unknown", false)
+                .addField(prefix + "monitor purges", 
+                        "Affiche la purge en cours de l'historique des sites supprimés", false)
                 .addField(prefix + "monitor status [url]", 
                         "Vérifie immédiatement l'état d'un site", false)
                 .addField(prefix + "monitor config [url] [options]", 
-                        "Configure les paramètres d'un site\nOptions: --name=nom --interval=min --timeout=sec --retries=n --content-check=texte --ssl-check=true/false --maintenance=true/false", false)
+                        "Configure les paramètres d'un site\nOptions: --name=nom --interval=min --timeout=sec --retries=n --content-check=texte --ssl-check=true/false --priority=critical/high/normal/low --maintenance=true/false --depends-on=url1,url2/none", false)
+                .addField(prefix + "monitor scheduler", 
+                        "Affiche le retard et la densité des vérifications planifiées", false)
+                .addField(prefix + "monitor pools", 
+                        "Affiche l'attente des connexions aux pools de la base", false)
                 .addField(prefix + "rapport [quotidien/hebdomadaire]", 
                         "Génère un rapport de performance", false)
                 .addField(prefix + "help", 
@@ -588,9 +879,12 @@ public class DiscordCommandHandler extends ListenerAdapter {
                 "📌 **Commandes disponibles:**\n" +
                         prefix + "monitor add [url] [options] - Ajoute un site à surveiller\n" +
                         prefix + "monitor remove [url] - Retire un site de la surveillance\n" +
-                        prefix + "monitor list - Liste tous les sites surveillés\n" +
+                        prefix + "monitor list [statut] - Liste les sites surveillés, page par page\n" +
+                        prefix + "monitor purges - Suit la purge de l'historique des sites supprimés\n" +
                         prefix + "monitor status [url] - Vérifie immédiatement l'état d'un site\n" +
                         prefix + "monitor config [url] [options] - Configure les paramètres d'un site\n" +
+                        prefix + "monitor scheduler - Affiche le retard et la densité des vérifications\n" +
+                        prefix + "monitor pools - Affiche l'attente des connexions à la base\n" +
                         prefix + "rapport [quotidien/hebdomadaire] - Génère un rapport de performance\n" +
                         prefix + "help - Affiche l'aide complète"
         ).queue();
@@ -610,10 +904,45 @@ public class DiscordCommandHandler extends ListenerAdapter {
                         "--retries=nombre - Nombre de tentatives avant alerte\n" +
                         "--content-check=texte - Texte à vérifier dans la page\n" +
                         "--ssl-check=true/false - Activer/désactiver la vérification SSL\n" +
-                        "--maintenance=true/false - Activer/désactiver le mode maintenance"
+                        "--priority=critical/high/normal/low - Priorité de vérification en cas de surcharge\n" +
+                        "--maintenance=true/false - Activer/désactiver le mode maintenance\n" +
+                        "--depends-on=url1,url2 - Sites dont dépend celui-ci, alertes suspendues pendant leurs pannes (none : aucun)"
         ).queue();
     }
     
+    /**
+     * Lit la liste des URLs dont dépend un site, séparées par des virgules
+     * @return Les URLs, vide pour "none" ou une valeur absente
+     */
+    private static List<String> parseDependencies(String value) {
+        List<String> urls = new ArrayList<>();
+        if (value == null || value.equalsIgnoreCase("none")) {
+            return urls;
+        }
+        for (String part : value.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                urls.add(trimmed);
+            }
+        }
+        return urls;
+    }
+    
+    /**
+     * Lit une priorité de vérification, sans tenir compte de la casse
+     * @return La priorité, ou null si la valeur est invalide
+     */
+    private static MonitoredSite.Priority parsePriority(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return MonitoredSite.Priority.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
     /**
      * Extrait le nom de domaine d'une URL
      */
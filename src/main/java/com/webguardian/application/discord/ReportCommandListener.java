@@ -1,5 +1,7 @@
 package com.webguardian.application.discord;
 
+import com.webguardian.core.entities.ExportFormat;
+import com.webguardian.core.ports.CheckResultExportPort;
 import com.webguardian.core.usecases.ReportService;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -12,10 +14,17 @@ import net.dv8tion.jda.api.utils.FileUpload;
 import java.util.List;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,8 +40,21 @@ public class ReportCommandListener extends ListenerAdapter {
     @Getter
     private final ReportService reportService;
     
+    private final CheckResultExportPort exporter;
+    
+    // Exports traités un par un, hors des threads d'événements de JDA
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "discord-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
     private static final Pattern DATE_PATTERN = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    // Au-delà, l'export se fait en ligne de commande
+    private static final int MAX_EXPORT_DAYS = 31;
+    // Limite des pièces jointes Discord sans boost (25 Mio), avec une marge
+    private static final long MAX_ATTACHMENT_BYTES = 24L * 1024 * 1024;
     
     @Override
     public void onMessageReceived(MessageReceivedEvent event) {
@@ -50,7 +72,7 @@ public class ReportCommandListener extends ListenerAdapter {
             return;
         }
         
-        String[] parts = content.substring((prefix + "rapport").length()).trim().split("\\s+", 4);
+        String[] parts = content.substring((prefix + "rapport").length()).trim().split("\\s+", 5);
         
         if (parts.length == 0 || parts[0].isEmpty()) {
             sendUsage(event);
@@ -76,6 +98,14 @@ public class ReportCommandListener extends ListenerAdapter {
                         sendCustomReportUsage(event);
                     }
                     break;
+                
+                case "export":
+                    if (parts.length >= 4) {
+                        handleExport(event, parts);
+                    } else {
+                        sendExportUsage(event);
+                    }
+                    break;
                     
                 case "quotidien":
                 case "hebdomadaire":
@@ -182,6 +212,95 @@ public class ReportCommandListener extends ListenerAdapter {
         }
     }
     
+    /**
+     * Gère la commande d'export de l'historique brut : le fichier compressé est envoyé en pièce jointe
+     */
+    private void handleExport(MessageReceivedEvent event, String[] parts) {
+        Long siteId;
+        LocalDate fromDate;
+        LocalDate toDate;
+        ExportFormat format;
+        
+        try {
+            siteId = "tous".equalsIgnoreCase(parts[1]) ? null : Long.parseLong(parts[1]);
+            Matcher fromMatcher = DATE_PATTERN.matcher(parts[2]);
+            Matcher toMatcher = DATE_PATTERN.matcher(parts[3]);
+            if (!fromMatcher.find() || !toMatcher.find()) {
+                event.getChannel().sendMessage("❌ Format de date invalide. Utilisez le format YYYY-MM-DD.").queue();
+                return;
+            }
+            fromDate = LocalDate.parse(fromMatcher.group(1), DATE_FORMATTER);
+            toDate = LocalDate.parse(toMatcher.group(1), DATE_FORMATTER);
+            format = parts.length >= 5 ? ExportFormat.fromName(parts[4].trim()) : ExportFormat.CSV;
+        } catch (NumberFormatException e) {
+            event.getChannel().sendMessage("❌ ID de site invalide").queue();
+            return;
+        } catch (DateTimeParseException e) {
+            event.getChannel().sendMessage("❌ Format de date invalide. Utilisez le format YYYY-MM-DD.").queue();
+            return;
+        } catch (IllegalArgumentException e) {
+            event.getChannel().sendMessage("❌ " + e.getMessage()).queue();
+            return;
+        }
+        
+        if (fromDate.isAfter(toDate)) {
+            event.getChannel().sendMessage("❌ La date de début doit être antérieure à la date de fin.").queue();
+            return;
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_EXPORT_DAYS) {
+            event.getChannel().sendMessage("❌ Export limité à " + MAX_EXPORT_DAYS + " jours depuis Discord. " +
+                    "Pour une période plus longue, utilisez la commande « export » de l'application.").queue();
+            return;
+        }
+        
+        String fileName = "historique_" + (siteId != null ? "site_" + siteId : "tous") + "_" +
+                fromDate + "_" + toDate + "." + format.getFileExtension();
+        event.getChannel().sendMessage("🔄 Export de l'historique du " + fromDate + " au " + toDate + "...").queue(
+                loadingMsg -> exportExecutor.execute(() -> {
+                    sendExport(event, siteId, fromDate, toDate, format, fileName);
+                    loadingMsg.delete().queue();
+                }));
+    }
+    
+    /**
+     * Exporte l'historique dans un fichier temporaire et l'envoie, puis supprime le fichier
+     */
+    private void sendExport(MessageReceivedEvent event, Long siteId, LocalDate fromDate, LocalDate toDate,
+                            ExportFormat format, String fileName) {
+        Path file = null;
+        
+        try {
+            file = Files.createTempFile("webguardian-export-", "." + format.getFileExtension());
+            long count = exporter.export(siteId, fromDate.atStartOfDay(), toDate.atTime(LocalTime.MAX), format, file);
+            
+            if (Files.size(file) > MAX_ATTACHMENT_BYTES) {
+                event.getChannel().sendMessage("❌ L'export (" + count + " résultats) dépasse la taille des pièces jointes. " +
+                        "Réduisez la période ou utilisez la commande « export » de l'application.").queue();
+                deleteQuietly(file);
+                return;
+            }
+            
+            Path upload = file;
+            event.getChannel().sendMessage("📦 " + count + " résultats exportés")
+                    .addFiles(FileUpload.fromData(upload, fileName))
+                    .queue(sent -> deleteQuietly(upload), error -> deleteQuietly(upload));
+        } catch (Exception e) {
+            log.error("Erreur lors de l'export de l'historique: {}", e.getMessage(), e);
+            event.getChannel().sendMessage("❌ Erreur lors de l'export: " + e.getMessage()).queue();
+            if (file != null) {
+                deleteQuietly(file);
+            }
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier d'export temporaire {}: {}", file, e.getMessage());
+        }
+    }
+    
     /**
      * Envoie l'aide pour les commandes de rapport
      */
@@ -192,7 +311,9 @@ public class ReportCommandListener extends ListenerAdapter {
                         prefix + "rapport hebdomadaire - Génère un rapport pour la semaine en cours\n" +
                         prefix + "rapport mensuel - Génère un rapport pour le mois en cours\n" +
                         prefix + "rapport site [id] [jours] - Génère un rapport pour un site spécifique\n" +
-                        prefix + "rapport custom [date-début] [date-fin] - Génère un rapport pour une période personnalisée\n\n" +
+                        prefix + "rapport custom [date-début] [date-fin] - Génère un rapport pour une période personnalisée\n" +
+                        prefix + "rapport export [id|tous] [date-début] [date-fin] [csv|ndjson] - Exporte l'historique brut " +
+                        "(" + MAX_EXPORT_DAYS + " jours au plus)\n\n" +
                         "Les dates doivent être au format YYYY-MM-DD"
         ).queue();
     }
@@ -206,6 +327,7 @@ public class ReportCommandListener extends ListenerAdapter {
                         prefix + "rapport [quotidien|hebdomadaire|mensuel] - Génère un rapport périodique\n" +
                         prefix + "rapport site [id] [jours] - Génère un rapport pour un site spécifique\n" +
                         prefix + "rapport custom [date-début] [date-fin] - Génère un rapport personnalisé\n" +
+                        prefix + "rapport export [id|tous] [date-début] [date-fin] [csv|ndjson] - Exporte l'historique brut\n" +
                         prefix + "rapport help - Affiche l'aide détaillée pour les rapports"
         ).queue();
     }
@@ -221,4 +343,16 @@ public class ReportCommandListener extends ListenerAdapter {
                         "Exemple: " + prefix + "rapport custom 2023-01-01 2023-01-31"
         ).queue();
     }
+    
+    /**
+     * Envoie l'usage de la commande d'export
+     */
+    private void sendExportUsage(MessageReceivedEvent event) {
+        event.getChannel().sendMessage(
+                "📌 **Usage de la commande d'export**\n" +
+                        prefix + "rapport export [id|tous] [date-début] [date-fin] [csv|ndjson]\n\n" +
+                        "Les dates doivent être au format YYYY-MM-DD, sur " + MAX_EXPORT_DAYS + " jours au plus\n" +
+                        "Exemple: " + prefix + "rapport export 3 2023-01-01 2023-01-31 ndjson"
+        ).queue();
+    }
 }
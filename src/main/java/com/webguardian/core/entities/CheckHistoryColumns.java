@@ -0,0 +1,101 @@
+package com.webguardian.core.entities;
+
+import java.util.Arrays;
+
+/**
+ * Projection en colonnes de l'historique des vérifications d'un site.
+ * Chaque vérification occupe une position dans trois tableaux primitifs, ce qui
+ * permet aux calculs statistiques de parcourir l'historique sans allocation par ligne.
+ * Les tableaux peuvent être plus grands que le nombre de lignes : seules les
+ * positions de 0 à {@link #getSize()} - 1 sont valides.
+ * Une même projection peut servir de tampon pour parcourir l'historique par lots ({@link #clear()}).
+ */
+public class CheckHistoryColumns {
+    /**
+     * Valeur utilisée lorsque le temps de réponse n'est pas connu
+     */
+    public static final int NO_RESPONSE_TIME = -1;
+    
+    private static final int DEFAULT_CAPACITY = 256;
+    
+    private long[] timestamps;
+    private byte[] statuses;
+    private int[] responseTimesMillis;
+    private int size;
+    
+    public CheckHistoryColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public CheckHistoryColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.timestamps = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.responseTimesMillis = new int[capacity];
+    }
+    
+    /**
+     * Ajoute une vérification en fin de projection
+     * @param epochMillis Horodatage de la vérification en millisecondes depuis l'epoch
+     * @param status Statut de la vérification
+     * @param responseTimeMillis Temps de réponse en millisecondes, ou {@link #NO_RESPONSE_TIME}
+     */
+    public void add(long epochMillis, CheckResult.CheckStatus status, int responseTimeMillis) {
+        add(epochMillis, (byte) status.ordinal(), responseTimeMillis);
+    }
+    
+    /**
+     * Ajoute une vérification en fin de projection
+     * @param epochMillis Horodatage de la vérification en millisecondes depuis l'epoch
+     * @param statusOrdinal Ordinal du statut de la vérification
+     * @param responseTimeMillis Temps de réponse en millisecondes, ou {@link #NO_RESPONSE_TIME}
+     */
+    public void add(long epochMillis, byte statusOrdinal, int responseTimeMillis) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            responseTimesMillis = Arrays.copyOf(responseTimesMillis, capacity);
+        }
+        
+        timestamps[size] = epochMillis;
+        statuses[size] = statusOrdinal;
+        responseTimesMillis[size] = responseTimeMillis;
+        size++;
+    }
+    
+    /**
+     * Vide la projection en conservant ses tableaux, pour le lot suivant
+     */
+    public void clear() {
+        size = 0;
+    }
+    
+    /**
+     * @return Le nombre de vérifications de la projection
+     */
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * @return Les horodatages en millisecondes depuis l'epoch, triés par ordre croissant
+     */
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+    
+    /**
+     * @return Les statuts, sous forme d'ordinal de {@link CheckResult.CheckStatus}
+     */
+    public byte[] getStatuses() {
+        return statuses;
+    }
+    
+    /**
+     * @return Les temps de réponse en millisecondes ({@link #NO_RESPONSE_TIME} si inconnu)
+     */
+    public int[] getResponseTimesMillis() {
+        return responseTimesMillis;
+    }
+}
@@ -1,5 +1,7 @@
 package com.webguardian.core.entities;
 
+import com.webguardian.core.entities.converters.DurationMillisConverter;
+import com.webguardian.core.entities.converters.EpochMillisConverter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,25 +25,42 @@ public class CheckResult {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "site_id")
     private MonitoredSite site;
     
+    @Column(name = "checked_at")
+    @Convert(converter = EpochMillisConverter.class)
     private LocalDateTime timestamp;
     
+    @Column(name = "status_code")
     private Integer statusCode;
+    
+    @Column(name = "response_time_ms")
+    @Convert(converter = DurationMillisConverter.class)
     private Duration responseTime;
+    
+    @Column(name = "content_size")
     private long contentSize;
     
-    @Enumerated(EnumType.STRING)
+    // Les ordinaux sont persistés : ne pas réordonner les constantes des énumérations
+    @Enumerated(EnumType.ORDINAL)
     private CheckStatus status;
     
+    @Column(name = "content_check_passed")
     private boolean contentCheckPassed;
+    
+    @Column(name = "ssl_check_passed")
     private boolean sslCheckPassed;
     
+    // Message stocké une seule fois dans la table error_messages, résolu par le repository
+    @Transient
     private String errorMessage;
     
-    @Enumerated(EnumType.STRING)
+    @Column(name = "error_message_id")
+    private Long errorMessageId;
+    
+    @Enumerated(EnumType.ORDINAL)
     private AlertSeverity severity;
     
     public enum CheckStatus {
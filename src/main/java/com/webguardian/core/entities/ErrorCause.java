@@ -0,0 +1,23 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cause d'échec : une empreinte de message d'erreur (adresses, ports et nombres masqués)
+ * et ses occurrences sur une période
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorCause {
+    private Long errorMessageId;
+    private String fingerprint;
+    private long occurrences;
+    private LocalDateTime lastSeenAt;
+}
@@ -0,0 +1,38 @@
+package com.webguardian.core.entities;
+
+/**
+ * Format d'export de l'historique des vérifications (toujours compressé en gzip)
+ */
+public enum ExportFormat {
+    /** CSV avec en-tête, mêmes colonnes que les archives de rétention */
+    CSV("csv"),
+    /** Un objet JSON par ligne */
+    NDJSON("ndjson");
+    
+    private final String extension;
+    
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+    
+    /**
+     * @return L'extension du fichier exporté, compression comprise
+     */
+    public String getFileExtension() {
+        return extension + ".gz";
+    }
+    
+    /**
+     * Retrouve un format par son nom, sans tenir compte de la casse
+     * @param name Le nom du format (csv ou ndjson)
+     * @throws IllegalArgumentException si le format est inconnu
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Format d'export inconnu: " + name + " (csv ou ndjson)");
+    }
+}
@@ -0,0 +1,43 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Panne commune à plusieurs sites (même adresse IP, même réseau ou même domaine), notifiée en une seule fois
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Incident {
+    private long id;
+    
+    // Ressource partagée par les sites de l'incident, par exemple "adresse IP 203.0.113.7"
+    private String groupLabel;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime updatedAt;
+    
+    // Sites toujours en panne
+    @Builder.Default
+    private List<MonitoredSite> downSites = new ArrayList<>();
+    
+    // Sites de l'incident rétablis depuis son ouverture
+    @Builder.Default
+    private List<MonitoredSite> recoveredSites = new ArrayList<>();
+    
+    /**
+     * @return true si tous les sites de l'incident sont rétablis
+     */
+    public boolean isResolved() {
+        return downSites.isEmpty();
+    }
+}
@@ -1,10 +1,13 @@
 package com.webguardian.core.entities;
 
+import com.webguardian.core.entities.converters.SiteIdSetConverter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -15,7 +18,9 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Représente un site web à surveiller
@@ -51,6 +56,22 @@ public class MonitoredSite {
     @Builder.Default
     private boolean maintenanceMode = false;
     
+    // Ordre de vérification en cas de surcharge
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    private Priority priority = Priority.NORMAL;
+    
+    // Sites dont celui-ci dépend : leurs pannes suspendent ses alertes
+    @Builder.Default
+    @Convert(converter = SiteIdSetConverter.class)
+    private Set<Long> dependsOn = new LinkedHashSet<>();
+    
+    // Suppression logique : jamais écrit par une mise à jour du site, pour qu'une vérification
+    // en cours ne puisse pas faire réapparaître un site supprimé
+    @Builder.Default
+    @Column(updatable = false)
+    private boolean deleted = false;
+    
     @Builder.Default
     @OneToMany(mappedBy = "site")
     private List<CheckResult> checkHistory = new ArrayList<>();
@@ -60,6 +81,17 @@ public class MonitoredSite {
         DOWN,
         DEGRADED,
         MAINTENANCE,
+        FLAPPING,
         UNKNOWN
     }
+    
+    /**
+     * Priorité de vérification, de la plus haute à la plus basse
+     */
+    public enum Priority {
+        CRITICAL,
+        HIGH,
+        NORMAL,
+        LOW
+    }
 }
@@ -0,0 +1,20 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Site supprimé dont l'historique est en cours de purge en arrière-plan
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingSiteDeletion {
+    private MonitoredSite site;
+    
+    // Résultats de vérification restant à supprimer
+    private long remainingCheckResults;
+}
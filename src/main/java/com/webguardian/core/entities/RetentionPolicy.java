@@ -0,0 +1,31 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Politique de rétention de l'historique des vérifications
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionPolicy {
+    // Durée de conservation des résultats bruts
+    @Builder.Default
+    private int rawRetentionDays = 30;
+    
+    // Durée de conservation des agrégats horaires
+    @Builder.Default
+    private int rollupRetentionDays = 365;
+    
+    // Nombre maximal de lignes supprimées par transaction
+    @Builder.Default
+    private int chunkSize = 1000;
+    
+    // Pause entre deux lots, pour laisser passer les écritures des vérifications
+    @Builder.Default
+    private long pauseBetweenChunksMillis = 100;
+}
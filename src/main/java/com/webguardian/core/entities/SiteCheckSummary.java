@@ -0,0 +1,57 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistiques agrégées des vérifications d'un site sur une période
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SiteCheckSummary {
+    private Long siteId;
+    private long totalChecks;
+    private long successChecks;
+    private long incidents;
+    
+    // Nombre de temps de réponse connus, et leur moyenne en millisecondes
+    private long responseTimeSamples;
+    private double averageResponseTimeMillis;
+    
+    /**
+     * Calcule le taux de disponibilité sur la période
+     * @return Le pourcentage de vérifications réussies, 0 si aucune vérification
+     */
+    public double getUptimePercentage() {
+        if (totalChecks == 0) {
+            return 0.0;
+        }
+        return (double) successChecks / totalChecks * 100.0;
+    }
+    
+    /**
+     * Combine ces statistiques avec celles d'une autre source sur la même période
+     * @param other Les statistiques à ajouter
+     * @return Les statistiques cumulées
+     */
+    public SiteCheckSummary plus(SiteCheckSummary other) {
+        long samples = responseTimeSamples + other.responseTimeSamples;
+        double average = samples > 0
+                ? (averageResponseTimeMillis * responseTimeSamples
+                        + other.averageResponseTimeMillis * other.responseTimeSamples) / samples
+                : 0.0;
+        
+        return SiteCheckSummary.builder()
+                .siteId(siteId)
+                .totalChecks(totalChecks + other.totalChecks)
+                .successChecks(successChecks + other.successChecks)
+                .incidents(incidents + other.incidents)
+                .responseTimeSamples(samples)
+                .averageResponseTimeMillis(average)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page de sites surveillés, obtenue par pagination par clé sur l'ID
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SitePage {
+    // Sites de la page, par ordre d'ID croissant
+    @Builder.Default
+    private List<MonitoredSite> sites = new ArrayList<>();
+    
+    // Dernier état connu des sites de la page, indexé par ID de site
+    @Builder.Default
+    private Map<Long, SiteState> states = new HashMap<>();
+    
+    // Filtre de statut appliqué (null pour tous les sites)
+    private MonitoredSite.SiteStatus status;
+    
+    // Curseurs des pages voisines : ID avant lequel finit la page précédente et
+    // ID après lequel commence la page suivante, null s'il n'y a pas de page
+    private Long previousCursor;
+    private Long nextCursor;
+}
@@ -0,0 +1,36 @@
+package com.webguardian.core.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dernier état connu d'un site, tenu à jour à chaque enregistrement d'un résultat de vérification.
+ * Permet de connaître l'état courant de tous les sites sans parcourir l'historique.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SiteState {
+    private Long siteId;
+    
+    // Dernier résultat de vérification
+    private LocalDateTime lastCheckedAt;
+    private CheckResult.CheckStatus lastStatus;
+    private Integer lastStatusCode;
+    private Long lastResponseTimeMillis;
+    
+    // Dernière vérification réussie, et dernier échec (tout statut autre que SUCCESS)
+    private LocalDateTime lastSuccessAt;
+    private LocalDateTime lastFailureAt;
+    
+    // Nombre d'échecs depuis la dernière vérification réussie
+    private int consecutiveFailures;
+    
+    // Date du dernier changement de statut de vérification
+    private LocalDateTime lastTransitionAt;
+}
@@ -0,0 +1,23 @@
+package com.webguardian.core.entities.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.Duration;
+
+/**
+ * Stocke une durée sous forme d'un nombre entier de millisecondes
+ */
+@Converter
+public class DurationMillisConverter implements AttributeConverter<Duration, Integer> {
+    
+    @Override
+    public Integer convertToDatabaseColumn(Duration duration) {
+        return duration != null ? (int) Math.min(duration.toMillis(), Integer.MAX_VALUE) : null;
+    }
+    
+    @Override
+    public Duration convertToEntityAttribute(Integer millis) {
+        return millis != null ? Duration.ofMillis(millis) : null;
+    }
+}
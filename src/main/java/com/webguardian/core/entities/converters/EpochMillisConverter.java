@@ -0,0 +1,39 @@
+package com.webguardian.core.entities.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Stocke une date locale sous forme de millisecondes depuis l'epoch (fuseau du système)
+ */
+@Converter
+public class EpochMillisConverter implements AttributeConverter<LocalDateTime, Long> {
+    
+    @Override
+    public Long convertToDatabaseColumn(LocalDateTime dateTime) {
+        return dateTime != null ? toEpochMillis(dateTime) : null;
+    }
+    
+    @Override
+    public LocalDateTime convertToEntityAttribute(Long epochMillis) {
+        return epochMillis != null ? toLocalDateTime(epochMillis) : null;
+    }
+    
+    /**
+     * Convertit une date locale en millisecondes depuis l'epoch
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Convertit des millisecondes depuis l'epoch en date locale
+     */
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
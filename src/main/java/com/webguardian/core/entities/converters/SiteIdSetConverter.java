@@ -0,0 +1,44 @@
+package com.webguardian.core.entities.converters;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Stocke un ensemble d'identifiants de sites sous forme de liste séparée par des virgules ("3,7,12")
+ */
+@Converter
+public class SiteIdSetConverter implements AttributeConverter<Set<Long>, String> {
+    
+    @Override
+    public String convertToDatabaseColumn(Set<Long> siteIds) {
+        if (siteIds == null || siteIds.isEmpty()) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (Long siteId : siteIds) {
+            if (value.length() > 0) {
+                value.append(',');
+            }
+            value.append(siteId);
+        }
+        return value.toString();
+    }
+    
+    @Override
+    public Set<Long> convertToEntityAttribute(String value) {
+        Set<Long> siteIds = new LinkedHashSet<>();
+        if (value == null) {
+            return siteIds;
+        }
+        for (String part : value.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                siteIds.add(Long.valueOf(trimmed));
+            }
+        }
+        return siteIds;
+    }
+}
@@ -0,0 +1,94 @@
+package com.webguardian.core.ports;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteState;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface asynchrone pour la persistance des données, compagnon de {@link SiteRepositoryPort}.
+ * Les opérations sont exécutées par un pool dédié à la base : le thread appelant (vérification réseau,
+ * événement Discord, tâche planifiée) n'attend jamais la base. Une opération refusée parce que le pool
+ * est saturé, ou qui échoue, se termine en exception.
+ */
+public interface AsyncSiteRepositoryPort {
+    /**
+     * Sauvegarde un site à surveiller. La sauvegarde est écrite avec les mises à jour de statut,
+     * dans l'ordre des demandes : elle n'écrase pas un statut demandé après elle.
+     * @param site Le site à sauvegarder
+     * @return Le site sauvegardé avec son ID
+     */
+    CompletableFuture<MonitoredSite> save(MonitoredSite site);
+    
+    /**
+     * Met à jour le statut d'un site. Les mises à jour en attente sont écrites par lots avec les résultats de vérification ;
+     * seule la dernière d'un même site est écrite.
+     * @param siteId L'ID du site
+     * @param status Le nouveau statut
+     */
+    CompletableFuture<Void> updateStatus(Long siteId, MonitoredSite.SiteStatus status);
+    
+    /**
+     * Supprime logiquement un site
+     * @param siteId L'ID du site à supprimer
+     */
+    CompletableFuture<Void> delete(Long siteId);
+    
+    /**
+     * Récupère les sites supprimés logiquement dont la purge n'est pas terminée
+     */
+    CompletableFuture<List<MonitoredSite>> findDeleted();
+    
+    /**
+     * Compte les résultats de vérification d'un site encore présents en base
+     * @param siteId L'ID du site
+     */
+    CompletableFuture<Long> countCheckResults(Long siteId);
+    
+    /**
+     * Récupère un site par son ID
+     * @param siteId L'ID du site à récupérer
+     */
+    CompletableFuture<Optional<MonitoredSite>> findById(Long siteId);
+    
+    /**
+     * Récupère un site par son URL
+     * @param url L'URL du site à récupérer
+     */
+    CompletableFuture<Optional<MonitoredSite>> findByUrl(String url);
+    
+    /**
+     * Récupère tous les sites à surveiller
+     */
+    CompletableFuture<List<MonitoredSite>> findAll();
+    
+    /**
+     * Récupère une page de sites par pagination par clé
+     * @see SiteRepositoryPort#findPageAfter(Long, int, MonitoredSite.SiteStatus)
+     */
+    CompletableFuture<List<MonitoredSite>> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status);
+    
+    /**
+     * Récupère la page de sites qui précède un ID
+     * @see SiteRepositoryPort#findPageBefore(Long, int, MonitoredSite.SiteStatus)
+     */
+    CompletableFuture<List<MonitoredSite>> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status);
+    
+    /**
+     * Sauvegarde un résultat de vérification. Les résultats en attente sont écrits par lots, dans leur ordre d'arrivée.
+     * @param checkResult Le résultat à sauvegarder
+     * @return Le résultat sauvegardé
+     */
+    CompletableFuture<CheckResult> saveCheckResult(CheckResult checkResult);
+    
+    /**
+     * Récupère le dernier état connu de quelques sites
+     * @param siteIds Les IDs des sites
+     */
+    CompletableFuture<Map<Long, SiteState>> getSiteStates(Collection<Long> siteIds);
+}
@@ -0,0 +1,18 @@
+package com.webguardian.core.ports;
+
+import com.webguardian.core.entities.CheckResult;
+
+import java.util.List;
+
+/**
+ * Interface pour l'archivage des résultats de vérification expirés
+ */
+public interface CheckResultArchivePort {
+    /**
+     * Archive un lot de résultats avant leur suppression de la base.
+     * Une exception annule la suppression du lot. Si la suppression échoue après l'archivage, le même lot
+     * est archivé de nouveau : archiver deux fois les mêmes ID ne doit pas dupliquer les résultats.
+     * @param results Les résultats à archiver
+     */
+    void archive(List<CheckResult> results);
+}
@@ -0,0 +1,32 @@
+package com.webguardian.core.ports;
+
+import com.webguardian.core.entities.ExportFormat;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Interface pour l'export de l'historique brut des vérifications. Les résultats sont lus par un curseur
+ * en avant seulement et écrits au fil de l'eau : la mémoire utilisée ne dépend pas de la période exportée.
+ */
+public interface CheckResultExportPort {
+    /**
+     * Exporte l'historique dans un flux, compressé en gzip. Le flux n'est pas fermé.
+     * @param siteId L'ID du site (null pour tous les sites, par ordre d'ID)
+     * @param from Date de début
+     * @param to Date de fin
+     * @param format Le format des lignes
+     * @param out Le flux de destination
+     * @return Le nombre de résultats exportés
+     */
+    long export(Long siteId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out);
+    
+    /**
+     * Exporte l'historique dans un fichier, compressé en gzip. Le fichier n'apparaît qu'une fois l'export terminé.
+     * @param file Le fichier de destination (remplacé s'il existe)
+     * @return Le nombre de résultats exportés
+     * @see #export(Long, LocalDateTime, LocalDateTime, ExportFormat, OutputStream)
+     */
+    long export(Long siteId, LocalDateTime from, LocalDateTime to, ExportFormat format, Path file);
+}
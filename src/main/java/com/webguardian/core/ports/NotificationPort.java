@@ -1,6 +1,7 @@
 package com.webguardian.core.ports;
 
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.Incident;
 import com.webguardian.core.entities.MonitoredSite;
 
 /**
@@ -30,4 +31,28 @@ public interface NotificationPort {
      * @return true si le rapport a été envoyé avec succès, false sinon
      */
     boolean sendReport(String reportContent, String reportType);
+    
+    /**
+     * Envoie une alerte concernant WebGuardian lui-même (surcharge, dégradation du service, etc.)
+     * @param title Le titre de l'alerte
+     * @param message Le détail de l'alerte
+     * @return true si l'alerte a été envoyée avec succès, false sinon
+     */
+    boolean sendSystemAlert(String title, String message);
+    
+    /**
+     * Envoie la notification d'un incident regroupant plusieurs sites, à son ouverture, à chaque
+     * évolution (sites en panne ou rétablis) et à sa résolution ; les canaux qui le permettent
+     * mettent à jour la notification précédente du même incident
+     * @param incident L'incident
+     * @return true si la notification a été envoyée avec succès, false sinon
+     */
+    boolean sendIncidentNotification(Incident incident);
+    
+    /**
+     * Signale qu'un site n'est plus surveillé (supprimé ou mis en maintenance) : aucune récupération
+     * ne suivra ses alertes passées, les incidents qui le comptent en panne doivent l'oublier
+     * @param site Le site concerné
+     */
+    void withdrawSite(MonitoredSite site);
 }
@@ -1,11 +1,18 @@
 package com.webguardian.core.ports;
 
+import com.webguardian.core.entities.CheckHistoryColumns;
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ErrorCause;
 import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteCheckSummary;
+import com.webguardian.core.entities.SiteState;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interface pour la persistance des données
@@ -19,11 +26,48 @@ public interface SiteRepositoryPort {
     MonitoredSite save(MonitoredSite site);
     
     /**
-     * Supprime un site
+     * Sauvegarde plusieurs sites dans une seule transaction
+     * @param sites Les sites à sauvegarder
+     * @return Les sites sauvegardés avec leur ID, dans l'ordre reçu
+     */
+    List<MonitoredSite> saveAll(List<MonitoredSite> sites);
+    
+    /**
+     * Met à jour le statut de plusieurs sites dans une seule transaction, sans relire ni réécrire leur configuration
+     * @param statuses Le nouveau statut indexé par ID de site
+     * @return Le nombre de sites mis à jour (les sites supprimés sont ignorés)
+     */
+    int updateStatuses(Map<Long, MonitoredSite.SiteStatus> statuses);
+    
+    /**
+     * Supprime logiquement un site : il n'est plus retourné par les recherches ni vérifié.
+     * Son historique est purgé ensuite par lots via {@link #purgeDeletedSite(Long, int)}.
      * @param siteId L'ID du site à supprimer
      */
     void delete(Long siteId);
     
+    /**
+     * Récupère les sites supprimés logiquement dont la purge n'est pas terminée
+     * @return La liste des sites supprimés
+     */
+    List<MonitoredSite> findDeleted();
+    
+    /**
+     * Compte les résultats de vérification d'un site encore présents en base
+     * @param siteId L'ID du site
+     * @return Le nombre de résultats
+     */
+    long countCheckResults(Long siteId);
+    
+    /**
+     * Supprime un lot de l'historique d'un site supprimé logiquement (résultats, puis agrégats).
+     * Lorsque l'historique est vide, le site lui-même est supprimé définitivement.
+     * @param siteId L'ID du site supprimé
+     * @param maxRows Nombre maximal de lignes supprimées
+     * @return Le nombre de lignes d'historique supprimées, 0 lorsque la purge du site est terminée
+     */
+    int purgeDeletedSite(Long siteId, int maxRows);
+    
     /**
      * Récupère un site par son ID
      * @param siteId L'ID du site à récupérer
@@ -38,6 +82,13 @@ public interface SiteRepositoryPort {
      */
     Optional<MonitoredSite> findByUrl(String url);
     
+    /**
+     * Récupère plusieurs sites par leur ID
+     * @param siteIds Les IDs des sites
+     * @return Les sites trouvés par ordre d'ID croissant (les sites inconnus ou supprimés sont absents)
+     */
+    List<MonitoredSite> findAllByIds(Collection<Long> siteIds);
+    
     /**
      * Récupère tous les sites à surveiller
      * @return La liste des sites
@@ -45,12 +96,37 @@ public interface SiteRepositoryPort {
     List<MonitoredSite> findAll();
     
     /**
-     * Sauvegarde un résultat de vérification
+     * Récupère une page de sites par pagination par clé : seuls les sites de la page sont lus
+     * @param afterId ID après lequel commence la page (null pour la première page)
+     * @param limit Nombre maximal de sites
+     * @param status Statut des sites à retourner (null pour tous)
+     * @return Les sites par ordre d'ID croissant
+     */
+    List<MonitoredSite> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status);
+    
+    /**
+     * Récupère la page de sites qui précède un ID, par pagination par clé
+     * @param beforeId ID avant lequel finit la page
+     * @param limit Nombre maximal de sites
+     * @param status Statut des sites à retourner (null pour tous)
+     * @return Les sites par ordre d'ID croissant
+     */
+    List<MonitoredSite> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status);
+    
+    /**
+     * Sauvegarde un résultat de vérification et met à jour le dernier état connu du site
      * @param checkResult Le résultat à sauvegarder
      * @return Le résultat sauvegardé avec son ID
      */
     CheckResult saveCheckResult(CheckResult checkResult);
     
+    /**
+     * Sauvegarde plusieurs résultats de vérification dans une seule transaction, avec le dernier état de leurs sites
+     * @param checkResults Les résultats à sauvegarder, dans leur ordre de vérification
+     * @return Les résultats sauvegardés avec leur ID
+     */
+    List<CheckResult> saveCheckResults(List<CheckResult> checkResults);
+    
     /**
      * Récupère l'historique des vérifications pour un site
      * @param siteId L'ID du site
@@ -59,4 +135,78 @@ public interface SiteRepositoryPort {
      * @return La liste des résultats de vérification pour la période
      */
     List<CheckResult> getCheckHistory(Long siteId, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Parcourt l'historique des vérifications d'un site sans le charger entièrement en mémoire.
+     * Les résultats sont fournis un par un, dans l'ordre chronologique, via un curseur en lecture seule.
+     * @param siteId L'ID du site
+     * @param from Date de début
+     * @param to Date de fin
+     * @param consumer Traitement appliqué à chaque résultat de la période
+     */
+    void forEachCheckResult(Long siteId, LocalDateTime from, LocalDateTime to, Consumer<CheckResult> consumer);
+    
+    /**
+     * Parcourt l'historique d'un site par lots de colonnes primitives (horodatage, statut, temps de réponse),
+     * pour les calculs statistiques : la mémoire utilisée est celle d'un lot, quel que soit le volume de la période.
+     * Le lot fourni est réutilisé pour le suivant : le traitement ne doit pas le conserver.
+     * @param siteId L'ID du site
+     * @param from Date de début
+     * @param to Date de fin
+     * @param consumer Traitement appliqué à chaque lot non vide
+     */
+    void forEachCheckHistoryBatch(Long siteId, LocalDateTime from, LocalDateTime to,
+                                  Consumer<CheckHistoryColumns> consumer);
+    
+    /**
+     * Calcule en une seule requête les statistiques de vérification de tous les sites.
+     * Les périodes dont les résultats bruts ont expiré sont couvertes par les agrégats horaires.
+     * @param from Date de début
+     * @param to Date de fin
+     * @return Les statistiques indexées par ID de site (les sites sans vérification sont absents)
+     */
+    Map<Long, SiteCheckSummary> getCheckSummaries(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Classe les principales causes d'échec d'une période, à partir des compteurs horaires
+     * par empreinte de message d'erreur (sans parcourir les résultats bruts)
+     * @param from Date de début (la tranche horaire qui la contient est incluse)
+     * @param to Date de fin
+     * @param limit Nombre maximal de causes
+     * @return Les causes par nombre d'occurrences décroissant
+     */
+    List<ErrorCause> getTopErrorCauses(LocalDateTime from, LocalDateTime to, int limit);
+    
+    /**
+     * Récupère le dernier état connu de tous les sites, tenu à jour à chaque résultat enregistré
+     * @return Les états indexés par ID de site (les sites jamais vérifiés sont absents)
+     */
+    Map<Long, SiteState> getSiteStates();
+    
+    /**
+     * Récupère le dernier état connu de quelques sites
+     * @param siteIds Les IDs des sites
+     * @return Les états indexés par ID de site (les sites jamais vérifiés sont absents)
+     */
+    Map<Long, SiteState> getSiteStates(Collection<Long> siteIds);
+    
+    /**
+     * Supprime un lot de résultats de vérification antérieurs à une date, par ordre d'ID croissant.
+     * Les résultats supprimés sont cumulés dans les agrégats horaires dans la même transaction.
+     * @param before Date limite (exclue)
+     * @param maxRows Taille indicative du lot (un stockage par segments supprime un segment entier)
+     * @param archiver Traitement appliqué au lot avant suppression (null si aucun), hors de la transaction de
+     *                 suppression ; une exception annule le lot. Un lot dont la suppression échoue est de nouveau
+     *                 archivé à la tentative suivante : l'archivage doit être idempotent pour une même plage d'ID
+     * @return Le nombre de résultats supprimés, 0 lorsqu'il n'en reste plus
+     */
+    int purgeCheckResultsBefore(LocalDateTime before, int maxRows, Consumer<List<CheckResult>> archiver);
+    
+    /**
+     * Supprime un lot d'agrégats horaires (y compris les compteurs de causes d'échec) antérieurs à une date
+     * @param before Date limite (exclue)
+     * @param maxRows Nombre maximal d'agrégats supprimés
+     * @return Le nombre d'agrégats supprimés, 0 lorsqu'il n'en reste plus
+     */
+    int purgeRollupsBefore(LocalDateTime before, int maxRows);
 }
@@ -0,0 +1,99 @@
+package com.webguardian.core.usecases;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteState;
+import com.webguardian.core.ports.AsyncSiteRepositoryPort;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Adaptateur qui exécute les opérations asynchrones dans le thread appelant, lorsqu'aucun pool
+ * dédié à la base n'est configuré : les futures retournées sont déjà terminées.
+ */
+@RequiredArgsConstructor
+class DirectAsyncSiteRepository implements AsyncSiteRepositoryPort {
+    private final SiteRepositoryPort siteRepository;
+    
+    @Override
+    public CompletableFuture<MonitoredSite> save(MonitoredSite site) {
+        return run(() -> siteRepository.save(site));
+    }
+    
+    @Override
+    public CompletableFuture<Void> updateStatus(Long siteId, MonitoredSite.SiteStatus status) {
+        return run(() -> {
+            siteRepository.updateStatuses(Collections.singletonMap(siteId, status));
+            return null;
+        });
+    }
+    
+    @Override
+    public CompletableFuture<Void> delete(Long siteId) {
+        return run(() -> {
+            siteRepository.delete(siteId);
+            return null;
+        });
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findDeleted() {
+        return run(siteRepository::findDeleted);
+    }
+    
+    @Override
+    public CompletableFuture<Long> countCheckResults(Long siteId) {
+        return run(() -> siteRepository.countCheckResults(siteId));
+    }
+    
+    @Override
+    public CompletableFuture<Optional<MonitoredSite>> findById(Long siteId) {
+        return run(() -> siteRepository.findById(siteId));
+    }
+    
+    @Override
+    public CompletableFuture<Optional<MonitoredSite>> findByUrl(String url) {
+        return run(() -> siteRepository.findByUrl(url));
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findAll() {
+        return run(siteRepository::findAll);
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status) {
+        return run(() -> siteRepository.findPageAfter(afterId, limit, status));
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status) {
+        return run(() -> siteRepository.findPageBefore(beforeId, limit, status));
+    }
+    
+    @Override
+    public CompletableFuture<CheckResult> saveCheckResult(CheckResult checkResult) {
+        return run(() -> siteRepository.saveCheckResult(checkResult));
+    }
+    
+    @Override
+    public CompletableFuture<Map<Long, SiteState>> getSiteStates(Collection<Long> siteIds) {
+        return run(() -> siteRepository.getSiteStates(siteIds));
+    }
+    
+    private static <T> CompletableFuture<T> run(Supplier<T> operation) {
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -1,46 +1,159 @@
 package com.webguardian.core.usecases;
 
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ErrorCause;
 import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.PendingSiteDeletion;
+import com.webguardian.core.entities.SiteCheckSummary;
+import com.webguardian.core.entities.SitePage;
+import com.webguardian.core.entities.SiteState;
+import com.webguardian.core.ports.AsyncSiteRepositoryPort;
 import com.webguardian.core.ports.NotificationPort;
 import com.webguardian.core.ports.SiteCheckerPort;
 import com.webguardian.core.ports.SiteRepositoryPort;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service principal pour la surveillance des sites
  */
 @Slf4j
-@RequiredArgsConstructor
 public class MonitoringService {
+    private static final DateTimeFormatter REPORT_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int REPORT_TOP_ERROR_CAUSES = 10;
+    private static final int ACTOR_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    
     private final SiteCheckerPort siteChecker;
     private final SiteRepositoryPort siteRepository;
     private final NotificationPort notificationService;
+    private final AsyncSiteRepositoryPort asyncRepository;
+    private final StatusTransitionSettings transitions;
+    private final int childCheckBackoff;
     private final ExecutorService executorService = Executors.newFixedThreadPool(10);
     
+    // Transitions d'état des sites, appliquées par l'acteur de chaque site
+    private final SiteActors siteActors = new SiteActors(newActorExecutor());
+    
+    // Dépendances entre sites : la panne d'un parent suspend les alertes de ses descendants
+    private final SiteDependencies dependencies = new SiteDependencies();
+    
+    /**
+     * Service dont les accès à la base sont faits dans le thread appelant
+     */
+    public MonitoringService(SiteCheckerPort siteChecker, SiteRepositoryPort siteRepository,
+                             NotificationPort notificationService) {
+        this(siteChecker, siteRepository, notificationService, new DirectAsyncSiteRepository(siteRepository));
+    }
+    
+    /**
+     * Service dont les accès à la base sont faits par un pool dédié
+     * @param asyncRepository Accès asynchrone au même stockage que siteRepository
+     */
+    public MonitoringService(SiteCheckerPort siteChecker, SiteRepositoryPort siteRepository,
+                             NotificationPort notificationService, AsyncSiteRepositoryPort asyncRepository) {
+        this(siteChecker, siteRepository, notificationService, asyncRepository, StatusTransitionSettings.builder().build());
+    }
+    
+    /**
+     * Service dont les changements d'état suivent des règles N-de-M et la détection des sites instables
+     * @param transitions Règles de changement d'état
+     */
+    public MonitoringService(SiteCheckerPort siteChecker, SiteRepositoryPort siteRepository,
+                             NotificationPort notificationService, AsyncSiteRepositoryPort asyncRepository,
+                             StatusTransitionSettings transitions) {
+        this(siteChecker, siteRepository, notificationService, asyncRepository, transitions, 1);
+    }
+    
+    /**
+     * Service dont les vérifications des sites sont espacées tant qu'un site dont ils dépendent est en panne
+     * @param childCheckBackoff Une vérification sur childCheckBackoff est faite pendant la panne d'un parent
+     *                          (1 : aucune n'est sautée)
+     */
+    public MonitoringService(SiteCheckerPort siteChecker, SiteRepositoryPort siteRepository,
+                             NotificationPort notificationService, AsyncSiteRepositoryPort asyncRepository,
+                             StatusTransitionSettings transitions, int childCheckBackoff) {
+        this.siteChecker = siteChecker;
+        this.siteRepository = siteRepository;
+        this.notificationService = notificationService;
+        this.asyncRepository = asyncRepository;
+        this.transitions = transitions;
+        this.childCheckBackoff = childCheckBackoff;
+    }
+    
+    /**
+     * Charge le graphe des dépendances et le statut des sites au démarrage.
+     * Les dépendances invalides (cycle) sont ignorées.
+     * @param sites Les sites surveillés
+     */
+    public void loadDependencies(List<MonitoredSite> sites) {
+        for (MonitoredSite site : sites) {
+            dependencies.publishStatus(site.getId(), site.getCurrentStatus());
+        }
+        for (MonitoredSite site : sites) {
+            if (site.getDependsOn() == null || site.getDependsOn().isEmpty()) {
+                continue;
+            }
+            try {
+                dependencies.setParents(site.getId(), site.getDependsOn());
+            } catch (IllegalArgumentException e) {
+                log.warn("Dépendances de {} ignorées: {}", site.getUrl(), e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Ajoute un nouveau site à surveiller
      * @param site Le site à ajouter
      * @return Le site ajouté avec son ID
      */
     public MonitoredSite addSite(MonitoredSite site) {
-        Optional<MonitoredSite> existing = siteRepository.findByUrl(site.getUrl());
+        return await(addSiteAsync(site));
+    }
+    
+    /**
+     * Ajoute un nouveau site à surveiller, sans bloquer le thread appelant
+     * @param site Le site à ajouter
+     * @return Le site ajouté avec son ID ; IllegalArgumentException si l'URL est déjà surveillée
+     */
+    public CompletableFuture<MonitoredSite> addSiteAsync(MonitoredSite site) {
+        return asyncRepository.findByUrl(site.getUrl())
+                .thenCompose(existing -> saveNewSite(site, existing))
+                .thenApply(this::startMonitoring);
+    }
+    
+    private CompletableFuture<MonitoredSite> saveNewSite(MonitoredSite site, Optional<MonitoredSite> existing) {
         if (existing.isPresent()) {
             throw new IllegalArgumentException("Un site avec cette URL existe déjà: " + site.getUrl());
         }
         
         site.setCurrentStatus(MonitoredSite.SiteStatus.UNKNOWN);
-        MonitoredSite savedSite = siteRepository.save(site);
+        return asyncRepository.save(site);
+    }
+    
+    /**
+     * Inscrit un site ajouté dans le graphe des dépendances et lance sa première vérification
+     */
+    private MonitoredSite startMonitoring(MonitoredSite savedSite) {
+        dependencies.publishStatus(savedSite.getId(), savedSite.getCurrentStatus());
+        if (savedSite.getDependsOn() != null && !savedSite.getDependsOn().isEmpty()) {
+            dependencies.setParents(savedSite.getId(), savedSite.getDependsOn());
+        }
         
         // Effectue une première vérification
         CompletableFuture.runAsync(() -> checkSite(savedSite), executorService);
@@ -49,18 +162,184 @@ public class MonitoringService {
     }
     
     /**
-     * Supprime un site de la surveillance
+     * Enregistre les modifications de configuration d'un site existant, sans bloquer le thread appelant
+     * @param site Le site modifié
+     * @return Le site enregistré
+     */
+    public CompletableFuture<MonitoredSite> updateSiteAsync(MonitoredSite site) {
+        // Statut et mode maintenance repris de l'acteur : une instance lue avant une transition ne l'annule pas
+        return siteActors.ask(site.getId(), state -> {
+            state.seed(site);
+            site.setCurrentStatus(state.getStatus());
+            site.setMaintenanceMode(state.isMaintenance());
+            return asyncRepository.save(site);
+        }).thenCompose(save -> save);
+    }
+    
+    /**
+     * Supprime un site de la surveillance. Le site est masqué immédiatement ;
+     * son historique est purgé ensuite en arrière-plan.
      * @param url L'URL du site à supprimer
      * @return true si le site a été supprimé, false sinon
      */
     public boolean removeSite(String url) {
-        Optional<MonitoredSite> site = siteRepository.findByUrl(url);
+        return await(removeSiteAsync(url));
+    }
+    
+    /**
+     * Supprime un site de la surveillance, sans bloquer le thread appelant
+     * @param url L'URL du site à supprimer
+     * @return true si le site a été supprimé, false s'il n'existe pas
+     */
+    public CompletableFuture<Boolean> removeSiteAsync(String url) {
+        return asyncRepository.findByUrl(url).thenCompose(this::deleteSite);
+    }
+    
+    private CompletableFuture<Boolean> deleteSite(Optional<MonitoredSite> site) {
         if (site.isEmpty()) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         
-        siteRepository.delete(site.get().getId());
-        return true;
+        Long siteId = site.get().getId();
+        return asyncRepository.delete(siteId).thenApply(ignored -> {
+            // Les descendants ne dépendent plus de ce site : leurs alertes suspendues partent s'ils sont toujours en panne
+            Set<Long> descendants = dependencies.descendantsOf(siteId);
+            siteActors.remove(siteId);
+            dependencies.remove(siteId);
+            releaseSuppressedAlerts(descendants);
+            notificationService.withdrawSite(site.get());
+            return true;
+        });
+    }
+    
+    /**
+     * Récupère les sites supprimés dont l'historique n'est pas encore entièrement purgé
+     * @return Les suppressions en cours, avec le nombre de résultats restant à supprimer
+     */
+    public List<PendingSiteDeletion> getPendingDeletions() {
+        return await(getPendingDeletionsAsync());
+    }
+    
+    /**
+     * Récupère les suppressions en cours, sans bloquer le thread appelant
+     * @return Les suppressions en cours, avec le nombre de résultats restant à supprimer
+     */
+    public CompletableFuture<List<PendingSiteDeletion>> getPendingDeletionsAsync() {
+        return asyncRepository.findDeleted().thenCompose(sites -> {
+            List<CompletableFuture<PendingSiteDeletion>> deletions = new ArrayList<>(sites.size());
+            for (MonitoredSite site : sites) {
+                deletions.add(asyncRepository.countCheckResults(site.getId())
+                        .thenApply(remaining -> PendingSiteDeletion.builder()
+                                .site(site)
+                                .remainingCheckResults(remaining)
+                                .build()));
+            }
+            
+            return CompletableFuture.allOf(deletions.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(ignored -> {
+                        List<PendingSiteDeletion> result = new ArrayList<>(deletions.size());
+                        for (CompletableFuture<PendingSiteDeletion> deletion : deletions) {
+                            result.add(deletion.join());
+                        }
+                        return result;
+                    });
+        });
+    }
+    
+    /**
+     * Récupère la page de sites qui suit un ID
+     * @param afterId ID après lequel commence la page (null pour la première page)
+     * @param pageSize Nombre de sites par page
+     * @param status Statut des sites à lister (null pour tous)
+     * @return La page, avec les curseurs des pages voisines
+     */
+    public SitePage getSitesAfter(Long afterId, int pageSize, MonitoredSite.SiteStatus status) {
+        return await(getSitesAfterAsync(afterId, pageSize, status));
+    }
+    
+    /**
+     * Récupère la page de sites qui suit un ID, sans bloquer le thread appelant
+     * @see #getSitesAfter(Long, int, MonitoredSite.SiteStatus)
+     */
+    public CompletableFuture<SitePage> getSitesAfterAsync(Long afterId, int pageSize, MonitoredSite.SiteStatus status) {
+        // Un site de plus que la page indique s'il existe une page suivante
+        return asyncRepository.findPageAfter(afterId, pageSize + 1, status)
+                .thenCompose(found -> getSiteStatesAsync(found)
+                        .thenApply(states -> pageAfter(afterId, pageSize, status, found, states)));
+    }
+    
+    private SitePage pageAfter(Long afterId, int pageSize, MonitoredSite.SiteStatus status,
+                               List<MonitoredSite> sites, Map<Long, SiteState> states) {
+        boolean hasNext = sites.size() > pageSize;
+        if (hasNext) {
+            sites = new ArrayList<>(sites.subList(0, pageSize));
+        }
+        
+        return SitePage.builder()
+                .sites(sites)
+                .states(states)
+                .status(status)
+                .previousCursor(afterId == null ? null : sites.isEmpty() ? afterId + 1 : sites.get(0).getId())
+                .nextCursor(hasNext ? sites.get(sites.size() - 1).getId() : null)
+                .build();
+    }
+    
+    /**
+     * Récupère la page de sites qui précède un ID
+     * @param beforeId ID avant lequel finit la page
+     * @param pageSize Nombre de sites par page
+     * @param status Statut des sites à lister (null pour tous)
+     * @return La page, avec les curseurs des pages voisines
+     */
+    public SitePage getSitesBefore(Long beforeId, int pageSize, MonitoredSite.SiteStatus status) {
+        return await(getSitesBeforeAsync(beforeId, pageSize, status));
+    }
+    
+    /**
+     * Récupère la page de sites qui précède un ID, sans bloquer le thread appelant
+     * @see #getSitesBefore(Long, int, MonitoredSite.SiteStatus)
+     */
+    public CompletableFuture<SitePage> getSitesBeforeAsync(Long beforeId, int pageSize, MonitoredSite.SiteStatus status) {
+        return asyncRepository.findPageBefore(beforeId, pageSize + 1, status).thenCompose(found -> {
+            if (found.isEmpty()) {
+                // Les sites précédents ont disparu entre-temps : retour à la première page
+                return getSitesAfterAsync(null, pageSize, status);
+            }
+            return getSiteStatesAsync(found).thenApply(states -> pageBefore(pageSize, status, found, states));
+        });
+    }
+    
+    private SitePage pageBefore(int pageSize, MonitoredSite.SiteStatus status,
+                                List<MonitoredSite> sites, Map<Long, SiteState> states) {
+        boolean hasPrevious = sites.size() > pageSize;
+        if (hasPrevious) {
+            sites = new ArrayList<>(sites.subList(1, sites.size()));
+        }
+        
+        return SitePage.builder()
+                .sites(sites)
+                .states(states)
+                .status(status)
+                .previousCursor(hasPrevious ? sites.get(0).getId() : null)
+                .nextCursor(sites.get(sites.size() - 1).getId())
+                .build();
+    }
+    
+    /**
+     * Récupère le dernier état connu de quelques sites, sans parcourir l'historique
+     * @param sites Les sites
+     * @return Les états indexés par ID de site (les sites jamais vérifiés sont absents)
+     */
+    public Map<Long, SiteState> getSiteStates(List<MonitoredSite> sites) {
+        return await(getSiteStatesAsync(sites));
+    }
+    
+    private CompletableFuture<Map<Long, SiteState>> getSiteStatesAsync(List<MonitoredSite> sites) {
+        List<Long> siteIds = new ArrayList<>(sites.size());
+        for (MonitoredSite site : sites) {
+            siteIds.add(site.getId());
+        }
+        return asyncRepository.getSiteStates(siteIds);
     }
     
     /**
@@ -71,18 +350,33 @@ public class MonitoringService {
         return siteRepository.findAll();
     }
     
+    /**
+     * Récupère un site par son URL, sans bloquer le thread appelant
+     * @param url L'URL du site
+     * @return Le site, ou empty si non trouvé
+     */
+    public CompletableFuture<Optional<MonitoredSite>> getSiteByUrlAsync(String url) {
+        return asyncRepository.findByUrl(url);
+    }
+    
     /**
      * Vérifie immédiatement un site
      * @param url L'URL du site à vérifier
      * @return Le résultat de la vérification, ou empty si le site n'existe pas
      */
     public Optional<CheckResult> checkSiteNow(String url) {
-        Optional<MonitoredSite> site = siteRepository.findByUrl(url);
-        if (site.isEmpty()) {
-            return Optional.empty();
-        }
-        
-        return Optional.of(checkSite(site.get()));
+        return await(checkSiteNowAsync(url));
+    }
+    
+    /**
+     * Vérifie immédiatement un site, sans bloquer le thread appelant : le site est lu par le pool
+     * de la base, puis vérifié par le pool de vérification
+     * @param url L'URL du site à vérifier
+     * @return Le résultat de la vérification, ou empty si le site n'existe pas
+     */
+    public CompletableFuture<Optional<CheckResult>> checkSiteNowAsync(String url) {
+        return asyncRepository.findByUrl(url)
+                .thenApplyAsync(site -> site.map(this::checkSite), executorService);
     }
     
     /**
@@ -106,45 +400,198 @@ public class MonitoringService {
         result.setSite(site);
         result.setTimestamp(LocalDateTime.now());
         
-        // Sauvegarde le résultat
-        siteRepository.saveCheckResult(result);
+        // Sauvegarde le résultat sans attendre la base : les écritures sont regroupées par lots
+        asyncRepository.saveCheckResult(result).exceptionally(e -> {
+            log.error("Résultat de vérification de {} non enregistré: {}", site.getUrl(), e.getMessage());
+            return null;
+        });
         
-        // Mise à jour du statut du site
-        MonitoredSite.SiteStatus previousStatus = site.getCurrentStatus();
-        MonitoredSite.SiteStatus newStatus;
+        // Le statut est modifié par l'acteur du site : les vérifications planifiées, immédiates et les
+        // changements de mode maintenance, chacun sur sa propre instance du site, ne se croisent jamais
+        MonitoredSite.SiteStatus status = await(siteActors.ask(site.getId(), state -> applyResult(state, site, result)));
+        site.setCurrentStatus(status);
         
-        switch (result.getStatus()) {
-            case SUCCESS:
-                newStatus = MonitoredSite.SiteStatus.UP;
-                break;
-            case FAILURE:
-                newStatus = MonitoredSite.SiteStatus.DOWN;
-                break;
-            case TIMEOUT:
-                newStatus = MonitoredSite.SiteStatus.DEGRADED;
-                break;
-            default:
-                newStatus = MonitoredSite.SiteStatus.UNKNOWN;
+        return result;
+    }
+    
+    /**
+     * Applique le résultat d'une vérification à l'état du site ; exécuté par l'acteur du site
+     * @return Le statut du site après le résultat
+     */
+    private MonitoredSite.SiteStatus applyResult(SiteActors.State state, MonitoredSite site, CheckResult result) {
+        state.seed(site);
+        if (state.isMaintenance()) {
+            log.debug("Site {} passé en maintenance pendant la vérification, résultat ignoré", site.getUrl());
+            return state.getStatus();
+        }
+        if (state.getLastResultAt() != null && result.getTimestamp().isBefore(state.getLastResultAt())) {
+            log.debug("Résultat de {} plus ancien que le dernier appliqué, ignoré", site.getUrl());
+            return state.getStatus();
         }
+        state.setLastResultAt(result.getTimestamp());
+        
+        MonitoredSite.SiteStatus observed = statusOf(result);
+        state.getOutcomes().record(observed == MonitoredSite.SiteStatus.UP, isFailing(observed));
+        
+        MonitoredSite.SiteStatus previousStatus = state.getStatus();
+        MonitoredSite.SiteStatus newStatus = nextStatus(state, observed);
         
         // Si le statut a changé, mise à jour et notification
         if (previousStatus != newStatus) {
+            state.setStatus(newStatus);
             site.setCurrentStatus(newStatus);
-            siteRepository.save(site);
+            asyncRepository.updateStatus(site.getId(), newStatus).exceptionally(e -> {
+                log.error("Statut de {} non enregistré: {}", site.getUrl(), e.getMessage());
+                return null;
+            });
+            dependencies.publishStatus(site.getId(), newStatus);
+            if (isRecovery(previousStatus, newStatus)) {
+                releaseDescendants(site.getId());
+            }
+            
+            if (newStatus == MonitoredSite.SiteStatus.FLAPPING) {
+                log.info("Site {} instable, notifications suspendues", site.getUrl());
+                return newStatus;
+            }
+            
+            // Au retour au calme, la notification est comparée au dernier statut annoncé
+            MonitoredSite.SiteStatus announced = previousStatus == MonitoredSite.SiteStatus.FLAPPING
+                    ? state.getSettledStatus() : previousStatus;
             
-            if (site.isNotifyOnIssue()) {
-                if (newStatus == MonitoredSite.SiteStatus.UP && 
-                    (previousStatus == MonitoredSite.SiteStatus.DOWN || previousStatus == MonitoredSite.SiteStatus.DEGRADED)) {
-                    // Site récupéré, envoyer une notification de récupération
-                    notificationService.sendRecoveryNotification(site, result);
-                } else if (newStatus == MonitoredSite.SiteStatus.DOWN || newStatus == MonitoredSite.SiteStatus.DEGRADED) {
-                    // Site dégradé, envoyer une alerte
-                    notificationService.sendAlert(site, result);
+            // Notifications envoyées par l'acteur : les alertes et récupérations d'un site partent dans l'ordre
+            if (site.isNotifyOnIssue() && announced != newStatus) {
+                if (newStatus == MonitoredSite.SiteStatus.UP && isFailing(announced)) {
+                    if (state.getSuppressedAlert() != null) {
+                        // L'alerte n'est jamais partie : la récupération non plus
+                        state.setSuppressedAlert(null);
+                    } else {
+                        // Site récupéré, envoyer une notification de récupération
+                        notificationService.sendRecoveryNotification(site, result);
+                    }
+                } else if (isFailing(newStatus)) {
+                    Long downParent = dependencies.downAncestorOf(site.getId());
+                    if (downParent != null) {
+                        // Panne probablement causée par un site dont il dépend : alerte gardée jusqu'à son retour
+                        log.info("Alerte de {} suspendue, le site {} dont il dépend est en panne", site.getUrl(), downParent);
+                        state.setSuppressedAlert(result);
+                    } else {
+                        // Site dégradé, envoyer une alerte
+                        state.setSuppressedAlert(null);
+                        notificationService.sendAlert(site, result);
+                    }
                 }
             }
         }
         
-        return result;
+        return newStatus;
+    }
+    
+    /**
+     * Au retour d'un site en panne ou en maintenance, envoie les alertes suspendues de ses descendants toujours en panne
+     * et dont plus aucun ancêtre n'est en panne.
+     */
+    private void releaseDescendants(Long siteId) {
+        releaseSuppressedAlerts(dependencies.descendantsOf(siteId));
+    }
+    
+    /**
+     * Envoie les alertes suspendues de quelques sites si elles ont toujours lieu d'être. Messages confiés
+     * aux acteurs de ces sites sans attendre : l'acteur appelant ne bloque jamais sur un autre acteur.
+     */
+    private void releaseSuppressedAlerts(Collection<Long> siteIds) {
+        for (Long childId : siteIds) {
+            siteActors.ask(childId, state -> releaseSuppressedAlert(state, childId)).exceptionally(e -> {
+                log.error("Alerte suspendue du site {} non traitée: {}", childId, e.getMessage());
+                return null;
+            });
+        }
+    }
+    
+    /**
+     * Envoie l'alerte suspendue d'un site si elle a toujours lieu d'être ; exécuté par l'acteur du site
+     */
+    private Void releaseSuppressedAlert(SiteActors.State state, Long siteId) {
+        CheckResult alert = state.getSuppressedAlert();
+        if (alert == null || !isFailing(state.getStatus()) || dependencies.downAncestorOf(siteId) != null) {
+            return null;
+        }
+        
+        state.setSuppressedAlert(null);
+        log.info("Site {} toujours en panne après le retour de ses dépendances, alerte envoyée", alert.getSite().getUrl());
+        notificationService.sendAlert(alert.getSite(), alert);
+        return null;
+    }
+    
+    /**
+     * Statut d'un site après un résultat : passage en FLAPPING si les résultats alternent trop souvent,
+     * sinon règles N-de-M appliquées au statut courant (au statut d'avant l'instabilité à sa sortie)
+     */
+    private MonitoredSite.SiteStatus nextStatus(SiteActors.State state, MonitoredSite.SiteStatus observed) {
+        OutcomeWindow outcomes = state.getOutcomes();
+        if (transitions.isFlapDetectionEnabled()) {
+            int changes = outcomes.changes(window(transitions.getFlapWindow()));
+            if (state.getStatus() == MonitoredSite.SiteStatus.FLAPPING) {
+                if (changes > transitions.getFlapLeaveChanges()) {
+                    return MonitoredSite.SiteStatus.FLAPPING;
+                }
+                return settle(state.getSettledStatus(), observed, outcomes);
+            }
+            if (changes >= transitions.getFlapEnterChanges()) {
+                state.setSettledStatus(state.getStatus());
+                return MonitoredSite.SiteStatus.FLAPPING;
+            }
+        }
+        return settle(state.getStatus(), observed, outcomes);
+    }
+    
+    /**
+     * Règles N-de-M : un site disponible ne passe en panne qu'après assez d'échecs récents, un site en panne
+     * ne redevient disponible qu'après assez de succès récents. Un résultat indéterminé s'applique directement.
+     */
+    private MonitoredSite.SiteStatus settle(MonitoredSite.SiteStatus current, MonitoredSite.SiteStatus observed,
+                                            OutcomeWindow outcomes) {
+        if (isFailing(observed)) {
+            // Passage entre panne et dégradé immédiat
+            boolean enter = isFailing(current)
+                    || outcomes.failures(window(transitions.getFailWindow())) >= transitions.getFailThreshold();
+            return enter ? observed : current;
+        }
+        if (observed == MonitoredSite.SiteStatus.UP) {
+            boolean recover = !isFailing(current)
+                    || outcomes.successes(window(transitions.getRecoverWindow())) >= transitions.getRecoverThreshold();
+            return recover ? observed : current;
+        }
+        return observed;
+    }
+    
+    private static MonitoredSite.SiteStatus statusOf(CheckResult result) {
+        switch (result.getStatus()) {
+            case SUCCESS:
+                return MonitoredSite.SiteStatus.UP;
+            case FAILURE:
+                return MonitoredSite.SiteStatus.DOWN;
+            case TIMEOUT:
+                return MonitoredSite.SiteStatus.DEGRADED;
+            default:
+                return MonitoredSite.SiteStatus.UNKNOWN;
+        }
+    }
+    
+    private static boolean isFailing(MonitoredSite.SiteStatus status) {
+        return status == MonitoredSite.SiteStatus.DOWN || status == MonitoredSite.SiteStatus.DEGRADED;
+    }
+    
+    /**
+     * Un site n'est rétabli qu'en sortant d'une panne (ou de l'instabilité) vers un statut sans échec :
+     * DOWN vers DEGRADED ou FLAPPING ne libère pas les alertes de ses descendants
+     */
+    private static boolean isRecovery(MonitoredSite.SiteStatus previous, MonitoredSite.SiteStatus next) {
+        return (isFailing(previous) || previous == MonitoredSite.SiteStatus.FLAPPING)
+                && !isFailing(next) && next != MonitoredSite.SiteStatus.FLAPPING;
+    }
+    
+    private static int window(int checks) {
+        return Math.max(1, Math.min(checks, OutcomeWindow.CAPACITY));
     }
     
     /**
@@ -154,24 +601,111 @@ public class MonitoringService {
      * @return true si l'opération a réussi, false sinon
      */
     public boolean setMaintenanceMode(String url, boolean maintenanceMode) {
-        Optional<MonitoredSite> siteOpt = siteRepository.findByUrl(url);
-        if (siteOpt.isEmpty()) {
-            return false;
-        }
-        
-        MonitoredSite site = siteOpt.get();
-        site.setMaintenanceMode(maintenanceMode);
-        
+        return await(setMaintenanceModeAsync(url, maintenanceMode));
+    }
+    
+    /**
+     * Active/désactive le mode maintenance pour un site, sans bloquer le thread appelant
+     * @see #setMaintenanceMode(String, boolean)
+     */
+    public CompletableFuture<Boolean> setMaintenanceModeAsync(String url, boolean maintenanceMode) {
+        return asyncRepository.findByUrl(url).thenCompose(siteOpt -> {
+            if (siteOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            MonitoredSite site = siteOpt.get();
+            return siteActors.ask(site.getId(), state -> applyMaintenanceMode(state, site, maintenanceMode))
+                    .thenCompose(save -> save)
+                    .thenApply(savedSite -> {
+                        if (!maintenanceMode) {
+                            // Déclencher une vérification immédiate
+                            CompletableFuture.runAsync(() -> checkSite(savedSite), executorService);
+                        }
+                        return true;
+                    });
+        });
+    }
+    
+    /**
+     * Change le mode maintenance d'un site ; exécuté par l'acteur du site
+     * @return L'enregistrement du site
+     */
+    private CompletableFuture<MonitoredSite> applyMaintenanceMode(SiteActors.State state, MonitoredSite site,
+                                                                  boolean maintenanceMode) {
+        state.seed(site);
+        state.setMaintenance(maintenanceMode);
+        state.setStatus(maintenanceMode ? MonitoredSite.SiteStatus.MAINTENANCE : MonitoredSite.SiteStatus.UNKNOWN);
+        // Les vérifications commencées avant le changement de mode n'ont plus cours
+        state.setLastResultAt(LocalDateTime.now());
+        state.getOutcomes().clear();
+        state.setSuppressedAlert(null);
+        dependencies.publishStatus(site.getId(), state.getStatus());
         if (maintenanceMode) {
-            site.setCurrentStatus(MonitoredSite.SiteStatus.MAINTENANCE);
+            // Le site en maintenance ne sera plus signalé rétabli : il quitte les incidents en cours
+            notificationService.withdrawSite(site);
         } else {
-            site.setCurrentStatus(MonitoredSite.SiteStatus.UNKNOWN);
-            // Déclencher une vérification immédiate
-            CompletableFuture.runAsync(() -> checkSite(site), executorService);
+            releaseDescendants(site.getId());
         }
         
-        siteRepository.save(site);
-        return true;
+        site.setMaintenanceMode(maintenanceMode);
+        site.setCurrentStatus(state.getStatus());
+        return asyncRepository.save(site);
+    }
+    
+    /**
+     * Remplace les sites dont un site dépend
+     * @param url L'URL du site
+     * @param parentUrls Les URLs des sites dont il dépend (vide pour aucun)
+     * @return true si l'opération a réussi, false si le site n'existe pas
+     */
+    public boolean setDependencies(String url, List<String> parentUrls) {
+        return await(setDependenciesAsync(url, parentUrls));
+    }
+    
+    /**
+     * Remplace les sites dont un site dépend, sans bloquer le thread appelant
+     * @return true si l'opération a réussi, false si le site n'existe pas ; IllegalArgumentException
+     *         si un parent est inconnu ou si la dépendance formerait un cycle
+     * @see #setDependencies(String, List)
+     */
+    public CompletableFuture<Boolean> setDependenciesAsync(String url, List<String> parentUrls) {
+        return asyncRepository.findByUrl(url).thenCompose(siteOpt -> {
+            if (siteOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            List<CompletableFuture<Optional<MonitoredSite>>> parents = new ArrayList<>();
+            for (String parentUrl : parentUrls) {
+                parents.add(asyncRepository.findByUrl(parentUrl));
+            }
+            return CompletableFuture.allOf(parents.toArray(new CompletableFuture<?>[0])).thenCompose(ignored -> {
+                Set<Long> parentIds = new LinkedHashSet<>();
+                for (int i = 0; i < parents.size(); i++) {
+                    Optional<MonitoredSite> parent = parents.get(i).join();
+                    if (parent.isEmpty()) {
+                        throw new IllegalArgumentException("Site parent introuvable: " + parentUrls.get(i));
+                    }
+                    parentIds.add(parent.get().getId());
+                }
+                
+                MonitoredSite site = siteOpt.get();
+                // Le graphe refuse les cycles avant toute écriture
+                dependencies.setParents(site.getId(), parentIds);
+                site.setDependsOn(parentIds);
+                return updateSiteAsync(site);
+            }).thenApply(savedSite -> true);
+        });
+    }
+    
+    /**
+     * Indique si la vérification planifiée d'un site est sautée : tant qu'un site dont il dépend est en panne,
+     * seule une vérification sur childCheckBackoff est faite
+     * @param site Le site à vérifier
+     * @return true si la vérification doit être sautée
+     */
+    public boolean isCheckDeferred(MonitoredSite site) {
+        return dependencies.deferCheck(site.getId(), childCheckBackoff);
     }
     
     /**
@@ -183,6 +717,24 @@ public class MonitoringService {
         return siteRepository.findById(siteId);
     }
     
+    /**
+     * Récupère plusieurs sites en une seule lecture
+     * @param siteIds Les IDs des sites
+     * @return Les sites trouvés par ordre d'ID croissant (les sites inconnus ou supprimés sont absents)
+     */
+    public List<MonitoredSite> getSitesByIds(Collection<Long> siteIds) {
+        return siteRepository.findAllByIds(siteIds);
+    }
+    
+    /**
+     * Vérifie un site par le pool de vérification, sans bloquer le thread appelant
+     * @param site Le site à vérifier
+     * @return Le résultat de la vérification
+     */
+    public CompletableFuture<CheckResult> checkSiteAsync(MonitoredSite site) {
+        return CompletableFuture.supplyAsync(() -> checkSite(site), executorService);
+    }
+    
     /**
      * Génère un rapport pour une période donnée
      * @param from Date de début
@@ -239,9 +791,30 @@ public class MonitoringService {
         reportBuilder.append("<tr><th>Sites en panne</th><td class='error'>" + sitesDown + "</td></tr>");
         reportBuilder.append("</table>");
         
-        // Détail par site
+        // Principales causes d'échec, lues dans les compteurs par empreinte de message
+        List<ErrorCause> errorCauses = siteRepository.getTopErrorCauses(
+                from.toLocalDateTime(),
+                to.toLocalDateTime(),
+                REPORT_TOP_ERROR_CAUSES);
+        if (!errorCauses.isEmpty()) {
+            reportBuilder.append("<h2>Principales causes d'échec</h2>");
+            reportBuilder.append("<table>");
+            reportBuilder.append("<tr><th>Erreur</th><th>Occurrences</th><th>Dernière occurrence</th></tr>");
+            for (ErrorCause cause : errorCauses) {
+                reportBuilder.append("<tr><td>" + escapeHtml(cause.getFingerprint()) + "</td><td>" + cause.getOccurrences()
+                        + "</td><td>" + cause.getLastSeenAt().format(REPORT_DATE_FORMAT) + "</td></tr>");
+            }
+            reportBuilder.append("</table>");
+        }
+        
+        // Détail par site, à partir d'une seule requête d'agrégation pour tous les sites
         reportBuilder.append("<h2>Détail des sites</h2>");
         
+        Map<Long, SiteCheckSummary> summaries = siteRepository.getCheckSummaries(
+                from.toLocalDateTime(), 
+                to.toLocalDateTime());
+        Map<Long, SiteState> states = siteRepository.getSiteStates();
+        
         for (MonitoredSite site : sites) {
             reportBuilder.append("<h3>" + site.getName() + "</h3>");
             reportBuilder.append("<table>");
@@ -264,38 +837,23 @@ public class MonitoringService {
             
             reportBuilder.append("<tr><th>Statut actuel</th><td class='" + statusClass + "'>" + site.getCurrentStatus() + "</td></tr>");
             
+            // Dernier état connu, sans parcours de l'historique
+            SiteState state = states.get(site.getId());
+            if (state != null) {
+                reportBuilder.append("<tr><th>Dernière vérification</th><td>" + state.getLastCheckedAt().format(REPORT_DATE_FORMAT) + "</td></tr>");
+                if (state.getConsecutiveFailures() > 0) {
+                    reportBuilder.append("<tr><th>Échecs consécutifs</th><td class='error'>" + state.getConsecutiveFailures() + "</td></tr>");
+                }
+            }
+            
             // Statistiques pour la période
-            List<CheckResult> history = siteRepository.getCheckHistory(
-                    site.getId(), 
-                    from.toLocalDateTime(), 
-                    to.toLocalDateTime());
+            SiteCheckSummary summary = summaries.get(site.getId());
             
-            int totalChecks = history.size();
-            if (totalChecks > 0) {
-                long successChecks = history.stream()
-                        .filter(r -> r.getStatus() == CheckResult.CheckStatus.SUCCESS)
-                        .count();
-                
-                double uptime = (double) successChecks / totalChecks * 100.0;
-                
-                reportBuilder.append("<tr><th>Nombre de vérifications</th><td>" + totalChecks + "</td></tr>");
-                reportBuilder.append("<tr><th>Disponibilité</th><td>" + String.format("%.2f%%", uptime) + "</td></tr>");
-                
-                // Temps de réponse moyen
-                double avgResponseTime = history.stream()
-                        .filter(r -> r.getResponseTime() != null)
-                        .mapToLong(r -> r.getResponseTime().toMillis())
-                        .average()
-                        .orElse(0);
-                
-                reportBuilder.append("<tr><th>Temps de réponse moyen</th><td>" + String.format("%.2f ms", avgResponseTime) + "</td></tr>");
-                
-                // Incidents
-                long incidents = history.stream()
-                        .filter(r -> r.getStatus() == CheckResult.CheckStatus.FAILURE || r.getStatus() == CheckResult.CheckStatus.ERROR)
-                        .count();
-                
-                reportBuilder.append("<tr><th>Incidents</th><td>" + incidents + "</td></tr>");
+            if (summary != null && summary.getTotalChecks() > 0) {
+                reportBuilder.append("<tr><th>Nombre de vérifications</th><td>" + summary.getTotalChecks() + "</td></tr>");
+                reportBuilder.append("<tr><th>Disponibilité</th><td>" + String.format("%.2f%%", summary.getUptimePercentage()) + "</td></tr>");
+                reportBuilder.append("<tr><th>Temps de réponse moyen</th><td>" + String.format("%.2f ms", summary.getAverageResponseTimeMillis()) + "</td></tr>");
+                reportBuilder.append("<tr><th>Incidents</th><td>" + summary.getIncidents() + "</td></tr>");
             } else {
                 reportBuilder.append("<tr><th colspan='2'>Aucune donnée pour la période</th></tr>");
             }
@@ -306,4 +864,31 @@ public class MonitoringService {
         reportBuilder.append("</body></html>");
         return reportBuilder.toString();
     }
+    
+    private static ExecutorService newActorExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(ACTOR_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "site-actor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Attend une opération asynchrone, en relançant son exception d'origine
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static String escapeHtml(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
 }
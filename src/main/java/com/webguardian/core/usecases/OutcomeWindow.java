@@ -0,0 +1,68 @@
+package com.webguardian.core.usecases;
+
+/**
+ * Derniers résultats d'un site, un bit par vérification, le plus récent en bit de poids faible.
+ * L'empreinte est fixe (deux long par site), quelles que soient les fenêtres N-de-M évaluées.
+ */
+final class OutcomeWindow {
+    /** Nombre maximal de vérifications retenues */
+    static final int CAPACITY = Long.SIZE;
+    
+    // Bit à 1 : vérification en échec (panne ou timeout), respectivement réussie ; ni l'un ni l'autre si indéterminée
+    private long failures;
+    private long successes;
+    private int size;
+    
+    /**
+     * Ajoute le résultat d'une vérification, en oubliant le plus ancien au-delà de la capacité
+     */
+    void record(boolean success, boolean failure) {
+        failures = (failures << 1) | (failure ? 1L : 0L);
+        successes = (successes << 1) | (success ? 1L : 0L);
+        if (size < CAPACITY) {
+            size++;
+        }
+    }
+    
+    /**
+     * @return Le nombre d'échecs parmi les window dernières vérifications
+     */
+    int failures(int window) {
+        return Long.bitCount(failures & mask(window));
+    }
+    
+    /**
+     * @return Le nombre de succès parmi les window dernières vérifications
+     */
+    int successes(int window) {
+        return Long.bitCount(successes & mask(window));
+    }
+    
+    /**
+     * @return Le nombre de passages entre échec et non-échec parmi les window dernières vérifications
+     */
+    int changes(int window) {
+        int checks = Math.min(window, size);
+        if (checks < 2) {
+            return 0;
+        }
+        // Chaque bit compare une vérification à la précédente
+        return Long.bitCount((failures ^ (failures >>> 1)) & mask(checks - 1));
+    }
+    
+    /**
+     * Oublie tous les résultats
+     */
+    void clear() {
+        failures = 0;
+        successes = 0;
+        size = 0;
+    }
+    
+    private static long mask(int window) {
+        if (window >= CAPACITY) {
+            return -1L;
+        }
+        return window <= 0 ? 0L : (1L << window) - 1;
+    }
+}
@@ -1,5 +1,6 @@
 package com.webguardian.core.usecases;
 
+import com.webguardian.core.entities.CheckHistoryColumns;
 import com.webguardian.core.entities.CheckResult;
 import com.webguardian.core.entities.MonitoredSite;
 import com.webguardian.core.ports.NotificationPort;
@@ -9,9 +10,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 
 /**
  * Service pour la génération de rapports
@@ -108,18 +108,20 @@ public class ReportService {
      * @return le contenu HTML du rapport
      */
     public String generateSitePerformanceReport(Long siteId, int days) {
-        if (days <= 0) {
-            days = 7; // Par défaut, 7 jours
-        }
+        int reportDays = days > 0 ? days : 7; // Par défaut, 7 jours
         
         ZonedDateTime now = ZonedDateTime.now();
-        ZonedDateTime startDate = now.minusDays(days).toLocalDate().atStartOfDay(now.getZone());
+        ZonedDateTime startDate = now.minusDays(reportDays).toLocalDate().atStartOfDay(now.getZone());
         
         return siteRepository.findById(siteId).map(site -> {
-            List<CheckResult> history = siteRepository.getCheckHistory(
+            // Lots de colonnes primitives : les statistiques sont calculées sans allocation par vérification
+            // ni chargement de la période entière
+            HistoryStatistics stats = new HistoryStatistics(startDate, now);
+            siteRepository.forEachCheckHistoryBatch(
                     siteId,
                     startDate.toLocalDateTime(),
-                    now.toLocalDateTime());
+                    now.toLocalDateTime(),
+                    stats::add);
             
             StringBuilder report = new StringBuilder();
             report.append("<!DOCTYPE html><html><head><style>");
@@ -134,7 +136,7 @@ public class ReportService {
             report.append("</style></head><body>");
             
             report.append("<h1>Rapport de performances pour ").append(site.getName()).append("</h1>");
-            report.append("<p>Période: derniers ").append(days).append(" jours</p>");
+            report.append("<p>Période: derniers ").append(reportDays).append(" jours</p>");
             
             report.append("<h2>Informations générales</h2>");
             report.append("<table>");
@@ -157,30 +159,13 @@ public class ReportService {
             }
             report.append("<tr><th>Statut actuel</th><td class='").append(statusClass).append("'>").append(site.getCurrentStatus()).append("</td></tr>");
             
-            if (!history.isEmpty()) {
-                // Calcul des statistiques
-                int totalChecks = history.size();
-                long successChecks = history.stream()
-                        .filter(r -> r.getStatus() == CheckResult.CheckStatus.SUCCESS)
-                        .count();
-                
-                double uptime = (double) successChecks / totalChecks * 100.0;
-                
-                // Temps de réponse moyen
-                double avgResponseTime = history.stream()
-                        .filter(r -> r.getResponseTime() != null)
-                        .mapToLong(r -> r.getResponseTime().toMillis())
-                        .average()
-                        .orElse(0);
-                
-                // Incidents par jour
-                Map<LocalDate, Long> incidentsByDay = history.stream()
-                        .filter(r -> r.getStatus() == CheckResult.CheckStatus.FAILURE || r.getStatus() == CheckResult.CheckStatus.ERROR)
-                        .collect(Collectors.groupingBy(
-                                r -> r.getTimestamp().toLocalDate(),
-                                Collectors.counting()));
+            if (stats.totalChecks > 0) {
+                double uptime = (double) stats.successChecks / stats.totalChecks * 100.0;
+                double avgResponseTime = stats.responseTimeCount > 0
+                        ? (double) stats.responseTimeSum / stats.responseTimeCount
+                        : 0;
                 
-                report.append("<tr><th>Nombre de vérifications</th><td>").append(totalChecks).append("</td></tr>");
+                report.append("<tr><th>Nombre de vérifications</th><td>").append(stats.totalChecks).append("</td></tr>");
                 report.append("<tr><th>Disponibilité</th><td>").append(String.format("%.2f%%", uptime)).append("</td></tr>");
                 report.append("<tr><th>Temps de réponse moyen</th><td>").append(String.format("%.2f ms", avgResponseTime)).append("</td></tr>");
                 
@@ -189,18 +174,18 @@ public class ReportService {
                 
                 report.append("<h2>Incidents sur la période</h2>");
                 
-                if (incidentsByDay.isEmpty()) {
+                if (stats.totalIncidents == 0) {
                     report.append("<p>Aucun incident sur la période.</p>");
                 } else {
                     report.append("<table>");
                     report.append("<tr><th>Date</th><th>Nombre d'incidents</th></tr>");
                     
-                    incidentsByDay.entrySet().stream()
-                            .sorted(Map.Entry.comparingByKey())
-                            .forEach(entry -> {
-                                report.append("<tr><td>").append(entry.getKey().format(DATE_FORMATTER))
-                                        .append("</td><td>").append(entry.getValue()).append("</td></tr>");
-                            });
+                    for (int day = 0; day < stats.incidentsPerDay.length; day++) {
+                        if (stats.incidentsPerDay[day] > 0) {
+                            report.append("<tr><td>").append(stats.firstDay.plusDays(day).format(DATE_FORMATTER))
+                                    .append("</td><td>").append(stats.incidentsPerDay[day]).append("</td></tr>");
+                        }
+                    }
                     
                     report.append("</table>");
                 }
@@ -210,18 +195,13 @@ public class ReportService {
                 report.append("<table>");
                 report.append("<tr><th>Date</th><th>Temps de réponse moyen</th></tr>");
                 
-                Map<LocalDate, Double> avgResponseByDay = history.stream()
-                        .filter(r -> r.getResponseTime() != null)
-                        .collect(Collectors.groupingBy(
-                                r -> r.getTimestamp().toLocalDate(),
-                                Collectors.averagingDouble(r -> r.getResponseTime().toMillis())));
-                
-                avgResponseByDay.entrySet().stream()
-                        .sorted(Map.Entry.comparingByKey())
-                        .forEach(entry -> {
-                            report.append("<tr><td>").append(entry.getKey().format(DATE_FORMATTER))
-                                    .append("</td><td>").append(String.format("%.2f ms", entry.getValue())).append("</td></tr>");
-                        });
+                for (int day = 0; day < stats.responseTimeCountPerDay.length; day++) {
+                    if (stats.responseTimeCountPerDay[day] > 0) {
+                        double average = (double) stats.responseTimeSumPerDay[day] / stats.responseTimeCountPerDay[day];
+                        report.append("<tr><td>").append(stats.firstDay.plusDays(day).format(DATE_FORMATTER))
+                                .append("</td><td>").append(String.format("%.2f ms", average)).append("</td></tr>");
+                    }
+                }
                 
                 report.append("</table>");
                 
@@ -236,6 +216,90 @@ public class ReportService {
         }).orElse("<p>Site non trouvé.</p>");
     }
     
+    /**
+     * Statistiques d'un historique en colonnes, ventilées par jour et accumulées lot par lot.
+     * La mémoire utilisée dépend du nombre de jours de la période, pas du nombre de vérifications.
+     */
+    private static class HistoryStatistics {
+        private static final byte SUCCESS = (byte) CheckResult.CheckStatus.SUCCESS.ordinal();
+        private static final byte FAILURE = (byte) CheckResult.CheckStatus.FAILURE.ordinal();
+        private static final byte ERROR = (byte) CheckResult.CheckStatus.ERROR.ordinal();
+        
+        private final LocalDate firstDay;
+        private final long[] dayEnds;
+        private long totalChecks;
+        private long successChecks;
+        private long totalIncidents;
+        private long responseTimeSum;
+        private long responseTimeCount;
+        private final long[] incidentsPerDay;
+        private final long[] responseTimeSumPerDay;
+        private final long[] responseTimeCountPerDay;
+        
+        /**
+         * Précalcule les bornes journalières de la période
+         */
+        HistoryStatistics(ZonedDateTime from, ZonedDateTime to) {
+            firstDay = from.toLocalDate();
+            
+            int dayCount = (int) ChronoUnit.DAYS.between(firstDay, to.toLocalDate()) + 1;
+            dayEnds = new long[dayCount];
+            for (int day = 0; day < dayCount; day++) {
+                dayEnds[day] = firstDay.plusDays(day + 1).atStartOfDay(from.getZone()).toInstant().toEpochMilli();
+            }
+            
+            incidentsPerDay = new long[dayCount];
+            responseTimeSumPerDay = new long[dayCount];
+            responseTimeCountPerDay = new long[dayCount];
+        }
+        
+        /**
+         * Ajoute un lot en un seul passage. Les horodatages d'un lot étant triés, l'index du jour
+         * courant n'a qu'à avancer sur les bornes journalières ; il repart du jour du premier horodatage
+         * à chaque lot, les lots n'étant pas forcément ordonnés entre eux.
+         */
+        void add(CheckHistoryColumns batch) {
+            if (batch.getSize() == 0) {
+                return;
+            }
+            
+            long[] timestamps = batch.getTimestamps();
+            byte[] statuses = batch.getStatuses();
+            int[] responseTimes = batch.getResponseTimesMillis();
+            int day = dayOf(timestamps[0]);
+            
+            for (int i = 0; i < batch.getSize(); i++) {
+                while (day < dayEnds.length - 1 && timestamps[i] >= dayEnds[day]) {
+                    day++;
+                }
+                
+                byte status = statuses[i];
+                if (status == SUCCESS) {
+                    successChecks++;
+                } else if (status == FAILURE || status == ERROR) {
+                    incidentsPerDay[day]++;
+                    totalIncidents++;
+                }
+                
+                int responseTime = responseTimes[i];
+                if (responseTime != CheckHistoryColumns.NO_RESPONSE_TIME) {
+                    responseTimeSum += responseTime;
+                    responseTimeCount++;
+                    responseTimeSumPerDay[day] += responseTime;
+                    responseTimeCountPerDay[day]++;
+                }
+            }
+            
+            totalChecks += batch.getSize();
+        }
+        
+        private int dayOf(long timestamp) {
+            int index = Arrays.binarySearch(dayEnds, timestamp);
+            int day = index >= 0 ? index + 1 : -index - 1;
+            return Math.min(day, dayEnds.length - 1);
+        }
+    }
+    
     /**
      * Formate une durée en texte lisible
      */
@@ -0,0 +1,112 @@
+package com.webguardian.core.usecases;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.RetentionPolicy;
+import com.webguardian.core.ports.CheckResultArchivePort;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Service d'application de la politique de rétention de l'historique.
+ * Les résultats bruts expirés sont cumulés dans les agrégats horaires (et archivés si un
+ * archiveur est configuré) puis supprimés par petits lots, chacun dans sa propre transaction,
+ * afin de ne jamais bloquer longtemps la table des résultats.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RetentionService {
+    private final SiteRepositoryPort siteRepository;
+    private final RetentionPolicy policy;
+    
+    // Null si l'archivage est désactivé
+    private final CheckResultArchivePort archiver;
+    
+    /**
+     * Applique la politique de rétention
+     * @return Le nombre de résultats bruts supprimés
+     */
+    public long applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+        
+        Consumer<List<CheckResult>> archive = archiver != null ? archiver::archive : null;
+        long purgedResults = purgeInChunks(maxRows -> siteRepository.purgeCheckResultsBefore(
+                now.minusDays(policy.getRawRetentionDays()), maxRows, archive));
+        long purgedRollups = purgeInChunks(maxRows -> siteRepository.purgeRollupsBefore(
+                now.minusDays(policy.getRollupRetentionDays()), maxRows));
+        
+        log.info("Rétention appliquée en {} ms: {} résultats bruts et {} agrégats supprimés",
+                System.currentTimeMillis() - start, purgedResults, purgedRollups);
+        return purgedResults;
+    }
+    
+    /**
+     * Purge par lots l'historique des sites supprimés logiquement, puis les sites eux-mêmes
+     * @return Le nombre de lignes d'historique supprimées
+     */
+    public long purgeDeletedSites() {
+        long total = 0;
+        
+        for (MonitoredSite site : siteRepository.findDeleted()) {
+            long start = System.currentTimeMillis();
+            log.info("Purge de l'historique du site supprimé {} ({} résultats)",
+                    site.getUrl(), siteRepository.countCheckResults(site.getId()));
+            
+            long purged = purgeInChunks(maxRows -> siteRepository.purgeDeletedSite(site.getId(), maxRows));
+            total += purged;
+            
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            log.info("Historique du site {} purgé en {} ms: {} lignes supprimées",
+                    site.getUrl(), System.currentTimeMillis() - start, purged);
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Répète une suppression par lots jusqu'à ce qu'un lot vide indique qu'il ne reste rien
+     */
+    private long purgeInChunks(IntUnaryOperator purge) {
+        int chunkSize = Math.max(policy.getChunkSize(), 1);
+        long total = 0;
+        int deleted;
+        
+        do {
+            deleted = purge.applyAsInt(chunkSize);
+            total += deleted;
+            
+            if (deleted > 0 && !pause()) {
+                log.info("Rétention interrompue après {} suppressions", total);
+                break;
+            }
+        } while (deleted > 0);
+        
+        return total;
+    }
+    
+    /**
+     * Marque une pause entre deux lots
+     * @return false si le thread a été interrompu (arrêt de l'application)
+     */
+    private boolean pause() {
+        if (policy.getPauseBetweenChunksMillis() <= 0) {
+            return !Thread.currentThread().isInterrupted();
+        }
+        try {
+            Thread.sleep(policy.getPauseBetweenChunksMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
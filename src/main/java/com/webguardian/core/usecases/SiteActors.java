@@ -0,0 +1,182 @@
+package com.webguardian.core.usecases;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Acteurs de site : l'état de chaque site (statut courant, mode maintenance, alerte suspendue) n'est modifié
+ * que par son acteur.
+ * Un acteur traite ses messages un par un, dans l'ordre d'arrivée, depuis une boîte aux lettres sans verrou ;
+ * les acteurs de sites différents s'exécutent en parallèle sur un exécuteur partagé, et n'occupent un thread
+ * que lorsqu'ils ont des messages à traiter.
+ */
+final class SiteActors {
+    private static final int MAX_MESSAGES_PER_RUN = 64;
+    
+    private final Executor executor;
+    private final Map<Long, Actor> actors = new ConcurrentHashMap<>();
+    
+    SiteActors(Executor executor) {
+        this.executor = executor;
+    }
+    
+    /**
+     * Confie un message à l'acteur du site
+     * @param message Le traitement, exécuté par l'acteur avec l'état du site
+     * @return Le résultat du traitement
+     */
+    <T> CompletableFuture<T> ask(Long siteId, Function<State, T> message) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Actor actor = actors.computeIfAbsent(siteId, id -> new Actor());
+        try {
+            actor.tell(() -> {
+                try {
+                    future.complete(message.apply(actor.state));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * Oublie l'acteur d'un site supprimé ; les messages déjà reçus sont tout de même traités
+     */
+    void remove(Long siteId) {
+        actors.remove(siteId);
+    }
+    
+    /**
+     * @return Le nombre d'acteurs
+     */
+    int size() {
+        return actors.size();
+    }
+    
+    /**
+     * Acteur d'un site : au plus un thread à la fois traite sa boîte aux lettres
+     */
+    private final class Actor implements Runnable {
+        private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final State state = new State();
+        
+        void tell(Runnable message) {
+            mailbox.add(message);
+            schedule();
+        }
+        
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+        
+        @Override
+        public void run() {
+            // Nombre de messages borné par passage, pour laisser leur tour aux autres acteurs
+            for (int i = 0; i < MAX_MESSAGES_PER_RUN; i++) {
+                Runnable message = mailbox.poll();
+                if (message == null) {
+                    break;
+                }
+                message.run();
+            }
+            
+            scheduled.set(false);
+            // Un message arrivé après le dernier poll, mais avant la libération, n'a relancé personne
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+    
+    /**
+     * État d'un site, lu et modifié uniquement par son acteur
+     */
+    static final class State {
+        private boolean seeded;
+        private MonitoredSite.SiteStatus status;
+        private boolean maintenance;
+        private LocalDateTime lastResultAt;
+        private final OutcomeWindow outcomes = new OutcomeWindow();
+        // Statut annoncé avant le passage en FLAPPING
+        private MonitoredSite.SiteStatus settledStatus;
+        // Alerte retenue pendant la panne d'un site dont celui-ci dépend
+        private CheckResult suppressedAlert;
+        
+        /**
+         * Initialise l'état depuis la première instance du site reçue par l'acteur
+         */
+        void seed(MonitoredSite site) {
+            if (!seeded) {
+                seeded = true;
+                status = site.getCurrentStatus();
+                maintenance = site.isMaintenanceMode();
+            }
+        }
+        
+        MonitoredSite.SiteStatus getStatus() {
+            return status;
+        }
+        
+        void setStatus(MonitoredSite.SiteStatus status) {
+            this.status = status;
+        }
+        
+        boolean isMaintenance() {
+            return maintenance;
+        }
+        
+        void setMaintenance(boolean maintenance) {
+            this.maintenance = maintenance;
+        }
+        
+        LocalDateTime getLastResultAt() {
+            return lastResultAt;
+        }
+        
+        void setLastResultAt(LocalDateTime lastResultAt) {
+            this.lastResultAt = lastResultAt;
+        }
+        
+        OutcomeWindow getOutcomes() {
+            return outcomes;
+        }
+        
+        MonitoredSite.SiteStatus getSettledStatus() {
+            return settledStatus;
+        }
+        
+        void setSettledStatus(MonitoredSite.SiteStatus settledStatus) {
+            this.settledStatus = settledStatus;
+        }
+        
+        CheckResult getSuppressedAlert() {
+            return suppressedAlert;
+        }
+        
+        void setSuppressedAlert(CheckResult suppressedAlert) {
+            this.suppressedAlert = suppressedAlert;
+        }
+    }
+}
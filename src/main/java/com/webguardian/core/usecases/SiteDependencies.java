@@ -0,0 +1,157 @@
+package com.webguardian.core.usecases;
+
+import com.webguardian.core.entities.MonitoredSite;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Graphe des dépendances entre sites, gardé en mémoire : un site dépend de ses parents (proxy inverse,
+ * service d'authentification, API...), sans cycle. Le statut de chaque site, publié par son acteur,
+ * y est tenu à jour pour savoir sans lecture en base si l'un des ancêtres d'un site est en panne
+ * (ou en maintenance).
+ * Les lectures se font sans verrou sur un instantané du graphe, remplacé à chaque modification.
+ */
+final class SiteDependencies {
+    private volatile Map<Long, Set<Long>> parents = Collections.emptyMap();
+    private volatile Map<Long, Set<Long>> children = Collections.emptyMap();
+    private final Map<Long, MonitoredSite.SiteStatus> statuses = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> deferredChecks = new ConcurrentHashMap<>();
+    
+    /**
+     * Remplace les parents d'un site
+     * @throws IllegalArgumentException si le site dépendrait de lui-même, directement ou non
+     */
+    synchronized void setParents(Long siteId, Collection<Long> parentIds) {
+        Set<Long> declared = parentIds != null ? new LinkedHashSet<>(parentIds) : new LinkedHashSet<>();
+        for (Long parentId : declared) {
+            if (parentId.equals(siteId) || ancestorsOf(parentId, parents).contains(siteId)) {
+                throw new IllegalArgumentException("Dépendance circulaire: le site " + parentId
+                        + " dépend déjà du site " + siteId);
+            }
+        }
+        
+        Map<Long, Set<Long>> nextParents = new HashMap<>(parents);
+        if (declared.isEmpty()) {
+            nextParents.remove(siteId);
+        } else {
+            nextParents.put(siteId, Collections.unmodifiableSet(declared));
+        }
+        publish(nextParents);
+    }
+    
+    /**
+     * Retire un site du graphe ; ses enfants perdent ce parent
+     */
+    synchronized void remove(Long siteId) {
+        Map<Long, Set<Long>> nextParents = new HashMap<>();
+        for (Map.Entry<Long, Set<Long>> entry : parents.entrySet()) {
+            if (entry.getKey().equals(siteId)) {
+                continue;
+            }
+            Set<Long> remaining = new LinkedHashSet<>(entry.getValue());
+            remaining.remove(siteId);
+            if (!remaining.isEmpty()) {
+                nextParents.put(entry.getKey(), Collections.unmodifiableSet(remaining));
+            }
+        }
+        publish(nextParents);
+        statuses.remove(siteId);
+        deferredChecks.remove(siteId);
+    }
+    
+    /**
+     * Enregistre le statut courant d'un site
+     */
+    void publishStatus(Long siteId, MonitoredSite.SiteStatus status) {
+        if (status != null) {
+            statuses.put(siteId, status);
+        }
+    }
+    
+    /**
+     * @return Le premier ancêtre du site en panne ou en maintenance, ou null si aucun
+     */
+    Long downAncestorOf(Long siteId) {
+        for (Long ancestor : ancestorsOf(siteId, parents)) {
+            MonitoredSite.SiteStatus status = statuses.get(ancestor);
+            if (status == MonitoredSite.SiteStatus.DOWN || status == MonitoredSite.SiteStatus.MAINTENANCE) {
+                return ancestor;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @return Les descendants du site, enfants d'abord
+     */
+    Set<Long> descendantsOf(Long siteId) {
+        return reachable(siteId, children);
+    }
+    
+    /**
+     * Espace les vérifications d'un site dont un ancêtre est en panne : une vérification sur backoff
+     * @return true si la vérification doit être sautée
+     */
+    boolean deferCheck(Long siteId, int backoff) {
+        if (backoff <= 1 || downAncestorOf(siteId) == null) {
+            deferredChecks.remove(siteId);
+            return false;
+        }
+        int skipped = deferredChecks.merge(siteId, 1, Integer::sum);
+        if (skipped >= backoff) {
+            deferredChecks.remove(siteId);
+            return false;
+        }
+        return true;
+    }
+    
+    private void publish(Map<Long, Set<Long>> nextParents) {
+        Map<Long, Set<Long>> nextChildren = new HashMap<>();
+        for (Map.Entry<Long, Set<Long>> entry : nextParents.entrySet()) {
+            for (Long parentId : entry.getValue()) {
+                nextChildren.computeIfAbsent(parentId, id -> new LinkedHashSet<>()).add(entry.getKey());
+            }
+        }
+        // Enfants d'abord : un lecteur qui voit les nouveaux parents voit aussi les nouveaux enfants
+        children = nextChildren;
+        parents = nextParents;
+    }
+    
+    private static Set<Long> ancestorsOf(Long siteId, Map<Long, Set<Long>> parents) {
+        return reachable(siteId, parents);
+    }
+    
+    /**
+     * Parcours en largeur des sites atteignables depuis un site, sans le site lui-même
+     */
+    private static Set<Long> reachable(Long siteId, Map<Long, Set<Long>> edges) {
+        Set<Long> seen = new LinkedHashSet<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(siteId);
+        Set<Long> visited = new HashSet<>();
+        visited.add(siteId);
+        
+        while (!queue.isEmpty()) {
+            Set<Long> next = edges.get(queue.poll());
+            if (next == null) {
+                continue;
+            }
+            for (Long id : next) {
+                if (visited.add(id)) {
+                    seen.add(id);
+                    queue.add(id);
+                }
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,51 @@
+package com.webguardian.core.usecases;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Règles de changement d'état des sites, évaluées sur les derniers résultats de chaque site :
+ * N échecs parmi les M dernières vérifications pour passer en panne, N succès parmi les M dernières
+ * pour en sortir, et détection des sites instables (FLAPPING) dont les notifications sont suspendues.
+ * Les fenêtres sont limitées à {@link OutcomeWindow#CAPACITY} vérifications.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionSettings {
+    // Échecs parmi les failWindow dernières vérifications pour passer en panne ou dégradé
+    @Builder.Default
+    private int failThreshold = 1;
+    
+    @Builder.Default
+    private int failWindow = 1;
+    
+    // Succès parmi les recoverWindow dernières vérifications pour revenir disponible
+    @Builder.Default
+    private int recoverThreshold = 1;
+    
+    @Builder.Default
+    private int recoverWindow = 1;
+    
+    // Vérifications sur lesquelles sont comptés les changements entre succès et échec
+    @Builder.Default
+    private int flapWindow = 21;
+    
+    // Changements pour passer en FLAPPING (0 : détection désactivée)
+    @Builder.Default
+    private int flapEnterChanges = 0;
+    
+    // Changements au plus pour sortir de FLAPPING
+    @Builder.Default
+    private int flapLeaveChanges = 2;
+    
+    /**
+     * @return true si la détection des sites instables est active
+     */
+    public boolean isFlapDetectionEnabled() {
+        return flapEnterChanges > 0;
+    }
+}
@@ -0,0 +1,312 @@
+package com.webguardian.infrastructure.notifications;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.Incident;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.NotificationPort;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regroupement des pannes simultanées : les alertes et récupérations sont retenues pendant une courte
+ * fenêtre, puis les sites tombés ensemble qui partagent une ressource ({@link OutageGroups}) sont notifiés
+ * en un seul incident, mis à jour à mesure que d'autres sites le rejoignent, se rétablissent ou cessent
+ * d'être surveillés.
+ * Les autres notifications sont transmises telles quelles, dans leur ordre d'arrivée.
+ */
+@Slf4j
+public class CorrelatingNotificationService implements NotificationPort {
+    private final NotificationPort delegate;
+    private final int minSites;
+    private final OutageGroups groups;
+    private final Queue<Transition> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    
+    // Incidents ouverts, modifiés uniquement sous le verrou de flush()
+    private final Map<String, OpenIncident> incidentsByGroup = new HashMap<>();
+    private final Map<Long, OpenIncident> incidentsBySite = new HashMap<>();
+    private long nextIncidentId = 1;
+    
+    /**
+     * @param delegate Les canaux de notification
+     * @param windowMillis Durée pendant laquelle les notifications sont retenues avant regroupement
+     * @param minSites Nombre minimal de sites tombés ensemble pour ouvrir un incident
+     */
+    public CorrelatingNotificationService(NotificationPort delegate, long windowMillis, int minSites) {
+        this(delegate, windowMillis, minSites, InetAddress::getByName);
+    }
+    
+    /**
+     * @param windowMillis Durée de la fenêtre, ou 0 pour ne regrouper qu'aux appels de {@link #flush()}
+     */
+    CorrelatingNotificationService(NotificationPort delegate, long windowMillis, int minSites,
+                                   OutageGroups.HostResolver resolver) {
+        this.delegate = delegate;
+        this.minSites = Math.max(minSites, 2);
+        this.groups = new OutageGroups(resolver);
+        
+        if (windowMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "incident-correlator");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flusher.scheduleWithFixedDelay(this::flushSafely, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+    
+    /**
+     * Retient l'alerte jusqu'à la fin de la fenêtre
+     * @return true : l'alerte est acceptée, son envoi a lieu au regroupement
+     */
+    @Override
+    public boolean sendAlert(MonitoredSite site, CheckResult checkResult) {
+        pending.add(new Transition(Transition.Kind.ALERT, site, checkResult));
+        return true;
+    }
+    
+    /**
+     * Retient la récupération jusqu'à la fin de la fenêtre
+     * @return true : la notification est acceptée, son envoi a lieu au regroupement
+     */
+    @Override
+    public boolean sendRecoveryNotification(MonitoredSite site, CheckResult checkResult) {
+        pending.add(new Transition(Transition.Kind.RECOVERY, site, checkResult));
+        return true;
+    }
+    
+    @Override
+    public boolean sendReport(String reportContent, String reportType) {
+        return delegate.sendReport(reportContent, reportType);
+    }
+    
+    @Override
+    public boolean sendSystemAlert(String title, String message) {
+        return delegate.sendSystemAlert(title, message);
+    }
+    
+    @Override
+    public boolean sendIncidentNotification(Incident incident) {
+        return delegate.sendIncidentNotification(incident);
+    }
+    
+    /**
+     * Retire le site de son incident au regroupement suivant, dans l'ordre des notifications retenues :
+     * sans cela, un site supprimé ou mis en maintenance pendant la panne laisserait l'incident ouvert
+     */
+    @Override
+    public void withdrawSite(MonitoredSite site) {
+        pending.add(new Transition(Transition.Kind.WITHDRAWAL, site, null));
+        delegate.withdrawSite(site);
+    }
+    
+    /**
+     * Regroupe et envoie les notifications retenues
+     */
+    synchronized void flush() {
+        List<Transition> batch = new ArrayList<>();
+        Transition transition;
+        while ((transition = pending.poll()) != null) {
+            batch.add(transition);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        // Groupes des sites tombés dans la fenêtre, et nombre de ces sites par groupe
+        Map<String, Integer> counts = new HashMap<>();
+        for (Transition t : batch) {
+            if (t.kind == Transition.Kind.ALERT) {
+                t.groups = groups.groupsOf(t.site);
+                for (OutageGroups.Group group : t.groups) {
+                    counts.merge(group.getKey(), 1, Integer::sum);
+                }
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        Set<OpenIncident> changed = new LinkedHashSet<>();
+        for (Transition t : batch) {
+            OpenIncident incident = t.kind == Transition.Kind.ALERT
+                    ? incidentFor(t, counts, now)
+                    : incidentsBySite.remove(t.site.getId());
+            if (incident == null) {
+                forward(t);
+                continue;
+            }
+            
+            if (t.kind == Transition.Kind.ALERT) {
+                incident.down(t.site);
+                incidentsBySite.put(t.site.getId(), incident);
+            } else if (t.kind == Transition.Kind.RECOVERY) {
+                incident.recovered(t.site);
+            } else {
+                incident.withdrawn(t.site);
+            }
+            incident.updatedAt = now;
+            changed.add(incident);
+        }
+        
+        for (OpenIncident incident : changed) {
+            Incident snapshot = incident.snapshot();
+            if (snapshot.isResolved()) {
+                incidentsByGroup.remove(incident.group.getKey());
+                log.info("Incident #{} résolu ({})", snapshot.getId(), snapshot.getGroupLabel());
+            }
+            try {
+                delegate.sendIncidentNotification(snapshot);
+            } catch (Exception e) {
+                log.error("Erreur lors de l'envoi de l'incident #{}: {}", snapshot.getId(), e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Arrête le regroupement en envoyant les notifications retenues
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSafely();
+    }
+    
+    /**
+     * Incident d'un site tombé en panne : celui dont il fait déjà partie, l'incident ouvert sur l'une de
+     * ses ressources, sinon un nouvel incident sur sa ressource la plus précise partagée par assez de sites
+     * de la fenêtre
+     * @return L'incident, ou null si l'alerte du site est envoyée seule
+     */
+    private OpenIncident incidentFor(Transition t, Map<String, Integer> counts, LocalDateTime now) {
+        OpenIncident current = incidentsBySite.get(t.site.getId());
+        if (current != null) {
+            return current;
+        }
+        
+        for (OutageGroups.Group group : t.groups) {
+            OpenIncident open = incidentsByGroup.get(group.getKey());
+            if (open != null) {
+                return open;
+            }
+        }
+        
+        for (OutageGroups.Group group : t.groups) {
+            if (counts.getOrDefault(group.getKey(), 0) >= minSites) {
+                OpenIncident created = new OpenIncident(nextIncidentId++, group, now);
+                incidentsByGroup.put(group.getKey(), created);
+                log.warn("Incident #{} ouvert: {} sites en panne ({})",
+                        created.id, counts.get(group.getKey()), group.getLabel());
+                return created;
+            }
+        }
+        return null;
+    }
+    
+    private void forward(Transition t) {
+        try {
+            if (t.kind == Transition.Kind.ALERT) {
+                delegate.sendAlert(t.site, t.result);
+            } else if (t.kind == Transition.Kind.RECOVERY) {
+                delegate.sendRecoveryNotification(t.site, t.result);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi de notification pour {}: {}", t.site.getUrl(), e.getMessage(), e);
+        }
+    }
+    
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Erreur lors du regroupement des notifications: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Alerte, récupération ou retrait de la surveillance retenu
+     */
+    private static final class Transition {
+        private enum Kind {
+            ALERT,
+            RECOVERY,
+            WITHDRAWAL
+        }
+        
+        private final Kind kind;
+        private final MonitoredSite site;
+        private final CheckResult result;
+        private List<OutageGroups.Group> groups;
+        
+        Transition(Kind kind, MonitoredSite site, CheckResult result) {
+            this.kind = kind;
+            this.site = site;
+            this.result = result;
+        }
+    }
+    
+    /**
+     * Incident ouvert : sites en panne et sites rétablis, par ID
+     */
+    private static final class OpenIncident {
+        private final long id;
+        private final OutageGroups.Group group;
+        private final LocalDateTime startedAt;
+        private LocalDateTime updatedAt;
+        private final Map<Long, MonitoredSite> down = new LinkedHashMap<>();
+        private final Map<Long, MonitoredSite> recovered = new LinkedHashMap<>();
+        
+        OpenIncident(long id, OutageGroups.Group group, LocalDateTime startedAt) {
+            this.id = id;
+            this.group = group;
+            this.startedAt = startedAt;
+            this.updatedAt = startedAt;
+        }
+        
+        void down(MonitoredSite site) {
+            recovered.remove(site.getId());
+            down.put(site.getId(), site);
+        }
+        
+        void recovered(MonitoredSite site) {
+            if (down.remove(site.getId()) != null) {
+                recovered.put(site.getId(), site);
+            }
+        }
+        
+        void withdrawn(MonitoredSite site) {
+            down.remove(site.getId());
+        }
+        
+        Incident snapshot() {
+            return Incident.builder()
+                    .id(id)
+                    .groupLabel(group.getLabel())
+                    .startedAt(startedAt)
+                    .updatedAt(updatedAt)
+                    .downSites(new ArrayList<>(down.values()))
+                    .recoveredSites(new ArrayList<>(recovered.values()))
+                    .build();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.webguardian.infrastructure.notifications;
 
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.Incident;
 import com.webguardian.core.entities.MonitoredSite;
 import com.webguardian.core.ports.NotificationPort;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +13,10 @@ import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import java.awt.*;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service de notification via Discord
@@ -23,6 +27,9 @@ public class DiscordNotificationService implements NotificationPort {
     private final String alertChannelId;
     private final String reportChannelId;
     
+    // Message de chaque incident en cours, modifié à chaque évolution plutôt que renvoyé
+    private final Map<Long, String> incidentMessageIds = new ConcurrentHashMap<>();
+    
     public DiscordNotificationService(JDA jda, String alertChannelId, String reportChannelId) {
         this.jda = jda;
         this.alertChannelId = alertChannelId;
@@ -90,6 +97,63 @@ public class DiscordNotificationService implements NotificationPort {
         }
     }
     
+    @Override
+    public boolean sendSystemAlert(String title, String message) {
+        try {
+            TextChannel channel = jda.getTextChannelById(alertChannelId);
+            if (channel == null) {
+                log.error("Canal d'alerte non trouvé: {}", alertChannelId);
+                return false;
+            }
+            
+            MessageEmbed embed = new EmbedBuilder()
+                    .setTitle("🛠️ " + title)
+                    .setDescription(message)
+                    .setColor(Color.ORANGE)
+                    .setTimestamp(Instant.now())
+                    .setFooter("WebGuardian", null)
+                    .build();
+            
+            channel.sendMessageEmbeds(embed).queue();
+            return true;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi d'alerte système Discord: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean sendIncidentNotification(Incident incident) {
+        try {
+            TextChannel channel = jda.getTextChannelById(alertChannelId);
+            if (channel == null) {
+                log.error("Canal d'alerte non trouvé: {}", alertChannelId);
+                return false;
+            }
+            
+            MessageEmbed embed = createIncidentEmbed(incident);
+            String messageId = incident.isResolved()
+                    ? incidentMessageIds.remove(incident.getId())
+                    : incidentMessageIds.get(incident.getId());
+            if (messageId != null) {
+                channel.editMessageEmbedsById(messageId, embed).queue();
+            } else if (incident.isResolved()) {
+                channel.sendMessageEmbeds(embed).queue();
+            } else {
+                channel.sendMessageEmbeds(embed).queue(message -> incidentMessageIds.put(incident.getId(), message.getId()));
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi d'incident Discord: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    @Override
+    public void withdrawSite(MonitoredSite site) {
+        // Rien à clore : les alertes sont envoyées sans être retenues
+    }
+    
     /**
      * Crée un embed pour une alerte
      */
@@ -169,6 +233,46 @@ public class DiscordNotificationService implements NotificationPort {
                 .build();
     }
     
+    /**
+     * Crée un embed pour un incident : sites en panne et sites rétablis
+     */
+    private MessageEmbed createIncidentEmbed(Incident incident) {
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle(incident.isResolved()
+                        ? "✅ INCIDENT #" + incident.getId() + " RÉSOLU"
+                        : "🚨 INCIDENT #" + incident.getId() + " - " + incident.getDownSites().size() + " sites en panne")
+                .setColor(incident.isResolved() ? Color.GREEN : Color.RED)
+                .setTimestamp(Instant.now())
+                .setDescription("Panne commune: " + incident.getGroupLabel())
+                .addField("Début", "<t:" + incident.getStartedAt().atZone(ZoneId.systemDefault()).toEpochSecond() + ":R>", true);
+        
+        if (!incident.getDownSites().isEmpty()) {
+            builder.addField("❌ En panne (" + incident.getDownSites().size() + ")", listSites(incident.getDownSites()), false);
+        }
+        if (!incident.getRecoveredSites().isEmpty()) {
+            builder.addField("✅ Rétablis (" + incident.getRecoveredSites().size() + ")", listSites(incident.getRecoveredSites()), false);
+        }
+        
+        builder.setFooter("WebGuardian Monitoring", null);
+        return builder.build();
+    }
+    
+    /**
+     * Liste les sites d'un incident dans la limite de taille d'un champ d'embed
+     */
+    private String listSites(List<MonitoredSite> sites) {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < sites.size(); i++) {
+            String line = sites.get(i).getName() + "\n";
+            if (list.length() + line.length() > MessageEmbed.VALUE_MAX_LENGTH - 20) {
+                list.append("… et ").append(sites.size() - i).append(" autres");
+                break;
+            }
+            list.append(line);
+        }
+        return list.toString();
+    }
+    
     /**
      * Formate une durée en millisecondes
      */
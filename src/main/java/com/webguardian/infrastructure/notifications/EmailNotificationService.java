@@ -1,6 +1,7 @@
 package com.webguardian.infrastructure.notifications;
 
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.Incident;
 import com.webguardian.core.entities.MonitoredSite;
 import com.webguardian.core.ports.NotificationPort;
 import jakarta.mail.Message;
@@ -124,6 +125,62 @@ public class EmailNotificationService implements NotificationPort {
         }
     }
     
+    @Override
+    public boolean sendSystemAlert(String title, String message) {
+        try {
+            MimeMessage mimeMessage = new MimeMessage(session);
+            mimeMessage.setFrom(new InternetAddress(fromEmail));
+            
+            for (String email : toEmails) {
+                mimeMessage.addRecipient(Message.RecipientType.TO, new InternetAddress(email));
+            }
+            
+            mimeMessage.setSubject(String.format("[SYSTÈME] WebGuardian - %s", title));
+            mimeMessage.setText(message, "utf-8");
+            
+            Transport.send(mimeMessage);
+            log.info("Alerte système email envoyée: {}", title);
+            return true;
+        } catch (MessagingException e) {
+            log.error("Erreur lors de l'envoi de l'alerte système email: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean sendIncidentNotification(Incident incident) {
+        try {
+            MimeMessage message = new MimeMessage(session);
+            message.setFrom(new InternetAddress(fromEmail));
+            
+            for (String email : toEmails) {
+                message.addRecipient(Message.RecipientType.TO, new InternetAddress(email));
+            }
+            
+            String subject = incident.isResolved()
+                    ? String.format("[INCIDENT #%d RÉSOLU] %d sites rétablis - %s",
+                            incident.getId(), incident.getRecoveredSites().size(), incident.getGroupLabel())
+                    : String.format("[INCIDENT #%d] %d sites en panne - %s",
+                            incident.getId(), incident.getDownSites().size(), incident.getGroupLabel());
+            message.setSubject(subject);
+            
+            String content = createIncidentEmailContent(incident);
+            message.setContent(content, "text/html; charset=utf-8");
+            
+            Transport.send(message);
+            log.info("Incident #{} envoyé par email", incident.getId());
+            return true;
+        } catch (MessagingException e) {
+            log.error("Erreur lors de l'envoi d'email d'incident: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    @Override
+    public void withdrawSite(MonitoredSite site) {
+        // Rien à clore : les alertes sont envoyées sans être retenues
+    }
+    
     /**
      * Crée le contenu HTML d'un email d'alerte
      */
@@ -211,6 +268,46 @@ public class EmailNotificationService implements NotificationPort {
         return html.toString();
     }
     
+    /**
+     * Crée le contenu HTML d'un email d'incident
+     */
+    private String createIncidentEmailContent(Incident incident) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><head><style>");
+        html.append("body { font-family: Arial, sans-serif; }");
+        html.append(".alert { background-color: #ffebee; border-left: 5px solid #f44336; padding: 15px; }");
+        html.append(".recovery { background-color: #e8f5e9; border-left: 5px solid #4caf50; padding: 15px; }");
+        html.append(".info { margin-top: 20px; background-color: #f5f5f5; padding: 15px; }");
+        html.append("table { border-collapse: collapse; width: 100%; }");
+        html.append("th, td { padding: 8px; text-align: left; border-bottom: 1px solid #ddd; }");
+        html.append("</style></head><body>");
+        
+        html.append("<h2>Incident WebGuardian #").append(incident.getId()).append("</h2>");
+        html.append("<div class='").append(incident.isResolved() ? "recovery" : "alert").append("'>");
+        html.append("<h3>").append(incident.isResolved() ? "Incident résolu" : "Panne commune à plusieurs sites").append("</h3>");
+        html.append("<p>Ressource commune: ").append(incident.getGroupLabel()).append("</p>");
+        html.append("<p>Début: ").append(incident.getStartedAt().format(DATE_FORMATTER)).append("</p>");
+        html.append("<p>Mise à jour: ").append(incident.getUpdatedAt().format(DATE_FORMATTER)).append("</p>");
+        html.append("</div>");
+        
+        html.append("<div class='info'>");
+        html.append("<h3>Sites</h3>");
+        html.append("<table>");
+        for (MonitoredSite site : incident.getDownSites()) {
+            html.append("<tr><th>❌ ").append(site.getName()).append("</th><td>").append(site.getUrl()).append("</td></tr>");
+        }
+        for (MonitoredSite site : incident.getRecoveredSites()) {
+            html.append("<tr><th>✅ ").append(site.getName()).append("</th><td>").append(site.getUrl()).append("</td></tr>");
+        }
+        html.append("</table>");
+        html.append("</div>");
+        
+        html.append("<p style='margin-top: 30px; font-size: 12px; color: #666;'>Ce message a été envoyé automatiquement par WebGuardian.</p>");
+        html.append("</body></html>");
+        
+        return html.toString();
+    }
+    
     /**
      * Formate une durée en texte lisible
      */
@@ -0,0 +1,153 @@
+package com.webguardian.infrastructure.notifications;
+
+import com.webguardian.core.entities.MonitoredSite;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ressources partagées par lesquelles regrouper les sites tombés en panne ensemble, de la plus précise
+ * à la plus large : adresse IP résolue, réseau de cette adresse (/24 en IPv4, /48 en IPv6, à défaut de base
+ * d'ASN), domaine enregistré, et enfin l'ensemble des sites. Les adresses résolues sont gardées en cache ;
+ * si la résolution échoue, ce qui arrive justement quand le DNS ou la liaison tombe, la dernière adresse
+ * connue est reprise. Non thread-safe : utilisé par le seul thread de regroupement.
+ */
+@Slf4j
+final class OutageGroups {
+    private static final long CACHE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    static final Group ALL = new Group("tous", "plusieurs sites en panne simultanément");
+    
+    private final HostResolver resolver;
+    private final Map<String, CachedAddress> addresses = new HashMap<>();
+    
+    OutageGroups(HostResolver resolver) {
+        this.resolver = resolver;
+    }
+    
+    /**
+     * @return Les groupes du site, du plus précis au plus large
+     */
+    List<Group> groupsOf(MonitoredSite site) {
+        List<Group> groups = new ArrayList<>(4);
+        String host = hostOf(site.getUrl());
+        if (host != null) {
+            InetAddress address = resolve(host);
+            if (address != null) {
+                groups.add(new Group("ip:" + address.getHostAddress(), "adresse IP " + address.getHostAddress()));
+                String network = networkOf(address);
+                groups.add(new Group("réseau:" + network, "réseau " + network));
+            }
+            String domain = registeredDomainOf(host);
+            if (domain != null) {
+                groups.add(new Group("domaine:" + domain, "domaine " + domain));
+            }
+        }
+        groups.add(ALL);
+        return groups;
+    }
+    
+    private InetAddress resolve(String host) {
+        long now = System.currentTimeMillis();
+        CachedAddress cached = addresses.get(host);
+        if (cached != null && now - cached.resolvedAt < CACHE_MILLIS) {
+            return cached.address;
+        }
+        
+        try {
+            InetAddress address = resolver.resolve(host);
+            addresses.put(host, new CachedAddress(address, now));
+            return address;
+        } catch (UnknownHostException e) {
+            log.debug("Résolution de {} impossible: {}", host, e.getMessage());
+            return cached != null ? cached.address : null;
+        }
+    }
+    
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Réseau de l'adresse, approximation de l'hébergeur
+     */
+    private static String networkOf(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            return (bytes[0] & 0xff) + "." + (bytes[1] & 0xff) + "." + (bytes[2] & 0xff) + ".0/24";
+        }
+        return String.format("%x:%x:%x::/48",
+                ((bytes[0] & 0xff) << 8) | (bytes[1] & 0xff),
+                ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff),
+                ((bytes[4] & 0xff) << 8) | (bytes[5] & 0xff));
+    }
+    
+    /**
+     * Domaine enregistré du nom d'hôte : ses deux derniers libellés, trois pour les suffixes
+     * du type co.uk ; aucun pour une adresse IP littérale
+     */
+    private static String registeredDomainOf(String host) {
+        if (host.indexOf(':') >= 0 || host.matches("[0-9.]+")) {
+            return null;
+        }
+        
+        String[] labels = host.split("\\.");
+        if (labels.length < 2) {
+            return null;
+        }
+        int kept = labels.length >= 3 && labels[labels.length - 1].length() == 2
+                && labels[labels.length - 2].length() <= 3 ? 3 : 2;
+        return String.join(".", Arrays.copyOfRange(labels, labels.length - kept, labels.length));
+    }
+    
+    /**
+     * Résolution d'un nom d'hôte
+     */
+    interface HostResolver {
+        InetAddress resolve(String host) throws UnknownHostException;
+    }
+    
+    /**
+     * Ressource partagée : clé de regroupement et libellé affiché dans l'incident
+     */
+    static final class Group {
+        private final String key;
+        private final String label;
+        
+        Group(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+        
+        String getKey() {
+            return key;
+        }
+        
+        String getLabel() {
+            return label;
+        }
+    }
+    
+    private static final class CachedAddress {
+        private final InetAddress address;
+        private final long resolvedAt;
+        
+        CachedAddress(InetAddress address, long resolvedAt) {
+            this.address = address;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteState;
+import com.webguardian.core.ports.AsyncSiteRepositoryPort;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Exécution asynchrone des opérations d'un {@link SiteRepositoryPort} sur un pool dédié à la base,
+ * borné en threads et en file d'attente : au-delà, les opérations sont refusées plutôt que de s'accumuler.
+ * Les résultats de vérification, les changements de statut et les sauvegardes de sites sont mis dans une file
+ * et écrits par lots (une transaction par lot) par une seule tâche à la fois : un seul thread du pool est
+ * occupé quel que soit le débit des vérifications. Les statuts et les sauvegardes d'un site sont écrits dans
+ * l'ordre où ils ont été demandés, de sorte qu'une sauvegarde ne puisse ni écraser un statut plus récent
+ * ni être écrasée par un statut plus ancien. Lorsque la file est pleine, un résultat n'est pas refusé mais
+ * écrit par le thread appelant, avant les résultats encore en attente : cela ralentit les vérifications au lieu
+ * de le perdre (derrière un journal local, il y est conservé si la base ne suit pas), et le dernier état connu
+ * du site n'en souffre pas puisqu'un résultat plus ancien que le dernier enregistré y est ignoré.
+ */
+@Slf4j
+public class AsyncSiteRepository implements AsyncSiteRepositoryPort, AutoCloseable {
+    private final SiteRepositoryPort siteRepository;
+    private final ThreadPoolExecutor executor;
+    private final int writeBatchSize;
+    private final int maxPendingWrites;
+    
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Queue<PendingSiteWrite> pendingSiteWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWriteCount = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    
+    /**
+     * @param siteRepository Le repository synchrone
+     * @param threads Nombre de threads du pool de la base
+     * @param queueCapacity Nombre maximal d'opérations en attente d'un thread
+     * @param writeBatchSize Nombre maximal de résultats (et de statuts) écrits par lot
+     * @param maxPendingWrites Nombre maximal de résultats et de statuts en attente d'écriture
+     */
+    public AsyncSiteRepository(SiteRepositoryPort siteRepository, int threads, int queueCapacity,
+                               int writeBatchSize, int maxPendingWrites) {
+        this.siteRepository = siteRepository;
+        this.writeBatchSize = Math.max(writeBatchSize, 1);
+        this.maxPendingWrites = Math.max(maxPendingWrites, 1);
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "db-async-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @Override
+    public CompletableFuture<MonitoredSite> save(MonitoredSite site) {
+        // Dans la file des statuts : la sauvegarde porte aussi le statut du site
+        return enqueueSiteWrite(new PendingSiteWrite(site.getId(), null, site));
+    }
+    
+    @Override
+    public CompletableFuture<Void> updateStatus(Long siteId, MonitoredSite.SiteStatus status) {
+        return enqueueSiteWrite(new PendingSiteWrite(siteId, status, null)).thenAccept(site -> { });
+    }
+    
+    @Override
+    public CompletableFuture<Void> delete(Long siteId) {
+        return supply(() -> {
+            siteRepository.delete(siteId);
+            return null;
+        });
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findDeleted() {
+        return supply(siteRepository::findDeleted);
+    }
+    
+    @Override
+    public CompletableFuture<Long> countCheckResults(Long siteId) {
+        return supply(() -> siteRepository.countCheckResults(siteId));
+    }
+    
+    @Override
+    public CompletableFuture<Optional<MonitoredSite>> findById(Long siteId) {
+        return supply(() -> siteRepository.findById(siteId));
+    }
+    
+    @Override
+    public CompletableFuture<Optional<MonitoredSite>> findByUrl(String url) {
+        return supply(() -> siteRepository.findByUrl(url));
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findAll() {
+        return supply(siteRepository::findAll);
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status) {
+        return supply(() -> siteRepository.findPageAfter(afterId, limit, status));
+    }
+    
+    @Override
+    public CompletableFuture<List<MonitoredSite>> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status) {
+        return supply(() -> siteRepository.findPageBefore(beforeId, limit, status));
+    }
+    
+    @Override
+    public CompletableFuture<Map<Long, SiteState>> getSiteStates(Collection<Long> siteIds) {
+        return supply(() -> siteRepository.getSiteStates(siteIds));
+    }
+    
+    @Override
+    public CompletableFuture<CheckResult> saveCheckResult(CheckResult checkResult) {
+        if (!reserveWrite()) {
+            log.debug("File d'écriture de la base pleine: résultat du site {} écrit par le thread appelant",
+                    checkResult.getSite().getId());
+            return writeDirectly(checkResult);
+        }
+        
+        PendingWrite write = new PendingWrite(checkResult);
+        pendingWrites.add(write);
+        scheduleFlush();
+        return write.future;
+    }
+    
+    /**
+     * @return Le nombre de résultats et de statuts en attente d'écriture
+     */
+    public int getPendingWrites() {
+        return pendingWriteCount.get();
+    }
+    
+    /**
+     * Termine les opérations en cours et les écritures en attente, puis arrête le pool
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Arrêt du pool de la base: {} opérations abandonnées", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        // Écritures arrivées après l'arrêt du pool : elles sont faites dans le thread d'arrêt
+        flushWrites();
+    }
+    
+    private <T> CompletableFuture<T> supply(Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(operation, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Pool de la base saturé: opération refusée ({} en attente)", executor.getQueue().size());
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Base de données surchargée, réessayez plus tard", e));
+        }
+    }
+    
+    /**
+     * Écrit un résultat dans le thread appelant, lorsque la file d'écriture est pleine
+     */
+    private CompletableFuture<CheckResult> writeDirectly(CheckResult checkResult) {
+        try {
+            return CompletableFuture.completedFuture(siteRepository.saveCheckResult(checkResult));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Met en file un statut ou une sauvegarde de site. Toujours mis en file, même au-delà de la limite :
+     * écrit directement, il pourrait être écrasé par une écriture plus ancienne du même site encore en attente
+     */
+    private CompletableFuture<MonitoredSite> enqueueSiteWrite(PendingSiteWrite write) {
+        pendingWriteCount.incrementAndGet();
+        pendingSiteWrites.add(write);
+        scheduleFlush();
+        return write.future;
+    }
+    
+    /**
+     * Réserve une place dans la file d'écriture
+     * @return false si la file est pleine
+     */
+    private boolean reserveWrite() {
+        if (pendingWriteCount.incrementAndGet() > maxPendingWrites) {
+            pendingWriteCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Planifie une tâche d'écriture s'il n'y en a pas déjà une
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        
+        try {
+            executor.execute(this::flushLoop);
+        } catch (RejectedExecutionException e) {
+            // Pool saturé ou arrêté : la prochaine écriture retentera, ou close() videra la file
+            flushScheduled.set(false);
+            log.warn("Pool de la base saturé: {} résultats en attente d'écriture", pendingWriteCount.get());
+        }
+    }
+    
+    private void flushLoop() {
+        try {
+            flushWrites();
+        } finally {
+            flushScheduled.set(false);
+        }
+        
+        // Écriture ajoutée entre la fin du lot et la libération du drapeau
+        if (!pendingWrites.isEmpty() || !pendingSiteWrites.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+    
+    private void flushWrites() {
+        List<PendingWrite> batch = new ArrayList<>(writeBatchSize);
+        List<PendingSiteWrite> siteWrites = new ArrayList<>(writeBatchSize);
+        while (true) {
+            PendingWrite write;
+            while (batch.size() < writeBatchSize && (write = pendingWrites.poll()) != null) {
+                batch.add(write);
+            }
+            PendingSiteWrite siteWrite;
+            while (siteWrites.size() < writeBatchSize && (siteWrite = pendingSiteWrites.poll()) != null) {
+                siteWrites.add(siteWrite);
+            }
+            if (batch.isEmpty() && siteWrites.isEmpty()) {
+                return;
+            }
+            pendingWriteCount.addAndGet(-(batch.size() + siteWrites.size()));
+            
+            if (!batch.isEmpty()) {
+                writeCheckResults(batch);
+            }
+            if (!siteWrites.isEmpty()) {
+                writeSiteWrites(siteWrites);
+            }
+            batch.clear();
+            siteWrites.clear();
+        }
+    }
+    
+    /**
+     * Écrit un lot de résultats en une transaction ; si le lot échoue, chaque résultat est retenté seul
+     * afin qu'un résultat invalide ne fasse pas échouer les autres
+     */
+    private void writeCheckResults(List<PendingWrite> batch) {
+        List<CheckResult> results = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            results.add(pending.checkResult);
+        }
+        
+        try {
+            siteRepository.saveCheckResults(results);
+            for (PendingWrite pending : batch) {
+                pending.future.complete(pending.checkResult);
+            }
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Écriture d'un lot de {} résultats impossible, reprise résultat par résultat: {}",
+                    batch.size(), e.getMessage());
+        }
+        
+        for (PendingWrite pending : batch) {
+            try {
+                pending.future.complete(siteRepository.saveCheckResult(pending.checkResult));
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * Écrit un lot de statuts et de sauvegardes dans leur ordre : les statuts qui se suivent sont écrits
+     * en une transaction, où seul le dernier statut de chaque site est écrit ; chaque sauvegarde est écrite
+     * seule, après les statuts demandés avant elle
+     */
+    private void writeSiteWrites(List<PendingSiteWrite> siteWrites) {
+        List<PendingSiteWrite> statuses = new ArrayList<>();
+        for (PendingSiteWrite pending : siteWrites) {
+            if (pending.site == null) {
+                statuses.add(pending);
+                continue;
+            }
+            
+            writeStatuses(statuses);
+            statuses.clear();
+            try {
+                pending.future.complete(siteRepository.save(pending.site));
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+        writeStatuses(statuses);
+    }
+    
+    /**
+     * Écrit une suite de statuts en une transaction : seul le dernier statut de chaque site est écrit
+     */
+    private void writeStatuses(List<PendingSiteWrite> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, MonitoredSite.SiteStatus> latest = new LinkedHashMap<>();
+        for (PendingSiteWrite pending : statuses) {
+            latest.put(pending.siteId, pending.status);
+        }
+        
+        try {
+            siteRepository.updateStatuses(latest);
+            for (PendingSiteWrite pending : statuses) {
+                pending.future.complete(null);
+            }
+        } catch (RuntimeException e) {
+            for (PendingSiteWrite pending : statuses) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * Résultat en attente d'écriture
+     */
+    private static class PendingWrite {
+        private final CheckResult checkResult;
+        private final CompletableFuture<CheckResult> future = new CompletableFuture<>();
+        
+        private PendingWrite(CheckResult checkResult) {
+            this.checkResult = checkResult;
+        }
+    }
+    
+    /**
+     * Statut ou sauvegarde de site en attente d'écriture (site null pour un statut)
+     */
+    private static class PendingSiteWrite {
+        private final Long siteId;
+        private final MonitoredSite.SiteStatus status;
+        private final MonitoredSite site;
+        private final CompletableFuture<MonitoredSite> future = new CompletableFuture<>();
+        
+        private PendingSiteWrite(Long siteId, MonitoredSite.SiteStatus status, MonitoredSite site) {
+            this.siteId = siteId;
+            this.status = status;
+            this.site = site;
+        }
+    }
+}
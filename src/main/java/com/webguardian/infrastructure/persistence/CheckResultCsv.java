@@ -0,0 +1,51 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+
+import java.io.IOException;
+
+/**
+ * Format CSV des résultats de vérification, commun aux archives de rétention et aux exports
+ */
+final class CheckResultCsv {
+    static final String HEADER = "id,site_id,timestamp,status,status_code,response_time_ms," +
+            "content_size,content_check_passed,ssl_check_passed,severity,error_message";
+    
+    private CheckResultCsv() {
+    }
+    
+    /**
+     * Écrit un résultat sous forme de ligne CSV, saut de ligne compris
+     */
+    static void appendLine(Appendable out, CheckResult result) throws IOException {
+        out.append(String.valueOf(result.getId())).append(',')
+                .append(result.getSite() != null ? String.valueOf(result.getSite().getId()) : "").append(',')
+                .append(String.valueOf(result.getTimestamp())).append(',')
+                .append(valueOrEmpty(result.getStatus())).append(',')
+                .append(valueOrEmpty(result.getStatusCode())).append(',')
+                .append(result.getResponseTime() != null ? String.valueOf(result.getResponseTime().toMillis()) : "").append(',')
+                .append(String.valueOf(result.getContentSize())).append(',')
+                .append(String.valueOf(result.isContentCheckPassed())).append(',')
+                .append(String.valueOf(result.isSslCheckPassed())).append(',')
+                .append(valueOrEmpty(result.getSeverity())).append(',')
+                .append(escape(result.getErrorMessage()))
+                .append('\n');
+    }
+    
+    private static String valueOrEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+    
+    /**
+     * Échappe une valeur texte selon les règles CSV (RFC 4180)
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,31 @@
+package com.webguardian.infrastructure.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agrégat horaire des résultats de vérification d'un site (table check_result_rollups)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckResultRollup {
+    /**
+     * Durée couverte par un agrégat
+     */
+    public static final long BUCKET_MILLIS = 3_600_000L;
+    
+    private long siteId;
+    
+    // Début de l'heure, en ms depuis l'epoch
+    private long bucketStart;
+    
+    private int totalChecks;
+    private int successChecks;
+    private int incidents;
+    private long responseTimeSumMillis;
+    private int responseTimeCount;
+}
@@ -0,0 +1,83 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesure du temps d'attente des connexions d'un pool Hikari : nombre d'obtentions, attente
+ * cumulée et maximale, expirations, et threads en attente au moment de la lecture
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+    private final String poolName;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+    
+    public ConnectionPoolMetrics(String poolName) {
+        this.poolName = poolName;
+    }
+    
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+    
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        waitNanos.add(elapsedAcquiredNanos);
+        maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+    
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+    
+    public String getPoolName() {
+        return poolName;
+    }
+    
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+    
+    public double getAverageWaitMillis() {
+        long count = acquisitions.sum();
+        return count > 0 ? (double) waitNanos.sum() / count / 1_000_000.0 : 0.0;
+    }
+    
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+    
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+    
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+    
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %d connexions obtenues, attente moyenne %.2f ms, max %d ms, %d expirations, "
+                        + "%d actives, %d threads en attente",
+                poolName, getAcquisitions(), getAverageWaitMillis(), getMaxWaitMillis(), getTimeouts(),
+                getActiveConnections(), getPendingThreads());
+    }
+}
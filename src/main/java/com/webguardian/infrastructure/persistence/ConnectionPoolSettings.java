@@ -0,0 +1,33 @@
+package com.webguardian.infrastructure.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Paramètres d'un pool de connexions dédié à une charge de travail (écriture des résultats,
+ * configuration des sites, rapports)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionPoolSettings {
+    private String name;
+    
+    @Builder.Default
+    private int maximumPoolSize = 10;
+    
+    // Attente maximale d'une connexion libre avant échec
+    @Builder.Default
+    private long connectionTimeoutMillis = 30_000;
+    
+    // Connexions en lecture seule (rapports)
+    @Builder.Default
+    private boolean readOnly = false;
+    
+    // Nombre de lignes lues par aller-retour pour les lectures en flux
+    @Builder.Default
+    private int fetchSize = 500;
+}
@@ -0,0 +1,203 @@
+package com.webguardian.infrastructure.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire des messages d'erreur (table error_messages).
+ * Les messages sont normalisés en empreintes ({@link ErrorMessageFingerprint}) : chaque empreinte n'est stockée
+ * qu'une fois et les résultats de vérification n'en gardent que l'ID. Les occurrences de chaque empreinte
+ * sont comptées par heure dans error_message_counts, pour retrouver rapidement les principales causes d'échec.
+ * Les messages bruts enregistrés avant les empreintes restent des alias de leur empreinte (canonical_id).
+ */
+@Slf4j
+public class ErrorMessageDictionary {
+    public static final int MAX_MESSAGE_LENGTH = 1024;
+    private static final int MAX_CACHED_MESSAGES = 10_000;
+    private static final long BUCKET_MILLIS = CheckResultRollup.BUCKET_MILLIS;
+    
+    private final Map<String, Long> idsByMessage = new ConcurrentHashMap<>();
+    private final Map<Long, String> messagesById = new ConcurrentHashMap<>();
+    
+    /**
+     * Retourne l'ID de l'empreinte d'un message, en l'ajoutant au dictionnaire si nécessaire
+     * @param connection La connexion de la transaction en cours
+     * @param message Le message d'erreur brut (empreinte tronquée à {@link #MAX_MESSAGE_LENGTH} caractères)
+     * @return L'ID de l'empreinte, ou null si le message est null
+     */
+    public Long intern(Connection connection, String message) throws SQLException {
+        if (message == null) {
+            return null;
+        }
+        
+        String key = key(message);
+        Long id = idsByMessage.get(key);
+        if (id != null) {
+            return id;
+        }
+        
+        id = findId(connection, key);
+        if (id != null) {
+            cache(id, key);
+            return id;
+        }
+        
+        // Pas de mise en cache d'un ID inséré : la transaction appelante peut encore être annulée
+        try {
+            return insert(connection, key);
+        } catch (SQLException e) {
+            // Inséré entre-temps par un autre thread : violation de la contrainte d'unicité
+            id = findId(connection, key);
+            if (id == null) {
+                throw e;
+            }
+            return id;
+        }
+    }
+    
+    /**
+     * Compte une occurrence d'une empreinte dans la tranche horaire d'un résultat
+     * @param connection La connexion de la transaction en cours
+     * @param id L'ID de l'empreinte (rien n'est compté s'il est null)
+     * @param timestamp Horodatage du résultat en ms depuis l'epoch
+     */
+    public void recordOccurrence(Connection connection, Long id, long timestamp) throws SQLException {
+        recordOccurrences(connection, new Long[] {id}, new long[] {timestamp});
+    }
+    
+    /**
+     * Compte les occurrences de plusieurs résultats en un seul lot JDBC
+     * @param connection La connexion de la transaction en cours
+     * @param ids Les IDs des empreintes (les valeurs null sont ignorées)
+     * @param timestamps Horodatage de chaque résultat en ms depuis l'epoch
+     */
+    public void recordOccurrences(Connection connection, Long[] ids, long[] timestamps) throws SQLException {
+        boolean any = false;
+        for (Long id : ids) {
+            any |= id != null;
+        }
+        if (!any) {
+            return;
+        }
+        
+        try (PreparedStatement statement = connection.prepareStatement(
+                "MERGE INTO error_message_counts c " +
+                        "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+                        "AS o(error_message_id, bucket_start, seen_at) " +
+                        "ON (c.error_message_id = o.error_message_id AND c.bucket_start = o.bucket_start) " +
+                        "WHEN MATCHED THEN UPDATE SET occurrences = c.occurrences + 1, " +
+                        "last_seen_at = GREATEST(c.last_seen_at, o.seen_at) " +
+                        "WHEN NOT MATCHED THEN INSERT (error_message_id, bucket_start, occurrences, last_seen_at) " +
+                        "VALUES (o.error_message_id, o.bucket_start, 1, o.seen_at)")) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == null) {
+                    continue;
+                }
+                statement.setLong(1, ids[i]);
+                statement.setLong(2, timestamps[i] - Math.floorMod(timestamps[i], BUCKET_MILLIS));
+                statement.setLong(3, timestamps[i]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    /**
+     * Retrouve le texte d'un message
+     * @param connection Une connexion ouverte
+     * @param id L'ID du message
+     * @return Le message, ou null si l'ID est null ou inconnu
+     */
+    public String resolve(Connection connection, Long id) throws SQLException {
+        if (id == null) {
+            return null;
+        }
+        
+        String message = messagesById.get(id);
+        if (message != null) {
+            return message;
+        }
+        
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COALESCE(c.message, e.message) FROM error_messages e " +
+                        "LEFT JOIN error_messages c ON c.id = e.canonical_id WHERE e.id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    message = resultSet.getString(1);
+                    // Un alias ne doit pas être retourné par intern : seul le texte est mis en cache
+                    cacheMessage(id, message);
+                }
+            }
+        }
+        return message;
+    }
+    
+    /**
+     * Retrouve un message déjà en cache, sans accès à la base
+     * @return Le message, ou null s'il n'est pas en cache
+     */
+    public String findCachedMessage(Long id) {
+        return id != null ? messagesById.get(id) : null;
+    }
+    
+    /**
+     * Retrouve l'ID de l'empreinte d'un message déjà en cache, sans accès à la base
+     * @return L'ID, ou null s'il n'est pas en cache
+     */
+    public Long findCachedId(String message) {
+        return message != null ? idsByMessage.get(key(message)) : null;
+    }
+    
+    private Long findId(Connection connection, String message) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COALESCE(canonical_id, id) FROM error_messages WHERE message = ?")) {
+            statement.setString(1, message);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        }
+    }
+    
+    private Long insert(Connection connection, String message) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO error_messages (message) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            statement.setString(1, message);
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+    
+    private void cache(Long id, String message) {
+        cacheMessage(id, message);
+        idsByMessage.put(message, id);
+    }
+    
+    private void cacheMessage(Long id, String message) {
+        // Garde-fou mémoire : le cache est simplement vidé s'il devient trop gros
+        if (messagesById.size() >= MAX_CACHED_MESSAGES) {
+            log.debug("Cache du dictionnaire des messages d'erreur vidé ({} entrées)", messagesById.size());
+            messagesById.clear();
+            idsByMessage.clear();
+        }
+        messagesById.put(id, message);
+    }
+    
+    /**
+     * Clé d'un message dans le dictionnaire : son empreinte, tronquée
+     */
+    static String key(String message) {
+        String fingerprint = ErrorMessageFingerprint.of(message);
+        return fingerprint.length() > MAX_MESSAGE_LENGTH ? fingerprint.substring(0, MAX_MESSAGE_LENGTH) : fingerprint;
+    }
+}
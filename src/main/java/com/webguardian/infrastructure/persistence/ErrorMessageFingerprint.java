@@ -0,0 +1,42 @@
+package com.webguardian.infrastructure.persistence;
+
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation des messages d'erreur en empreintes stables : les adresses IP, les ports et les nombres
+ * sont masqués, de sorte que « Failed to connect to exemple.fr/1.2.3.4:443 » et la même erreur
+ * vers une autre adresse partagent une seule entrée du dictionnaire.
+ */
+public final class ErrorMessageFingerprint {
+    public static final String IP = "<ip>";
+    public static final String PORT = "<port>";
+    public static final String NUMBER = "<n>";
+    
+    private static final Pattern IPV4 = Pattern.compile("(?<![\\w.])\\d{1,3}(?:\\.\\d{1,3}){3}(?![\\w.])");
+    private static final Pattern IPV6 = Pattern.compile(
+            "(?<![\\w:])(?:\\[(?:[0-9a-fA-F]{0,4}:){2,7}[0-9a-fA-F]{0,4}(?:%\\w+)?\\]"
+                    + "|(?:[0-9a-fA-F]{0,4}:){2,7}[0-9a-fA-F]{0,4}(?![\\w:]))");
+    private static final Pattern PORT_SUFFIX = Pattern.compile("(?<=[\\w>\\]]):\\d{1,5}\\b");
+    private static final Pattern NUMBERS = Pattern.compile("(?<![\\w<])\\d+(?:[.,]\\d+)*");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    
+    private ErrorMessageFingerprint() {
+    }
+    
+    /**
+     * Calcule l'empreinte d'un message d'erreur
+     * @param message Le message brut
+     * @return L'empreinte, ou null si le message est null
+     */
+    public static String of(String message) {
+        if (message == null) {
+            return null;
+        }
+        
+        String fingerprint = IPV4.matcher(message).replaceAll(IP);
+        fingerprint = IPV6.matcher(fingerprint).replaceAll(IP);
+        fingerprint = PORT_SUFFIX.matcher(fingerprint).replaceAll(":" + PORT);
+        fingerprint = NUMBERS.matcher(fingerprint).replaceAll(NUMBER);
+        return SPACES.matcher(fingerprint).replaceAll(" ").trim();
+    }
+}
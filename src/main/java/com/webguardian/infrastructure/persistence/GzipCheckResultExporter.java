@@ -0,0 +1,169 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ExportFormat;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.CheckResultExportPort;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export de l'historique brut en CSV ou NDJSON compressé en gzip. Chaque site est parcouru par
+ * {@link SiteRepositoryPort#forEachCheckResult} (curseur en avant seulement) et les sites par pages :
+ * seuls une page de sites et le tampon d'écriture sont en mémoire.
+ */
+@Slf4j
+public class GzipCheckResultExporter implements CheckResultExportPort {
+    private static final int SITE_PAGE_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private final SiteRepositoryPort siteRepository;
+    
+    public GzipCheckResultExporter(SiteRepositoryPort siteRepository) {
+        this.siteRepository = siteRepository;
+    }
+    
+    @Override
+    public long export(Long siteId, LocalDateTime from, LocalDateTime to, ExportFormat format, OutputStream out) {
+        try {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+            JsonGenerator json = null;
+            RowWriter rowWriter;
+            
+            if (format == ExportFormat.NDJSON) {
+                JsonGenerator generator = JSON_FACTORY.createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(new SerializedString(""));
+                json = generator;
+                rowWriter = result -> writeJson(generator, result);
+            } else {
+                writer.write(CheckResultCsv.HEADER);
+                writer.write('\n');
+                rowWriter = result -> CheckResultCsv.appendLine(writer, result);
+            }
+            
+            long[] count = new long[1];
+            forEachResult(siteId, from, to, result -> {
+                try {
+                    rowWriter.write(result);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            
+            // Fin du membre gzip sans fermer le flux de l'appelant
+            if (json != null) {
+                json.flush();
+            }
+            writer.flush();
+            gzip.finish();
+            out.flush();
+            
+            log.info("{} résultats de vérification exportés en {}", count[0], format);
+            return count[0];
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Erreur lors de l'export de l'historique des vérifications: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'exporter l'historique des vérifications", e);
+        }
+    }
+    
+    @Override
+    public long export(Long siteId, LocalDateTime from, LocalDateTime to, ExportFormat format, Path file) {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            
+            long count;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                count = export(siteId, from, to, format, out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } catch (IOException e) {
+            log.error("Erreur lors de l'écriture de l'export {}: {}", file, e.getMessage(), e);
+            throw new RuntimeException("Impossible d'écrire le fichier d'export", e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer le fichier d'export partiel {}: {}", partial, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Parcourt les résultats d'un site, ou de tous les sites par pages d'IDs croissants
+     */
+    private void forEachResult(Long siteId, LocalDateTime from, LocalDateTime to, Consumer<CheckResult> consumer) {
+        if (siteId != null) {
+            siteRepository.forEachCheckResult(siteId, from, to, consumer);
+            return;
+        }
+        
+        Long cursor = null;
+        List<MonitoredSite> page;
+        do {
+            page = siteRepository.findPageAfter(cursor, SITE_PAGE_SIZE, null);
+            for (MonitoredSite site : page) {
+                siteRepository.forEachCheckResult(site.getId(), from, to, consumer);
+                cursor = site.getId();
+            }
+        } while (page.size() == SITE_PAGE_SIZE);
+    }
+    
+    private static void writeJson(JsonGenerator json, CheckResult result) throws IOException {
+        json.writeStartObject();
+        writeNumber(json, "id", result.getId());
+        writeNumber(json, "site_id", result.getSite() != null ? result.getSite().getId() : null);
+        json.writeStringField("timestamp", result.getTimestamp() != null ? result.getTimestamp().toString() : null);
+        json.writeStringField("status", result.getStatus() != null ? result.getStatus().name() : null);
+        writeNumber(json, "status_code", result.getStatusCode() != null ? result.getStatusCode().longValue() : null);
+        writeNumber(json, "response_time_ms", result.getResponseTime() != null ? result.getResponseTime().toMillis() : null);
+        json.writeNumberField("content_size", result.getContentSize());
+        json.writeBooleanField("content_check_passed", result.isContentCheckPassed());
+        json.writeBooleanField("ssl_check_passed", result.isSslCheckPassed());
+        json.writeStringField("severity", result.getSeverity() != null ? result.getSeverity().name() : null);
+        json.writeStringField("error_message", result.getErrorMessage());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+    
+    private static void writeNumber(JsonGenerator json, String field, Long value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(field, value);
+        } else {
+            json.writeNullField(field);
+        }
+    }
+    
+    /**
+     * Écriture d'un résultat dans le format demandé
+     */
+    private interface RowWriter {
+        void write(CheckResult result) throws IOException;
+    }
+}
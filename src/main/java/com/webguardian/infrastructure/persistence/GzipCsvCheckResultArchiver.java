@@ -0,0 +1,87 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.ports.CheckResultArchivePort;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive les résultats de vérification expirés dans des fichiers CSV compressés, un par jour et par lot,
+ * nommés d'après le jour et la plage d'ID du lot. Archiver de nouveau le même lot, lorsque sa suppression
+ * a échoué, remplace le fichier au lieu de dupliquer les lignes ; un fichier n'apparaît qu'une fois complet.
+ */
+@Slf4j
+public class GzipCsvCheckResultArchiver implements CheckResultArchivePort {
+    private final Path directory;
+    
+    public GzipCsvCheckResultArchiver(String directory) {
+        this.directory = Paths.get(directory);
+    }
+    
+    @Override
+    public void archive(List<CheckResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        
+        try {
+            // Regroupement par jour de vérification, avec la plage d'ID de chaque jour
+            Map<LocalDate, StringBuilder> linesByDay = new LinkedHashMap<>();
+            Map<LocalDate, long[]> idRangesByDay = new HashMap<>();
+            for (CheckResult result : results) {
+                LocalDate day = result.getTimestamp().toLocalDate();
+                StringBuilder lines = linesByDay.computeIfAbsent(day, d -> new StringBuilder());
+                CheckResultCsv.appendLine(lines, result);
+                
+                long id = result.getId() != null ? result.getId() : 0;
+                long[] range = idRangesByDay.computeIfAbsent(day, d -> new long[] {id, id});
+                range[0] = Math.min(range[0], id);
+                range[1] = Math.max(range[1], id);
+            }
+            
+            Files.createDirectories(directory);
+            for (Map.Entry<LocalDate, StringBuilder> entry : linesByDay.entrySet()) {
+                long[] range = idRangesByDay.get(entry.getKey());
+                write(directory.resolve("check_results-" + entry.getKey() + "-" + range[0] + "-" + range[1] + ".csv.gz"),
+                        entry.getValue());
+            }
+            log.debug("{} résultats de vérification archivés dans {}", results.size(), directory);
+        } catch (IOException e) {
+            log.error("Erreur lors de l'archivage des résultats de vérification: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'archiver les résultats de vérification", e);
+        }
+    }
+    
+    /**
+     * Écrit le fichier à côté de sa destination, puis l'y déplace en remplaçant une archive précédente du lot
+     */
+    private void write(Path file, StringBuilder lines) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temporary,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)),
+                StandardCharsets.UTF_8))) {
+            writer.write(CheckResultCsv.HEADER);
+            writer.write('\n');
+            writer.append(lines);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,53 +1,111 @@
 package com.webguardian.infrastructure.persistence;
 
+import com.webguardian.core.entities.CheckHistoryColumns;
 import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ErrorCause;
 import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteCheckSummary;
+import com.webguardian.core.entities.SiteState;
+import com.webguardian.core.entities.converters.EpochMillisConverter;
 import com.webguardian.core.ports.SiteRepositoryPort;
+import com.webguardian.infrastructure.persistence.migration.SchemaMigrator;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.query.Query;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * Implémentation du repository utilisant H2 et Hibernate
  */
 @Slf4j
 public class H2SiteRepository implements SiteRepositoryPort {
+    private static final byte SUCCESS_ORDINAL = (byte) CheckResult.CheckStatus.SUCCESS.ordinal();
+    private static final byte FAILURE_ORDINAL = (byte) CheckResult.CheckStatus.FAILURE.ordinal();
+    private static final byte ERROR_ORDINAL = (byte) CheckResult.CheckStatus.ERROR.ordinal();
+    /** Nombre maximal d'IDs par requête IN, et d'instructions par lot JDBC pour les sites */
+    private static final int SITE_BATCH_SIZE = 500;
+    
+    // Une SessionFactory par pool de connexions : configuration des sites (et maintenance),
+    // écriture des résultats de vérification, lectures des rapports
     private SessionFactory sessionFactory;
-    private HikariDataSource dataSource;
+    private SessionFactory ingestSessionFactory;
+    private SessionFactory reportingSessionFactory;
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<ConnectionPoolMetrics> poolMetrics = new ArrayList<>();
+    private int reportingFetchSize;
+    private final ErrorMessageDictionary errorMessages = new ErrorMessageDictionary();
     
     /**
-     * Constructeur avec configuration de la base de données
+     * Constructeur avec configuration de la base de données et un pool de taille donnée pour les écritures
      */
     public H2SiteRepository(String jdbcUrl, String username, String password, int poolSize) {
-        initDataSource(jdbcUrl, username, password, poolSize);
-        initHibernate();
+        this(jdbcUrl, username, password,
+                ConnectionPoolSettings.builder().name("ingest").maximumPoolSize(poolSize).connectionTimeoutMillis(5_000).build(),
+                ConnectionPoolSettings.builder().name("config").maximumPoolSize(4).connectionTimeoutMillis(10_000).build(),
+                ConnectionPoolSettings.builder().name("reporting").maximumPoolSize(3).readOnly(true).build());
     }
     
     /**
-     * Initialise le pool de connexions Hikari
+     * Constructeur avec un pool de connexions par charge de travail, pour qu'un rapport
+     * volumineux ne puisse pas priver les vérifications de connexions
      */
-    private void initDataSource(String jdbcUrl, String username, String password, int poolSize) {
+    public H2SiteRepository(String jdbcUrl, String username, String password, ConnectionPoolSettings ingest,
+                            ConnectionPoolSettings config, ConnectionPoolSettings reporting) {
+        HikariDataSource configDataSource = initDataSource(jdbcUrl, username, password, config);
+        new SchemaMigrator(configDataSource).migrate();
+        
+        sessionFactory = initHibernate(configDataSource, config);
+        ingestSessionFactory = initHibernate(initDataSource(jdbcUrl, username, password, ingest), ingest);
+        reportingSessionFactory = initHibernate(initDataSource(jdbcUrl, username, password, reporting), reporting);
+        reportingFetchSize = reporting.getFetchSize();
+    }
+    
+    /**
+     * Initialise un pool de connexions Hikari
+     */
+    private HikariDataSource initDataSource(String jdbcUrl, String username, String password,
+                                            ConnectionPoolSettings settings) {
         try {
             HikariConfig config = new HikariConfig();
+            config.setPoolName("webguardian-" + settings.getName());
             config.setJdbcUrl(jdbcUrl);
             config.setUsername(username);
             config.setPassword(password);
-            config.setMaximumPoolSize(poolSize);
+            config.setMaximumPoolSize(settings.getMaximumPoolSize());
+            config.setConnectionTimeout(settings.getConnectionTimeoutMillis());
+            config.setReadOnly(settings.isReadOnly());
             config.setAutoCommit(false);
             
+            ConnectionPoolMetrics metrics = new ConnectionPoolMetrics(settings.getName());
+            config.setMetricsTrackerFactory(metrics);
+            
             // Configuration spécifique pour H2
             if (jdbcUrl.contains("h2")) {
                 config.addDataSourceProperty("cachePrepStmts", "true");
@@ -63,39 +121,46 @@ public class H2SiteRepository implements SiteRepositoryPort {
                 }
             }
             
-            dataSource = new HikariDataSource(config);
-            log.info("Pool de connexions HikariCP initialisé avec succès");
+            HikariDataSource dataSource = new HikariDataSource(config);
+            dataSources.add(dataSource);
+            poolMetrics.add(metrics);
+            log.info("Pool de connexions HikariCP {} initialisé avec succès ({} connexions)",
+                    settings.getName(), settings.getMaximumPoolSize());
+            return dataSource;
             
         } catch (Exception e) {
-            log.error("Erreur lors de l'initialisation du pool de connexions: {}", e.getMessage(), e);
+            log.error("Erreur lors de l'initialisation du pool de connexions {}: {}", settings.getName(), e.getMessage(), e);
             throw new RuntimeException("Impossible d'initialiser le pool de connexions", e);
         }
     }
     
     /**
-     * Initialise Hibernate
+     * Initialise Hibernate sur un pool de connexions
      */
-    private void initHibernate() {
+    private SessionFactory initHibernate(HikariDataSource dataSource, ConnectionPoolSettings settings) {
         try {
             Properties hibernateProperties = new Properties();
             hibernateProperties.put("hibernate.connection.datasource", dataSource);
             hibernateProperties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
-            hibernateProperties.put("hibernate.hbm2ddl.auto", "update");
+            // Le schéma est géré par les migrations versionnées (SchemaMigrator)
+            hibernateProperties.put("hibernate.hbm2ddl.auto", "none");
             hibernateProperties.put("hibernate.show_sql", "false");
             hibernateProperties.put("hibernate.format_sql", "true");
             hibernateProperties.put("hibernate.use_sql_comments", "true");
+            hibernateProperties.put("hibernate.jdbc.fetch_size", String.valueOf(settings.getFetchSize()));
             
             StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
                     .applySettings(hibernateProperties)
                     .build();
             
-            sessionFactory = new MetadataSources(registry)
+            SessionFactory factory = new MetadataSources(registry)
                     .addAnnotatedClass(MonitoredSite.class)
                     .addAnnotatedClass(CheckResult.class)
                     .buildMetadata()
                     .buildSessionFactory();
             
-            log.info("SessionFactory Hibernate initialisée avec succès");
+            log.info("SessionFactory Hibernate {} initialisée avec succès", settings.getName());
+            return factory;
             
         } catch (Exception e) {
             log.error("Erreur lors de l'initialisation d'Hibernate: {}", e.getMessage(), e);
@@ -103,6 +168,14 @@ public class H2SiteRepository implements SiteRepositoryPort {
         }
     }
     
+    /**
+     * Récupère les mesures de temps d'attente des pools de connexions
+     * @return Les mesures de chaque pool (ingest, config, reporting)
+     */
+    public List<ConnectionPoolMetrics> getPoolMetrics() {
+        return new ArrayList<>(poolMetrics);
+    }
+    
     @Override
     public MonitoredSite save(MonitoredSite site) {
         Session session = sessionFactory.openSession();
@@ -134,26 +207,119 @@ public class H2SiteRepository implements SiteRepositoryPort {
         }
     }
     
+    /**
+     * Les mises à jour sont regroupées en lots JDBC ; les nouveaux sites sont insérés un par un,
+     * leur ID étant généré par la base (IDENTITY).
+     */
     @Override
-    public void delete(Long siteId) {
+    public List<MonitoredSite> saveAll(List<MonitoredSite> sites) {
+        if (sites.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
         Session session = sessionFactory.openSession();
         Transaction tx = null;
         
         try {
+            session.setJdbcBatchSize(SITE_BATCH_SIZE);
             tx = session.beginTransaction();
             
-            MonitoredSite site = session.get(MonitoredSite.class, siteId);
-            if (site != null) {
-                // Suppression des résultats de vérification associés
-                Query<?> query = session.createQuery("DELETE FROM CheckResult cr WHERE cr.site.id = :siteId");
-                query.setParameter("siteId", siteId);
-                query.executeUpdate();
-                
-                session.remove(site);
-                log.debug("Site supprimé: {}", site.getUrl());
+            List<MonitoredSite> saved = new ArrayList<>(sites.size());
+            for (MonitoredSite site : sites) {
+                if (site.getId() == null) {
+                    session.persist(site);
+                    saved.add(site);
+                } else {
+                    saved.add(session.merge(site));
+                }
+            }
+            
+            tx.commit();
+            log.debug("{} sites sauvegardés", saved.size());
+            return saved;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de la sauvegarde des sites: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de sauvegarder les sites", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public int updateStatuses(Map<Long, MonitoredSite.SiteStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            int updated = session.doReturningWork(connection -> {
+                int rows = 0;
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "UPDATE monitored_sites SET currentStatus = ? WHERE id = ? AND deleted = FALSE")) {
+                    int batched = 0;
+                    for (Map.Entry<Long, MonitoredSite.SiteStatus> entry : statuses.entrySet()) {
+                        statement.setString(1, entry.getValue() != null ? entry.getValue().name() : null);
+                        statement.setLong(2, entry.getKey());
+                        statement.addBatch();
+                        if (++batched % SITE_BATCH_SIZE == 0) {
+                            rows += sum(statement.executeBatch());
+                        }
+                    }
+                    if (batched % SITE_BATCH_SIZE != 0) {
+                        rows += sum(statement.executeBatch());
+                    }
+                }
+                return rows;
+            });
+            
+            tx.commit();
+            log.debug("Statut de {} sites mis à jour", updated);
+            return updated;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
             }
+            log.error("Erreur lors de la mise à jour du statut des sites: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de mettre à jour le statut des sites", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+    
+    @Override
+    public void delete(Long siteId) {
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            // Suppression logique uniquement : l'historique est purgé par lots en arrière-plan
+            int updated = session.createNativeMutationQuery(
+                            "UPDATE monitored_sites SET deleted = TRUE WHERE id = :siteId AND deleted = FALSE")
+                    .setParameter("siteId", siteId)
+                    .executeUpdate();
             
             tx.commit();
+            if (updated > 0) {
+                log.debug("Site {} marqué comme supprimé", siteId);
+            }
         } catch (Exception e) {
             if (tx != null) {
                 tx.rollback();
@@ -165,13 +331,103 @@ public class H2SiteRepository implements SiteRepositoryPort {
         }
     }
     
+    @Override
+    public List<MonitoredSite> findDeleted() {
+        Session session = sessionFactory.openSession();
+        
+        try {
+            Query<MonitoredSite> query = session.createQuery(
+                    "FROM MonitoredSite ms WHERE ms.deleted = true ORDER BY ms.id", MonitoredSite.class);
+            return query.getResultList();
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération des sites supprimés: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de récupérer les sites supprimés", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public long countCheckResults(Long siteId) {
+        Session session = reportingSessionFactory.openSession();
+        
+        try {
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT COUNT(*) FROM check_results WHERE site_id = ?")) {
+                    statement.setLong(1, siteId);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        return rows.next() ? rows.getLong(1) : 0L;
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du comptage des résultats de vérification: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de compter les résultats de vérification", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public int purgeDeletedSite(Long siteId, int maxRows) {
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            int deleted = session.doReturningWork(connection -> {
+                // Résultats bruts d'abord, puis agrégats, par lots bornés (index site_id, checked_at)
+                for (String sql : new String[] {
+                        "DELETE FROM check_results WHERE site_id = ? FETCH FIRST ? ROWS ONLY",
+                        "DELETE FROM check_result_rollups WHERE site_id = ? FETCH FIRST ? ROWS ONLY"}) {
+                    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                        statement.setLong(1, siteId);
+                        statement.setInt(2, maxRows);
+                        int rows = statement.executeUpdate();
+                        if (rows > 0) {
+                            return rows;
+                        }
+                    }
+                }
+                
+                // Historique vide : suppression définitive du site et de son dernier état
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM site_state WHERE site_id = ?")) {
+                    statement.setLong(1, siteId);
+                    statement.executeUpdate();
+                }
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM monitored_sites WHERE id = ? AND deleted = TRUE")) {
+                    statement.setLong(1, siteId);
+                    if (statement.executeUpdate() > 0) {
+                        log.info("Site {} définitivement supprimé", siteId);
+                    }
+                }
+                return 0;
+            });
+            
+            tx.commit();
+            return deleted;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de la purge de l'historique du site {}: {}", siteId, e.getMessage(), e);
+            throw new RuntimeException("Impossible de purger l'historique du site", e);
+        } finally {
+            session.close();
+        }
+    }
+    
     @Override
     public Optional<MonitoredSite> findById(Long siteId) {
         Session session = sessionFactory.openSession();
         
         try {
             MonitoredSite site = session.get(MonitoredSite.class, siteId);
-            return Optional.ofNullable(site);
+            return Optional.ofNullable(site).filter(found -> !found.isDeleted());
         } catch (Exception e) {
             log.error("Erreur lors de la recherche du site par ID: {}", e.getMessage(), e);
             throw new RuntimeException("Impossible de rechercher le site par ID", e);
@@ -186,7 +442,7 @@ public class H2SiteRepository implements SiteRepositoryPort {
         
         try {
             Query<MonitoredSite> query = session.createQuery(
-                    "FROM MonitoredSite ms WHERE ms.url = :url", MonitoredSite.class);
+                    "FROM MonitoredSite ms WHERE ms.url = :url AND ms.deleted = false", MonitoredSite.class);
             query.setParameter("url", url);
             return Optional.ofNullable(query.uniqueResult());
         } catch (Exception e) {
@@ -197,13 +453,41 @@ public class H2SiteRepository implements SiteRepositoryPort {
         }
     }
     
+    @Override
+    public List<MonitoredSite> findAllByIds(Collection<Long> siteIds) {
+        List<MonitoredSite> sites = new ArrayList<>();
+        if (siteIds.isEmpty()) {
+            return sites;
+        }
+        
+        Session session = sessionFactory.openSession();
+        
+        try {
+            // Requêtes IN par tranches, dans la même session
+            List<Long> ids = new ArrayList<>(siteIds);
+            for (int from = 0; from < ids.size(); from += SITE_BATCH_SIZE) {
+                Query<MonitoredSite> query = session.createQuery(
+                        "FROM MonitoredSite ms WHERE ms.id IN :ids AND ms.deleted = false", MonitoredSite.class);
+                query.setParameterList("ids", ids.subList(from, Math.min(from + SITE_BATCH_SIZE, ids.size())));
+                sites.addAll(query.getResultList());
+            }
+            sites.sort(Comparator.comparing(MonitoredSite::getId));
+            return sites;
+        } catch (Exception e) {
+            log.error("Erreur lors de la recherche des sites par ID: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de rechercher les sites par ID", e);
+        } finally {
+            session.close();
+        }
+    }
+    
     @Override
     public List<MonitoredSite> findAll() {
         Session session = sessionFactory.openSession();
         
         try {
             Query<MonitoredSite> query = session.createQuery(
-                    "FROM MonitoredSite", MonitoredSite.class);
+                    "FROM MonitoredSite ms WHERE ms.deleted = false", MonitoredSite.class);
             return query.getResultList();
         } catch (Exception e) {
             log.error("Erreur lors de la récupération de tous les sites: {}", e.getMessage(), e);
@@ -214,15 +498,65 @@ public class H2SiteRepository implements SiteRepositoryPort {
     }
     
     @Override
-    public CheckResult saveCheckResult(CheckResult checkResult) {
+    public List<MonitoredSite> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status) {
+        return findPage(afterId != null ? afterId : 0L, true, limit, status);
+    }
+    
+    @Override
+    public List<MonitoredSite> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status) {
+        List<MonitoredSite> sites = new ArrayList<>(findPage(beforeId, false, limit, status));
+        Collections.reverse(sites);
+        return sites;
+    }
+    
+    /**
+     * Lit une page de sites à partir d'un ID, dans un sens ou dans l'autre, en s'appuyant sur
+     * la clé primaire (ou l'index (currentStatus, id) avec un filtre de statut)
+     */
+    private List<MonitoredSite> findPage(long cursor, boolean forward, int limit, MonitoredSite.SiteStatus status) {
         Session session = sessionFactory.openSession();
+        
+        try {
+            String hql = "FROM MonitoredSite ms WHERE ms.deleted = false" +
+                    (forward ? " AND ms.id > :cursor" : " AND ms.id < :cursor") +
+                    (status != null ? " AND ms.currentStatus = :status" : "") +
+                    (forward ? " ORDER BY ms.id" : " ORDER BY ms.id DESC");
+            
+            Query<MonitoredSite> query = session.createQuery(hql, MonitoredSite.class);
+            query.setParameter("cursor", cursor);
+            if (status != null) {
+                query.setParameter("status", status);
+            }
+            query.setMaxResults(limit);
+            return query.getResultList();
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération d'une page de sites: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de récupérer la page de sites", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public CheckResult saveCheckResult(CheckResult checkResult) {
+        Session session = ingestSessionFactory.openSession();
         Transaction tx = null;
         
         try {
             tx = session.beginTransaction();
             
+            // Le message d'erreur est dédupliqué dans le dictionnaire, dans la même transaction
+            Long errorMessageId = session.doReturningWork(
+                    connection -> errorMessages.intern(connection, checkResult.getErrorMessage()));
+            checkResult.setErrorMessageId(errorMessageId);
             session.persist(checkResult);
             
+            // Dernier état du site et compteurs d'erreurs mis à jour dans la même transaction que le résultat
+            session.doWork(connection -> {
+                mergeSiteStates(connection, Collections.singletonList(checkResult));
+                recordErrorOccurrences(connection, Collections.singletonList(checkResult));
+            });
+            
             tx.commit();
             return checkResult;
         } catch (Exception e) {
@@ -236,9 +570,87 @@ public class H2SiteRepository implements SiteRepositoryPort {
         }
     }
     
+    @Override
+    public List<CheckResult> saveCheckResults(List<CheckResult> checkResults) {
+        if (checkResults.isEmpty()) {
+            return checkResults;
+        }
+        
+        Session session = ingestSessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            // Résultats, dernier état des sites et compteurs d'erreurs : un lot JDBC chacun, une seule transaction
+            session.doWork(connection -> {
+                for (CheckResult checkResult : checkResults) {
+                    if (checkResult.getTimestamp() == null) {
+                        checkResult.setTimestamp(LocalDateTime.now());
+                    }
+                    checkResult.setErrorMessageId(errorMessages.intern(connection, checkResult.getErrorMessage()));
+                }
+                insertCheckResults(connection, checkResults);
+                mergeSiteStates(connection, checkResults);
+                recordErrorOccurrences(connection, checkResults);
+            });
+            
+            tx.commit();
+            return checkResults;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            // Les IDs éventuellement attribués avant l'annulation ne correspondent à aucune ligne
+            for (CheckResult checkResult : checkResults) {
+                checkResult.setId(null);
+            }
+            log.error("Erreur lors de la sauvegarde de {} résultats de vérification: {}",
+                    checkResults.size(), e.getMessage(), e);
+            throw new RuntimeException("Impossible de sauvegarder les résultats de vérification", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Insère des résultats en un seul lot JDBC et leur attribue les IDs générés
+     */
+    private void insertCheckResults(Connection connection, List<CheckResult> checkResults) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO check_results (site_id, checked_at, status_code, response_time_ms, content_size, " +
+                        "status, severity, content_check_passed, ssl_check_passed, error_message_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", new String[] {"id"})) {
+            for (CheckResult checkResult : checkResults) {
+                statement.setObject(1, checkResult.getSite() != null ? checkResult.getSite().getId() : null, Types.BIGINT);
+                statement.setLong(2, EpochMillisConverter.toEpochMillis(checkResult.getTimestamp()));
+                statement.setObject(3, checkResult.getStatusCode(), Types.SMALLINT);
+                statement.setObject(4, checkResult.getResponseTime() != null
+                        ? (int) Math.min(checkResult.getResponseTime().toMillis(), Integer.MAX_VALUE) : null, Types.INTEGER);
+                statement.setLong(5, checkResult.getContentSize());
+                statement.setObject(6, checkResult.getStatus() != null ? checkResult.getStatus().ordinal() : null, Types.TINYINT);
+                statement.setObject(7, checkResult.getSeverity() != null ? checkResult.getSeverity().ordinal() : null, Types.TINYINT);
+                statement.setBoolean(8, checkResult.isContentCheckPassed());
+                statement.setBoolean(9, checkResult.isSslCheckPassed());
+                statement.setObject(10, checkResult.getErrorMessageId(), Types.BIGINT);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (CheckResult checkResult : checkResults) {
+                    if (!keys.next()) {
+                        break;
+                    }
+                    checkResult.setId(keys.getLong(1));
+                }
+            }
+        }
+    }
+    
     @Override
     public List<CheckResult> getCheckHistory(Long siteId, LocalDateTime from, LocalDateTime to) {
-        Session session = sessionFactory.openSession();
+        Session session = reportingSessionFactory.openSession();
         
         try {
             Query<CheckResult> query = session.createQuery(
@@ -249,7 +661,13 @@ public class H2SiteRepository implements SiteRepositoryPort {
             query.setParameter("fromDate", from);
             query.setParameter("toDate", to);
             
-            return query.getResultList();
+            List<CheckResult> results = query.getResultList();
+            session.doWork(connection -> {
+                for (CheckResult result : results) {
+                    result.setErrorMessage(errorMessages.resolve(connection, result.getErrorMessageId()));
+                }
+            });
+            return results;
         } catch (Exception e) {
             log.error("Erreur lors de la récupération de l'historique des vérifications: {}", e.getMessage(), e);
             throw new RuntimeException("Impossible de récupérer l'historique des vérifications", e);
@@ -258,15 +676,699 @@ public class H2SiteRepository implements SiteRepositoryPort {
         }
     }
     
+    @Override
+    public void forEachCheckResult(Long siteId, LocalDateTime from, LocalDateTime to, Consumer<CheckResult> consumer) {
+        // Session sans état : aucun cache de premier niveau, la mémoire reste constante quel que soit le volume
+        StatelessSession session = reportingSessionFactory.openStatelessSession();
+        
+        try {
+            Query<CheckResult> query = session.createQuery(
+                    "FROM CheckResult cr WHERE cr.site.id = :siteId " +
+                            "AND cr.timestamp BETWEEN :fromDate AND :toDate " +
+                            "ORDER BY cr.timestamp ASC", CheckResult.class);
+            query.setParameter("siteId", siteId);
+            query.setParameter("fromDate", from);
+            query.setParameter("toDate", to);
+            query.setFetchSize(reportingFetchSize);
+            query.setReadOnly(true);
+            
+            try (ScrollableResults<CheckResult> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    CheckResult result = results.get();
+                    if (result.getErrorMessageId() != null) {
+                        result.setErrorMessage(session.doReturningWork(
+                                connection -> errorMessages.resolve(connection, result.getErrorMessageId())));
+                    }
+                    consumer.accept(result);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors du parcours de l'historique des vérifications: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de parcourir l'historique des vérifications", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public void forEachCheckHistoryBatch(Long siteId, LocalDateTime from, LocalDateTime to,
+                                         Consumer<CheckHistoryColumns> consumer) {
+        Session session = reportingSessionFactory.openSession();
+        
+        try {
+            // Lecture JDBC directe des trois colonnes utiles, sans objet intermédiaire par ligne,
+            // par lots de la taille du fetch
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT checked_at, status, response_time_ms FROM check_results " +
+                                "WHERE site_id = ? AND checked_at BETWEEN ? AND ? " +
+                                "ORDER BY checked_at ASC")) {
+                    statement.setLong(1, siteId);
+                    statement.setLong(2, EpochMillisConverter.toEpochMillis(from));
+                    statement.setLong(3, EpochMillisConverter.toEpochMillis(to));
+                    statement.setFetchSize(reportingFetchSize);
+                    
+                    int batchSize = Math.max(reportingFetchSize, 1);
+                    CheckHistoryColumns batch = new CheckHistoryColumns(batchSize);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            long timestamp = rows.getLong(1);
+                            byte status = rows.getByte(2);
+                            int responseTime = rows.getInt(3);
+                            if (rows.wasNull()) {
+                                responseTime = CheckHistoryColumns.NO_RESPONSE_TIME;
+                            }
+                            batch.add(timestamp, status, responseTime);
+                            if (batch.getSize() == batchSize) {
+                                consumer.accept(batch);
+                                batch.clear();
+                            }
+                        }
+                    }
+                    if (batch.getSize() > 0) {
+                        consumer.accept(batch);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors de la récupération de l'historique en colonnes: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de récupérer l'historique en colonnes", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public Map<Long, SiteCheckSummary> getCheckSummaries(LocalDateTime from, LocalDateTime to) {
+        Session session = reportingSessionFactory.openSession();
+        
+        try {
+            // Agrégation côté base : une ligne par site, quel que soit le nombre de vérifications.
+            // Les résultats bruts déjà purgés sont couverts par les agrégats horaires.
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT site_id, SUM(total_checks), SUM(success_checks), SUM(incidents), " +
+                                "SUM(response_time_sum_ms), SUM(response_time_count) FROM (" +
+                                "SELECT site_id, COUNT(*) AS total_checks, " +
+                                "SUM(CASE WHEN status = ? THEN 1 ELSE 0 END) AS success_checks, " +
+                                "SUM(CASE WHEN status IN (?, ?) THEN 1 ELSE 0 END) AS incidents, " +
+                                "SUM(CAST(response_time_ms AS BIGINT)) AS response_time_sum_ms, " +
+                                "COUNT(response_time_ms) AS response_time_count " +
+                                "FROM check_results " +
+                                "WHERE checked_at BETWEEN ? AND ? " +
+                                "GROUP BY site_id " +
+                                "UNION ALL " +
+                                "SELECT site_id, SUM(total_checks), SUM(success_checks), SUM(incidents), " +
+                                "SUM(response_time_sum_ms), SUM(response_time_count) " +
+                                "FROM check_result_rollups " +
+                                "WHERE bucket_start BETWEEN ? AND ? " +
+                                "GROUP BY site_id) " +
+                                "GROUP BY site_id")) {
+                    long fromMillis = EpochMillisConverter.toEpochMillis(from);
+                    long toMillis = EpochMillisConverter.toEpochMillis(to);
+                    statement.setByte(1, SUCCESS_ORDINAL);
+                    statement.setByte(2, FAILURE_ORDINAL);
+                    statement.setByte(3, ERROR_ORDINAL);
+                    statement.setLong(4, fromMillis);
+                    statement.setLong(5, toMillis);
+                    statement.setLong(6, fromMillis);
+                    statement.setLong(7, toMillis);
+                    
+                    Map<Long, SiteCheckSummary> summaries = new HashMap<>();
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            long siteId = rows.getLong(1);
+                            long responseTimeCount = rows.getLong(6);
+                            summaries.put(siteId, SiteCheckSummary.builder()
+                                    .siteId(siteId)
+                                    .totalChecks(rows.getLong(2))
+                                    .successChecks(rows.getLong(3))
+                                    .incidents(rows.getLong(4))
+                                    .responseTimeSamples(responseTimeCount)
+                                    .averageResponseTimeMillis(responseTimeCount > 0
+                                            ? (double) rows.getLong(5) / responseTimeCount
+                                            : 0.0)
+                                    .build());
+                        }
+                    }
+                    return summaries;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du calcul des statistiques de vérification: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de calculer les statistiques de vérification", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public List<ErrorCause> getTopErrorCauses(LocalDateTime from, LocalDateTime to, int limit) {
+        Session session = reportingSessionFactory.openSession();
+        
+        try {
+            // Lecture des seuls compteurs horaires : quelques lignes par empreinte et par heure
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT c.error_message_id, e.message, SUM(c.occurrences) AS total, MAX(c.last_seen_at) " +
+                                "FROM error_message_counts c JOIN error_messages e ON e.id = c.error_message_id " +
+                                "WHERE c.bucket_start BETWEEN ? AND ? " +
+                                "GROUP BY c.error_message_id, e.message " +
+                                "ORDER BY total DESC, c.error_message_id " +
+                                "FETCH FIRST ? ROWS ONLY")) {
+                    long fromMillis = EpochMillisConverter.toEpochMillis(from);
+                    statement.setLong(1, fromMillis - Math.floorMod(fromMillis, CheckResultRollup.BUCKET_MILLIS));
+                    statement.setLong(2, EpochMillisConverter.toEpochMillis(to));
+                    statement.setInt(3, limit);
+                    
+                    List<ErrorCause> causes = new ArrayList<>();
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            causes.add(ErrorCause.builder()
+                                    .errorMessageId(rows.getLong(1))
+                                    .fingerprint(rows.getString(2))
+                                    .occurrences(rows.getLong(3))
+                                    .lastSeenAt(EpochMillisConverter.toLocalDateTime(rows.getLong(4)))
+                                    .build());
+                        }
+                    }
+                    return causes;
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du classement des causes d'échec: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de classer les causes d'échec", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public Map<Long, SiteState> getSiteStates() {
+        return readSiteStates("SELECT * FROM site_state", null);
+    }
+    
+    @Override
+    public Map<Long, SiteState> getSiteStates(Collection<Long> siteIds) {
+        if (siteIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return readSiteStates("SELECT * FROM site_state WHERE site_id = ANY(?)", siteIds.toArray(new Long[0]));
+    }
+    
+    /**
+     * Lit les lignes de site_state, sans parcourir l'historique
+     */
+    private Map<Long, SiteState> readSiteStates(String sql, Long[] siteIds) {
+        Session session = reportingSessionFactory.openSession();
+        
+        try {
+            return session.doReturningWork(connection -> {
+                Map<Long, SiteState> states = new HashMap<>();
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    if (siteIds != null) {
+                        statement.setArray(1, connection.createArrayOf("BIGINT", siteIds));
+                    }
+                    try (ResultSet rows = statement.executeQuery()) {
+                        while (rows.next()) {
+                            SiteState state = SiteState.builder()
+                                    .siteId(rows.getLong("site_id"))
+                                    .lastCheckedAt(EpochMillisConverter.toLocalDateTime(rows.getLong("last_checked_at")))
+                                    .lastStatus(toCheckStatus(rows.getObject("last_status", Integer.class)))
+                                    .lastStatusCode(rows.getObject("last_status_code", Integer.class))
+                                    .lastResponseTimeMillis(rows.getObject("last_response_time_ms", Long.class))
+                                    .lastSuccessAt(toLocalDateTime(rows.getObject("last_success_at", Long.class)))
+                                    .lastFailureAt(toLocalDateTime(rows.getObject("last_failure_at", Long.class)))
+                                    .consecutiveFailures(rows.getInt("consecutive_failures"))
+                                    .lastTransitionAt(toLocalDateTime(rows.getObject("last_transition_at", Long.class)))
+                                    .build();
+                            states.put(state.getSiteId(), state);
+                        }
+                    }
+                }
+                return states;
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors de la lecture de l'état des sites: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de lire l'état des sites", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    private static CheckResult.CheckStatus toCheckStatus(Integer ordinal) {
+        CheckResult.CheckStatus[] statuses = CheckResult.CheckStatus.values();
+        return ordinal != null && ordinal >= 0 && ordinal < statuses.length ? statuses[ordinal] : null;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Long epochMillis) {
+        return epochMillis != null ? EpochMillisConverter.toLocalDateTime(epochMillis) : null;
+    }
+    
+    @Override
+    public int purgeCheckResultsBefore(LocalDateTime before, int maxRows, Consumer<List<CheckResult>> archiver) {
+        long cutoff = EpochMillisConverter.toEpochMillis(before);
+        
+        // Borne et archivage du lot hors de la transaction de suppression : l'écriture de l'archive ne retient
+        // aucun verrou, et un lot dont la suppression échoue est archivé de nouveau, sur la même plage d'ID
+        Long maxId = findExpiredChunkEnd(cutoff, maxRows);
+        if (maxId == null) {
+            return 0;
+        }
+        if (archiver != null) {
+            archiver.accept(readExpiredChunk(maxId, cutoff));
+        }
+        
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            int deleted = session.doReturningWork(connection -> {
+                // Cumul du lot dans les agrégats horaires, puis suppression, dans la même transaction
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "MERGE INTO check_result_rollups r USING (" +
+                                "SELECT site_id, checked_at - MOD(checked_at, " + CheckResultRollup.BUCKET_MILLIS + ") AS bucket_start, " +
+                                "COUNT(*) AS total_checks, " +
+                                "SUM(CASE WHEN status = ? THEN 1 ELSE 0 END) AS success_checks, " +
+                                "SUM(CASE WHEN status IN (?, ?) THEN 1 ELSE 0 END) AS incidents, " +
+                                "COALESCE(SUM(CAST(response_time_ms AS BIGINT)), 0) AS response_time_sum_ms, " +
+                                "COUNT(response_time_ms) AS response_time_count " +
+                                "FROM check_results " +
+                                "WHERE id <= ? AND checked_at < ? AND site_id IS NOT NULL " +
+                                "AND site_id NOT IN (SELECT id FROM monitored_sites WHERE deleted) " +
+                                "GROUP BY site_id, checked_at - MOD(checked_at, " + CheckResultRollup.BUCKET_MILLIS + ")) c " +
+                                "ON (r.site_id = c.site_id AND r.bucket_start = c.bucket_start) " +
+                                "WHEN MATCHED THEN UPDATE SET " +
+                                "total_checks = r.total_checks + c.total_checks, " +
+                                "success_checks = r.success_checks + c.success_checks, " +
+                                "incidents = r.incidents + c.incidents, " +
+                                "response_time_sum_ms = r.response_time_sum_ms + c.response_time_sum_ms, " +
+                                "response_time_count = r.response_time_count + c.response_time_count " +
+                                "WHEN NOT MATCHED THEN INSERT (site_id, bucket_start, total_checks, success_checks, " +
+                                "incidents, response_time_sum_ms, response_time_count) VALUES (c.site_id, " +
+                                "c.bucket_start, c.total_checks, c.success_checks, c.incidents, " +
+                                "c.response_time_sum_ms, c.response_time_count)")) {
+                    statement.setByte(1, SUCCESS_ORDINAL);
+                    statement.setByte(2, FAILURE_ORDINAL);
+                    statement.setByte(3, ERROR_ORDINAL);
+                    statement.setLong(4, maxId);
+                    statement.setLong(5, cutoff);
+                    statement.executeUpdate();
+                }
+                
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM check_results WHERE id <= ? AND checked_at < ?")) {
+                    statement.setLong(1, maxId);
+                    statement.setLong(2, cutoff);
+                    return statement.executeUpdate();
+                }
+            });
+            
+            tx.commit();
+            if (deleted > 0) {
+                log.debug("{} résultats de vérification expirés supprimés", deleted);
+            }
+            return deleted;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de la purge des résultats de vérification: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de purger les résultats de vérification", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    @Override
+    public int purgeRollupsBefore(LocalDateTime before, int maxRows) {
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            int deleted = session.doReturningWork(connection -> {
+                int rows;
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM check_result_rollups WHERE bucket_start < ? FETCH FIRST ? ROWS ONLY")) {
+                    statement.setLong(1, EpochMillisConverter.toEpochMillis(before));
+                    statement.setInt(2, maxRows);
+                    rows = statement.executeUpdate();
+                }
+                
+                // Les compteurs de causes d'échec suivent la rétention des agrégats
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM error_message_counts WHERE bucket_start < ? FETCH FIRST ? ROWS ONLY")) {
+                    statement.setLong(1, EpochMillisConverter.toEpochMillis(before));
+                    statement.setInt(2, maxRows);
+                    rows += statement.executeUpdate();
+                }
+                return rows;
+            });
+            
+            tx.commit();
+            return deleted;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de la purge des agrégats: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de purger les agrégats", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Cumule des agrégats horaires dans check_result_rollups, dans une seule transaction
+     * @param rollups Les agrégats à ajouter à ceux existants
+     */
+    public void mergeRollups(Collection<CheckResultRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        
+        Session session = sessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "MERGE INTO check_result_rollups r USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+                                "CAST(? AS INT), CAST(? AS INT), CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS INT))) " +
+                                "AS c(site_id, bucket_start, total_checks, success_checks, incidents, " +
+                                "response_time_sum_ms, response_time_count) " +
+                                "ON (r.site_id = c.site_id AND r.bucket_start = c.bucket_start) " +
+                                "WHEN MATCHED THEN UPDATE SET " +
+                                "total_checks = r.total_checks + c.total_checks, " +
+                                "success_checks = r.success_checks + c.success_checks, " +
+                                "incidents = r.incidents + c.incidents, " +
+                                "response_time_sum_ms = r.response_time_sum_ms + c.response_time_sum_ms, " +
+                                "response_time_count = r.response_time_count + c.response_time_count " +
+                                "WHEN NOT MATCHED THEN INSERT (site_id, bucket_start, total_checks, success_checks, " +
+                                "incidents, response_time_sum_ms, response_time_count) VALUES (c.site_id, " +
+                                "c.bucket_start, c.total_checks, c.success_checks, c.incidents, " +
+                                "c.response_time_sum_ms, c.response_time_count)")) {
+                    for (CheckResultRollup rollup : rollups) {
+                        statement.setLong(1, rollup.getSiteId());
+                        statement.setLong(2, rollup.getBucketStart());
+                        statement.setInt(3, rollup.getTotalChecks());
+                        statement.setInt(4, rollup.getSuccessChecks());
+                        statement.setInt(5, rollup.getIncidents());
+                        statement.setLong(6, rollup.getResponseTimeSumMillis());
+                        statement.setInt(7, rollup.getResponseTimeCount());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+            
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de l'enregistrement des agrégats: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'enregistrer les agrégats", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Met à jour le dernier état connu d'un site et les compteurs d'erreurs avec un résultat stocké hors de la base
+     * @param checkResult Le résultat de vérification
+     * @param beforeCommit Enregistrement du résultat hors de la base, exécuté dans la transaction juste avant
+     *                     sa validation ; une exception annule la mise à jour
+     */
+    public void updateSiteState(CheckResult checkResult, Runnable beforeCommit) {
+        updateSiteStates(Collections.singletonList(checkResult), beforeCommit);
+    }
+    
+    /**
+     * Met à jour le dernier état connu des sites et les compteurs d'erreurs avec des résultats stockés hors de la base,
+     * en une seule transaction
+     * @param checkResults Les résultats de vérification, dans leur ordre de vérification
+     * @param beforeCommit Enregistrement des résultats hors de la base, exécuté dans la transaction juste avant
+     *                     sa validation ; une exception annule la mise à jour
+     */
+    public void updateSiteStates(List<CheckResult> checkResults, Runnable beforeCommit) {
+        if (checkResults.isEmpty()) {
+            return;
+        }
+        
+        Session session = ingestSessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            session.doWork(connection -> {
+                mergeSiteStates(connection, checkResults);
+                recordErrorOccurrences(connection, checkResults);
+            });
+            beforeCommit.run();
+            tx.commit();
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de la mise à jour de l'état du site: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de mettre à jour l'état du site", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Compte l'empreinte du message d'erreur de chaque résultat dans sa tranche horaire
+     */
+    private void recordErrorOccurrences(Connection connection, List<CheckResult> checkResults) throws SQLException {
+        Long[] ids = new Long[checkResults.size()];
+        long[] timestamps = new long[checkResults.size()];
+        for (int i = 0; i < ids.length; i++) {
+            CheckResult checkResult = checkResults.get(i);
+            LocalDateTime timestamp = checkResult.getTimestamp() != null ? checkResult.getTimestamp() : LocalDateTime.now();
+            ids[i] = checkResult.getErrorMessageId();
+            timestamps[i] = EpochMillisConverter.toEpochMillis(timestamp);
+        }
+        errorMessages.recordOccurrences(connection, ids, timestamps);
+    }
+    
+    /**
+     * Cumule des résultats dans site_state, dans leur ordre. Un résultat plus ancien que le dernier connu est ignoré.
+     */
+    private void mergeSiteStates(Connection connection, List<CheckResult> checkResults) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "MERGE INTO site_state s USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TINYINT), " +
+                        "CAST(? AS SMALLINT), CAST(? AS INT), CAST(? AS BOOLEAN))) " +
+                        "AS r(site_id, checked_at, status, status_code, response_time_ms, success) " +
+                        "ON (s.site_id = r.site_id) " +
+                        "WHEN MATCHED AND s.last_checked_at <= r.checked_at THEN UPDATE SET " +
+                        "last_checked_at = r.checked_at, " +
+                        "last_status = r.status, " +
+                        "last_status_code = r.status_code, " +
+                        "last_response_time_ms = r.response_time_ms, " +
+                        "last_success_at = CASE WHEN r.success THEN r.checked_at ELSE s.last_success_at END, " +
+                        "last_failure_at = CASE WHEN r.success THEN s.last_failure_at ELSE r.checked_at END, " +
+                        "consecutive_failures = CASE WHEN r.success THEN 0 ELSE s.consecutive_failures + 1 END, " +
+                        "last_transition_at = CASE WHEN s.last_status IS DISTINCT FROM r.status " +
+                        "THEN r.checked_at ELSE s.last_transition_at END " +
+                        "WHEN NOT MATCHED THEN INSERT (site_id, last_checked_at, last_status, last_status_code, " +
+                        "last_response_time_ms, last_success_at, last_failure_at, consecutive_failures, " +
+                        "last_transition_at) VALUES (r.site_id, r.checked_at, r.status, r.status_code, " +
+                        "r.response_time_ms, CASE WHEN r.success THEN r.checked_at END, " +
+                        "CASE WHEN r.success THEN NULL ELSE r.checked_at END, " +
+                        "CASE WHEN r.success THEN 0 ELSE 1 END, r.checked_at)")) {
+            int batched = 0;
+            for (CheckResult checkResult : checkResults) {
+                if (checkResult.getSite() == null || checkResult.getSite().getId() == null) {
+                    continue;
+                }
+                LocalDateTime timestamp = checkResult.getTimestamp() != null ? checkResult.getTimestamp() : LocalDateTime.now();
+                statement.setLong(1, checkResult.getSite().getId());
+                statement.setLong(2, EpochMillisConverter.toEpochMillis(timestamp));
+                statement.setObject(3, checkResult.getStatus() != null ? checkResult.getStatus().ordinal() : null, Types.TINYINT);
+                statement.setObject(4, checkResult.getStatusCode(), Types.SMALLINT);
+                statement.setObject(5, checkResult.getResponseTime() != null
+                        ? (int) checkResult.getResponseTime().toMillis() : null, Types.INTEGER);
+                statement.setBoolean(6, checkResult.getStatus() == CheckResult.CheckStatus.SUCCESS);
+                statement.addBatch();
+                batched++;
+            }
+            if (batched > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+    
+    /**
+     * Retourne l'ID d'un message d'erreur dans le dictionnaire, en l'ajoutant si nécessaire
+     * @param message Le message d'erreur
+     * @return L'ID du message, ou null si le message est null
+     */
+    public Long internErrorMessage(String message) {
+        Long cachedId = errorMessages.findCachedId(message);
+        if (message == null || cachedId != null) {
+            return cachedId;
+        }
+        
+        Session session = ingestSessionFactory.openSession();
+        Transaction tx = null;
+        
+        try {
+            tx = session.beginTransaction();
+            Long id = session.doReturningWork(connection -> errorMessages.intern(connection, message));
+            tx.commit();
+            return id;
+        } catch (Exception e) {
+            if (tx != null) {
+                tx.rollback();
+            }
+            log.error("Erreur lors de l'enregistrement du message d'erreur: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'enregistrer le message d'erreur", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Retrouve le texte d'un message d'erreur du dictionnaire
+     * @param id L'ID du message
+     * @return Le message, ou null si l'ID est null ou inconnu
+     */
+    public String resolveErrorMessage(Long id) {
+        String cachedMessage = errorMessages.findCachedMessage(id);
+        if (id == null || cachedMessage != null) {
+            return cachedMessage;
+        }
+        
+        Session session = reportingSessionFactory.openSession();
+        
+        try {
+            return session.doReturningWork(connection -> errorMessages.resolve(connection, id));
+        } catch (Exception e) {
+            log.error("Erreur lors de la lecture du message d'erreur: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de lire le message d'erreur", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Borne d'un lot de purge : le plus grand des maxRows plus anciens ID expirés, parcourus dans l'ordre
+     * de la clé primaire
+     * @return L'ID, ou null s'il ne reste aucun résultat expiré
+     */
+    private Long findExpiredChunkEnd(long cutoff, int maxRows) {
+        Session session = sessionFactory.openSession();
+        
+        try {
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT MAX(id) FROM (SELECT id FROM check_results " +
+                                "WHERE checked_at < ? ORDER BY id LIMIT ?)")) {
+                    statement.setLong(1, cutoff);
+                    statement.setInt(2, maxRows);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        if (rows.next()) {
+                            long id = rows.getLong(1);
+                            return rows.wasNull() ? null : id;
+                        }
+                        return null;
+                    }
+                }
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors de la recherche des résultats de vérification expirés: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de purger les résultats de vérification", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Lit les résultats expirés d'un lot, pour archivage, hors de toute transaction d'écriture
+     */
+    private List<CheckResult> readExpiredChunk(long maxId, long cutoff) {
+        Session session = sessionFactory.openSession();
+        
+        try {
+            return session.doReturningWork(connection -> readExpiredChunk(connection, maxId, cutoff));
+        } catch (Exception e) {
+            log.error("Erreur lors de la lecture des résultats de vérification à archiver: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'archiver les résultats de vérification", e);
+        } finally {
+            session.close();
+        }
+    }
+    
+    /**
+     * Lit les résultats expirés d'un lot, pour archivage
+     */
+    private List<CheckResult> readExpiredChunk(Connection connection, long maxId, long cutoff) throws SQLException {
+        List<CheckResult> results = new ArrayList<>();
+        CheckResult.CheckStatus[] statuses = CheckResult.CheckStatus.values();
+        CheckResult.AlertSeverity[] severities = CheckResult.AlertSeverity.values();
+        
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, site_id, checked_at, status_code, response_time_ms, content_size, status, severity, " +
+                        "content_check_passed, ssl_check_passed, error_message_id " +
+                        "FROM check_results WHERE id <= ? AND checked_at < ? ORDER BY id")) {
+            statement.setLong(1, maxId);
+            statement.setLong(2, cutoff);
+            
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    long siteId = rows.getLong("site_id");
+                    MonitoredSite site = rows.wasNull() ? null : MonitoredSite.builder().id(siteId).build();
+                    int status = rows.getInt("status");
+                    CheckResult.CheckStatus checkStatus = rows.wasNull() ? null : statuses[status];
+                    int severity = rows.getInt("severity");
+                    CheckResult.AlertSeverity alertSeverity = rows.wasNull() ? null : severities[severity];
+                    int responseTime = rows.getInt("response_time_ms");
+                    Duration responseDuration = rows.wasNull() ? null : Duration.ofMillis(responseTime);
+                    long errorMessageId = rows.getLong("error_message_id");
+                    Long messageId = rows.wasNull() ? null : errorMessageId;
+                    
+                    results.add(CheckResult.builder()
+                            .id(rows.getLong("id"))
+                            .site(site)
+                            .timestamp(EpochMillisConverter.toLocalDateTime(rows.getLong("checked_at")))
+                            .statusCode(rows.getObject("status_code", Integer.class))
+                            .responseTime(responseDuration)
+                            .contentSize(rows.getLong("content_size"))
+                            .status(checkStatus)
+                            .severity(alertSeverity)
+                            .contentCheckPassed(rows.getBoolean("content_check_passed"))
+                            .sslCheckPassed(rows.getBoolean("ssl_check_passed"))
+                            .errorMessageId(messageId)
+                            .errorMessage(errorMessages.resolve(connection, messageId))
+                            .build());
+                }
+            }
+        }
+        return results;
+    }
+    
     /**
      * Ferme les ressources du repository
      */
     public void close() {
-        if (sessionFactory != null) {
-            sessionFactory.close();
+        for (SessionFactory factory : new SessionFactory[] {sessionFactory, ingestSessionFactory, reportingSessionFactory}) {
+            if (factory != null) {
+                factory.close();
+            }
         }
         
-        if (dataSource != null) {
+        for (ConnectionPoolMetrics metrics : poolMetrics) {
+            log.info("Pool de connexions {}", metrics);
+        }
+        for (HikariDataSource dataSource : dataSources) {
             dataSource.close();
         }
     }
@@ -0,0 +1,357 @@
+package com.webguardian.infrastructure.persistence.journal;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.converters.EpochMillisConverter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local en ajout seul des résultats de vérification qui n'ont pas pu être enregistrés en base.
+ *
+ * <pre>
+ * Enregistrement
+ *   0  longueur des données (int)
+ *   4  site (long)   12  horodatage en ms (long)   20  taille du contenu (long)
+ *  28  temps de réponse en ms (int, -1 si inconnu)   32  code HTTP (int, -1 si inconnu)
+ *  36  statut (byte)   37  sévérité (byte, -1 si inconnus)
+ *  38  indicateurs (byte : bit 0 contenu valide, bit 1 SSL valide)
+ *  39  longueur du message d'erreur (int, -1 si aucun)   43  message en UTF-8
+ *  ..  CRC32 des données, de la position 4 à la fin du message (int)
+ * </pre>
+ *
+ * Les écritures sont forcées sur disque par groupes : tous les {@code forceEvery} enregistrements,
+ * ou par {@link #force()} appelé périodiquement. La position relue est conservée dans un fichier
+ * séparé, remplacé atomiquement ; le journal est vidé lorsqu'il a été entièrement relu.
+ * Après un arrêt brutal, le journal est tronqué au dernier enregistrement complet.
+ * Sa taille est bornée : une fois plein, les nouveaux résultats sont refusés jusqu'à ce qu'il soit relu.
+ */
+@Slf4j
+public class CheckResultJournal implements AutoCloseable {
+    private static final String JOURNAL_FILE = "check-results.journal";
+    private static final String OFFSET_FILE = "check-results.offset";
+    // Taille des données hors message d'erreur, sans la longueur ni le CRC
+    private static final int FIXED_SIZE = 39;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final CheckResult.CheckStatus[] STATUSES = CheckResult.CheckStatus.values();
+    private static final CheckResult.AlertSeverity[] SEVERITIES = CheckResult.AlertSeverity.values();
+    
+    private final Path journalFile;
+    private final Path offsetFile;
+    private final int forceEvery;
+    private final long maxBytes;
+    private final FileChannel channel;
+    
+    private long size;
+    private long replayedOffset;
+    private int unforcedRecords;
+    
+    /**
+     * Ouvre (ou crée) le journal et récupère les enregistrements laissés par une exécution précédente
+     * @param directory Répertoire du journal
+     * @param forceEvery Nombre d'enregistrements écrits entre deux écritures forcées sur disque
+     */
+    public CheckResultJournal(String directory, int forceEvery) {
+        this(directory, forceEvery, Long.MAX_VALUE);
+    }
+    
+    /**
+     * @param directory Répertoire du journal
+     * @param forceEvery Nombre d'enregistrements écrits entre deux écritures forcées sur disque
+     * @param maxBytes Taille maximale du journal, en octets
+     */
+    public CheckResultJournal(String directory, int forceEvery, long maxBytes) {
+        Path path = Paths.get(directory);
+        this.journalFile = path.resolve(JOURNAL_FILE);
+        this.offsetFile = path.resolve(OFFSET_FILE);
+        this.forceEvery = Math.max(forceEvery, 1);
+        this.maxBytes = Math.max(maxBytes, 1);
+        
+        try {
+            Files.createDirectories(path);
+            this.channel = FileChannel.open(journalFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            log.error("Erreur lors de l'ouverture du journal local: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'ouvrir le journal local", e);
+        }
+    }
+    
+    /**
+     * Ajoute un résultat à la fin du journal
+     * @param checkResult Le résultat à conserver
+     * @throws RuntimeException si le journal est plein
+     */
+    public synchronized void append(CheckResult checkResult) {
+        ByteBuffer buffer = encode(checkResult);
+        if (size + buffer.limit() > maxBytes) {
+            throw new RuntimeException("Journal local plein (" + size + " octets), résultat non conservé");
+        }
+        
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, size + buffer.position());
+            }
+            size += buffer.limit();
+            
+            if (++unforcedRecords >= forceEvery) {
+                force();
+            }
+        } catch (IOException e) {
+            log.error("Erreur lors de l'écriture dans le journal local: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'écrire dans le journal local", e);
+        }
+    }
+    
+    /**
+     * Force sur disque les enregistrements écrits depuis la dernière écriture forcée
+     */
+    public synchronized void force() {
+        if (unforcedRecords == 0) {
+            return;
+        }
+        
+        try {
+            channel.force(false);
+            unforcedRecords = 0;
+        } catch (IOException e) {
+            log.error("Erreur lors de l'écriture forcée du journal local: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de forcer l'écriture du journal local", e);
+        }
+    }
+    
+    /**
+     * Lit le prochain lot d'enregistrements non relus, sans avancer la position de relecture
+     * @param maxRecords Nombre maximal d'enregistrements
+     * @return Le lot, vide lorsque tout le journal a été relu (ou qu'il reste un enregistrement incomplet)
+     */
+    public synchronized JournalBatch readBatch(int maxRecords) {
+        List<CheckResult> results = new ArrayList<>();
+        List<Long> endOffsets = new ArrayList<>();
+        long position = replayedOffset;
+        
+        try {
+            while (results.size() < maxRecords && position < size) {
+                ByteBuffer record = readRecord(position);
+                if (record == null) {
+                    break;
+                }
+                results.add(decode(record));
+                position += record.capacity() + 8;
+                endOffsets.add(position);
+            }
+        } catch (IOException e) {
+            log.error("Erreur lors de la lecture du journal local: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de lire le journal local", e);
+        }
+        
+        long[] offsets = new long[endOffsets.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = endOffsets.get(i);
+        }
+        return new JournalBatch(results, offsets);
+    }
+    
+    /**
+     * Enregistre la position atteinte par la relecture. Lorsque tout le journal a été relu, il est vidé.
+     * @param offset Position qui suit le dernier enregistrement relu avec succès
+     */
+    public synchronized void acknowledge(long offset) {
+        try {
+            if (offset >= size) {
+                channel.truncate(0);
+                channel.force(false);
+                size = 0;
+                unforcedRecords = 0;
+                replayedOffset = 0;
+            } else {
+                replayedOffset = offset;
+            }
+            writeOffset(replayedOffset);
+        } catch (IOException e) {
+            log.error("Erreur lors de la mise à jour de la position du journal local: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de mettre à jour la position du journal local", e);
+        }
+    }
+    
+    /**
+     * @return true s'il reste des enregistrements à relire
+     */
+    public synchronized boolean hasPending() {
+        return replayedOffset < size;
+    }
+    
+    /**
+     * @return La taille en octets des enregistrements restant à relire
+     */
+    public synchronized long getPendingBytes() {
+        return size - replayedOffset;
+    }
+    
+    @Override
+    public synchronized void close() {
+        try {
+            force();
+            channel.close();
+        } catch (IOException e) {
+            log.error("Erreur lors de la fermeture du journal local: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Relit le journal jusqu'au dernier enregistrement complet et tronque ce qui suit
+     */
+    private void recover() throws IOException {
+        long fileSize = channel.size();
+        long position = 0;
+        size = fileSize;
+        while (position < fileSize) {
+            ByteBuffer record = readRecord(position);
+            if (record == null) {
+                break;
+            }
+            position += record.capacity() + 8;
+        }
+        
+        if (position < fileSize) {
+            log.warn("Journal local tronqué à {} octets: enregistrement incomplet après un arrêt brutal", position);
+            channel.truncate(position);
+            channel.force(false);
+        }
+        size = position;
+        
+        replayedOffset = readOffset();
+        if (replayedOffset > size) {
+            replayedOffset = 0;
+        }
+        if (hasPending()) {
+            log.info("Journal local ouvert: {} octets de résultats à relire", getPendingBytes());
+        }
+    }
+    
+    /**
+     * Lit les données d'un enregistrement
+     * @return Les données, ou null si l'enregistrement est incomplet ou corrompu
+     */
+    private ByteBuffer readRecord(long position) throws IOException {
+        if (position + 4 > size) {
+            return null;
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(header, position);
+        int length = header.getInt(0);
+        if (length < FIXED_SIZE || length > MAX_RECORD_SIZE || position + length + 8 > size) {
+            return null;
+        }
+        
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(record, position + 4);
+        ByteBuffer crc = ByteBuffer.allocate(4);
+        readFully(crc, position + 4 + length);
+        if (crc.getInt(0) != crc32(record.array(), length)) {
+            return null;
+        }
+        return record;
+    }
+    
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Fin inattendue du journal local");
+            }
+        }
+    }
+    
+    private long readOffset() throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return 0;
+        }
+        
+        byte[] bytes = Files.readAllBytes(offsetFile);
+        return bytes.length == 8 ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+    
+    private void writeOffset(long offset) throws IOException {
+        Path temporary = offsetFile.resolveSibling(OFFSET_FILE + ".tmp");
+        Files.write(temporary, ByteBuffer.allocate(8).putLong(offset).array());
+        Files.move(temporary, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    static ByteBuffer encode(CheckResult checkResult) {
+        byte[] message = checkResult.getErrorMessage() != null
+                ? checkResult.getErrorMessage().getBytes(StandardCharsets.UTF_8)
+                : null;
+        int length = FIXED_SIZE + (message != null ? message.length : 0);
+        long timestamp = checkResult.getTimestamp() != null
+                ? EpochMillisConverter.toEpochMillis(checkResult.getTimestamp())
+                : System.currentTimeMillis();
+        
+        ByteBuffer buffer = ByteBuffer.allocate(length + 8);
+        buffer.putInt(length);
+        buffer.putLong(checkResult.getSite().getId());
+        buffer.putLong(timestamp);
+        buffer.putLong(checkResult.getContentSize());
+        buffer.putInt(checkResult.getResponseTime() != null ? (int) checkResult.getResponseTime().toMillis() : -1);
+        buffer.putInt(checkResult.getStatusCode() != null ? checkResult.getStatusCode() : -1);
+        buffer.put(checkResult.getStatus() != null ? (byte) checkResult.getStatus().ordinal() : -1);
+        buffer.put(checkResult.getSeverity() != null ? (byte) checkResult.getSeverity().ordinal() : -1);
+        buffer.put((byte) ((checkResult.isContentCheckPassed() ? 1 : 0) | (checkResult.isSslCheckPassed() ? 2 : 0)));
+        buffer.putInt(message != null ? message.length : -1);
+        if (message != null) {
+            buffer.put(message);
+        }
+        buffer.putInt(crc32(buffer.array(), 4, length));
+        buffer.flip();
+        return buffer;
+    }
+    
+    static CheckResult decode(ByteBuffer record) {
+        long siteId = record.getLong(0);
+        int responseTime = record.getInt(24);
+        int statusCode = record.getInt(28);
+        byte status = record.get(32);
+        byte severity = record.get(33);
+        byte flags = record.get(34);
+        int messageLength = record.getInt(35);
+        
+        return CheckResult.builder()
+                .site(MonitoredSite.builder().id(siteId).build())
+                .timestamp(EpochMillisConverter.toLocalDateTime(record.getLong(8)))
+                .contentSize(record.getLong(16))
+                .responseTime(responseTime >= 0 ? Duration.ofMillis(responseTime) : null)
+                .statusCode(statusCode >= 0 ? statusCode : null)
+                .status(status >= 0 ? STATUSES[status] : null)
+                .severity(severity >= 0 ? SEVERITIES[severity] : null)
+                .contentCheckPassed((flags & 1) != 0)
+                .sslCheckPassed((flags & 2) != 0)
+                .errorMessage(messageLength >= 0
+                        ? new String(record.array(), FIXED_SIZE, messageLength, StandardCharsets.UTF_8)
+                        : null)
+                .build();
+    }
+    
+    private static int crc32(byte[] bytes, int length) {
+        return crc32(bytes, 0, length);
+    }
+    
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
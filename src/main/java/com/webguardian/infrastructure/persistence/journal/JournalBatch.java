@@ -0,0 +1,24 @@
+package com.webguardian.infrastructure.persistence.journal;
+
+import com.webguardian.core.entities.CheckResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Lot de résultats lus dans le journal local, avec pour chacun la position qui suit son enregistrement
+ */
+@Data
+@AllArgsConstructor
+public class JournalBatch {
+    private List<CheckResult> results;
+    private long[] endOffsets;
+    
+    /**
+     * @return La position qui suit le dernier enregistrement du lot
+     */
+    public long getEndOffset() {
+        return endOffsets[endOffsets.length - 1];
+    }
+}
@@ -0,0 +1,345 @@
+package com.webguardian.infrastructure.persistence.journal;
+
+import com.webguardian.core.entities.CheckHistoryColumns;
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ErrorCause;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteCheckSummary;
+import com.webguardian.core.entities.SiteState;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Repository qui conserve dans un journal local les résultats de vérification que la base n'a pas pu
+ * enregistrer (base verrouillée, disque lent, pool épuisé), afin que les vérifications ne soient jamais
+ * bloquées ni perdues. Tant que le journal contient des résultats, les nouveaux y sont ajoutés à la suite
+ * sans solliciter la base ; une tâche de fond les relit par lots dès que la base répond de nouveau.
+ * La relecture garantit au moins une livraison : un arrêt brutal pendant un lot peut dupliquer quelques résultats.
+ * Un résultat que la base refuse alors qu'elle répond est écarté après quelques relectures, pour ne pas bloquer
+ * le journal derrière lui.
+ */
+@Slf4j
+public class JournalingSiteRepository implements SiteRepositoryPort {
+    private final SiteRepositoryPort siteRepository;
+    private final CheckResultJournal journal;
+    private final int replayBatchSize;
+    private final int maxReplayAttempts;
+    private ScheduledExecutorService executor;
+    
+    // Résultat refusé par la base lors des dernières relectures ; modifiés uniquement par la relecture
+    private long rejectedOffset = -1;
+    private int rejectedAttempts;
+    
+    public JournalingSiteRepository(SiteRepositoryPort siteRepository, CheckResultJournal journal, int replayBatchSize) {
+        this(siteRepository, journal, replayBatchSize, 5);
+    }
+    
+    /**
+     * @param maxReplayAttempts Nombre de relectures refusées par la base, alors qu'elle répond,
+     *                          après lequel un résultat est écarté du journal
+     */
+    public JournalingSiteRepository(SiteRepositoryPort siteRepository, CheckResultJournal journal, int replayBatchSize,
+                                    int maxReplayAttempts) {
+        this.siteRepository = siteRepository;
+        this.journal = journal;
+        this.replayBatchSize = Math.max(replayBatchSize, 1);
+        this.maxReplayAttempts = Math.max(maxReplayAttempts, 1);
+    }
+    
+    /**
+     * Démarre les tâches de fond : écriture forcée périodique du journal et relecture vers la base
+     * @param forceInterval Intervalle maximal entre deux écritures forcées sur disque
+     * @param replayInterval Intervalle entre deux tentatives de relecture
+     */
+    public synchronized void start(Duration forceInterval, Duration replayInterval) {
+        if (executor != null) {
+            return;
+        }
+        
+        executor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "check-result-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::forceJournal,
+                forceInterval.toMillis(), forceInterval.toMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::replayJournal,
+                replayInterval.toMillis(), replayInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public CheckResult saveCheckResult(CheckResult checkResult) {
+        // Les résultats en attente sont relus avant d'écrire de nouveau directement en base
+        if (!journal.hasPending()) {
+            try {
+                return siteRepository.saveCheckResult(checkResult);
+            } catch (RuntimeException e) {
+                log.warn("Base indisponible, résultat du site {} conservé dans le journal local: {}",
+                        checkResult.getSite().getId(), e.getMessage());
+            }
+        }
+        
+        journal.append(checkResult);
+        return checkResult;
+    }
+    
+    @Override
+    public List<CheckResult> saveCheckResults(List<CheckResult> checkResults) {
+        if (!journal.hasPending()) {
+            try {
+                return siteRepository.saveCheckResults(checkResults);
+            } catch (RuntimeException e) {
+                log.warn("Base indisponible, {} résultats conservés dans le journal local: {}",
+                        checkResults.size(), e.getMessage());
+            }
+        }
+        
+        for (CheckResult checkResult : checkResults) {
+            journal.append(checkResult);
+        }
+        return checkResults;
+    }
+    
+    /**
+     * Relit le journal vers la base par lots, jusqu'à le vider ou jusqu'au premier échec
+     * @return Le nombre de résultats enregistrés en base
+     */
+    public int replayPending() {
+        int replayed = 0;
+        
+        while (journal.hasPending()) {
+            JournalBatch batch = journal.readBatch(replayBatchSize);
+            List<CheckResult> results = batch.getResults();
+            if (results.isEmpty()) {
+                break;
+            }
+            
+            // Lot entier en une transaction ; en cas d'échec, résultat par résultat pour isoler un site supprimé
+            try {
+                siteRepository.saveCheckResults(results);
+                replayed += results.size();
+                journal.acknowledge(batch.getEndOffset());
+                continue;
+            } catch (RuntimeException e) {
+                log.debug("Relecture du lot impossible, reprise résultat par résultat: {}", e.getMessage());
+            }
+            
+            for (int i = 0; i < results.size(); i++) {
+                CheckResult result = results.get(i);
+                try {
+                    siteRepository.saveCheckResult(result);
+                    replayed++;
+                    rejectedAttempts = 0;
+                } catch (RuntimeException e) {
+                    if (!skipRejected(result, batch.getEndOffsets()[i], e)) {
+                        // Base toujours indisponible : la relecture reprendra après le dernier résultat enregistré
+                        if (i > 0) {
+                            journal.acknowledge(batch.getEndOffsets()[i - 1]);
+                        }
+                        log.warn("Relecture du journal local interrompue: {}", e.getMessage());
+                        return replayed;
+                    }
+                }
+            }
+            journal.acknowledge(batch.getEndOffset());
+        }
+        
+        if (replayed > 0) {
+            log.info("{} résultats du journal local enregistrés en base", replayed);
+        }
+        return replayed;
+    }
+    
+    /**
+     * @return true s'il reste des résultats du journal local à enregistrer en base
+     */
+    public boolean hasPendingResults() {
+        return journal.hasPending();
+    }
+    
+    /**
+     * Arrête les tâches de fond et ferme le journal ; les résultats non relus le seront au prochain démarrage
+     */
+    public void close() {
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+        journal.close();
+    }
+    
+    /**
+     * Décide si un résultat refusé par la base est écarté : son site a été supprimé, ou la base répond
+     * mais refuse ce même résultat depuis maxReplayAttempts relectures
+     * @param endOffset Position qui suit l'enregistrement du résultat, qui l'identifie d'une relecture à l'autre
+     * @return false si la relecture doit s'interrompre pour reprendre plus tard sur ce résultat
+     */
+    private boolean skipRejected(CheckResult result, long endOffset, RuntimeException error) {
+        Long siteId = result.getSite().getId();
+        boolean siteGone;
+        try {
+            siteGone = siteRepository.findById(siteId).isEmpty();
+        } catch (RuntimeException e) {
+            // Base injoignable : le refus ne dit rien du résultat
+            return false;
+        }
+        if (siteGone) {
+            log.warn("Résultat du journal local ignoré: le site {} a été supprimé", siteId);
+            return true;
+        }
+        
+        if (endOffset != rejectedOffset) {
+            rejectedOffset = endOffset;
+            rejectedAttempts = 0;
+        }
+        if (++rejectedAttempts < maxReplayAttempts) {
+            return false;
+        }
+        
+        log.error("Résultat du journal local écarté après {} refus de la base (site {}, {}): {}",
+                rejectedAttempts, siteId, result.getTimestamp(), error.getMessage());
+        rejectedOffset = -1;
+        rejectedAttempts = 0;
+        return true;
+    }
+    
+    private void forceJournal() {
+        try {
+            journal.force();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de l'écriture forcée du journal local: {}", e.getMessage(), e);
+        }
+    }
+    
+    private void replayJournal() {
+        try {
+            replayPending();
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de la relecture du journal local: {}", e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public MonitoredSite save(MonitoredSite site) {
+        return siteRepository.save(site);
+    }
+    
+    @Override
+    public List<MonitoredSite> saveAll(List<MonitoredSite> sites) {
+        return siteRepository.saveAll(sites);
+    }
+    
+    @Override
+    public int updateStatuses(Map<Long, MonitoredSite.SiteStatus> statuses) {
+        return siteRepository.updateStatuses(statuses);
+    }
+    
+    @Override
+    public void delete(Long siteId) {
+        siteRepository.delete(siteId);
+    }
+    
+    @Override
+    public List<MonitoredSite> findDeleted() {
+        return siteRepository.findDeleted();
+    }
+    
+    @Override
+    public long countCheckResults(Long siteId) {
+        return siteRepository.countCheckResults(siteId);
+    }
+    
+    @Override
+    public int purgeDeletedSite(Long siteId, int maxRows) {
+        return siteRepository.purgeDeletedSite(siteId, maxRows);
+    }
+    
+    @Override
+    public Optional<MonitoredSite> findById(Long siteId) {
+        return siteRepository.findById(siteId);
+    }
+    
+    @Override
+    public Optional<MonitoredSite> findByUrl(String url) {
+        return siteRepository.findByUrl(url);
+    }
+    
+    @Override
+    public List<MonitoredSite> findAllByIds(Collection<Long> siteIds) {
+        return siteRepository.findAllByIds(siteIds);
+    }
+    
+    @Override
+    public List<MonitoredSite> findAll() {
+        return siteRepository.findAll();
+    }
+    
+    @Override
+    public List<MonitoredSite> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status) {
+        return siteRepository.findPageAfter(afterId, limit, status);
+    }
+    
+    @Override
+    public List<MonitoredSite> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status) {
+        return siteRepository.findPageBefore(beforeId, limit, status);
+    }
+    
+    @Override
+    public List<CheckResult> getCheckHistory(Long siteId, LocalDateTime from, LocalDateTime to) {
+        return siteRepository.getCheckHistory(siteId, from, to);
+    }
+    
+    @Override
+    public void forEachCheckResult(Long siteId, LocalDateTime from, LocalDateTime to, Consumer<CheckResult> consumer) {
+        siteRepository.forEachCheckResult(siteId, from, to, consumer);
+    }
+    
+    @Override
+    public void forEachCheckHistoryBatch(Long siteId, LocalDateTime from, LocalDateTime to,
+                                         Consumer<CheckHistoryColumns> consumer) {
+        siteRepository.forEachCheckHistoryBatch(siteId, from, to, consumer);
+    }
+    
+    @Override
+    public Map<Long, SiteCheckSummary> getCheckSummaries(LocalDateTime from, LocalDateTime to) {
+        return siteRepository.getCheckSummaries(from, to);
+    }
+    
+    @Override
+    public List<ErrorCause> getTopErrorCauses(LocalDateTime from, LocalDateTime to, int limit) {
+        return siteRepository.getTopErrorCauses(from, to, limit);
+    }
+    
+    @Override
+    public Map<Long, SiteState> getSiteStates() {
+        return siteRepository.getSiteStates();
+    }
+    
+    @Override
+    public Map<Long, SiteState> getSiteStates(Collection<Long> siteIds) {
+        return siteRepository.getSiteStates(siteIds);
+    }
+    
+    @Override
+    public int purgeCheckResultsBefore(LocalDateTime before, int maxRows, Consumer<List<CheckResult>> archiver) {
+        return siteRepository.purgeCheckResultsBefore(before, maxRows, archiver);
+    }
+    
+    @Override
+    public int purgeRollupsBefore(LocalDateTime before, int maxRows) {
+        return siteRepository.purgeRollupsBefore(before, maxRows);
+    }
+}
@@ -0,0 +1,55 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 1 : schéma historique tel que généré par hbm2ddl.
+ * Sans effet sur une base existante, crée les tables sur une base vierge.
+ */
+class BaselineSchemaMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Schéma initial (monitored_sites, check_results)";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS monitored_sites (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "name VARCHAR(255), " +
+                    "url VARCHAR(255), " +
+                    "checkInterval INTERVAL SECOND(18, 9), " +
+                    "responseTimeThreshold INTERVAL SECOND(18, 9), " +
+                    "maxRetries INT NOT NULL, " +
+                    "currentStatus VARCHAR(32), " +
+                    "contentCheckString VARCHAR(255), " +
+                    "checkContent BOOLEAN NOT NULL, " +
+                    "sslCheck BOOLEAN NOT NULL, " +
+                    "notifyOnIssue BOOLEAN NOT NULL, " +
+                    "maintenanceMode BOOLEAN NOT NULL)");
+            
+            statement.execute("CREATE TABLE IF NOT EXISTS check_results (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "site_id BIGINT, " +
+                    "timestamp TIMESTAMP(6), " +
+                    "statusCode INT, " +
+                    "responseTime INTERVAL SECOND(18, 9), " +
+                    "contentSize BIGINT NOT NULL, " +
+                    "status VARCHAR(32), " +
+                    "contentCheckPassed BOOLEAN NOT NULL, " +
+                    "sslCheckPassed BOOLEAN NOT NULL, " +
+                    "errorMessage VARCHAR(255), " +
+                    "severity VARCHAR(32), " +
+                    "CONSTRAINT fk_check_results_site FOREIGN KEY (site_id) REFERENCES monitored_sites(id))");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 4 : agrégats horaires des résultats de vérification (check_result_rollups).
+ * Les résultats bruts expirés y sont cumulés avant d'être supprimés, ce qui permet
+ * de conserver des statistiques bien au-delà de la rétention des données brutes.
+ */
+class CheckResultRollupsMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 4;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Agrégats horaires check_result_rollups";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS check_result_rollups (" +
+                    "site_id BIGINT NOT NULL, " +
+                    "bucket_start BIGINT NOT NULL, " +
+                    "total_checks INT NOT NULL, " +
+                    "success_checks INT NOT NULL, " +
+                    "incidents INT NOT NULL, " +
+                    "response_time_sum_ms BIGINT NOT NULL, " +
+                    "response_time_count INT NOT NULL, " +
+                    "PRIMARY KEY (site_id, bucket_start), " +
+                    "CONSTRAINT fk_check_result_rollups_site FOREIGN KEY (site_id) REFERENCES monitored_sites(id))");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_check_result_rollups_bucket " +
+                    "ON check_result_rollups (bucket_start)");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 2 : index composite (site_id, timestamp), prédicat exact des lectures
+ * d'historique et des suppressions par site
+ */
+class CheckResultsIndexMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Index composite check_results(site_id, timestamp)";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_check_results_site_time " +
+                    "ON check_results (site_id, timestamp)");
+        }
+    }
+}
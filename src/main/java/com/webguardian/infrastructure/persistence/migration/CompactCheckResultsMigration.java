@@ -0,0 +1,237 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import com.webguardian.core.entities.CheckResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Version 3 : disposition compacte de check_results.
+ * <ul>
+ *     <li>statuts et sévérités stockés sous forme d'ordinal (TINYINT)</li>
+ *     <li>horodatage en millisecondes depuis l'epoch (BIGINT)</li>
+ *     <li>temps de réponse en millisecondes (INT)</li>
+ *     <li>messages d'erreur dédupliqués dans la table error_messages</li>
+ * </ul>
+ * Les lignes existantes sont recopiées par lots dans une nouvelle table qui remplace ensuite l'ancienne.
+ * Si la migration est interrompue, elle reprend depuis l'état laissé sur disque.
+ */
+@Slf4j
+class CompactCheckResultsMigration implements SchemaMigration {
+    static final int MAX_ERROR_MESSAGE_LENGTH = 1024;
+    private static final int COPY_BATCH_SIZE = 5000;
+    private static final String COMPACT_TABLE = "check_results_compact";
+    
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Disposition compacte de check_results et dictionnaire error_messages";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        boolean legacyExists = SchemaMigrator.tableExists(connection, "check_results")
+                && !SchemaMigrator.columnExists(connection, "check_results", "checked_at");
+        boolean compactExists = SchemaMigrator.tableExists(connection, COMPACT_TABLE);
+        
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS error_messages (" +
+                    "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "message VARCHAR(" + MAX_ERROR_MESSAGE_LENGTH + ") NOT NULL, " +
+                    "CONSTRAINT uk_error_messages_message UNIQUE (message))");
+            
+            if (legacyExists) {
+                // Copie précédente interrompue : on repart de zéro
+                statement.execute("DROP TABLE IF EXISTS " + COMPACT_TABLE);
+                createCompactTable(statement);
+                connection.commit();
+                
+                long copied = copyRows(connection);
+                log.info("{} résultats de vérification convertis au format compact", copied);
+                
+                statement.execute("DROP TABLE check_results");
+            } else if (!compactExists && !SchemaMigrator.tableExists(connection, "check_results")) {
+                createCompactTable(statement);
+            }
+            
+            // Table compacte pas encore renommée (copie terminée, ou base vierge)
+            if (SchemaMigrator.tableExists(connection, COMPACT_TABLE)) {
+                statement.execute("ALTER TABLE " + COMPACT_TABLE + " RENAME TO check_results");
+            }
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_check_results_site_time " +
+                    "ON check_results (site_id, checked_at)");
+        }
+    }
+    
+    /**
+     * Crée la table au format compact
+     */
+    private void createCompactTable(Statement statement) throws SQLException {
+        statement.execute("CREATE TABLE " + COMPACT_TABLE + " (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "site_id BIGINT, " +
+                "checked_at BIGINT NOT NULL, " +
+                "status_code SMALLINT, " +
+                "response_time_ms INT, " +
+                "content_size BIGINT NOT NULL, " +
+                "status TINYINT, " +
+                "severity TINYINT, " +
+                "content_check_passed BOOLEAN NOT NULL, " +
+                "ssl_check_passed BOOLEAN NOT NULL, " +
+                "error_message_id BIGINT, " +
+                "CONSTRAINT fk_check_results_site_v3 FOREIGN KEY (site_id) REFERENCES monitored_sites(id), " +
+                "CONSTRAINT fk_check_results_error_message FOREIGN KEY (error_message_id) REFERENCES error_messages(id))");
+    }
+    
+    /**
+     * Recopie les lignes de l'ancienne table par lots, en parcourant la clé primaire
+     * @return Le nombre de lignes recopiées
+     */
+    private long copyRows(Connection connection) throws SQLException {
+        Map<String, Long> dictionary = loadDictionary(connection);
+        ZoneId zone = ZoneId.systemDefault();
+        long lastId = 0;
+        long maxId = 0;
+        long copied = 0;
+        
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, site_id, timestamp, statusCode, responseTime, contentSize, status, " +
+                        "contentCheckPassed, sslCheckPassed, errorMessage, severity " +
+                        "FROM check_results WHERE id > ? ORDER BY id LIMIT " + COPY_BATCH_SIZE);
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO " + COMPACT_TABLE + " (id, site_id, checked_at, status_code, response_time_ms, " +
+                             "content_size, status, severity, content_check_passed, ssl_check_passed, error_message_id) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            
+            int batchRows;
+            do {
+                batchRows = 0;
+                select.setLong(1, lastId);
+                
+                try (ResultSet rows = select.executeQuery()) {
+                    while (rows.next()) {
+                        lastId = rows.getLong("id");
+                        
+                        insert.setLong(1, lastId);
+                        insert.setObject(2, rows.getObject("site_id"), Types.BIGINT);
+                        Timestamp timestamp = rows.getTimestamp("timestamp");
+                        insert.setLong(3, timestamp != null
+                                ? timestamp.toLocalDateTime().atZone(zone).toInstant().toEpochMilli()
+                                : 0L);
+                        insert.setObject(4, rows.getObject("statusCode"), Types.SMALLINT);
+                        insert.setObject(5, readMillis(rows, "responseTime"), Types.INTEGER);
+                        insert.setLong(6, rows.getLong("contentSize"));
+                        insert.setObject(7, ordinalOf(CheckResult.CheckStatus.class, rows.getString("status")), Types.TINYINT);
+                        insert.setObject(8, ordinalOf(CheckResult.AlertSeverity.class, rows.getString("severity")), Types.TINYINT);
+                        insert.setBoolean(9, rows.getBoolean("contentCheckPassed"));
+                        insert.setBoolean(10, rows.getBoolean("sslCheckPassed"));
+                        insert.setObject(11, internMessage(connection, dictionary, rows.getString("errorMessage")), Types.BIGINT);
+                        insert.addBatch();
+                        batchRows++;
+                    }
+                }
+                
+                if (batchRows > 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                    copied += batchRows;
+                    maxId = lastId;
+                }
+            } while (batchRows == COPY_BATCH_SIZE);
+        }
+        
+        // Les ID sont conservés : l'identité doit reprendre après le plus grand
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + COMPACT_TABLE + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+        }
+        
+        return copied;
+    }
+    
+    /**
+     * Lit un temps de réponse quel que soit son type de stockage historique (INTERVAL ou nanosecondes)
+     */
+    private Integer readMillis(ResultSet rows, String column) throws SQLException {
+        Object raw = rows.getObject(column);
+        if (raw == null) {
+            return null;
+        }
+        if (raw instanceof Number) {
+            return (int) (((Number) raw).longValue() / 1_000_000L);
+        }
+        return (int) rows.getObject(column, Duration.class).toMillis();
+    }
+    
+    /**
+     * Convertit le nom d'une constante d'énumération en ordinal
+     */
+    private <E extends Enum<E>> Integer ordinalOf(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name.trim()).ordinal();
+        } catch (IllegalArgumentException e) {
+            log.warn("Valeur {} inconnue pour {}, ignorée", name, type.getSimpleName());
+            return null;
+        }
+    }
+    
+    /**
+     * Charge le dictionnaire des messages déjà présents (reprise d'une migration interrompue)
+     */
+    private Map<String, Long> loadDictionary(Connection connection) throws SQLException {
+        Map<String, Long> dictionary = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, message FROM error_messages")) {
+            while (rows.next()) {
+                dictionary.put(rows.getString("message"), rows.getLong("id"));
+            }
+        }
+        return dictionary;
+    }
+    
+    /**
+     * Retourne l'ID d'un message dans le dictionnaire, en l'ajoutant si nécessaire
+     */
+    private Long internMessage(Connection connection, Map<String, Long> dictionary, String message) throws SQLException {
+        if (message == null) {
+            return null;
+        }
+        
+        String key = message.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, MAX_ERROR_MESSAGE_LENGTH)
+                : message;
+        Long id = dictionary.get(key);
+        if (id != null) {
+            return id;
+        }
+        
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO error_messages (message) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            insert.setString(1, key);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                id = keys.getLong(1);
+            }
+        }
+        
+        dictionary.put(key, id);
+        return id;
+    }
+}
@@ -0,0 +1,111 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import com.webguardian.infrastructure.persistence.CheckResultRollup;
+import com.webguardian.infrastructure.persistence.ErrorMessageDictionary;
+import com.webguardian.infrastructure.persistence.ErrorMessageFingerprint;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Version 8 : empreintes des messages d'erreur et compteurs d'occurrences par heure (error_message_counts).
+ * Les messages bruts existants deviennent des alias (canonical_id) de leur empreinte, sans réécrire
+ * check_results ni les segments qui référencent leurs IDs. Les compteurs sont initialisés depuis l'historique.
+ */
+class ErrorFingerprintMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 8;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Empreintes des messages d'erreur et compteurs error_message_counts";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE error_messages ADD COLUMN IF NOT EXISTS canonical_id BIGINT");
+            statement.execute("CREATE TABLE IF NOT EXISTS error_message_counts (" +
+                    "error_message_id BIGINT NOT NULL, " +
+                    "bucket_start BIGINT NOT NULL, " +
+                    "occurrences BIGINT NOT NULL, " +
+                    "last_seen_at BIGINT NOT NULL, " +
+                    "PRIMARY KEY (error_message_id, bucket_start), " +
+                    "CONSTRAINT fk_error_message_counts_message FOREIGN KEY (error_message_id) " +
+                    "REFERENCES error_messages(id))");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_error_message_counts_bucket " +
+                    "ON error_message_counts (bucket_start)");
+        }
+        
+        linkMessagesToFingerprints(connection);
+        
+        // Compteurs initialisés depuis les résultats bruts encore présents
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO error_message_counts (error_message_id, bucket_start, occurrences, last_seen_at) " +
+                    "SELECT COALESCE(e.canonical_id, e.id), " +
+                    "cr.checked_at - MOD(cr.checked_at, " + CheckResultRollup.BUCKET_MILLIS + "), " +
+                    "COUNT(*), MAX(cr.checked_at) " +
+                    "FROM check_results cr JOIN error_messages e ON e.id = cr.error_message_id " +
+                    "GROUP BY COALESCE(e.canonical_id, e.id), " +
+                    "cr.checked_at - MOD(cr.checked_at, " + CheckResultRollup.BUCKET_MILLIS + ")");
+        }
+    }
+    
+    /**
+     * Rattache chaque message brut à l'entrée de son empreinte, créée si nécessaire
+     */
+    private void linkMessagesToFingerprints(Connection connection) throws SQLException {
+        Map<Long, String> keysById = new LinkedHashMap<>();
+        Map<String, Long> idsByKey = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id, message FROM error_messages ORDER BY id")) {
+            while (rows.next()) {
+                long id = rows.getLong(1);
+                String message = rows.getString(2);
+                String key = ErrorMessageFingerprint.of(message);
+                if (key.length() > ErrorMessageDictionary.MAX_MESSAGE_LENGTH) {
+                    key = key.substring(0, ErrorMessageDictionary.MAX_MESSAGE_LENGTH);
+                }
+                
+                // Un message déjà normalisé est l'entrée de son empreinte
+                if (key.equals(message)) {
+                    idsByKey.put(key, id);
+                } else {
+                    keysById.put(id, key);
+                }
+            }
+        }
+        
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO error_messages (message) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement link = connection.prepareStatement(
+                     "UPDATE error_messages SET canonical_id = ? WHERE id = ?")) {
+            for (Map.Entry<Long, String> entry : keysById.entrySet()) {
+                Long canonicalId = idsByKey.get(entry.getValue());
+                if (canonicalId == null) {
+                    insert.setString(1, entry.getValue());
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        keys.next();
+                        canonicalId = keys.getLong(1);
+                    }
+                    idsByKey.put(entry.getValue(), canonicalId);
+                }
+                
+                link.setLong(1, canonicalId);
+                link.setLong(2, entry.getKey());
+                link.addBatch();
+            }
+            link.executeBatch();
+        }
+    }
+}
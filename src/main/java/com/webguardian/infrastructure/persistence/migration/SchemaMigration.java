@@ -0,0 +1,26 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Étape versionnée d'évolution du schéma de la base de données
+ */
+public interface SchemaMigration {
+    /**
+     * @return Le numéro de version atteint après application de la migration (strictement croissant)
+     */
+    int getVersion();
+    
+    /**
+     * @return Une description courte de la migration
+     */
+    String getDescription();
+    
+    /**
+     * Applique la migration. Une migration interrompue doit pouvoir être relancée sans erreur,
+     * H2 validant implicitement la transaction à chaque instruction DDL.
+     * @param connection La connexion à utiliser (auto-commit désactivé)
+     */
+    void migrate(Connection connection) throws SQLException;
+}
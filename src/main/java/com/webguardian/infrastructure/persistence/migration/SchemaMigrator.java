@@ -0,0 +1,163 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applique dans l'ordre les migrations de schéma qui n'ont pas encore été appliquées.
+ * La version courante est conservée dans la table schema_version.
+ */
+@Slf4j
+public class SchemaMigrator {
+    private final DataSource dataSource;
+    private final List<SchemaMigration> migrations;
+    
+    /**
+     * Constructeur avec les migrations de WebGuardian
+     */
+    public SchemaMigrator(DataSource dataSource) {
+        this(dataSource, List.of(
+                new BaselineSchemaMigration(),
+                new CheckResultsIndexMigration(),
+                new CompactCheckResultsMigration(),
+                new CheckResultRollupsMigration(),
+                new SiteDeletionMigration(),
+                new SiteStatusIndexMigration(),
+                new SiteStateMigration(),
+                new ErrorFingerprintMigration(),
+                new SitePriorityMigration(),
+                new SiteDependenciesMigration(),
+                new SiteStatusCheckMigration()));
+    }
+    
+    /**
+     * Constructeur avec une liste de migrations explicite
+     */
+    SchemaMigrator(DataSource dataSource, List<SchemaMigration> migrations) {
+        this.dataSource = dataSource;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(SchemaMigration::getVersion));
+    }
+    
+    /**
+     * @return La version du schéma une fois toutes les migrations appliquées
+     */
+    int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+    
+    /**
+     * Met le schéma à jour
+     * @return La version du schéma après migration
+     */
+    public int migrate() {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            ensureVersionTable(connection);
+            
+            int currentVersion = getCurrentVersion(connection);
+            log.info("Version du schéma de la base de données: {}", currentVersion);
+            
+            for (SchemaMigration migration : migrations) {
+                if (migration.getVersion() <= currentVersion) {
+                    continue;
+                }
+                
+                log.info("Application de la migration {}: {}", migration.getVersion(), migration.getDescription());
+                long start = System.currentTimeMillis();
+                
+                try {
+                    migration.migrate(connection);
+                    recordVersion(connection, migration);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+                
+                currentVersion = migration.getVersion();
+                log.info("Migration {} appliquée en {} ms", migration.getVersion(), System.currentTimeMillis() - start);
+            }
+            
+            return currentVersion;
+        } catch (SQLException e) {
+            log.error("Erreur lors de la migration du schéma: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible de migrer le schéma de la base de données", e);
+        }
+    }
+    
+    /**
+     * Crée la table de suivi des versions si nécessaire
+     */
+    private void ensureVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(255) NOT NULL, " +
+                    "installed_on TIMESTAMP NOT NULL)");
+        }
+        connection.commit();
+    }
+    
+    /**
+     * Lit la dernière version appliquée (0 pour une base vierge)
+     */
+    private int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+    
+    /**
+     * Enregistre une migration appliquée
+     */
+    private void recordVersion(Connection connection, SchemaMigration migration) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO schema_version (version, description, installed_on) VALUES (?, ?, ?)")) {
+            statement.setInt(1, migration.getVersion());
+            statement.setString(2, migration.getDescription());
+            statement.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            statement.executeUpdate();
+        }
+    }
+    
+    /**
+     * Indique si une table existe dans le schéma courant
+     */
+    static boolean tableExists(Connection connection, String tableName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES " +
+                        "WHERE TABLE_SCHEMA = SCHEMA() AND UPPER(TABLE_NAME) = UPPER(?)")) {
+            statement.setString(1, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) > 0;
+            }
+        }
+    }
+    
+    /**
+     * Indique si une colonne existe dans une table du schéma courant
+     */
+    static boolean columnExists(Connection connection, String tableName, String columnName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = SCHEMA() AND UPPER(TABLE_NAME) = UPPER(?) AND UPPER(COLUMN_NAME) = UPPER(?)")) {
+            statement.setString(1, tableName);
+            statement.setString(2, columnName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) > 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 5 : suppression logique des sites (monitored_sites.deleted).
+ * Un site supprimé est masqué immédiatement ; son historique est purgé ensuite en arrière-plan.
+ */
+class SiteDeletionMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 5;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Suppression logique des sites";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE monitored_sites ADD COLUMN IF NOT EXISTS deleted BOOLEAN DEFAULT FALSE NOT NULL");
+        }
+    }
+}
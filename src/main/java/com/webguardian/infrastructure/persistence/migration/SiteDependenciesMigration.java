@@ -0,0 +1,29 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 10 : dépendances entre sites (monitored_sites.dependsOn).
+ * Les sites existants ne dépendent d'aucun autre.
+ */
+class SiteDependenciesMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 10;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Dépendances entre sites";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE monitored_sites ADD COLUMN IF NOT EXISTS dependsOn VARCHAR(1024)");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 9 : priorité de vérification des sites (monitored_sites.priority).
+ * Les sites existants reçoivent la priorité normale.
+ */
+class SitePriorityMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 9;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Priorité de vérification des sites";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE monitored_sites ADD COLUMN IF NOT EXISTS priority VARCHAR(16) DEFAULT 'NORMAL' NOT NULL");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import com.webguardian.core.entities.CheckResult;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 7 : dernier état connu de chaque site (site_state), mis à jour avec chaque résultat
+ * de vérification. La table est initialisée à partir de l'historique existant.
+ */
+class SiteStateMigration implements SchemaMigration {
+    private static final int SUCCESS_ORDINAL = CheckResult.CheckStatus.SUCCESS.ordinal();
+    
+    @Override
+    public int getVersion() {
+        return 7;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Dernier état connu des sites site_state";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS site_state (" +
+                    "site_id BIGINT NOT NULL PRIMARY KEY, " +
+                    "last_checked_at BIGINT NOT NULL, " +
+                    "last_status TINYINT, " +
+                    "last_status_code SMALLINT, " +
+                    "last_response_time_ms INT, " +
+                    "last_success_at BIGINT, " +
+                    "last_failure_at BIGINT, " +
+                    "consecutive_failures INT NOT NULL, " +
+                    "last_transition_at BIGINT, " +
+                    "CONSTRAINT fk_site_state_site FOREIGN KEY (site_id) REFERENCES monitored_sites(id))");
+            
+            // Initialisation depuis le dernier résultat de chaque site (index site_id, checked_at)
+            statement.execute("INSERT INTO site_state (site_id, last_checked_at, last_status, last_status_code, " +
+                    "last_response_time_ms, last_success_at, last_failure_at, consecutive_failures, last_transition_at) " +
+                    "SELECT l.site_id, l.checked_at, l.status, l.status_code, l.response_time_ms, " +
+                    "(SELECT MAX(c.checked_at) FROM check_results c WHERE c.site_id = l.site_id " +
+                    "AND c.status = " + SUCCESS_ORDINAL + "), " +
+                    "(SELECT MAX(c.checked_at) FROM check_results c WHERE c.site_id = l.site_id " +
+                    "AND (c.status IS NULL OR c.status <> " + SUCCESS_ORDINAL + ")), " +
+                    "(SELECT COUNT(*) FROM check_results c WHERE c.site_id = l.site_id AND c.checked_at > " +
+                    "COALESCE((SELECT MAX(s.checked_at) FROM check_results s WHERE s.site_id = l.site_id " +
+                    "AND s.status = " + SUCCESS_ORDINAL + "), -1)), " +
+                    "(SELECT MIN(c.checked_at) FROM check_results c WHERE c.site_id = l.site_id AND c.checked_at > " +
+                    "COALESCE((SELECT MAX(d.checked_at) FROM check_results d WHERE d.site_id = l.site_id " +
+                    "AND d.status IS DISTINCT FROM l.status), -1)) " +
+                    "FROM check_results l " +
+                    "WHERE l.site_id IS NOT NULL AND l.id = (SELECT MAX(m.id) FROM check_results m " +
+                    "WHERE m.site_id = l.site_id AND m.checked_at = " +
+                    "(SELECT MAX(n.checked_at) FROM check_results n WHERE n.site_id = l.site_id))");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Version 11 : suppression de la contrainte CHECK posée par hbm2ddl sur monitored_sites.currentStatus.
+ * Les bases créées avant les migrations n'acceptent que les statuts connus à leur création (pas FLAPPING) ;
+ * la colonne devient un simple VARCHAR, comme sur une base créée par la migration initiale.
+ */
+class SiteStatusCheckMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 11;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Suppression de la contrainte sur les statuts des sites";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        List<String> constraints = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT tc.CONSTRAINT_NAME, cc.CHECK_CLAUSE FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc " +
+                             "JOIN INFORMATION_SCHEMA.CHECK_CONSTRAINTS cc " +
+                             "ON cc.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA AND cc.CONSTRAINT_NAME = tc.CONSTRAINT_NAME " +
+                             "WHERE tc.TABLE_SCHEMA = SCHEMA() AND UPPER(tc.TABLE_NAME) = 'MONITORED_SITES' " +
+                             "AND tc.CONSTRAINT_TYPE = 'CHECK'")) {
+            while (resultSet.next()) {
+                if (resultSet.getString(2).toUpperCase(Locale.ROOT).contains("CURRENTSTATUS")) {
+                    constraints.add(resultSet.getString(1));
+                }
+            }
+        }
+        
+        try (Statement statement = connection.createStatement()) {
+            for (String constraint : constraints) {
+                statement.execute("ALTER TABLE monitored_sites DROP CONSTRAINT \"" + constraint + "\"");
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Version 6 : index (currentStatus, id) pour paginer la liste des sites filtrée par statut
+ * sans parcourir toute la table.
+ */
+class SiteStatusIndexMigration implements SchemaMigration {
+    
+    @Override
+    public int getVersion() {
+        return 6;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "Index de pagination des sites par statut";
+    }
+    
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_monitored_sites_status " +
+                    "ON monitored_sites (currentStatus, id)");
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.webguardian.infrastructure.persistence.segment;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Segment de résultats de vérification : un fichier en ajout seul, projeté en mémoire,
+ * composé d'un en-tête et d'enregistrements de taille fixe.
+ *
+ * <pre>
+ * En-tête ({@value #HEADER_SIZE} octets)
+ *   0  magic (int)          4  version (short)       6  état (byte : 0 actif, 1 scellé, 2 agrégé)
+ *   8  séquence (long)     16  début de fenêtre (long)
+ *  24  nombre d'enregistrements (int, valide une fois scellé)
+ *  28  CRC32 des données (int, valide une fois scellé)
+ *  32  horodatage minimal (long)  40  horodatage maximal (long)
+ *
+ * Enregistrement ({@value #RECORD_SIZE} octets)
+ *   0  site (long)          8  horodatage en ms (long)   16  taille du contenu (long)
+ *  24  message d'erreur (long, 0 si aucun)   32  temps de réponse en ms (int, -1 si inconnu)
+ *  36  code HTTP (short, -1 si inconnu)     38  statut (byte)   39  sévérité (byte, -1 si inconnus)
+ *  40  indicateurs (byte : bit 0 contenu valide, bit 1 SSL valide)
+ *  44  CRC32 des 44 premiers octets (int)
+ * </pre>
+ *
+ * Un enregistrement n'est valide que si son CRC correspond : après un arrêt brutal, la relecture
+ * s'arrête au premier enregistrement incomplet. Le scellement force les données sur disque avant
+ * d'écrire le nombre d'enregistrements et le CRC global, puis seulement l'état « scellé ».
+ */
+@Slf4j
+class CheckResultSegment {
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 48;
+    
+    private static final int MAGIC = 0x57475347; // "WGSG"
+    private static final short VERSION = 1;
+    private static final byte STATE_ACTIVE = 0;
+    private static final byte STATE_SEALED = 1;
+    private static final byte STATE_ROLLED_UP = 2;
+    private static final int RECORD_CRC_OFFSET = 44;
+    
+    // Écriture sur disque des enregistrements par groupes
+    private static final int FORCE_EVERY_RECORDS = 256;
+    
+    private final Path file;
+    private final long sequence;
+    private final long windowStart;
+    private final int capacity;
+    private MappedByteBuffer buffer;
+    private SegmentIndex index;
+    
+    private volatile int count;
+    private volatile byte state;
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+    private int forcedCount;
+    
+    private CheckResultSegment(Path file, long sequence, long windowStart, int capacity,
+                               MappedByteBuffer buffer, SegmentIndex index) {
+        this.file = file;
+        this.sequence = sequence;
+        this.windowStart = windowStart;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        this.index = index;
+    }
+    
+    /**
+     * Crée un nouveau segment actif
+     */
+    static CheckResultSegment create(Path file, long sequence, long windowStart, int capacity) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        }
+        
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.put(6, STATE_ACTIVE);
+        buffer.putLong(8, sequence);
+        buffer.putLong(16, windowStart);
+        buffer.force(0, HEADER_SIZE);
+        
+        CheckResultSegment segment = new CheckResultSegment(file, sequence, windowStart, capacity, buffer, new SegmentIndex());
+        segment.state = STATE_ACTIVE;
+        return segment;
+    }
+    
+    /**
+     * Ouvre un segment existant. Un segment qui n'a pas été scellé (arrêt brutal) est relu
+     * jusqu'au dernier enregistrement valide, puis scellé.
+     * @return Le segment, ou null si le fichier n'est pas un segment
+     */
+    static CheckResultSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            return null;
+        }
+        
+        int capacity = (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        CheckResultSegment segment = new CheckResultSegment(file, buffer.getLong(8), buffer.getLong(16),
+                capacity, buffer, null);
+        segment.state = buffer.get(6);
+        
+        if (segment.state != STATE_ACTIVE && segment.verifySealedData()) {
+            segment.count = buffer.getInt(24);
+            segment.minTimestamp = buffer.getLong(32);
+            segment.maxTimestamp = buffer.getLong(40);
+            segment.index = segment.loadIndex();
+            return segment;
+        }
+        
+        // Segment actif lors de l'arrêt, ou scellement interrompu : reconstruction depuis les enregistrements
+        segment.state = STATE_ACTIVE;
+        segment.recover();
+        segment.seal();
+        return segment;
+    }
+    
+    /**
+     * Ajoute un enregistrement (appelant unique : le store sérialise les écritures)
+     * @return La position de l'enregistrement dans le segment
+     */
+    int append(long siteId, long timestamp, Integer statusCode, Integer responseTimeMillis, long contentSize,
+               Integer status, Integer severity, boolean contentCheckPassed, boolean sslCheckPassed,
+               long errorMessageId) {
+        if (state != STATE_ACTIVE || count >= capacity) {
+            throw new IllegalStateException("Segment " + sequence + " plein ou scellé");
+        }
+        
+        int record = count;
+        int offset = offset(record);
+        buffer.putLong(offset, siteId);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.putLong(offset + 16, contentSize);
+        buffer.putLong(offset + 24, errorMessageId);
+        buffer.putInt(offset + 32, responseTimeMillis != null ? responseTimeMillis : -1);
+        buffer.putShort(offset + 36, statusCode != null ? statusCode.shortValue() : -1);
+        buffer.put(offset + 38, status != null ? status.byteValue() : -1);
+        buffer.put(offset + 39, severity != null ? severity.byteValue() : -1);
+        buffer.put(offset + 40, (byte) ((contentCheckPassed ? 1 : 0) | (sslCheckPassed ? 2 : 0)));
+        buffer.putInt(offset + RECORD_CRC_OFFSET, recordCrc(offset));
+        
+        index.add(siteId, record, timestamp);
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        count = record + 1;
+        
+        if (count - forcedCount >= FORCE_EVERY_RECORDS) {
+            force();
+        }
+        return record;
+    }
+    
+    /**
+     * Scelle le segment : plus aucun ajout, données et index persistés, fichier réduit à sa taille utile
+     */
+    void seal() throws IOException {
+        if (state != STATE_ACTIVE) {
+            return;
+        }
+        
+        force();
+        buffer.putInt(24, count);
+        buffer.putInt(28, dataCrc());
+        buffer.putLong(32, minTimestamp);
+        buffer.putLong(40, maxTimestamp);
+        buffer.force(0, HEADER_SIZE);
+        buffer.put(6, STATE_SEALED);
+        buffer.force(0, HEADER_SIZE);
+        state = STATE_SEALED;
+        
+        // Index écrit à côté puis renommé atomiquement
+        Path indexFile = indexFile();
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        index.write(temporary, count);
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        // Libération de l'espace réservé mais inutilisé
+        long usedSize = HEADER_SIZE + (long) count * RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer sealedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, usedSize);
+            buffer = sealedBuffer;
+            channel.truncate(usedSize);
+        }
+        log.debug("Segment {} scellé: {} enregistrements", sequence, count);
+    }
+    
+    /**
+     * Marque le segment comme cumulé dans les agrégats, avant sa suppression
+     */
+    void markRolledUp() {
+        buffer.put(6, STATE_ROLLED_UP);
+        buffer.force(0, HEADER_SIZE);
+        state = STATE_ROLLED_UP;
+    }
+    
+    /**
+     * Supprime les fichiers du segment
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(indexFile());
+        Files.deleteIfExists(file);
+    }
+    
+    boolean isActive() {
+        return state == STATE_ACTIVE;
+    }
+    
+    boolean isRolledUp() {
+        return state == STATE_ROLLED_UP;
+    }
+    
+    boolean isFull() {
+        return count >= capacity;
+    }
+    
+    long getSequence() {
+        return sequence;
+    }
+    
+    long getWindowStart() {
+        return windowStart;
+    }
+    
+    int getCount() {
+        return count;
+    }
+    
+    long getMinTimestamp() {
+        return minTimestamp;
+    }
+    
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+    
+    SegmentIndex getIndex() {
+        return index;
+    }
+    
+    // Accès aux champs d'un enregistrement, sans allocation
+    
+    long siteId(int record) {
+        return buffer.getLong(offset(record));
+    }
+    
+    long timestamp(int record) {
+        return buffer.getLong(offset(record) + 8);
+    }
+    
+    long contentSize(int record) {
+        return buffer.getLong(offset(record) + 16);
+    }
+    
+    long errorMessageId(int record) {
+        return buffer.getLong(offset(record) + 24);
+    }
+    
+    int responseTimeMillis(int record) {
+        return buffer.getInt(offset(record) + 32);
+    }
+    
+    short statusCode(int record) {
+        return buffer.getShort(offset(record) + 36);
+    }
+    
+    byte status(int record) {
+        return buffer.get(offset(record) + 38);
+    }
+    
+    byte severity(int record) {
+        return buffer.get(offset(record) + 39);
+    }
+    
+    boolean contentCheckPassed(int record) {
+        return (buffer.get(offset(record) + 40) & 1) != 0;
+    }
+    
+    boolean sslCheckPassed(int record) {
+        return (buffer.get(offset(record) + 40) & 2) != 0;
+    }
+    
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+    
+    private void force() {
+        if (count > forcedCount) {
+            buffer.force(offset(forcedCount), (count - forcedCount) * RECORD_SIZE);
+            forcedCount = count;
+        }
+    }
+    
+    /**
+     * Relit les enregistrements jusqu'au premier invalide et reconstruit l'index
+     */
+    private void recover() {
+        index = new SegmentIndex();
+        int record = 0;
+        while (record < capacity && buffer.getInt(offset(record) + RECORD_CRC_OFFSET) == recordCrc(offset(record))) {
+            long timestamp = timestamp(record);
+            index.add(siteId(record), record, timestamp);
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            record++;
+        }
+        count = record;
+        forcedCount = record;
+        log.warn("Segment {} non scellé récupéré: {} enregistrements valides", sequence, record);
+    }
+    
+    private boolean verifySealedData() {
+        int sealedCount = buffer.getInt(24);
+        if (sealedCount < 0 || sealedCount > capacity) {
+            return false;
+        }
+        count = sealedCount;
+        boolean valid = buffer.getInt(28) == dataCrc();
+        if (!valid) {
+            log.warn("CRC invalide pour le segment scellé {}, relecture des enregistrements", file.getFileName());
+        }
+        return valid;
+    }
+    
+    private SegmentIndex loadIndex() throws IOException {
+        Path indexFile = indexFile();
+        if (Files.exists(indexFile)) {
+            SegmentIndex loaded = SegmentIndex.read(indexFile, count);
+            if (loaded != null) {
+                return loaded;
+            }
+        }
+        
+        log.info("Reconstruction de l'index du segment {}", sequence);
+        SegmentIndex rebuilt = new SegmentIndex();
+        for (int record = 0; record < count; record++) {
+            rebuilt.add(siteId(record), record, timestamp(record));
+        }
+        return rebuilt;
+    }
+    
+    private int recordCrc(int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, RECORD_CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+    
+    private int dataCrc() {
+        CRC32 crc = new CRC32();
+        ByteBuffer data = buffer.slice(HEADER_SIZE, count * RECORD_SIZE);
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+    
+    private Path indexFile() {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+}
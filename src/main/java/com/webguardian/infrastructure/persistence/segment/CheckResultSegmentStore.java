@@ -0,0 +1,236 @@
+package com.webguardian.infrastructure.persistence.segment;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Stockage des résultats de vérification bruts dans des segments en ajout seul, un par fenêtre de temps.
+ * Les écritures sont sérialisées ; les lectures se font sans verrou sur les segments projetés en mémoire.
+ * Un segment est scellé lorsque la fenêtre suivante commence, lorsqu'il est plein, ou à la fermeture.
+ */
+@Slf4j
+public class CheckResultSegmentStore implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - CheckResultSegment.HEADER_SIZE) / CheckResultSegment.RECORD_SIZE;
+    
+    private final Path directory;
+    private final long windowMillis;
+    private final int segmentCapacity;
+    
+    // Segments par ordre de séquence croissant, le dernier pouvant être actif
+    private final List<CheckResultSegment> segments = new CopyOnWriteArrayList<>();
+    private CheckResultSegment active;
+    private long nextSequence = 1;
+    
+    /**
+     * Ouvre (ou crée) le stockage et récupère les segments laissés par une exécution précédente
+     * @param directory Répertoire des segments
+     * @param window Durée couverte par un segment
+     * @param segmentCapacity Nombre maximal d'enregistrements par fichier de segment
+     */
+    public CheckResultSegmentStore(String directory, Duration window, int segmentCapacity) {
+        this.directory = Paths.get(directory);
+        this.windowMillis = Math.max(window.toMillis(), 1);
+        this.segmentCapacity = Math.min(Math.max(segmentCapacity, SegmentIndex.BLOCK_SIZE), MAX_CAPACITY);
+        
+        try {
+            Files.createDirectories(this.directory);
+            loadSegments();
+        } catch (IOException e) {
+            log.error("Erreur lors de l'ouverture du stockage par segments: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'ouvrir le stockage par segments", e);
+        }
+    }
+    
+    /**
+     * Ajoute un résultat
+     * @return L'identifiant du résultat (séquence du segment sur les 32 bits de poids fort, position ensuite)
+     */
+    public synchronized long append(long siteId, long timestamp, Integer statusCode, Integer responseTimeMillis,
+                                    long contentSize, Integer status, Integer severity, boolean contentCheckPassed,
+                                    boolean sslCheckPassed, long errorMessageId) {
+        try {
+            long windowStart = timestamp - Math.floorMod(timestamp, windowMillis);
+            
+            // Les résultats en retard restent dans le segment actif : seules les fenêtres suivantes ouvrent un segment
+            if (active == null || active.isFull() || windowStart > active.getWindowStart()) {
+                roll(windowStart);
+            }
+            
+            int record = active.append(siteId, timestamp, statusCode, responseTimeMillis, contentSize,
+                    status, severity, contentCheckPassed, sslCheckPassed, errorMessageId);
+            return (active.getSequence() << 32) | record;
+        } catch (IOException e) {
+            log.error("Erreur lors de l'écriture dans le stockage par segments: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'écrire le résultat de vérification", e);
+        }
+    }
+    
+    /**
+     * Parcourt les enregistrements d'un site sur une période, segment par segment, dans l'ordre d'écriture
+     * @param from Début de la période en ms depuis l'epoch (inclus)
+     * @param to Fin de la période en ms depuis l'epoch (incluse)
+     */
+    void scan(long siteId, long from, long to, RecordConsumer consumer) {
+        for (CheckResultSegment segment : segments) {
+            if (!overlaps(segment, from, to)) {
+                continue;
+            }
+            
+            SegmentIndex index = segment.getIndex();
+            int count = segment.getCount();
+            for (int block : index.getBlocks(siteId)) {
+                if (!index.overlaps(block, from, to)) {
+                    continue;
+                }
+                
+                int end = Math.min((block + 1) * SegmentIndex.BLOCK_SIZE, count);
+                for (int record = block * SegmentIndex.BLOCK_SIZE; record < end; record++) {
+                    if (segment.siteId(record) == siteId) {
+                        long timestamp = segment.timestamp(record);
+                        if (timestamp >= from && timestamp <= to) {
+                            consumer.accept(segment, record);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Parcourt les enregistrements de tous les sites sur une période
+     */
+    void scanAll(long from, long to, RecordConsumer consumer) {
+        for (CheckResultSegment segment : segments) {
+            if (!overlaps(segment, from, to)) {
+                continue;
+            }
+            
+            int count = segment.getCount();
+            for (int record = 0; record < count; record++) {
+                long timestamp = segment.timestamp(record);
+                if (timestamp >= from && timestamp <= to) {
+                    consumer.accept(segment, record);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Supprime le plus ancien segment scellé dont tous les enregistrements sont antérieurs à une date
+     * @param before Date limite en ms depuis l'epoch (exclue)
+     * @param beforeDelete Traitement appliqué au segment avant sa suppression (agrégation, archivage) ;
+     *                     une exception conserve le segment
+     * @return Le nombre d'enregistrements supprimés, 0 s'il n'y a plus de segment expiré
+     */
+    synchronized int dropOldestSegmentBefore(long before, SegmentConsumer beforeDelete) {
+        for (CheckResultSegment segment : segments) {
+            if (segment.isActive() || segment.getMaxTimestamp() >= before) {
+                continue;
+            }
+            
+            try {
+                if (!segment.isRolledUp()) {
+                    beforeDelete.accept(segment);
+                    segment.markRolledUp();
+                }
+                segments.remove(segment);
+                segment.delete();
+                log.debug("Segment {} expiré supprimé ({} enregistrements)", segment.getSequence(), segment.getCount());
+                return segment.getCount();
+            } catch (IOException e) {
+                log.error("Erreur lors de la suppression du segment {}: {}", segment.getSequence(), e.getMessage(), e);
+                throw new RuntimeException("Impossible de supprimer le segment expiré", e);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Scelle le segment actif
+     */
+    @Override
+    public synchronized void close() {
+        if (active != null) {
+            try {
+                active.seal();
+            } catch (IOException e) {
+                log.error("Erreur lors du scellement du segment {}: {}", active.getSequence(), e.getMessage(), e);
+            }
+            active = null;
+        }
+    }
+    
+    /**
+     * Scelle le segment actif et en ouvre un nouveau
+     */
+    private void roll(long windowStart) throws IOException {
+        if (active != null) {
+            active.seal();
+        }
+        
+        long sequence = nextSequence++;
+        Path file = directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        active = CheckResultSegment.create(file, sequence, windowStart, segmentCapacity);
+        segments.add(active);
+        log.debug("Nouveau segment {} pour la fenêtre commençant à {}", sequence, windowStart);
+    }
+    
+    private void loadSegments() throws IOException {
+        List<CheckResultSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                CheckResultSegment segment = CheckResultSegment.open(file);
+                if (segment == null) {
+                    log.warn("Fichier {} ignoré: ce n'est pas un segment", file.getFileName());
+                    continue;
+                }
+                loaded.add(segment);
+            }
+        }
+        
+        loaded.sort(Comparator.comparingLong(CheckResultSegment::getSequence));
+        for (CheckResultSegment segment : loaded) {
+            nextSequence = Math.max(nextSequence, segment.getSequence() + 1);
+            
+            // Suppression interrompue : le segment est déjà cumulé dans les agrégats
+            if (segment.isRolledUp()) {
+                segment.delete();
+                continue;
+            }
+            segments.add(segment);
+        }
+        log.info("Stockage par segments ouvert: {} segments dans {}", segments.size(), directory);
+    }
+    
+    private static boolean overlaps(CheckResultSegment segment, long from, long to) {
+        return segment.getCount() > 0 && segment.getMaxTimestamp() >= from && segment.getMinTimestamp() <= to;
+    }
+    
+    /**
+     * Traitement d'un enregistrement, lu directement dans le segment
+     */
+    @FunctionalInterface
+    interface RecordConsumer {
+        void accept(CheckResultSegment segment, int record);
+    }
+    
+    /**
+     * Traitement d'un segment complet
+     */
+    @FunctionalInterface
+    interface SegmentConsumer {
+        void accept(CheckResultSegment segment) throws IOException;
+    }
+}
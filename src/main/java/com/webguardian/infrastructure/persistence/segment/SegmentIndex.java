@@ -0,0 +1,146 @@
+package com.webguardian.infrastructure.persistence.segment;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index creux par site d'un segment.
+ * Le segment est découpé en blocs de {@link #BLOCK_SIZE} enregistrements ; l'index conserve,
+ * pour chaque bloc, les horodatages minimal et maximal, et pour chaque site la liste des blocs
+ * où il apparaît. Un parcours par site et par période ne lit donc que les blocs utiles.
+ * L'index du segment actif est alimenté pendant que d'autres threads le consultent : les accès sont synchronisés.
+ */
+class SegmentIndex {
+    static final int BLOCK_SIZE = 1024;
+    private static final int MAGIC = 0x57474958; // "WGIX"
+    
+    private final Map<Long, BlockList> blocksBySite = new HashMap<>();
+    private long[] blockMinTimestamps = new long[16];
+    private long[] blockMaxTimestamps = new long[16];
+    private int blockCount;
+    
+    /**
+     * Référence un enregistrement (appelé dans l'ordre des enregistrements)
+     */
+    synchronized void add(long siteId, int record, long timestamp) {
+        int block = record / BLOCK_SIZE;
+        if (block == blockCount) {
+            if (blockCount == blockMinTimestamps.length) {
+                blockMinTimestamps = Arrays.copyOf(blockMinTimestamps, blockCount * 2);
+                blockMaxTimestamps = Arrays.copyOf(blockMaxTimestamps, blockCount * 2);
+            }
+            blockMinTimestamps[block] = timestamp;
+            blockMaxTimestamps[block] = timestamp;
+            blockCount++;
+        } else {
+            blockMinTimestamps[block] = Math.min(blockMinTimestamps[block], timestamp);
+            blockMaxTimestamps[block] = Math.max(blockMaxTimestamps[block], timestamp);
+        }
+        
+        blocksBySite.computeIfAbsent(siteId, id -> new BlockList()).add(block);
+    }
+    
+    /**
+     * @return Les blocs contenant des enregistrements du site, par ordre croissant (tableau vide si aucun)
+     */
+    synchronized int[] getBlocks(long siteId) {
+        BlockList blocks = blocksBySite.get(siteId);
+        return blocks != null ? Arrays.copyOf(blocks.blocks, blocks.size) : new int[0];
+    }
+    
+    /**
+     * Indique si un bloc peut contenir des enregistrements de la période
+     */
+    synchronized boolean overlaps(int block, long from, long to) {
+        return blockMaxTimestamps[block] >= from && blockMinTimestamps[block] <= to;
+    }
+    
+    synchronized int getBlockCount() {
+        return blockCount;
+    }
+    
+    /**
+     * Écrit l'index dans un fichier
+     * @param recordCount Nombre d'enregistrements du segment, vérifié au chargement
+     */
+    synchronized void write(Path file, int recordCount) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(recordCount);
+            out.writeInt(blockCount);
+            for (int block = 0; block < blockCount; block++) {
+                out.writeLong(blockMinTimestamps[block]);
+                out.writeLong(blockMaxTimestamps[block]);
+            }
+            out.writeInt(blocksBySite.size());
+            for (Map.Entry<Long, BlockList> entry : blocksBySite.entrySet()) {
+                BlockList blocks = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeInt(blocks.size);
+                for (int i = 0; i < blocks.size; i++) {
+                    out.writeInt(blocks.blocks[i]);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Charge un index écrit par {@link #write}
+     * @return L'index, ou null s'il ne correspond pas au segment (il faut alors le reconstruire)
+     */
+    static SegmentIndex read(Path file, int expectedRecordCount) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != expectedRecordCount) {
+                return null;
+            }
+            
+            SegmentIndex index = new SegmentIndex();
+            index.blockCount = in.readInt();
+            index.blockMinTimestamps = new long[Math.max(index.blockCount, 1)];
+            index.blockMaxTimestamps = new long[Math.max(index.blockCount, 1)];
+            for (int block = 0; block < index.blockCount; block++) {
+                index.blockMinTimestamps[block] = in.readLong();
+                index.blockMaxTimestamps[block] = in.readLong();
+            }
+            
+            int siteCount = in.readInt();
+            for (int i = 0; i < siteCount; i++) {
+                long siteId = in.readLong();
+                BlockList blocks = new BlockList();
+                blocks.size = in.readInt();
+                blocks.blocks = new int[Math.max(blocks.size, 1)];
+                for (int j = 0; j < blocks.size; j++) {
+                    blocks.blocks[j] = in.readInt();
+                }
+                index.blocksBySite.put(siteId, blocks);
+            }
+            return index;
+        }
+    }
+    
+    /**
+     * Liste croissante et sans doublon de numéros de blocs
+     */
+    private static class BlockList {
+        private int[] blocks = new int[4];
+        private int size;
+        
+        void add(int block) {
+            if (size > 0 && blocks[size - 1] == block) {
+                return;
+            }
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            blocks[size++] = block;
+        }
+    }
+}
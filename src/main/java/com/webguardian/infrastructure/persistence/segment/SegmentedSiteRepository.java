@@ -0,0 +1,393 @@
+package com.webguardian.infrastructure.persistence.segment;
+
+import com.webguardian.core.entities.CheckHistoryColumns;
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ErrorCause;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteCheckSummary;
+import com.webguardian.core.entities.SiteState;
+import com.webguardian.core.entities.converters.EpochMillisConverter;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import com.webguardian.infrastructure.persistence.CheckResultRollup;
+import com.webguardian.infrastructure.persistence.H2SiteRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Repository qui stocke les résultats de vérification bruts dans des segments projetés en mémoire.
+ * La configuration des sites, le dictionnaire des messages d'erreur et les agrégats horaires restent dans H2.
+ * Les résultats écrits dans H2 avant l'activation des segments restent lisibles jusqu'à leur expiration.
+ * Les résultats sont ajoutés au segment dans la transaction qui met à jour l'état de leurs sites, juste avant
+ * sa validation : un état qui ne peut être mis à jour n'ajoute rien au segment, et un ajout qui échoue annule
+ * la mise à jour, si bien que le journal local peut réécrire les résultats sans les dupliquer.
+ */
+@Slf4j
+public class SegmentedSiteRepository implements SiteRepositoryPort {
+    private static final CheckResult.CheckStatus[] STATUSES = CheckResult.CheckStatus.values();
+    private static final CheckResult.AlertSeverity[] SEVERITIES = CheckResult.AlertSeverity.values();
+    private static final byte SUCCESS_ORDINAL = (byte) CheckResult.CheckStatus.SUCCESS.ordinal();
+    private static final byte FAILURE_ORDINAL = (byte) CheckResult.CheckStatus.FAILURE.ordinal();
+    private static final byte ERROR_ORDINAL = (byte) CheckResult.CheckStatus.ERROR.ordinal();
+    private static final int HISTORY_BATCH_SIZE = 1024;
+    
+    private final H2SiteRepository siteRepository;
+    private final CheckResultSegmentStore store;
+    
+    public SegmentedSiteRepository(H2SiteRepository siteRepository, CheckResultSegmentStore store) {
+        this.siteRepository = siteRepository;
+        this.store = store;
+    }
+    
+    @Override
+    public MonitoredSite save(MonitoredSite site) {
+        return siteRepository.save(site);
+    }
+    
+    @Override
+    public List<MonitoredSite> saveAll(List<MonitoredSite> sites) {
+        return siteRepository.saveAll(sites);
+    }
+    
+    @Override
+    public int updateStatuses(Map<Long, MonitoredSite.SiteStatus> statuses) {
+        return siteRepository.updateStatuses(statuses);
+    }
+    
+    @Override
+    public void delete(Long siteId) {
+        siteRepository.delete(siteId);
+    }
+    
+    @Override
+    public List<MonitoredSite> findDeleted() {
+        return siteRepository.findDeleted();
+    }
+    
+    @Override
+    public long countCheckResults(Long siteId) {
+        long[] count = new long[1];
+        store.scan(siteId, Long.MIN_VALUE, Long.MAX_VALUE, (segment, record) -> count[0]++);
+        return siteRepository.countCheckResults(siteId) + count[0];
+    }
+    
+    @Override
+    public int purgeDeletedSite(Long siteId, int maxRows) {
+        // Seul l'historique en base est purgé : les enregistrements du site restent dans les segments
+        // jusqu'à leur expiration, et ne sont pas cumulés dans les agrégats
+        return siteRepository.purgeDeletedSite(siteId, maxRows);
+    }
+    
+    @Override
+    public Optional<MonitoredSite> findById(Long siteId) {
+        return siteRepository.findById(siteId);
+    }
+    
+    @Override
+    public Optional<MonitoredSite> findByUrl(String url) {
+        return siteRepository.findByUrl(url);
+    }
+    
+    @Override
+    public List<MonitoredSite> findAllByIds(Collection<Long> siteIds) {
+        return siteRepository.findAllByIds(siteIds);
+    }
+    
+    @Override
+    public List<MonitoredSite> findAll() {
+        return siteRepository.findAll();
+    }
+    
+    @Override
+    public List<MonitoredSite> findPageAfter(Long afterId, int limit, MonitoredSite.SiteStatus status) {
+        return siteRepository.findPageAfter(afterId, limit, status);
+    }
+    
+    @Override
+    public List<MonitoredSite> findPageBefore(Long beforeId, int limit, MonitoredSite.SiteStatus status) {
+        return siteRepository.findPageBefore(beforeId, limit, status);
+    }
+    
+    @Override
+    public CheckResult saveCheckResult(CheckResult checkResult) {
+        prepare(checkResult);
+        siteRepository.updateSiteState(checkResult, () -> appendToStore(checkResult));
+        return checkResult;
+    }
+    
+    @Override
+    public List<CheckResult> saveCheckResults(List<CheckResult> checkResults) {
+        for (CheckResult checkResult : checkResults) {
+            prepare(checkResult);
+        }
+        // Dernier état des sites et compteurs d'erreurs mis à jour en une seule transaction pour tout le lot
+        siteRepository.updateSiteStates(checkResults, () -> {
+            for (CheckResult checkResult : checkResults) {
+                appendToStore(checkResult);
+            }
+        });
+        return checkResults;
+    }
+    
+    /**
+     * Fixe l'horodatage d'un résultat et l'ID de son message d'erreur, avant son écriture
+     */
+    private void prepare(CheckResult checkResult) {
+        if (checkResult.getTimestamp() == null) {
+            checkResult.setTimestamp(LocalDateTime.now());
+        }
+        checkResult.setErrorMessageId(siteRepository.internErrorMessage(checkResult.getErrorMessage()));
+    }
+    
+    /**
+     * Ajoute un résultat préparé au segment courant et lui attribue son ID
+     */
+    private void appendToStore(CheckResult checkResult) {
+        Long errorMessageId = checkResult.getErrorMessageId();
+        
+        long id = store.append(
+                checkResult.getSite().getId(),
+                EpochMillisConverter.toEpochMillis(checkResult.getTimestamp()),
+                checkResult.getStatusCode(),
+                checkResult.getResponseTime() != null ? (int) checkResult.getResponseTime().toMillis() : null,
+                checkResult.getContentSize(),
+                checkResult.getStatus() != null ? checkResult.getStatus().ordinal() : null,
+                checkResult.getSeverity() != null ? checkResult.getSeverity().ordinal() : null,
+                checkResult.isContentCheckPassed(),
+                checkResult.isSslCheckPassed(),
+                errorMessageId != null ? errorMessageId : 0L);
+        
+        checkResult.setId(id);
+    }
+    
+    @Override
+    public List<CheckResult> getCheckHistory(Long siteId, LocalDateTime from, LocalDateTime to) {
+        List<CheckResult> results = new ArrayList<>(siteRepository.getCheckHistory(siteId, from, to));
+        MonitoredSite site = MonitoredSite.builder().id(siteId).build();
+        
+        store.scan(siteId, EpochMillisConverter.toEpochMillis(from), EpochMillisConverter.toEpochMillis(to),
+                (segment, record) -> results.add(toCheckResult(segment, record, site)));
+        
+        // Du plus récent au plus ancien, comme la lecture en base
+        results.sort(Comparator.comparing(CheckResult::getTimestamp).reversed());
+        return results;
+    }
+    
+    @Override
+    public void forEachCheckResult(Long siteId, LocalDateTime from, LocalDateTime to, Consumer<CheckResult> consumer) {
+        siteRepository.forEachCheckResult(siteId, from, to, consumer);
+        
+        MonitoredSite site = MonitoredSite.builder().id(siteId).build();
+        store.scan(siteId, EpochMillisConverter.toEpochMillis(from), EpochMillisConverter.toEpochMillis(to),
+                (segment, record) -> consumer.accept(toCheckResult(segment, record, site)));
+    }
+    
+    @Override
+    public void forEachCheckHistoryBatch(Long siteId, LocalDateTime from, LocalDateTime to,
+                                         Consumer<CheckHistoryColumns> consumer) {
+        siteRepository.forEachCheckHistoryBatch(siteId, from, to, consumer);
+        
+        CheckHistoryColumns batch = new CheckHistoryColumns(HISTORY_BATCH_SIZE);
+        store.scan(siteId, EpochMillisConverter.toEpochMillis(from), EpochMillisConverter.toEpochMillis(to),
+                (segment, record) -> {
+                    int responseTime = segment.responseTimeMillis(record);
+                    batch.add(segment.timestamp(record), segment.status(record),
+                            responseTime >= 0 ? responseTime : CheckHistoryColumns.NO_RESPONSE_TIME);
+                    if (batch.getSize() == HISTORY_BATCH_SIZE) {
+                        consumer.accept(batch);
+                        batch.clear();
+                    }
+                });
+        if (batch.getSize() > 0) {
+            consumer.accept(batch);
+        }
+    }
+    
+    @Override
+    public Map<Long, SiteCheckSummary> getCheckSummaries(LocalDateTime from, LocalDateTime to) {
+        // Accumulateurs par site : total, succès, incidents, somme et nombre des temps de réponse
+        Map<Long, long[]> counters = new HashMap<>();
+        store.scanAll(EpochMillisConverter.toEpochMillis(from), EpochMillisConverter.toEpochMillis(to),
+                (segment, record) -> {
+                    long[] counter = counters.computeIfAbsent(segment.siteId(record), id -> new long[5]);
+                    byte status = segment.status(record);
+                    counter[0]++;
+                    if (status == SUCCESS_ORDINAL) {
+                        counter[1]++;
+                    } else if (status == FAILURE_ORDINAL || status == ERROR_ORDINAL) {
+                        counter[2]++;
+                    }
+                    int responseTime = segment.responseTimeMillis(record);
+                    if (responseTime >= 0) {
+                        counter[3] += responseTime;
+                        counter[4]++;
+                    }
+                });
+        
+        Map<Long, SiteCheckSummary> summaries = new HashMap<>(siteRepository.getCheckSummaries(from, to));
+        for (Map.Entry<Long, long[]> entry : counters.entrySet()) {
+            long[] counter = entry.getValue();
+            SiteCheckSummary summary = SiteCheckSummary.builder()
+                    .siteId(entry.getKey())
+                    .totalChecks(counter[0])
+                    .successChecks(counter[1])
+                    .incidents(counter[2])
+                    .responseTimeSamples(counter[4])
+                    .averageResponseTimeMillis(counter[4] > 0 ? (double) counter[3] / counter[4] : 0.0)
+                    .build();
+            summaries.merge(entry.getKey(), summary, SiteCheckSummary::plus);
+        }
+        return summaries;
+    }
+    
+    @Override
+    public List<ErrorCause> getTopErrorCauses(LocalDateTime from, LocalDateTime to, int limit) {
+        // Les compteurs sont tenus dans H2, y compris pour les résultats stockés dans les segments
+        return siteRepository.getTopErrorCauses(from, to, limit);
+    }
+    
+    @Override
+    public Map<Long, SiteState> getSiteStates() {
+        return siteRepository.getSiteStates();
+    }
+    
+    @Override
+    public Map<Long, SiteState> getSiteStates(Collection<Long> siteIds) {
+        return siteRepository.getSiteStates(siteIds);
+    }
+    
+    @Override
+    public int purgeCheckResultsBefore(LocalDateTime before, int maxRows, Consumer<List<CheckResult>> archiver) {
+        // Résultats antérieurs à l'activation des segments d'abord
+        int deleted = siteRepository.purgeCheckResultsBefore(before, maxRows, archiver);
+        if (deleted > 0) {
+            return deleted;
+        }
+        
+        // Puis un segment expiré entier : cumulé dans les agrégats et archivé avant suppression
+        return store.dropOldestSegmentBefore(EpochMillisConverter.toEpochMillis(before), segment -> {
+            if (archiver != null) {
+                archive(segment, maxRows, archiver);
+            }
+            siteRepository.mergeRollups(rollUp(segment));
+        });
+    }
+    
+    @Override
+    public int purgeRollupsBefore(LocalDateTime before, int maxRows) {
+        return siteRepository.purgeRollupsBefore(before, maxRows);
+    }
+    
+    /**
+     * Scelle le segment actif
+     */
+    public void close() {
+        store.close();
+    }
+    
+    /**
+     * Calcule les agrégats horaires d'un segment
+     */
+    private List<CheckResultRollup> rollUp(CheckResultSegment segment) {
+        Map<Long, Map<Long, CheckResultRollup>> rollupsBySite = new HashMap<>();
+        List<CheckResultRollup> rollups = new ArrayList<>();
+        
+        // Les sites supprimés depuis l'écriture du segment n'ont plus d'agrégats
+        Set<Long> siteIds = new HashSet<>();
+        for (MonitoredSite site : siteRepository.findAll()) {
+            siteIds.add(site.getId());
+        }
+        
+        for (int record = 0; record < segment.getCount(); record++) {
+            long siteId = segment.siteId(record);
+            if (!siteIds.contains(siteId)) {
+                continue;
+            }
+            long timestamp = segment.timestamp(record);
+            long bucketStart = timestamp - Math.floorMod(timestamp, CheckResultRollup.BUCKET_MILLIS);
+            
+            CheckResultRollup rollup = rollupsBySite.computeIfAbsent(siteId, id -> new HashMap<>())
+                    .computeIfAbsent(bucketStart, start -> {
+                        CheckResultRollup created = CheckResultRollup.builder()
+                                .siteId(siteId)
+                                .bucketStart(start)
+                                .build();
+                        rollups.add(created);
+                        return created;
+                    });
+            
+            byte status = segment.status(record);
+            rollup.setTotalChecks(rollup.getTotalChecks() + 1);
+            if (status == SUCCESS_ORDINAL) {
+                rollup.setSuccessChecks(rollup.getSuccessChecks() + 1);
+            } else if (status == FAILURE_ORDINAL || status == ERROR_ORDINAL) {
+                rollup.setIncidents(rollup.getIncidents() + 1);
+            }
+            int responseTime = segment.responseTimeMillis(record);
+            if (responseTime >= 0) {
+                rollup.setResponseTimeSumMillis(rollup.getResponseTimeSumMillis() + responseTime);
+                rollup.setResponseTimeCount(rollup.getResponseTimeCount() + 1);
+            }
+        }
+        return rollups;
+    }
+    
+    /**
+     * Transmet les enregistrements d'un segment à l'archiveur, par lots
+     */
+    private void archive(CheckResultSegment segment, int batchSize, Consumer<List<CheckResult>> archiver) {
+        Map<Long, MonitoredSite> sites = new HashMap<>();
+        List<CheckResult> batch = new ArrayList<>(batchSize);
+        
+        for (int record = 0; record < segment.getCount(); record++) {
+            MonitoredSite site = sites.computeIfAbsent(segment.siteId(record),
+                    id -> MonitoredSite.builder().id(id).build());
+            batch.add(toCheckResult(segment, record, site));
+            if (batch.size() >= batchSize) {
+                archiver.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            archiver.accept(batch);
+        }
+    }
+    
+    /**
+     * Reconstruit un résultat de vérification depuis un enregistrement de segment
+     */
+    private CheckResult toCheckResult(CheckResultSegment segment, int record, MonitoredSite site) {
+        short statusCode = segment.statusCode(record);
+        int responseTime = segment.responseTimeMillis(record);
+        byte status = segment.status(record);
+        byte severity = segment.severity(record);
+        long errorMessageId = segment.errorMessageId(record);
+        Long messageId = errorMessageId != 0 ? errorMessageId : null;
+        
+        return CheckResult.builder()
+                .id((segment.getSequence() << 32) | record)
+                .site(site)
+                .timestamp(EpochMillisConverter.toLocalDateTime(segment.timestamp(record)))
+                .statusCode(statusCode >= 0 ? (int) statusCode : null)
+                .responseTime(responseTime >= 0 ? Duration.ofMillis(responseTime) : null)
+                .contentSize(segment.contentSize(record))
+                .status(status >= 0 && status < STATUSES.length ? STATUSES[status] : null)
+                .severity(severity >= 0 && severity < SEVERITIES.length ? SEVERITIES[severity] : null)
+                .contentCheckPassed(segment.contentCheckPassed(record))
+                .sslCheckPassed(segment.sslCheckPassed(record))
+                .errorMessageId(messageId)
+                .errorMessage(siteRepository.resolveErrorMessage(messageId))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.entities.CheckResult;
+
+/**
+ * Intervalle adaptatif d'un site. Après un changement d'état (échec d'un site disponible, ou succès d'un site
+ * en échec), le site est vérifié à intervalle court jusqu'à ce que plusieurs résultats identiques consécutifs
+ * confirment le nouvel état. Un site en échec confirmé revient à son intervalle configuré ; un site disponible
+ * voit son intervalle doubler à chaque série de vérifications réussies, jusqu'au maximum.
+ * Non thread-safe : les vérifications d'un même site ne se chevauchent pas.
+ */
+final class AdaptiveInterval {
+    private final AdaptiveIntervalSettings settings;
+    private boolean up = true;
+    private int streak;
+    private boolean confirming;
+    
+    AdaptiveInterval(AdaptiveIntervalSettings settings) {
+        this.settings = settings;
+    }
+    
+    /**
+     * Compte le résultat brut d'une vérification, et non le statut du site : les règles de changement d'état
+     * retardent le passage en panne, la confirmation rapide doit commencer dès le premier échec
+     * @param baseIntervalMillis L'intervalle configuré du site
+     * @return L'intervalle jusqu'à la prochaine vérification, en millisecondes
+     */
+    long next(CheckResult result, long baseIntervalMillis) {
+        return next(result.getStatus() == CheckResult.CheckStatus.SUCCESS, baseIntervalMillis);
+    }
+    
+    /**
+     * Compte le résultat d'une vérification
+     * @param success true si le site est disponible
+     * @param baseIntervalMillis L'intervalle configuré du site
+     * @return L'intervalle jusqu'à la prochaine vérification, en millisecondes
+     */
+    long next(boolean success, long baseIntervalMillis) {
+        if (success != up) {
+            up = success;
+            streak = 1;
+            confirming = true;
+        } else {
+            streak++;
+        }
+        if (confirming && streak >= settings.getConfirmChecks()) {
+            confirming = false;
+        }
+        
+        if (confirming) {
+            return Math.min(settings.getFastIntervalMillis(), baseIntervalMillis);
+        }
+        if (!up) {
+            return baseIntervalMillis;
+        }
+        
+        // Doublement à chaque série de succès, borné par le maximum
+        long interval = baseIntervalMillis;
+        int doublings = streak / Math.max(settings.getStretchAfter(), 1);
+        for (int i = 0; i < doublings && interval < settings.getMaxIntervalMillis(); i++) {
+            interval *= 2;
+        }
+        return Math.max(baseIntervalMillis, Math.min(interval, settings.getMaxIntervalMillis()));
+    }
+    
+    /**
+     * @return true si un changement d'état est en cours de confirmation
+     */
+    boolean isConfirming() {
+        return confirming;
+    }
+}
@@ -0,0 +1,32 @@
+package com.webguardian.infrastructure.scheduling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Paramètres du mode de planification adaptatif : intervalle court pour confirmer un changement d'état,
+ * intervalle allongé pour les sites disponibles depuis longtemps
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdaptiveIntervalSettings {
+    // Intervalle entre les vérifications de confirmation
+    @Builder.Default
+    private long fastIntervalMillis = 15_000;
+    
+    // Intervalle maximal d'un site disponible
+    @Builder.Default
+    private long maxIntervalMillis = 1_800_000;
+    
+    // Résultats identiques consécutifs qui confirment un changement d'état
+    @Builder.Default
+    private int confirmChecks = 3;
+    
+    // Vérifications réussies consécutives avant chaque doublement de l'intervalle
+    @Builder.Default
+    private int stretchAfter = 12;
+}
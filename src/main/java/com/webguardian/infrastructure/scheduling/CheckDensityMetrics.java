@@ -0,0 +1,120 @@
+package com.webguardian.infrastructure.scheduling;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Densité des vérifications lancées par seconde, sur une fenêtre glissante. Chaque seconde occupe une case
+ * d'un anneau, qui contient le numéro de la seconde et son compteur, mis à jour sans verrou.
+ * Un pic nettement supérieur à la moyenne signale des vérifications groupées plutôt que réparties.
+ */
+public class CheckDensityMetrics {
+    public static final int DEFAULT_WINDOW_SECONDS = 300;
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    
+    private final AtomicLongArray seconds;
+    
+    public CheckDensityMetrics() {
+        this(DEFAULT_WINDOW_SECONDS);
+    }
+    
+    /**
+     * @param windowSeconds Durée de la fenêtre, en secondes
+     */
+    public CheckDensityMetrics(int windowSeconds) {
+        // Une case de plus pour la seconde en cours, exclue des statistiques
+        this.seconds = new AtomicLongArray(Math.max(windowSeconds, 1) + 1);
+    }
+    
+    /**
+     * Compte une vérification lancée maintenant
+     */
+    public void record() {
+        record(System.currentTimeMillis());
+    }
+    
+    /**
+     * Compte une vérification lancée à l'instant donné
+     */
+    public void record(long epochMillis) {
+        long second = TimeUnit.MILLISECONDS.toSeconds(epochMillis);
+        int index = (int) Math.floorMod(second, (long) seconds.length());
+        
+        while (true) {
+            long current = seconds.get(index);
+            long next = (current >>> COUNT_BITS) == second
+                    ? (current & COUNT_MASK) < COUNT_MASK ? current + 1 : current
+                    : (second << COUNT_BITS) | 1;
+            if (seconds.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Statistiques sur les secondes complètes de la fenêtre
+     */
+    public Snapshot snapshot() {
+        return snapshot(System.currentTimeMillis());
+    }
+    
+    /**
+     * Statistiques sur les secondes complètes de la fenêtre précédant l'instant donné
+     */
+    public Snapshot snapshot(long epochMillis) {
+        long now = TimeUnit.MILLISECONDS.toSeconds(epochMillis);
+        int window = seconds.length() - 1;
+        
+        long total = 0;
+        long peak = 0;
+        double sumSquares = 0;
+        for (long second = now - window; second < now; second++) {
+            long value = seconds.get((int) Math.floorMod(second, (long) seconds.length()));
+            long count = (value >>> COUNT_BITS) == second ? value & COUNT_MASK : 0;
+            total += count;
+            peak = Math.max(peak, count);
+            sumSquares += (double) count * count;
+        }
+        
+        double mean = (double) total / window;
+        double variance = Math.max(sumSquares / window - mean * mean, 0);
+        return new Snapshot(window, total, mean, peak, Math.sqrt(variance));
+    }
+    
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+    
+    /**
+     * Densité observée sur une fenêtre
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class Snapshot {
+        private final int windowSeconds;
+        private final long total;
+        private final double mean;
+        private final long peak;
+        private final double standardDeviation;
+        
+        /**
+         * @return Le rapport pic/moyenne (1 pour une charge parfaitement plate)
+         */
+        public double getPeakToMeanRatio() {
+            return mean > 0 ? peak / mean : 0.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Densité des vérifications sur %d s: %d au total, moyenne %.2f/s, pic %d/s, "
+                            + "écart-type %.2f, rapport pic/moyenne %.2f",
+                    windowSeconds, total, mean, peak, standardDeviation, getPeakToMeanRatio());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.entities.MonitoredSite;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * File de répartition des vérifications entre le planificateur et les threads de vérification.
+ * Les vérifications sont prises par priorité du site, puis par échéance la plus proche. Une vérification
+ * qui n'a pas pu démarrer avant son échéance (l'instant prévu de la suivante) est abandonnée.
+ * Une partie des threads est réservée aux sites critiques : une panne massive de sites ordinaires,
+ * qui occupe les autres threads jusqu'au timeout, ne retarde pas leur vérification.
+ */
+@Slf4j
+public class CheckDispatcher {
+    /** Échéance d'une vérification qui ne doit jamais être abandonnée */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    
+    private final int workerCount;
+    private final int reservedWorkers;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Condition criticalAvailable = lock.newCondition();
+    private final PriorityQueue<Check> criticalQueue = new PriorityQueue<>();
+    private final PriorityQueue<Check> queue = new PriorityQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private long sequence;
+    private boolean running;
+    
+    /**
+     * @param workerCount Nombre total de threads de vérification
+     * @param reservedCriticalWorkers Nombre de threads réservés aux sites critiques, au plus workerCount - 1
+     */
+    public CheckDispatcher(int workerCount, int reservedCriticalWorkers) {
+        this.workerCount = Math.max(workerCount, 1);
+        this.reservedWorkers = Math.max(0, Math.min(reservedCriticalWorkers, this.workerCount - 1));
+    }
+    
+    /**
+     * Démarre les threads de vérification
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            running = true;
+            for (int i = 0; i < workerCount; i++) {
+                boolean reserved = i < reservedWorkers;
+                Thread thread = new Thread(() -> work(reserved),
+                        (reserved ? "check-critical-" : "check-worker-") + i);
+                thread.setDaemon(true);
+                workers.add(thread);
+                thread.start();
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("File de vérification démarrée ({} threads dont {} réservés aux sites critiques)",
+                workerCount, reservedWorkers);
+    }
+    
+    /**
+     * Ajoute une vérification à la file
+     * @param priority La priorité du site (normale si null)
+     * @param deadlineNanos Instant, selon System.nanoTime(), au-delà duquel la vérification est abandonnée,
+     *                      ou {@link #NO_DEADLINE}
+     * @param task La vérification
+     * @param onExpired Appelé à la place de la vérification si elle est abandonnée
+     * @throws RejectedExecutionException si la file est arrêtée
+     */
+    public void submit(MonitoredSite.Priority priority, long deadlineNanos, Runnable task, Runnable onExpired) {
+        MonitoredSite.Priority effective = priority != null ? priority : MonitoredSite.Priority.NORMAL;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("File de vérification arrêtée");
+            }
+            
+            Check check = new Check(effective, deadlineNanos, sequence++, task, onExpired);
+            if (effective == MonitoredSite.Priority.CRITICAL) {
+                criticalQueue.add(check);
+                criticalAvailable.signal();
+            } else {
+                queue.add(check);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return Le nombre de vérifications en attente
+     */
+    public int getQueuedCount() {
+        lock.lock();
+        try {
+            return criticalQueue.size() + queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return Le nombre de vérifications abandonnées faute d'avoir démarré avant leur échéance
+     */
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+    
+    /**
+     * Arrête les threads de vérification. Les vérifications en cours se terminent,
+     * celles en attente sont abandonnées sans appel.
+     */
+    public void shutdown() {
+        int dropped;
+        lock.lock();
+        try {
+            running = false;
+            dropped = criticalQueue.size() + queue.size();
+            criticalQueue.clear();
+            queue.clear();
+            available.signalAll();
+            criticalAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.info("File de vérification arrêtée ({} vérifications en attente abandonnées)", dropped);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("File de vérification: %d en attente, %d lancées, %d abandonnées après échéance",
+                getQueuedCount(), dispatched.sum(), getExpiredCount());
+    }
+    
+    private void work(boolean reserved) {
+        while (true) {
+            Check check = take(reserved);
+            if (check == null) {
+                return;
+            }
+            
+            if (check.deadlineNanos != NO_DEADLINE && System.nanoTime() - check.deadlineNanos > 0) {
+                // La vérification suivante du site est déjà due : celle-ci n'a plus d'intérêt
+                expired.increment();
+                runSafely(check.onExpired);
+                continue;
+            }
+            
+            dispatched.increment();
+            runSafely(check.task);
+        }
+    }
+    
+    /**
+     * Prend la prochaine vérification : les threads réservés ne prennent que les sites critiques
+     * @return La vérification, ou null si la file est arrêtée
+     */
+    private Check take(boolean reserved) {
+        lock.lock();
+        try {
+            while (running) {
+                Check check = criticalQueue.poll();
+                if (check == null && !reserved) {
+                    check = queue.poll();
+                }
+                if (check != null) {
+                    return check;
+                }
+                
+                if (reserved) {
+                    criticalAvailable.await();
+                } else {
+                    available.await();
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution d'une vérification: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Vérification en attente, ordonnée par priorité, puis échéance, puis ordre d'arrivée
+     */
+    private static final class Check implements Comparable<Check> {
+        private final MonitoredSite.Priority priority;
+        private final long deadlineNanos;
+        private final long sequence;
+        private final Runnable task;
+        private final Runnable onExpired;
+        
+        Check(MonitoredSite.Priority priority, long deadlineNanos, long sequence, Runnable task, Runnable onExpired) {
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+            this.sequence = sequence;
+            this.task = task;
+            this.onExpired = onExpired;
+        }
+        
+        @Override
+        public int compareTo(Check other) {
+            int byPriority = priority.compareTo(other.priority);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            
+            // Sans échéance en dernier ; sinon comparaison par différence, à cause du débordement de nanoTime
+            if (deadlineNanos != other.deadlineNanos) {
+                if (deadlineNanos == NO_DEADLINE) {
+                    return 1;
+                }
+                if (other.deadlineNanos == NO_DEADLINE) {
+                    return -1;
+                }
+                return deadlineNanos - other.deadlineNanos < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.webguardian.infrastructure.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Roue temporelle hachée : les échéances sont rangées dans des cases indexées par le numéro de tick
+ * modulo la taille de la roue. Planification, replanification et annulation sont en O(1) : les appelants
+ * déposent l'échéance dans une file sans verrou, et seul le thread de la roue modifie les cases. À chaque tick,
+ * les tâches échues sont confiées à l'exécuteur ; les tâches périodiques sont replacées à échéance fixe.
+ */
+@Slf4j
+public class HashedTimingWheel {
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] wheel;
+    private final Executor executor;
+    private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> pendingReschedules = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running;
+    private volatile long startNanos;
+    
+    // Modifié uniquement par le thread de la roue
+    private long tick;
+    
+    /**
+     * @param tickDuration Durée d'un tick (précision de la roue)
+     * @param wheelSize Nombre de cases, arrondi à la puissance de 2 supérieure
+     * @param executor L'exécuteur auquel les tâches échues sont confiées
+     * @param name Nom du thread de la roue
+     */
+    public HashedTimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor executor, String name) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("La durée d'un tick doit être positive");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Taille de roue invalide: " + wheelSize);
+        }
+        
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.mask = size - 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.executor = executor;
+        this.ticker = new Thread(this::run, name);
+        this.ticker.setDaemon(true);
+    }
+    
+    /**
+     * Démarre le thread de la roue
+     */
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            startNanos = System.nanoTime();
+            running = true;
+            ticker.start();
+        }
+    }
+    
+    /**
+     * Arrête le thread de la roue ; les échéances en attente sont abandonnées
+     */
+    public void stop() {
+        running = false;
+        ticker.interrupt();
+        if (Thread.currentThread() != ticker) {
+            try {
+                ticker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Planifie une tâche unique ou périodique
+     * @param task La tâche, exécutée par l'exécuteur de la roue
+     * @param delay Délai avant la première exécution
+     * @param period Période entre deux exécutions (0 pour une exécution unique)
+     * @return L'échéance, annulable en O(1)
+     */
+    public Timeout schedule(Runnable task, long delay, long period, TimeUnit unit) {
+        if (!started.get()) {
+            throw new IllegalStateException("La roue temporelle n'est pas démarrée");
+        }
+        
+        Timeout timeout = new Timeout(task, deadlineTick(delay, unit), periodTicks(period, unit));
+        pendingAdds.add(timeout);
+        return timeout;
+    }
+    
+    /**
+     * @return Le nombre de cases de la roue
+     */
+    public int getWheelSize() {
+        return wheel.length;
+    }
+    
+    /**
+     * @return La durée d'un tick, en nanosecondes
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+    
+    private void run() {
+        List<Timeout> rescheduled = new ArrayList<>();
+        
+        while (running) {
+            if (!waitForTick()) {
+                break;
+            }
+            
+            processCancels();
+            transferAdds();
+            processReschedules();
+            expire(wheel[(int) (tick & mask)], rescheduled);
+            // La case courante est déjà traitée : les tâches périodiques sont replacées à partir du tick suivant,
+            // sans quoi une période multiple de la taille de la roue prendrait un tour de retard
+            tick++;
+            for (Timeout timeout : rescheduled) {
+                insert(timeout);
+            }
+            rescheduled.clear();
+        }
+    }
+    
+    /**
+     * Attend le début du tick courant : les échéances étant arrondies au tick supérieur,
+     * une tâche part au plus un tick après son échéance
+     * @return false si la roue a été arrêtée pendant l'attente
+     */
+    private boolean waitForTick() {
+        long deadline = startNanos + tick * tickNanos;
+        
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (!running) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void processCancels() {
+        Timeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+    
+    private void transferAdds() {
+        Timeout timeout;
+        while ((timeout = pendingAdds.poll()) != null) {
+            if (!timeout.isCancelled()) {
+                insert(timeout);
+            }
+        }
+    }
+    
+    private void processReschedules() {
+        Timeout timeout;
+        while ((timeout = pendingReschedules.poll()) != null) {
+            Reschedule request = timeout.pendingReschedule.getAndSet(null);
+            if (request == null || timeout.isCancelled()) {
+                continue;
+            }
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+            timeout.deadlineTick = request.deadlineTick;
+            timeout.periodTicks = request.periodTicks;
+            insert(timeout);
+        }
+    }
+    
+    /**
+     * Range une échéance dans sa case ; le tick courant ne doit pas encore avoir été traité
+     */
+    private void insert(Timeout timeout) {
+        // Une échéance dépassée est exécutée au tick courant
+        if (timeout.deadlineTick < tick) {
+            timeout.deadlineTick = tick;
+        }
+        timeout.remainingRounds = (timeout.deadlineTick - tick) / wheel.length;
+        wheel[(int) (timeout.deadlineTick & mask)].add(timeout);
+    }
+    
+    private void expire(Bucket bucket, List<Timeout> rescheduled) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                bucket.remove(timeout);
+                if (!timeout.isCancelled()) {
+                    handOff(timeout.task);
+                    if (timeout.periodTicks > 0) {
+                        timeout.deadlineTick += timeout.periodTicks;
+                        rescheduled.add(timeout);
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+    
+    private void handOff(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Exécution refusée par l'exécuteur, échéance ignorée: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de l'exécution d'une tâche planifiée: {}", e.getMessage(), e);
+        }
+    }
+    
+    private long deadlineTick(long delay, TimeUnit unit) {
+        long deadlineNanos = System.nanoTime() - startNanos + Math.max(unit.toNanos(delay), 0);
+        return ceilDiv(deadlineNanos, tickNanos);
+    }
+    
+    private long periodTicks(long period, TimeUnit unit) {
+        return period > 0 ? Math.max(1, ceilDiv(unit.toNanos(period), tickNanos)) : 0;
+    }
+    
+    private static long ceilDiv(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+    
+    /**
+     * Échéance planifiée dans la roue
+     */
+    public final class Timeout {
+        private final Runnable task;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicReference<Reschedule> pendingReschedule = new AtomicReference<>();
+        
+        // Champs modifiés uniquement par le thread de la roue
+        private long periodTicks;
+        private long deadlineTick;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+        
+        private Timeout(Runnable task, long deadlineTick, long periodTicks) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+            this.periodTicks = periodTicks;
+        }
+        
+        /**
+         * Annule l'échéance ; elle est retirée de sa case au prochain tick
+         * @return false si elle était déjà annulée
+         */
+        public boolean cancel() {
+            if (!cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            pendingCancels.add(this);
+            return true;
+        }
+        
+        /**
+         * Déplace l'échéance sans la recréer : nouveau délai et nouvelle période, appliqués au prochain tick.
+         * Si plusieurs demandes arrivent dans le même tick, la dernière l'emporte.
+         * @param delay Délai avant la prochaine exécution
+         * @param period Nouvelle période (0 pour une exécution unique)
+         * @return false si l'échéance est annulée
+         */
+        public boolean reschedule(long delay, long period, TimeUnit unit) {
+            if (isCancelled()) {
+                return false;
+            }
+            
+            Reschedule request = new Reschedule(deadlineTick(delay, unit), periodTicks(period, unit));
+            if (pendingReschedule.getAndSet(request) == null) {
+                pendingReschedules.add(this);
+            }
+            return true;
+        }
+        
+        /**
+         * @return L'instant prévu de l'exécution en cours, selon System.nanoTime() ; à appeler depuis la tâche
+         *         lorsque l'exécuteur de la roue est direct
+         */
+        public long getDeadlineNanos() {
+            return startNanos + deadlineTick * tickNanos;
+        }
+        
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+    
+    /**
+     * Demande de replanification, appliquée par le thread de la roue
+     */
+    private static final class Reschedule {
+        private final long deadlineTick;
+        private final long periodTicks;
+        
+        Reschedule(long deadlineTick, long periodTicks) {
+            this.deadlineTick = deadlineTick;
+            this.periodTicks = periodTicks;
+        }
+    }
+    
+    /**
+     * Case de la roue : liste doublement chaînée, pour un retrait en O(1)
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+        
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+        
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+    }
+}
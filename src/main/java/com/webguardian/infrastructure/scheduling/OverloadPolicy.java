@@ -0,0 +1,29 @@
+package com.webguardian.infrastructure.scheduling;
+
+/**
+ * Traitement d'une vérification échue alors que la précédente du même site n'est pas terminée
+ */
+public enum OverloadPolicy {
+    /** L'exécution en retard est abandonnée ; le site sera vérifié à sa prochaine échéance */
+    SKIP,
+    /** Les exécutions en retard sont fusionnées en une seule, lancée dès la fin de la vérification en cours */
+    COALESCE,
+    /**
+     * Sites en difficulté (en panne, dégradés ou de statut inconnu) : fusion. Autres sites : abandon, et en cas de
+     * surcharge prolongée, une échéance sur deux seulement
+     */
+    DEPRIORITIZE;
+    
+    /**
+     * @param name Le nom de la politique, sans tenir compte de la casse
+     * @return La politique correspondante
+     */
+    public static OverloadPolicy fromName(String name) {
+        for (OverloadPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name.trim())) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Politique de surcharge inconnue: " + name);
+    }
+}
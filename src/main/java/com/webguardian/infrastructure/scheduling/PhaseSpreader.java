@@ -0,0 +1,125 @@
+package com.webguardian.infrastructure.scheduling;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Répartition des vérifications dans leur intervalle. Chaque site reçoit un décalage de phase déterministe
+ * (hachage de son ID), ancré sur l'horloge murale : après un redémarrage, un site est vérifié aux mêmes
+ * instants. Les intervalles sont découpés en cases d'une seconde ; si la case préférée d'un site a déjà
+ * atteint la charge moyenne (arrondie au supérieur), il prend la suivante moins chargée : à chaque ajout,
+ * la charge reste plate, et les cases libérées par les suppressions sont comblées en priorité.
+ */
+final class PhaseSpreader {
+    private static final long SLOT_MILLIS = 1000;
+    private static final int MAX_SLOTS = 86_400;
+    
+    private final Map<Long, IntervalSlots> intervals = new HashMap<>();
+    private final Map<Long, Assignment> assignments = new HashMap<>();
+    
+    /**
+     * Attribue (ou retrouve) le décalage de phase d'un site
+     * @param intervalMillis Intervalle de vérification du site, en millisecondes
+     * @return Le décalage dans l'intervalle, en millisecondes
+     */
+    synchronized long assign(Long siteId, long intervalMillis) {
+        Assignment existing = assignments.get(siteId);
+        if (existing != null) {
+            if (existing.intervalMillis == intervalMillis) {
+                return existing.offsetMillis;
+            }
+            release(siteId);
+        }
+        
+        IntervalSlots slots = intervals.computeIfAbsent(intervalMillis, IntervalSlots::new);
+        long hash = mix(siteId);
+        int slot = slots.acquire((int) Long.remainderUnsigned(hash, slots.occupancy.length));
+        
+        // Position dans la case, également déterministe, bornée par l'intervalle
+        long slotWidth = Math.min(SLOT_MILLIS, intervalMillis);
+        long offset = Math.min(slot * SLOT_MILLIS + Long.remainderUnsigned(hash >>> 32, slotWidth), intervalMillis - 1);
+        assignments.put(siteId, new Assignment(intervalMillis, slot, offset));
+        return offset;
+    }
+    
+    /**
+     * Libère la case d'un site ; elle sera réutilisée par les prochains ajouts
+     */
+    synchronized void release(Long siteId) {
+        Assignment assignment = assignments.remove(siteId);
+        if (assignment == null) {
+            return;
+        }
+        
+        IntervalSlots slots = intervals.get(assignment.intervalMillis);
+        slots.occupancy[assignment.slot]--;
+        slots.count--;
+        if (slots.count == 0) {
+            intervals.remove(assignment.intervalMillis);
+        }
+    }
+    
+    /**
+     * @return Le nombre de sites répartis
+     */
+    synchronized int size() {
+        return assignments.size();
+    }
+    
+    /**
+     * Délai jusqu'au prochain instant de phase : le prochain t ≥ maintenant tel que t ≡ offset (mod intervalle)
+     */
+    static long delayUntilPhase(long offsetMillis, long intervalMillis, long nowMillis) {
+        return Math.floorMod(offsetMillis - nowMillis, intervalMillis);
+    }
+    
+    /**
+     * Mélange des bits de l'ID (finaliseur de SplitMix64), pour que des IDs consécutifs soient dispersés
+     */
+    static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    /**
+     * Occupation des cases d'un intervalle
+     */
+    private static final class IntervalSlots {
+        private final int[] occupancy;
+        private int count;
+        
+        IntervalSlots(long intervalMillis) {
+            long slots = (intervalMillis + SLOT_MILLIS - 1) / SLOT_MILLIS;
+            this.occupancy = new int[(int) Math.max(1, Math.min(slots, MAX_SLOTS))];
+        }
+        
+        /**
+         * Occupe la première case sous la charge cible en partant de la case préférée
+         */
+        int acquire(int preferred) {
+            count++;
+            int limit = (count + occupancy.length - 1) / occupancy.length;
+            
+            int slot = preferred;
+            while (occupancy[slot] >= limit) {
+                slot = slot + 1 == occupancy.length ? 0 : slot + 1;
+            }
+            occupancy[slot]++;
+            return slot;
+        }
+    }
+    
+    private static final class Assignment {
+        private final long intervalMillis;
+        private final int slot;
+        private final long offsetMillis;
+        
+        Assignment(long intervalMillis, int slot, long offsetMillis) {
+            this.intervalMillis = intervalMillis;
+            this.slot = slot;
+            this.offsetMillis = offsetMillis;
+        }
+    }
+}
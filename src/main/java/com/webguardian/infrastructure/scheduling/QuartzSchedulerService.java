@@ -2,38 +2,64 @@ package com.webguardian.infrastructure.scheduling;
 
 import com.webguardian.core.entities.MonitoredSite;
 import com.webguardian.core.usecases.MonitoringService;
+import com.webguardian.core.usecases.RetentionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.*;
 import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.listeners.TriggerListenerSupport;
 
-import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Service de planification des tâches de vérification à l'aide de Quartz Scheduler
+ * Service de planification des tâches de vérification à l'aide de Quartz Scheduler.
+ * Les sites sont regroupés en paquets de même intervalle et de même case de phase ({@link SiteBuckets}) :
+ * un job par paquet, qui vérifie tous les sites du paquet à chaque échéance.
+ * Les ratés de déclenchement suivent la politique de surcharge : SKIP passe à l'échéance suivante,
+ * COALESCE et DEPRIORITIZE (sans distinction de priorité ici) relancent une seule fois.
  */
 @Slf4j
 @RequiredArgsConstructor
-public class QuartzSchedulerService {
+public class QuartzSchedulerService implements SchedulerService {
     private final MonitoringService monitoringService;
+    private final RetentionService retentionService;
+    private final SchedulerLagMonitor lagMonitor;
+    private final OverloadPolicy overloadPolicy;
+    private final SiteBuckets buckets = new SiteBuckets();
+    private final CheckDensityMetrics checkDensity = new CheckDensityMetrics();
     private Scheduler scheduler;
     
     /**
-     * Initialise le planificateur Quartz
+     * Initialise le planificateur Quartz et y enregistre les services utilisés par les jobs
      */
-    public void initialize() throws SchedulerException {
-        Properties props = new Properties();
-        props.put("org.quartz.threadPool.threadCount", "10");
-        props.put("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
-        
-        SchedulerFactory schedulerFactory = new StdSchedulerFactory(props);
-        scheduler = schedulerFactory.getScheduler();
-        scheduler.start();
-        
-        log.info("Quartz Scheduler initialisé");
+    @Override
+    public void initialize() {
+        try {
+            Properties props = new Properties();
+            props.put("org.quartz.threadPool.threadCount", "10");
+            props.put("org.quartz.jobStore.class", "org.quartz.simpl.RAMJobStore");
+            
+            SchedulerFactory schedulerFactory = new StdSchedulerFactory(props);
+            scheduler = schedulerFactory.getScheduler();
+            scheduler.getContext().put("monitoringService", monitoringService);
+            scheduler.getContext().put(RetentionJob.RETENTION_SERVICE_KEY, retentionService);
+            scheduler.getContext().put(SiteCheckJob.CHECK_DENSITY_KEY, checkDensity);
+            scheduler.getContext().put(SiteCheckJob.LAG_MONITOR_KEY, lagMonitor);
+            scheduler.getContext().put(SiteCheckJob.BUCKETS_KEY, buckets);
+            scheduler.getContext().put(SiteCheckJob.SCHEDULER_SERVICE_KEY, this);
+            scheduler.getContext().put(SiteCheckJob.OVERLOAD_POLICY_KEY, overloadPolicy);
+            scheduler.getListenerManager().addTriggerListener(new MisfireCounter());
+            scheduler.start();
+            scheduleLagEvaluation();
+            
+            log.info("Quartz Scheduler initialisé");
+        } catch (SchedulerException e) {
+            log.error("Erreur lors de l'initialisation de Quartz Scheduler: {}", e.getMessage(), e);
+            throw new RuntimeException("Impossible d'initialiser le planificateur Quartz", e);
+        }
     }
     
     /**
@@ -45,21 +71,24 @@ public class QuartzSchedulerService {
     }
     
     /**
-     * Planifie la vérification périodique d'un site
+     * Planifie la vérification périodique d'un site, en le rangeant dans le paquet de son intervalle
+     * et de sa phase ; le job du paquet est créé s'il n'existe pas encore
      */
-    public void scheduleSite(MonitoredSite site) {
+    @Override
+    public synchronized void scheduleSite(MonitoredSite site) {
         try {
-            JobDetail jobDetail = buildJobDetail(site);
-            Trigger trigger = buildTrigger(site);
+            long seconds = SiteCheckJob.intervalSeconds(site);
+            SiteBuckets.Assignment assignment = buckets.assign(site.getId(), seconds);
+            SiteBuckets.Bucket bucket = assignment.getBucket();
             
-            // Si le job existe déjà, on le met à jour
-            if (scheduler.checkExists(jobDetail.getKey())) {
-                scheduler.deleteJob(jobDetail.getKey());
+            JobKey jobKey = new JobKey(bucket.getName());
+            if (!scheduler.checkExists(jobKey)) {
+                scheduler.scheduleJob(buildJobDetail(bucket), buildTrigger(bucket));
+                log.debug("Paquet {} créé", bucket.getName());
             }
-            
-            scheduler.scheduleJob(jobDetail, trigger);
-            log.debug("Planification pour le site {} configurée toutes les {} minutes", 
-                    site.getUrl(), site.getCheckInterval().toMinutes());
+            deleteBucket(assignment.getEmptiedBucket());
+            log.debug("Planification pour le site {} configurée toutes les {} secondes (paquet {})",
+                    site.getUrl(), seconds, bucket.getName());
             
         } catch (SchedulerException e) {
             log.error("Erreur lors de la planification du site {}: {}", site.getUrl(), e.getMessage(), e);
@@ -69,23 +98,22 @@ public class QuartzSchedulerService {
     /**
      * Planifie tous les sites fournis
      */
+    @Override
     public void scheduleAllSites(List<MonitoredSite> sites) {
         for (MonitoredSite site : sites) {
             scheduleSite(site);
         }
-        log.info("{} sites planifiés pour la vérification", sites.size());
+        log.info("{} sites planifiés pour la vérification ({} paquets)", sites.size(), buckets.size());
     }
     
     /**
-     * Annule la planification d'un site
+     * Annule la planification d'un site ; le job de son paquet est supprimé si le paquet est vide
      */
-    public void unscheduleSite(MonitoredSite site) {
+    @Override
+    public synchronized void unscheduleSite(MonitoredSite site) {
         try {
-            JobKey jobKey = getJobKey(site);
-            if (scheduler.checkExists(jobKey)) {
-                scheduler.deleteJob(jobKey);
-                log.debug("Planification pour le site {} supprimée", site.getUrl());
-            }
+            deleteBucket(buckets.release(site.getId()));
+            log.debug("Planification pour le site {} supprimée", site.getUrl());
         } catch (SchedulerException e) {
             log.error("Erreur lors de la suppression de la planification du site {}: {}", 
                     site.getUrl(), e.getMessage(), e);
@@ -93,39 +121,121 @@ public class QuartzSchedulerService {
     }
     
     /**
-     * Déclenche une vérification immédiate d'un site
+     * Retire de son paquet un site qui n'existe plus, sous le même verrou que {@link #scheduleSite} :
+     * le job d'un paquet vidé ne peut pas être supprimé après qu'un autre site y a été rangé
+     */
+    synchronized void releaseDeletedSite(Long siteId) {
+        try {
+            deleteBucket(buckets.release(siteId));
+        } catch (SchedulerException e) {
+            log.error("Erreur lors de la suppression de la planification du site {}: {}", siteId, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Déclenche une vérification immédiate d'un site, hors de son paquet
      */
+    @Override
     public void triggerImmediateCheck(MonitoredSite site) {
+        if (!buckets.tryStart(site.getId())) {
+            buckets.requestRerun(site.getId());
+            log.debug("Vérification du site {} déjà en cours, nouvelle vérification demandée", site.getUrl());
+            return;
+        }
+        SiteCheckJob.checkAsync(monitoringService, checkDensity, buckets, site);
+        log.debug("Vérification immédiate déclenchée pour le site {}", site.getUrl());
+    }
+    
+    /**
+     * Planifie l'application périodique de la politique de rétention
+     * @param intervalHours Intervalle entre deux exécutions, en heures
+     */
+    @Override
+    public void scheduleRetention(int intervalHours) {
         try {
-            JobKey jobKey = getJobKey(site);
+            JobKey jobKey = new JobKey("retention");
             if (scheduler.checkExists(jobKey)) {
-                scheduler.triggerJob(jobKey);
-                log.debug("Vérification immédiate déclenchée pour le site {}", site.getUrl());
-            } else {
-                // Si le job n'existe pas encore, on le crée et on le déclenche immédiatement
-                JobDetail jobDetail = buildJobDetail(site);
-                SimpleTrigger trigger = TriggerBuilder.newTrigger()
-                        .forJob(jobDetail)
-                        .withIdentity("trigger-" + site.getId() + "-immediate")
-                        .startNow()
-                        .withSchedule(SimpleScheduleBuilder.simpleSchedule().withRepeatCount(0))
-                        .build();
-                
-                scheduler.scheduleJob(jobDetail, trigger);
+                scheduler.deleteJob(jobKey);
             }
+            
+            JobDetail jobDetail = JobBuilder.newJob(RetentionJob.class)
+                    .withIdentity(jobKey)
+                    .withDescription("Rétention de l'historique des vérifications")
+                    .storeDurably()
+                    .build();
+            
+            Trigger trigger = TriggerBuilder.newTrigger()
+                    .forJob(jobKey)
+                    .withIdentity("trigger-retention")
+                    .startAt(new Date(System.currentTimeMillis() + 60_000)) // Démarrage dans 1 minute
+                    .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                            .withIntervalInHours(Math.max(intervalHours, 1))
+                            .repeatForever()
+                            .withMisfireHandlingInstructionNextWithRemainingCount())
+                    .build();
+            
+            scheduler.scheduleJob(jobDetail, trigger);
+            log.info("Rétention de l'historique planifiée toutes les {} heures", Math.max(intervalHours, 1));
         } catch (SchedulerException e) {
-            log.error("Erreur lors du déclenchement de la vérification immédiate du site {}: {}", 
-                    site.getUrl(), e.getMessage(), e);
+            log.error("Erreur lors de la planification de la rétention: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Planifie la purge périodique de l'historique des sites supprimés
+     * @param intervalMinutes Intervalle entre deux exécutions, en minutes
+     */
+    @Override
+    public void scheduleSitePurge(int intervalMinutes) {
+        try {
+            JobKey jobKey = new JobKey("site-purge");
+            if (scheduler.checkExists(jobKey)) {
+                scheduler.deleteJob(jobKey);
+            }
+            
+            JobDetail jobDetail = JobBuilder.newJob(SitePurgeJob.class)
+                    .withIdentity(jobKey)
+                    .withDescription("Purge de l'historique des sites supprimés")
+                    .storeDurably()
+                    .build();
+            
+            Trigger trigger = TriggerBuilder.newTrigger()
+                    .forJob(jobKey)
+                    .withIdentity("trigger-site-purge")
+                    .startAt(new Date(System.currentTimeMillis() + 30_000)) // Démarrage dans 30 secondes
+                    .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                            .withIntervalInMinutes(Math.max(intervalMinutes, 1))
+                            .repeatForever()
+                            .withMisfireHandlingInstructionNextWithRemainingCount())
+                    .build();
+            
+            scheduler.scheduleJob(jobDetail, trigger);
+            log.info("Purge des sites supprimés planifiée toutes les {} minutes", Math.max(intervalMinutes, 1));
+        } catch (SchedulerException e) {
+            log.error("Erreur lors de la planification de la purge des sites supprimés: {}", e.getMessage(), e);
         }
     }
     
+    @Override
+    public CheckDensityMetrics getCheckDensity() {
+        return checkDensity;
+    }
+    
+    @Override
+    public SchedulerLagMetrics getLagMetrics() {
+        return lagMonitor.getMetrics();
+    }
+    
     /**
      * Arrête le planificateur
      */
+    @Override
     public void shutdown() {
         try {
             if (scheduler != null && !scheduler.isShutdown()) {
                 scheduler.shutdown(true);
+                log.info("{}", checkDensity);
+                log.info("{}", lagMonitor.getMetrics());
                 log.info("Quartz Scheduler arrêté");
             }
         } catch (SchedulerException e) {
@@ -134,51 +244,109 @@ public class QuartzSchedulerService {
     }
     
     /**
-     * Construit le job detail pour un site
+     * Construit le job detail d'un paquet
      */
-    private JobDetail buildJobDetail(MonitoredSite site) {
+    private JobDetail buildJobDetail(SiteBuckets.Bucket bucket) {
         JobDataMap jobDataMap = new JobDataMap();
-        jobDataMap.put(SiteCheckJob.SITE_ID_KEY, site.getId());
+        jobDataMap.put(SiteCheckJob.BUCKET_KEY, bucket.getName());
         
         return JobBuilder.newJob(SiteCheckJob.class)
-                .withIdentity(getJobKey(site))
-                .withDescription("Vérification du site " + site.getUrl())
+                .withIdentity(bucket.getName())
+                .withDescription("Vérification des sites toutes les " + bucket.getIntervalSeconds() + " secondes")
                 .usingJobData(jobDataMap)
                 .storeDurably()
                 .build();
     }
     
     /**
-     * Construit le déclencheur pour un site
+     * Construit le déclencheur d'un paquet
      */
-    private Trigger buildTrigger(MonitoredSite site) {
-        Duration interval = site.getCheckInterval();
-        
-        // Par défaut 5 minutes si non spécifié
-        if (interval == null) {
-            interval = Duration.ofMinutes(5);
-        }
+    private Trigger buildTrigger(SiteBuckets.Bucket bucket) {
+        // Premier déclenchement à la phase du paquet
+        long intervalMillis = TimeUnit.SECONDS.toMillis(bucket.getIntervalSeconds());
+        long now = System.currentTimeMillis();
+        long delay = PhaseSpreader.delayUntilPhase(bucket.getPhaseOffsetMillis(), intervalMillis, now);
         
-        int seconds = (int) interval.getSeconds();
-        if (seconds < 10) {
-            seconds = 10; // Minimum 10 secondes entre les vérifications
+        return TriggerBuilder.newTrigger()
+                .forJob(bucket.getName())
+                .withIdentity("trigger-" + bucket.getName())
+                .startAt(new Date(now + delay))
+                .withSchedule(withMisfirePolicy(SimpleScheduleBuilder.simpleSchedule()
+                        .withIntervalInSeconds((int) bucket.getIntervalSeconds())
+                        .repeatForever()))
+                .build();
+    }
+    
+    /**
+     * Supprime le job d'un paquet vide
+     * @param emptiedBucket Le nom du paquet, ou null
+     */
+    private void deleteBucket(String emptiedBucket) throws SchedulerException {
+        if (emptiedBucket != null) {
+            scheduler.deleteJob(new JobKey(emptiedBucket));
+            log.debug("Paquet {} supprimé", emptiedBucket);
         }
+    }
+    
+    /**
+     * Instruction de raté correspondant à la politique de surcharge
+     */
+    private SimpleScheduleBuilder withMisfirePolicy(SimpleScheduleBuilder schedule) {
+        return overloadPolicy == OverloadPolicy.SKIP
+                ? schedule.withMisfireHandlingInstructionNextWithRemainingCount()
+                : schedule.withMisfireHandlingInstructionNowWithExistingCount();
+    }
+    
+    /**
+     * Planifie l'évaluation périodique du retard des vérifications
+     */
+    private void scheduleLagEvaluation() throws SchedulerException {
+        JobDetail jobDetail = JobBuilder.newJob(SchedulerLagJob.class)
+                .withIdentity("scheduler-lag")
+                .withDescription("Évaluation du retard des vérifications")
+                .storeDurably()
+                .build();
         
-        return TriggerBuilder.newTrigger()
-                .forJob(getJobKey(site))
-                .withIdentity("trigger-" + site.getId())
-                .withDescription("Déclencheur pour " + site.getUrl())
-                .startAt(new Date(System.currentTimeMillis() + 5000)) // Démarrage dans 5 secondes
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .forJob(jobDetail)
+                .withIdentity("trigger-scheduler-lag")
+                .startAt(new Date(System.currentTimeMillis()
+                        + TimeUnit.SECONDS.toMillis(SchedulerLagMonitor.EVALUATION_INTERVAL_SECONDS)))
                 .withSchedule(SimpleScheduleBuilder.simpleSchedule()
-                        .withIntervalInSeconds(seconds)
-                        .repeatForever())
+                        .withIntervalInSeconds((int) SchedulerLagMonitor.EVALUATION_INTERVAL_SECONDS)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
                 .build();
+        
+        scheduler.scheduleJob(jobDetail, trigger);
     }
     
     /**
-     * Obtient la clé de job pour un site
+     * Compte les ratés de déclenchement des vérifications, que Quartz traite sans les signaler
      */
-    private JobKey getJobKey(MonitoredSite site) {
-        return new JobKey("site-check-" + site.getId());
+    private class MisfireCounter extends TriggerListenerSupport {
+        @Override
+        public String getName() {
+            return "misfire-counter";
+        }
+        
+        @Override
+        public void triggerMisfired(Trigger trigger) {
+            String bucket = trigger.getJobKey().getName();
+            if (!bucket.startsWith(SiteBuckets.NAME_PREFIX)) {
+                return;
+            }
+            
+            // Un raté concerne tous les sites du paquet
+            int sites = buckets.members(bucket).size();
+            for (int i = 0; i < sites; i++) {
+                if (overloadPolicy == OverloadPolicy.SKIP) {
+                    lagMonitor.getMetrics().recordSkipped();
+                } else {
+                    lagMonitor.getMetrics().recordCoalesced();
+                }
+            }
+            log.debug("Déclenchement manqué pour {}", trigger.getJobKey().getName());
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.usecases.RetentionService;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+
+/**
+ * Job Quartz qui applique la politique de rétention de l'historique
+ */
+@Slf4j
+@DisallowConcurrentExecution
+public class RetentionJob implements Job {
+    public static final String RETENTION_SERVICE_KEY = "retentionService";
+    
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        RetentionService retentionService;
+        try {
+            retentionService = (RetentionService) context.getScheduler().getContext().get(RETENTION_SERVICE_KEY);
+        } catch (SchedulerException e) {
+            throw new JobExecutionException(e);
+        }
+        
+        if (retentionService == null) {
+            log.error("RetentionService non disponible dans le contexte du planificateur");
+            throw new JobExecutionException("RetentionService non disponible");
+        }
+        
+        try {
+            retentionService.applyRetention();
+        } catch (Exception e) {
+            log.error("Erreur lors de l'application de la rétention: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
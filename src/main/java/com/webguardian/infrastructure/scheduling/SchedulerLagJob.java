@@ -0,0 +1,33 @@
+package com.webguardian.infrastructure.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+
+/**
+ * Job Quartz qui évalue périodiquement le retard des vérifications
+ */
+@Slf4j
+@DisallowConcurrentExecution
+public class SchedulerLagJob implements Job {
+    
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        SchedulerLagMonitor lagMonitor;
+        try {
+            lagMonitor = (SchedulerLagMonitor) context.getScheduler().getContext().get(SiteCheckJob.LAG_MONITOR_KEY);
+        } catch (SchedulerException e) {
+            throw new JobExecutionException(e);
+        }
+        
+        if (lagMonitor == null) {
+            log.error("Surveillance du retard non disponible dans le contexte du planificateur");
+            throw new JobExecutionException("Surveillance du retard non disponible");
+        }
+        
+        lagMonitor.evaluate();
+    }
+}
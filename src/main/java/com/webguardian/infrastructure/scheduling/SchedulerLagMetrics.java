@@ -0,0 +1,170 @@
+package com.webguardian.infrastructure.scheduling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retard des vérifications : écart entre l'instant prévu et le début effectif de chaque vérification,
+ * compté dans un histogramme à bornes fixes. Un histogramme cumulé depuis le démarrage et un histogramme
+ * de fenêtre, vidé à chaque évaluation de la surcharge, sont tenus en parallèle.
+ */
+public class SchedulerLagMetrics {
+    /** Bornes supérieures des classes de l'histogramme, en millisecondes (la dernière classe est ouverte) */
+    private static final long[] BOUNDS_MILLIS = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10_000, 30_000, 60_000, 300_000};
+    
+    private final AtomicLongArray total = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final AtomicLongArray window = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    
+    /**
+     * Compte le retard d'une vérification
+     */
+    public void record(long lagMillis) {
+        int bucket = bucketOf(Math.max(lagMillis, 0));
+        total.incrementAndGet(bucket);
+        window.incrementAndGet(bucket);
+    }
+    
+    /**
+     * Compte une exécution en retard abandonnée
+     */
+    public void recordSkipped() {
+        skipped.increment();
+    }
+    
+    /**
+     * Compte une exécution en retard fusionnée avec une autre
+     */
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+    
+    public long getSkipped() {
+        return skipped.sum();
+    }
+    
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+    
+    public long getCount() {
+        return sum(total);
+    }
+    
+    /**
+     * @param quantile Le quantile, entre 0 et 1
+     * @return La borne supérieure de la classe contenant le quantile depuis le démarrage, en millisecondes
+     */
+    public long percentileMillis(double quantile) {
+        return percentile(snapshot(total), quantile);
+    }
+    
+    /**
+     * Vide l'histogramme de fenêtre et en renvoie le quantile
+     * @return La borne supérieure de la classe contenant le quantile, ou -1 si la fenêtre est vide
+     */
+    long drainWindowPercentile(double quantile) {
+        long[] counts = new long[window.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = window.getAndSet(i, 0);
+        }
+        return percentile(counts, quantile);
+    }
+    
+    /**
+     * @return Les effectifs cumulés de chaque classe, la dernière étant celle des retards au-delà de la plus grande borne
+     */
+    public long[] getHistogram() {
+        return snapshot(total);
+    }
+    
+    /**
+     * @return Les bornes supérieures des classes de l'histogramme, en millisecondes
+     */
+    public static long[] getBoundsMillis() {
+        return BOUNDS_MILLIS.clone();
+    }
+    
+    @Override
+    public String toString() {
+        long[] counts = snapshot(total);
+        StringBuilder histogram = new StringBuilder();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (histogram.length() > 0) {
+                histogram.append(", ");
+            }
+            histogram.append(i < BOUNDS_MILLIS.length ? "≤" + BOUNDS_MILLIS[i] : ">" + BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1])
+                    .append(" ms: ").append(counts[i]);
+        }
+        
+        return String.format("Retard des vérifications: %d mesurées, p50 %s, p99 %s, %d abandonnées, %d fusionnées [%s]",
+                sum(counts), format(percentile(counts, 0.5)), format(percentile(counts, 0.99)),
+                getSkipped(), getCoalesced(), histogram);
+    }
+    
+    private static int bucketOf(long lagMillis) {
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            if (lagMillis <= BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MILLIS.length;
+    }
+    
+    private static long percentile(long[] counts, double quantile) {
+        long count = 0;
+        for (long value : counts) {
+            count += value;
+        }
+        if (count == 0) {
+            return -1;
+        }
+        
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BOUNDS_MILLIS.length ? BOUNDS_MILLIS[i] : Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+    
+    private static String format(long percentileMillis) {
+        if (percentileMillis < 0) {
+            return "-";
+        }
+        return percentileMillis == Long.MAX_VALUE
+                ? ">" + BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1] + " ms"
+                : "≤" + percentileMillis + " ms";
+    }
+    
+    private static long[] snapshot(AtomicLongArray array) {
+        long[] counts = new long[array.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = array.get(i);
+        }
+        return counts;
+    }
+    
+    private static long sum(AtomicLongArray array) {
+        long count = 0;
+        for (int i = 0; i < array.length(); i++) {
+            count += array.get(i);
+        }
+        return count;
+    }
+    
+    private static long sum(long[] counts) {
+        long count = 0;
+        for (long value : counts) {
+            count += value;
+        }
+        return count;
+    }
+}
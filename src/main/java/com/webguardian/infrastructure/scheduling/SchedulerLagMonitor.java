@@ -0,0 +1,89 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.ports.NotificationPort;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Surveillance du retard du planificateur. À chaque évaluation, le p95 du retard de la fenêtre écoulée est
+ * comparé au seuil ; après plusieurs évaluations consécutives au-dessus, WebGuardian est déclaré surchargé
+ * et une alerte système est envoyée, puis une seconde au retour sous le seuil.
+ */
+@Slf4j
+public class SchedulerLagMonitor {
+    public static final long EVALUATION_INTERVAL_SECONDS = 60;
+    private static final double QUANTILE = 0.95;
+    
+    private final SchedulerLagMetrics metrics = new SchedulerLagMetrics();
+    private final NotificationPort notificationService;
+    private final long thresholdMillis;
+    private final int sustainedEvaluations;
+    private int evaluationsAbove;
+    private volatile boolean overloaded;
+    
+    /**
+     * @param notificationService Le service d'envoi des alertes système
+     * @param thresholdMillis Seuil de retard (p95), en millisecondes
+     * @param sustainedEvaluations Nombre d'évaluations consécutives au-dessus du seuil avant l'alerte
+     */
+    public SchedulerLagMonitor(NotificationPort notificationService, long thresholdMillis, int sustainedEvaluations) {
+        this.notificationService = notificationService;
+        this.thresholdMillis = thresholdMillis;
+        this.sustainedEvaluations = Math.max(sustainedEvaluations, 1);
+    }
+    
+    public SchedulerLagMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * @return true si le retard dépasse le seuil de façon prolongée
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+    
+    /**
+     * Évalue le retard de la fenêtre écoulée, à appeler toutes les {@link #EVALUATION_INTERVAL_SECONDS} secondes
+     */
+    public synchronized void evaluate() {
+        long lag = metrics.drainWindowPercentile(QUANTILE);
+        if (lag < 0) {
+            // Aucune vérification lancée pendant la fenêtre : rien à conclure
+            return;
+        }
+        
+        if (lag > thresholdMillis) {
+            evaluationsAbove++;
+            log.warn("Retard du planificateur au-dessus du seuil: p95 {} ({} ms max, {} évaluations consécutives)",
+                    describe(lag), thresholdMillis, evaluationsAbove);
+            if (!overloaded && evaluationsAbove >= sustainedEvaluations) {
+                overloaded = true;
+                notifySafely("Planificateur surchargé", String.format(
+                        "Les vérifications démarrent en retard depuis %d minutes (p95 %s, seuil %d ms). "
+                                + "Les sites sont vérifiés moins souvent que configuré.%n%s",
+                        evaluationsAbove * EVALUATION_INTERVAL_SECONDS / 60, describe(lag), thresholdMillis, metrics));
+            }
+        } else {
+            evaluationsAbove = 0;
+            if (overloaded) {
+                overloaded = false;
+                notifySafely("Planificateur rétabli", String.format(
+                        "Le retard des vérifications est revenu sous le seuil (p95 %s, seuil %d ms).",
+                        describe(lag), thresholdMillis));
+            }
+        }
+    }
+    
+    private void notifySafely(String title, String message) {
+        log.warn("{}: {}", title, message);
+        try {
+            notificationService.sendSystemAlert(title, message);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi de l'alerte système: {}", e.getMessage(), e);
+        }
+    }
+    
+    private static String describe(long lagMillis) {
+        return lagMillis == Long.MAX_VALUE ? "> 300000 ms" : "≤ " + lagMillis + " ms";
+    }
+}
@@ -0,0 +1,62 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.entities.MonitoredSite;
+
+import java.util.List;
+
+/**
+ * Interface pour la planification des vérifications périodiques et des tâches de maintenance
+ */
+public interface SchedulerService {
+    /**
+     * Démarre le planificateur
+     */
+    void initialize();
+    
+    /**
+     * Planifie la vérification périodique d'un site, en remplaçant une planification existante
+     */
+    void scheduleSite(MonitoredSite site);
+    
+    /**
+     * Planifie tous les sites fournis
+     */
+    void scheduleAllSites(List<MonitoredSite> sites);
+    
+    /**
+     * Annule la planification d'un site
+     */
+    void unscheduleSite(MonitoredSite site);
+    
+    /**
+     * Déclenche une vérification immédiate d'un site
+     */
+    void triggerImmediateCheck(MonitoredSite site);
+    
+    /**
+     * Planifie l'application périodique de la politique de rétention
+     * @param intervalHours Intervalle entre deux exécutions, en heures
+     */
+    void scheduleRetention(int intervalHours);
+    
+    /**
+     * Planifie la purge périodique de l'historique des sites supprimés
+     * @param intervalMinutes Intervalle entre deux exécutions, en minutes
+     */
+    void scheduleSitePurge(int intervalMinutes);
+    
+    /**
+     * @return La densité des vérifications lancées par seconde
+     */
+    CheckDensityMetrics getCheckDensity();
+    
+    /**
+     * @return Le retard des vérifications par rapport à leur instant prévu
+     */
+    SchedulerLagMetrics getLagMetrics();
+    
+    /**
+     * Arrête le planificateur
+     */
+    void shutdown();
+}
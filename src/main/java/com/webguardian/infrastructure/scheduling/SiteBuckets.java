@@ -0,0 +1,164 @@
+package com.webguardian.infrastructure.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paquets de sites planifiés par Quartz : un paquet réunit les sites de même intervalle dont la phase
+ * tombe dans la même case d'une seconde ({@link PhaseSpreader}). Un seul job par paquet vérifie tous
+ * ses sites à chaque échéance : le nombre de déclencheurs suit le nombre de cases occupées, pas le nombre
+ * de sites. Les sites en cours de vérification sont suivis, pour qu'une échéance ne relance pas un site
+ * dont la vérification précédente n'est pas terminée.
+ */
+final class SiteBuckets {
+    static final String NAME_PREFIX = "site-bucket-";
+    private static final long SLOT_MILLIS = 1000;
+    
+    private final PhaseSpreader phases = new PhaseSpreader();
+    private final Map<String, Set<Long>> members = new HashMap<>();
+    private final Map<Long, String> bucketBySite = new HashMap<>();
+    
+    // Sites en cours de vérification ; true si une nouvelle vérification est demandée à la fin de la courante
+    private final Map<Long, Boolean> inFlight = new ConcurrentHashMap<>();
+    
+    /**
+     * Range un site dans le paquet de son intervalle et de sa phase
+     * @param intervalSeconds Intervalle de vérification du site, en secondes
+     * @return Le paquet du site, et le paquet qu'il a quitté s'il est désormais vide
+     */
+    synchronized Assignment assign(Long siteId, long intervalSeconds) {
+        long intervalMillis = TimeUnit.SECONDS.toMillis(intervalSeconds);
+        long slot = phases.assign(siteId, intervalMillis) / SLOT_MILLIS;
+        String name = NAME_PREFIX + intervalSeconds + "-" + slot;
+        
+        String previous = bucketBySite.put(siteId, name);
+        String emptied = null;
+        if (previous != null && !previous.equals(name) && removeMember(previous, siteId)) {
+            emptied = previous;
+        }
+        members.computeIfAbsent(name, key -> new HashSet<>()).add(siteId);
+        return new Assignment(new Bucket(name, intervalSeconds, slot * SLOT_MILLIS), emptied);
+    }
+    
+    /**
+     * Retire un site de son paquet
+     * @return Le nom du paquet s'il est désormais vide, sinon null
+     */
+    synchronized String release(Long siteId) {
+        phases.release(siteId);
+        String name = bucketBySite.remove(siteId);
+        return name != null && removeMember(name, siteId) ? name : null;
+    }
+    
+    /**
+     * @return Les sites du paquet
+     */
+    synchronized List<Long> members(String name) {
+        Set<Long> sites = members.get(name);
+        return sites != null ? new ArrayList<>(sites) : new ArrayList<>();
+    }
+    
+    /**
+     * @return Le nombre de paquets non vides
+     */
+    synchronized int size() {
+        return members.size();
+    }
+    
+    /**
+     * Marque le début de la vérification d'un site
+     * @return false si une vérification du site est déjà en cours
+     */
+    boolean tryStart(Long siteId) {
+        return inFlight.putIfAbsent(siteId, Boolean.FALSE) == null;
+    }
+    
+    /**
+     * Demande une nouvelle vérification à la fin de celle en cours
+     * @return false si aucune vérification du site n'est en cours
+     */
+    boolean requestRerun(Long siteId) {
+        return inFlight.replace(siteId, Boolean.FALSE, Boolean.TRUE) || Boolean.TRUE.equals(inFlight.get(siteId));
+    }
+    
+    /**
+     * Marque la fin de la vérification d'un site
+     * @return true si une nouvelle vérification a été demandée entre-temps ; le site reste alors en cours
+     */
+    boolean finish(Long siteId) {
+        if (inFlight.remove(siteId, Boolean.FALSE)) {
+            return false;
+        }
+        return inFlight.replace(siteId, Boolean.TRUE, Boolean.FALSE);
+    }
+    
+    private boolean removeMember(String name, Long siteId) {
+        Set<Long> sites = members.get(name);
+        if (sites == null) {
+            return false;
+        }
+        sites.remove(siteId);
+        if (sites.isEmpty()) {
+            members.remove(name);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Paquet de sites : nom du job, intervalle et phase communs
+     */
+    static final class Bucket {
+        private final String name;
+        private final long intervalSeconds;
+        private final long phaseOffsetMillis;
+        
+        Bucket(String name, long intervalSeconds, long phaseOffsetMillis) {
+            this.name = name;
+            this.intervalSeconds = intervalSeconds;
+            this.phaseOffsetMillis = phaseOffsetMillis;
+        }
+        
+        String getName() {
+            return name;
+        }
+        
+        long getIntervalSeconds() {
+            return intervalSeconds;
+        }
+        
+        long getPhaseOffsetMillis() {
+            return phaseOffsetMillis;
+        }
+    }
+    
+    /**
+     * Résultat du rangement d'un site
+     */
+    static final class Assignment {
+        private final Bucket bucket;
+        private final String emptiedBucket;
+        
+        Assignment(Bucket bucket, String emptiedBucket) {
+            this.bucket = bucket;
+            this.emptiedBucket = emptiedBucket;
+        }
+        
+        Bucket getBucket() {
+            return bucket;
+        }
+        
+        /**
+         * @return Le paquet quitté par le site s'il est désormais vide, sinon null
+         */
+        String getEmptiedBucket() {
+            return emptiedBucket;
+        }
+    }
+}
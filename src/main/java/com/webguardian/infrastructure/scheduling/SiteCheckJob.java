@@ -1,56 +1,226 @@
 package com.webguardian.infrastructure.scheduling;
 
+import com.webguardian.core.entities.CheckResult;
 import com.webguardian.core.entities.MonitoredSite;
 import com.webguardian.core.usecases.MonitoringService;
 import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
-import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.SchedulerContext;
+import org.quartz.SchedulerException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
- * Job Quartz qui exécute une vérification de site
+ * Job Quartz qui vérifie les sites d'un paquet ({@link SiteBuckets}) : à chaque échéance, les sites du paquet
+ * sont lus en une seule requête puis confiés ensemble au pool de vérification, par priorité.
+ * Un site dont la vérification précédente n'est pas terminée est traité selon la politique de surcharge.
  */
 @Slf4j
+@DisallowConcurrentExecution
 public class SiteCheckJob implements Job {
-    public static final String SITE_ID_KEY = "siteId";
+    public static final String BUCKET_KEY = "bucket";
+    public static final String BUCKETS_KEY = "siteBuckets";
+    public static final String CHECK_DENSITY_KEY = "checkDensity";
+    public static final String LAG_MONITOR_KEY = "schedulerLagMonitor";
+    public static final String OVERLOAD_POLICY_KEY = "overloadPolicy";
+    public static final String SCHEDULER_SERVICE_KEY = "quartzSchedulerService";
     
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
-        JobDataMap dataMap = context.getJobDetail().getJobDataMap();
-        Long siteId = dataMap.getLong(SITE_ID_KEY);
+        String bucket = context.getJobDetail().getJobDataMap().getString(BUCKET_KEY);
         
-        // Récupération du service de monitoring via le context
-        MonitoringService monitoringService = (MonitoringService) context.getScheduler().getContext().get("monitoringService");
+        // Récupération des services via le context
+        SchedulerContext schedulerContext;
+        try {
+            schedulerContext = context.getScheduler().getContext();
+        } catch (SchedulerException e) {
+            throw new JobExecutionException(e);
+        }
+        MonitoringService monitoringService = (MonitoringService) schedulerContext.get("monitoringService");
+        SiteBuckets buckets = (SiteBuckets) schedulerContext.get(BUCKETS_KEY);
+        CheckDensityMetrics checkDensity = (CheckDensityMetrics) schedulerContext.get(CHECK_DENSITY_KEY);
+        SchedulerLagMonitor lagMonitor = (SchedulerLagMonitor) schedulerContext.get(LAG_MONITOR_KEY);
+        OverloadPolicy overloadPolicy = (OverloadPolicy) schedulerContext.get(OVERLOAD_POLICY_KEY);
+        QuartzSchedulerService schedulerService = (QuartzSchedulerService) schedulerContext.get(SCHEDULER_SERVICE_KEY);
         
-        if (monitoringService == null) {
+        if (monitoringService == null || buckets == null || schedulerService == null) {
             log.error("MonitoringService non disponible dans le contexte du planificateur");
             throw new JobExecutionException("MonitoringService non disponible");
         }
         
-        try {
-            // Récupération du site à vérifier
-            Optional<MonitoredSite> siteOpt = monitoringService.getSiteById(siteId);
-            
-            if (siteOpt.isPresent()) {
-                MonitoredSite site = siteOpt.get();
-                
-                // Si le site est en maintenance, on ignore la vérification
-                if (site.isMaintenanceMode()) {
-                    log.debug("Site {} en mode maintenance, vérification ignorée", site.getUrl());
-                    return;
-                }
-                
-                log.debug("Exécution de la vérification planifiée pour {}", site.getUrl());
-                monitoringService.checkSite(site);
-            } else {
-                log.warn("Site avec ID {} non trouvé, job annulé", siteId);
+        // Sites dus, hors ceux dont la vérification précédente est en cours
+        List<Long> due = new ArrayList<>();
+        for (Long siteId : buckets.members(bucket)) {
+            if (buckets.tryStart(siteId)) {
+                due.add(siteId);
+            } else if (overloadPolicy == OverloadPolicy.SKIP) {
+                recordSkipped(lagMonitor);
+            } else if (buckets.requestRerun(siteId)) {
+                recordCoalesced(lagMonitor);
+            } else if (buckets.tryStart(siteId)) {
+                // Vérification terminée entre-temps
+                due.add(siteId);
             }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        
+        List<MonitoredSite> sites;
+        try {
+            sites = monitoringService.getSitesByIds(due);
         } catch (Exception e) {
-            log.error("Erreur lors de l'exécution de la vérification du site {}: {}", siteId, e.getMessage(), e);
+            for (Long siteId : due) {
+                buckets.finish(siteId);
+            }
+            log.error("Erreur lors de la lecture des sites du paquet {}: {}", bucket, e.getMessage(), e);
             throw new JobExecutionException(e);
         }
+        
+        // Sites supprimés : retirés de leur paquet, et le job avec le paquet s'il est vide
+        Set<Long> found = new HashSet<>();
+        for (MonitoredSite site : sites) {
+            found.add(site.getId());
+        }
+        for (Long siteId : due) {
+            if (!found.contains(siteId)) {
+                buckets.finish(siteId);
+                log.warn("Site avec ID {} non trouvé, planification annulée", siteId);
+                schedulerService.releaseDeletedSite(siteId);
+            }
+        }
+        
+        // Retard par rapport à l'instant prévu du déclenchement, identique pour tout le paquet
+        long lag = context.getScheduledFireTime() != null
+                ? System.currentTimeMillis() - context.getScheduledFireTime().getTime()
+                : 0;
+        
+        sites.sort(Comparator.comparing(SiteCheckJob::priorityOf));
+        for (MonitoredSite site : sites) {
+            if (lagMonitor != null) {
+                lagMonitor.getMetrics().record(lag);
+            }
+            checkAsync(monitoringService, checkDensity, buckets, site);
+        }
+        log.debug("{} sites du paquet {} confiés au pool de vérification", sites.size(), bucket);
+    }
+    
+    /**
+     * Confie la vérification d'un site au pool de vérification ; relance le site à la fin
+     * si une échéance a été fusionnée pendant la vérification
+     */
+    static void checkAsync(MonitoringService monitoringService, CheckDensityMetrics checkDensity,
+                           SiteBuckets buckets, MonitoredSite site) {
+        if (site.isMaintenanceMode()) {
+            log.debug("Site {} en mode maintenance, vérification ignorée", site.getUrl());
+            buckets.finish(site.getId());
+            return;
+        }
+        if (monitoringService.isCheckDeferred(site)) {
+            log.debug("Site {} dépendant d'un site en panne, vérification espacée", site.getUrl());
+            buckets.finish(site.getId());
+            return;
+        }
+        
+        if (checkDensity != null) {
+            checkDensity.record();
+        }
+        try {
+            monitoringService.checkSiteAsync(site).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.error("Erreur lors de l'exécution de la vérification du site {}: {}",
+                            site.getUrl(), e.getMessage(), e);
+                }
+                if (buckets.finish(site.getId())) {
+                    checkAsync(monitoringService, checkDensity, buckets, site);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            buckets.finish(site.getId());
+            log.warn("Vérification du site {} refusée par le pool: {}", site.getUrl(), e.getMessage());
+        }
+    }
+    
+    private static MonitoredSite.Priority priorityOf(MonitoredSite site) {
+        return site.getPriority() != null ? site.getPriority() : MonitoredSite.Priority.NORMAL;
+    }
+    
+    private static void recordSkipped(SchedulerLagMonitor lagMonitor) {
+        if (lagMonitor != null) {
+            lagMonitor.getMetrics().recordSkipped();
+        }
+    }
+    
+    private static void recordCoalesced(SchedulerLagMonitor lagMonitor) {
+        if (lagMonitor != null) {
+            lagMonitor.getMetrics().recordCoalesced();
+        }
+    }
+    
+    /**
+     * Vérifie un site, sauf s'il est en mode maintenance ou si sa vérification est espacée
+     * @param checkDensity La mesure de densité des vérifications (peut être null)
+     * @return Le site, avec son statut mis à jour, ou vide s'il n'existe plus
+     */
+    static Optional<MonitoredSite> runCheck(MonitoringService monitoringService, CheckDensityMetrics checkDensity, Long siteId) {
+        Optional<MonitoredSite> siteOpt = monitoringService.getSiteById(siteId);
+        
+        if (siteOpt.isEmpty()) {
+            log.warn("Site avec ID {} non trouvé, planification annulée", siteId);
+            return siteOpt;
+        }
+        
+        runCheck(monitoringService, checkDensity, siteOpt.get());
+        return siteOpt;
+    }
+    
+    /**
+     * Vérifie un site déjà lu, sauf s'il est en mode maintenance ou si sa vérification est espacée
+     * @param checkDensity La mesure de densité des vérifications (peut être null)
+     * @return Le résultat brut de la vérification, ou null si elle a été sautée
+     */
+    static CheckResult runCheck(MonitoringService monitoringService, CheckDensityMetrics checkDensity, MonitoredSite site) {
+        // Si le site est en maintenance, on ignore la vérification
+        if (site.isMaintenanceMode()) {
+            log.debug("Site {} en mode maintenance, vérification ignorée", site.getUrl());
+            return null;
+        }
+        
+        // Si un site dont il dépend est en panne, les vérifications sont espacées
+        if (monitoringService.isCheckDeferred(site)) {
+            log.debug("Site {} dépendant d'un site en panne, vérification espacée", site.getUrl());
+            return null;
+        }
+        
+        log.debug("Exécution de la vérification planifiée pour {}", site.getUrl());
+        if (checkDensity != null) {
+            checkDensity.record();
+        }
+        return monitoringService.checkSite(site);
+    }
+    
+    /**
+     * Intervalle de vérification d'un site : 5 minutes par défaut, 10 secondes au minimum
+     */
+    static long intervalSeconds(MonitoredSite site) {
+        Duration interval = site.getCheckInterval();
+        
+        // Par défaut 5 minutes si non spécifié
+        if (interval == null) {
+            interval = Duration.ofMinutes(5);
+        }
+        
+        // Minimum 10 secondes entre les vérifications
+        return Math.max(interval.getSeconds(), 10);
     }
 }
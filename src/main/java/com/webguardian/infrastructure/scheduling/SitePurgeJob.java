@@ -0,0 +1,39 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.usecases.RetentionService;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.SchedulerException;
+
+/**
+ * Job Quartz qui purge en arrière-plan l'historique des sites supprimés
+ */
+@Slf4j
+@DisallowConcurrentExecution
+public class SitePurgeJob implements Job {
+    
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        RetentionService retentionService;
+        try {
+            retentionService = (RetentionService) context.getScheduler().getContext().get(RetentionJob.RETENTION_SERVICE_KEY);
+        } catch (SchedulerException e) {
+            throw new JobExecutionException(e);
+        }
+        
+        if (retentionService == null) {
+            log.error("RetentionService non disponible dans le contexte du planificateur");
+            throw new JobExecutionException("RetentionService non disponible");
+        }
+        
+        try {
+            retentionService.purgeDeletedSites();
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge des sites supprimés: {}", e.getMessage(), e);
+            throw new JobExecutionException(e);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.usecases.MonitoringService;
+import com.webguardian.core.usecases.RetentionService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service de planification natif, sur une roue temporelle hachée. Une seule échéance par site,
+ * sans job ni déclencheur : la roue confie les vérifications échues à la {@link CheckDispatcher}, qui les lance
+ * par priorité et abandonne celles qui n'ont pas démarré avant l'échéance suivante du site.
+ * Les sites sont répartis dans leur intervalle par {@link PhaseSpreader}. En mode adaptatif, l'intervalle
+ * de chaque site suit son état ({@link AdaptiveInterval}) ; l'échéance est alors déplacée sur place dans la roue.
+ * Le retard de chaque vérification est mesuré ; une échéance atteinte alors que la vérification précédente
+ * du site n'est pas terminée est traitée selon la {@link OverloadPolicy} configurée.
+ * La rétention et la purge s'exécutent sur un thread de maintenance dédié.
+ */
+@Slf4j
+public class TimingWheelSchedulerService implements SchedulerService {
+    private static final long FIRST_RETENTION_DELAY_SECONDS = 60;
+    private static final long FIRST_PURGE_DELAY_SECONDS = 30;
+    private static final long METRICS_LOG_INTERVAL_MINUTES = 5;
+    
+    private static final int IDLE = 0;
+    private static final int BUSY = 1;
+    private static final int BUSY_RERUN = 2;
+    
+    private final MonitoringService monitoringService;
+    private final RetentionService retentionService;
+    private final CheckDispatcher dispatcher;
+    private final ExecutorService maintenanceExecutor;
+    private final HashedTimingWheel wheel;
+    private final SchedulerLagMonitor lagMonitor;
+    private final OverloadPolicy overloadPolicy;
+    private final AdaptiveIntervalSettings adaptiveSettings;
+    private final Map<Long, SiteRun> siteRuns = new ConcurrentHashMap<>();
+    private final PhaseSpreader phases = new PhaseSpreader();
+    private final CheckDensityMetrics checkDensity = new CheckDensityMetrics();
+    private HashedTimingWheel.Timeout retentionTimeout;
+    private HashedTimingWheel.Timeout purgeTimeout;
+    
+    /**
+     * @param dispatcher La file des vérifications de sites
+     * @param tickMillis Durée d'un tick de la roue, en millisecondes
+     * @param wheelSize Nombre de cases de la roue
+     * @param lagMonitor La surveillance du retard des vérifications
+     * @param overloadPolicy Le traitement des échéances atteintes pendant une vérification du même site
+     * @param adaptiveSettings Les paramètres du mode adaptatif, ou null pour des intervalles fixes
+     */
+    public TimingWheelSchedulerService(MonitoringService monitoringService, RetentionService retentionService,
+                                       CheckDispatcher dispatcher, long tickMillis, int wheelSize,
+                                       SchedulerLagMonitor lagMonitor, OverloadPolicy overloadPolicy,
+                                       AdaptiveIntervalSettings adaptiveSettings) {
+        this.monitoringService = monitoringService;
+        this.retentionService = retentionService;
+        this.dispatcher = dispatcher;
+        this.lagMonitor = lagMonitor;
+        this.overloadPolicy = overloadPolicy;
+        this.adaptiveSettings = adaptiveSettings;
+        this.maintenanceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduler-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Les tâches de la roue ne font que répartir le travail : elles s'exécutent sur le thread de la roue
+        this.wheel = new HashedTimingWheel(tickMillis, TimeUnit.MILLISECONDS, wheelSize,
+                Runnable::run, "scheduler-wheel");
+    }
+    
+    @Override
+    public void initialize() {
+        dispatcher.start();
+        wheel.start();
+        wheel.schedule(() -> runMaintenance("l'affichage des métriques", this::logMetrics),
+                METRICS_LOG_INTERVAL_MINUTES, METRICS_LOG_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        wheel.schedule(() -> runMaintenance("l'évaluation du retard", lagMonitor::evaluate),
+                SchedulerLagMonitor.EVALUATION_INTERVAL_SECONDS,
+                SchedulerLagMonitor.EVALUATION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        log.info("Planificateur à roue temporelle initialisé ({} cases, tick de {} ms, surcharge: {}, intervalles {})",
+                wheel.getWheelSize(), TimeUnit.NANOSECONDS.toMillis(wheel.getTickNanos()), overloadPolicy,
+                adaptiveSettings != null ? "adaptatifs" : "fixes");
+    }
+    
+    @Override
+    public void scheduleSite(MonitoredSite site) {
+        Long siteId = site.getId();
+        long seconds = SiteCheckJob.intervalSeconds(site);
+        
+        // Premier déclenchement à la phase du site, pour répartir les sites dans l'intervalle
+        long intervalMillis = TimeUnit.SECONDS.toMillis(seconds);
+        long offset = phases.assign(siteId, intervalMillis);
+        long delay = PhaseSpreader.delayUntilPhase(offset, intervalMillis, System.currentTimeMillis());
+        
+        // Site déjà planifié : l'échéance est déplacée sur place
+        SiteRun existing = siteRuns.get(siteId);
+        if (existing != null) {
+            existing.baseIntervalMillis = intervalMillis;
+            existing.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            existing.phaseOffsetMillis = offset;
+            existing.unhealthy = isUnhealthy(site.getCurrentStatus());
+            existing.priority = site.getPriority();
+            if (existing.timeout.reschedule(delay, intervalMillis, TimeUnit.MILLISECONDS)) {
+                log.debug("Planification pour le site {} mise à jour toutes les {} secondes", site.getUrl(), seconds);
+                return;
+            }
+        }
+        
+        SiteRun run = new SiteRun(siteId, intervalMillis, offset, isUnhealthy(site.getCurrentStatus()),
+                site.getPriority(), adaptiveSettings != null ? new AdaptiveInterval(adaptiveSettings) : null);
+        run.timeout = wheel.schedule(() -> dispatch(run), delay, intervalMillis, TimeUnit.MILLISECONDS);
+        SiteRun previous = siteRuns.put(siteId, run);
+        if (previous != null) {
+            previous.timeout.cancel();
+        }
+        log.debug("Planification pour le site {} configurée toutes les {} secondes", site.getUrl(), seconds);
+    }
+    
+    @Override
+    public void scheduleAllSites(List<MonitoredSite> sites) {
+        for (MonitoredSite site : sites) {
+            scheduleSite(site);
+        }
+        log.info("{} sites planifiés pour la vérification", sites.size());
+    }
+    
+    @Override
+    public void unscheduleSite(MonitoredSite site) {
+        if (cancelSite(site.getId())) {
+            log.debug("Planification pour le site {} supprimée", site.getUrl());
+        }
+    }
+    
+    @Override
+    public void triggerImmediateCheck(MonitoredSite site) {
+        Long siteId = site.getId();
+        try {
+            dispatcher.submit(site.getPriority(), CheckDispatcher.NO_DEADLINE, () -> runCheck(siteId), () -> { });
+            log.debug("Vérification immédiate déclenchée pour le site {}", site.getUrl());
+        } catch (RejectedExecutionException e) {
+            log.error("Erreur lors du déclenchement de la vérification immédiate du site {}: {}",
+                    site.getUrl(), e.getMessage(), e);
+        }
+    }
+    
+    @Override
+    public synchronized void scheduleRetention(int intervalHours) {
+        if (retentionTimeout != null) {
+            retentionTimeout.cancel();
+        }
+        
+        int hours = Math.max(intervalHours, 1);
+        retentionTimeout = wheel.schedule(() -> runMaintenance("l'application de la rétention",
+                        retentionService::applyRetention),
+                FIRST_RETENTION_DELAY_SECONDS, TimeUnit.HOURS.toSeconds(hours), TimeUnit.SECONDS);
+        log.info("Rétention de l'historique planifiée toutes les {} heures", hours);
+    }
+    
+    @Override
+    public synchronized void scheduleSitePurge(int intervalMinutes) {
+        if (purgeTimeout != null) {
+            purgeTimeout.cancel();
+        }
+        
+        int minutes = Math.max(intervalMinutes, 1);
+        purgeTimeout = wheel.schedule(() -> runMaintenance("la purge des sites supprimés",
+                        retentionService::purgeDeletedSites),
+                FIRST_PURGE_DELAY_SECONDS, TimeUnit.MINUTES.toSeconds(minutes), TimeUnit.SECONDS);
+        log.info("Purge des sites supprimés planifiée toutes les {} minutes", minutes);
+    }
+    
+    @Override
+    public CheckDensityMetrics getCheckDensity() {
+        return checkDensity;
+    }
+    
+    @Override
+    public SchedulerLagMetrics getLagMetrics() {
+        return lagMonitor.getMetrics();
+    }
+    
+    @Override
+    public void shutdown() {
+        wheel.stop();
+        dispatcher.shutdown();
+        logMetrics();
+        siteRuns.clear();
+        maintenanceExecutor.shutdown();
+        try {
+            if (!maintenanceExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                maintenanceExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            maintenanceExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("Planificateur à roue temporelle arrêté");
+    }
+    
+    /**
+     * @return Le nombre de sites planifiés
+     */
+    public int getScheduledSiteCount() {
+        return siteRuns.size();
+    }
+    
+    /**
+     * Échéance d'un site, sur le thread de la roue : lance la vérification ou applique la politique de surcharge
+     */
+    private void dispatch(SiteRun run) {
+        HashedTimingWheel.Timeout timeout = run.timeout;
+        long intended = timeout != null ? timeout.getDeadlineNanos() : System.nanoTime();
+        
+        boolean deprioritized = overloadPolicy == OverloadPolicy.DEPRIORITIZE && !run.unhealthy;
+        if (deprioritized && lagMonitor.isOverloaded()) {
+            // Surcharge prolongée : une échéance sur deux pour les sites disponibles
+            run.thinned = !run.thinned;
+            if (run.thinned) {
+                lagMonitor.getMetrics().recordSkipped();
+                return;
+            }
+        }
+        
+        while (true) {
+            int state = run.state.get();
+            if (state == IDLE) {
+                if (run.state.compareAndSet(IDLE, BUSY)) {
+                    submit(run, intended);
+                    return;
+                }
+            } else if (overloadPolicy == OverloadPolicy.SKIP || deprioritized) {
+                // Vérification précédente non terminée : l'échéance est abandonnée
+                lagMonitor.getMetrics().recordSkipped();
+                log.debug("Vérification du site {} toujours en cours, échéance abandonnée", run.siteId);
+                return;
+            } else if (state == BUSY) {
+                run.pendingIntendedNanos = intended;
+                if (run.state.compareAndSet(BUSY, BUSY_RERUN)) {
+                    lagMonitor.getMetrics().recordCoalesced();
+                    return;
+                }
+            } else {
+                // Une nouvelle vérification est déjà demandée : les échéances en retard sont fusionnées
+                lagMonitor.getMetrics().recordCoalesced();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Confie une vérification à la file, à abandonner si elle n'a pas démarré à l'échéance suivante du site
+     */
+    private void submit(SiteRun run, long intendedNanos) {
+        try {
+            dispatcher.submit(run.priority, intendedNanos + run.intervalNanos,
+                    () -> execute(run, intendedNanos), () -> expire(run));
+        } catch (RejectedExecutionException e) {
+            run.state.set(IDLE);
+            lagMonitor.getMetrics().recordSkipped();
+            log.warn("Vérification du site {} refusée par la file: {}", run.siteId, e.getMessage());
+        }
+    }
+    
+    /**
+     * Vérification abandonnée par la file faute d'avoir démarré avant l'échéance suivante
+     */
+    private void expire(SiteRun run) {
+        lagMonitor.getMetrics().recordSkipped();
+        log.debug("Vérification du site {} abandonnée, échéance suivante dépassée", run.siteId);
+        complete(run);
+    }
+    
+    private void execute(SiteRun run, long intendedNanos) {
+        lagMonitor.getMetrics().record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - intendedNanos));
+        try {
+            Optional<MonitoredSite> site = monitoringService.getSiteById(run.siteId);
+            if (site.isPresent()) {
+                CheckResult result = SiteCheckJob.runCheck(monitoringService, checkDensity, site.get());
+                run.unhealthy = isUnhealthy(site.get().getCurrentStatus());
+                run.priority = site.get().getPriority();
+                // Vérification sautée (maintenance, dépendance en panne) : aucun résultat à compter
+                if (run.adaptive != null && result != null) {
+                    adapt(run, site.get(), result);
+                }
+            } else {
+                // Site supprimé : l'échéance est retirée de la roue
+                log.warn("Site avec ID {} non trouvé, planification annulée", run.siteId);
+                cancelSite(run.siteId);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution de la vérification du site {}: {}", run.siteId, e.getMessage(), e);
+        } finally {
+            complete(run);
+        }
+    }
+    
+    /**
+     * Ajuste l'intervalle du site après une vérification, en déplaçant son échéance si l'intervalle change.
+     * Les intervalles allongés restent alignés sur la phase du site.
+     */
+    private void adapt(SiteRun run, MonitoredSite site, CheckResult result) {
+        long base = run.baseIntervalMillis;
+        long interval = run.adaptive.next(result, base);
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        if (intervalNanos == run.intervalNanos) {
+            return;
+        }
+        
+        long delay = interval < base
+                ? interval
+                : PhaseSpreader.delayUntilPhase(run.phaseOffsetMillis, base, System.currentTimeMillis()) + interval - base;
+        run.intervalNanos = intervalNanos;
+        run.timeout.reschedule(delay, interval, TimeUnit.MILLISECONDS);
+        log.debug("Intervalle du site {} ajusté à {} secondes{}", site.getUrl(), TimeUnit.MILLISECONDS.toSeconds(interval),
+                run.adaptive.isConfirming() ? " (confirmation de l'état)" : "");
+    }
+    
+    /**
+     * Fin d'une vérification : relance immédiate si des échéances ont été fusionnées entre-temps
+     */
+    private void complete(SiteRun run) {
+        while (true) {
+            if (run.state.compareAndSet(BUSY, IDLE)) {
+                return;
+            }
+            if (run.state.compareAndSet(BUSY_RERUN, BUSY)) {
+                if (run.timeout.isCancelled()) {
+                    run.state.set(IDLE);
+                } else {
+                    submit(run, run.pendingIntendedNanos);
+                }
+                return;
+            }
+        }
+    }
+    
+    private void runCheck(Long siteId) {
+        try {
+            if (SiteCheckJob.runCheck(monitoringService, checkDensity, siteId).isEmpty()) {
+                cancelSite(siteId);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'exécution de la vérification du site {}: {}", siteId, e.getMessage(), e);
+        }
+    }
+    
+    private boolean cancelSite(Long siteId) {
+        phases.release(siteId);
+        SiteRun run = siteRuns.remove(siteId);
+        return run != null && run.timeout.cancel();
+    }
+    
+    /**
+     * Un site est en difficulté s'il n'est pas vérifié comme disponible (en panne, dégradé ou inconnu)
+     */
+    private static boolean isUnhealthy(MonitoredSite.SiteStatus status) {
+        return status != MonitoredSite.SiteStatus.UP && status != MonitoredSite.SiteStatus.MAINTENANCE;
+    }
+    
+    private void logMetrics() {
+        log.info("{}", checkDensity);
+        log.info("{}", lagMonitor.getMetrics());
+        log.info("{}", dispatcher);
+    }
+    
+    /**
+     * Confie une tâche de maintenance au thread dédié, pour ne pas occuper les threads de vérification
+     */
+    private void runMaintenance(String description, Runnable task) {
+        try {
+            maintenanceExecutor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Erreur lors de {}: {}", description, e.getMessage(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Planificateur arrêté, {} ignorée", description);
+        }
+    }
+    
+    /**
+     * État de la planification d'un site
+     */
+    private static final class SiteRun {
+        private final Long siteId;
+        private final AdaptiveInterval adaptive;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+        private volatile long baseIntervalMillis;
+        private volatile long intervalNanos;
+        private volatile long phaseOffsetMillis;
+        private volatile HashedTimingWheel.Timeout timeout;
+        private volatile boolean unhealthy;
+        private volatile MonitoredSite.Priority priority;
+        private volatile long pendingIntendedNanos;
+        
+        // Modifié uniquement par le thread de la roue
+        private boolean thinned;
+        
+        SiteRun(Long siteId, long intervalMillis, long phaseOffsetMillis, boolean unhealthy,
+                MonitoredSite.Priority priority, AdaptiveInterval adaptive) {
+            this.siteId = siteId;
+            this.baseIntervalMillis = intervalMillis;
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            this.phaseOffsetMillis = phaseOffsetMillis;
+            this.unhealthy = unhealthy;
+            this.priority = priority;
+            this.adaptive = adaptive;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.webguardian.application.discord;
 
 import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SitePage;
 import com.webguardian.core.usecases.MonitoringService;
 import com.webguardian.core.usecases.ReportService;
 import net.dv8tion.jda.api.entities.Message;
@@ -21,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -74,14 +76,14 @@ public class DiscordCommandHandlerTest {
                 .checkInterval(Duration.ofMinutes(5))
                 .build();
         
-        when(monitoringService.addSite(any(MonitoredSite.class))).thenReturn(newSite);
+        when(monitoringService.addSiteAsync(any(MonitoredSite.class))).thenReturn(CompletableFuture.completedFuture(newSite));
         
         // Act
         commandHandler.onMessageReceived(event);
         
         // Assert
         ArgumentCaptor<MonitoredSite> siteCaptor = ArgumentCaptor.forClass(MonitoredSite.class);
-        verify(monitoringService).addSite(siteCaptor.capture());
+        verify(monitoringService).addSiteAsync(siteCaptor.capture());
         
         MonitoredSite capturedSite = siteCaptor.getValue();
         assertEquals("https://example.com", capturedSite.getUrl());
@@ -95,13 +97,13 @@ public class DiscordCommandHandlerTest {
     public void testHandleRemoveCommand() {
         // Arrange
         when(message.getContentRaw()).thenReturn("!wg remove https://example.com");
-        when(monitoringService.removeSite("https://example.com")).thenReturn(true);
+        when(monitoringService.removeSiteAsync("https://example.com")).thenReturn(CompletableFuture.completedFuture(true));
         
         // Act
         commandHandler.onMessageReceived(event);
         
         // Assert
-        verify(monitoringService).removeSite("https://example.com");
+        verify(monitoringService).removeSiteAsync("https://example.com");
         verify(channel).sendMessage(contains("Site removed successfully"));
     }
     
@@ -109,13 +111,13 @@ public class DiscordCommandHandlerTest {
     public void testHandleRemoveCommandNotFound() {
         // Arrange
         when(message.getContentRaw()).thenReturn("!wg remove https://nonexistent.com");
-        when(monitoringService.removeSite("https://nonexistent.com")).thenReturn(false);
+        when(monitoringService.removeSiteAsync("https://nonexistent.com")).thenReturn(CompletableFuture.completedFuture(false));
         
         // Act
         commandHandler.onMessageReceived(event);
         
         // Assert
-        verify(monitoringService).removeSite("https://nonexistent.com");
+        verify(monitoringService).removeSiteAsync("https://nonexistent.com");
         verify(channel).sendMessage(contains("Site not found"));
     }
     
@@ -129,13 +131,16 @@ public class DiscordCommandHandlerTest {
             MonitoredSite.builder().id(2L).url("https://site2.com").name("Site 2").currentStatus(MonitoredSite.SiteStatus.DOWN).build()
         );
         
-        when(monitoringService.getAllSites()).thenReturn(sites);
+        when(monitoringService.getSitesAfterAsync(isNull(), anyInt(), isNull()))
+                .thenReturn(CompletableFuture.completedFuture(SitePage.builder().sites(sites).nextCursor(2L).build()));
+        when(messageAction.setActionRow(anyCollection())).thenReturn(messageAction);
         
         // Act
         commandHandler.onMessageReceived(event);
         
         // Assert
-        verify(monitoringService).getAllSites();
+        verify(monitoringService).getSitesAfterAsync(isNull(), anyInt(), isNull());
+        verify(monitoringService, never()).getAllSites();
         verify(channel).sendMessageEmbeds(any(MessageEmbed.class));
     }
     
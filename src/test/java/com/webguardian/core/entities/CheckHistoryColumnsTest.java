@@ -0,0 +1,62 @@
+package com.webguardian.core.entities;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckHistoryColumnsTest {
+
+    @Test
+    public void testAddStoresPrimitiveColumns() {
+        // Arrange
+        CheckHistoryColumns columns = new CheckHistoryColumns();
+
+        // Act
+        columns.add(1000L, CheckResult.CheckStatus.SUCCESS, 150);
+        columns.add(2000L, CheckResult.CheckStatus.TIMEOUT, CheckHistoryColumns.NO_RESPONSE_TIME);
+
+        // Assert
+        assertEquals(2, columns.getSize());
+        assertEquals(1000L, columns.getTimestamps()[0]);
+        assertEquals(2000L, columns.getTimestamps()[1]);
+        assertEquals(CheckResult.CheckStatus.SUCCESS.ordinal(), columns.getStatuses()[0]);
+        assertEquals(CheckResult.CheckStatus.TIMEOUT.ordinal(), columns.getStatuses()[1]);
+        assertEquals(150, columns.getResponseTimesMillis()[0]);
+        assertEquals(CheckHistoryColumns.NO_RESPONSE_TIME, columns.getResponseTimesMillis()[1]);
+    }
+
+    @Test
+    public void testAddGrowsBeyondInitialCapacity() {
+        // Arrange
+        CheckHistoryColumns columns = new CheckHistoryColumns(2);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            columns.add(i, CheckResult.CheckStatus.SUCCESS, i * 10);
+        }
+
+        // Assert
+        assertEquals(100, columns.getSize());
+        assertTrue(columns.getTimestamps().length >= 100);
+        assertEquals(99L, columns.getTimestamps()[99]);
+        assertEquals(990, columns.getResponseTimesMillis()[99]);
+    }
+
+    @Test
+    public void testClearReusesColumnsForNextBatch() {
+        // Arrange
+        CheckHistoryColumns columns = new CheckHistoryColumns(2);
+        columns.add(1000L, CheckResult.CheckStatus.SUCCESS, 150);
+        columns.add(2000L, CheckResult.CheckStatus.FAILURE, 300);
+        long[] timestamps = columns.getTimestamps();
+
+        // Act
+        columns.clear();
+        columns.add(3000L, CheckResult.CheckStatus.ERROR, CheckHistoryColumns.NO_RESPONSE_TIME);
+
+        // Assert
+        assertEquals(1, columns.getSize());
+        assertSame(timestamps, columns.getTimestamps());
+        assertEquals(3000L, columns.getTimestamps()[0]);
+        assertEquals(CheckResult.CheckStatus.ERROR.ordinal(), columns.getStatuses()[0]);
+    }
+}
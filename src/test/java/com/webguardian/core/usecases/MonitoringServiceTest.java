@@ -2,6 +2,8 @@ package com.webguardian.core.usecases;
 
 import com.webguardian.core.entities.CheckResult;
 import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteCheckSummary;
+import com.webguardian.core.entities.SitePage;
 import com.webguardian.core.ports.NotificationPort;
 import com.webguardian.core.ports.SiteCheckerPort;
 import com.webguardian.core.ports.SiteRepositoryPort;
@@ -15,9 +17,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -116,6 +126,7 @@ public class MonitoringServiceTest {
         assertTrue(result);
         verify(siteRepository).findByUrl(url);
         verify(siteRepository).delete(site.getId());
+        verify(notificationService).withdrawSite(site);
     }
 
     @Test
@@ -180,10 +191,9 @@ public class MonitoringServiceTest {
         
         verify(siteChecker).check(site);
         verify(siteRepository).saveCheckResult(any(CheckResult.class));
-        verify(siteRepository).save(siteCaptor.capture());
-        
-        MonitoredSite capturedSite = siteCaptor.getValue();
-        assertEquals(MonitoredSite.SiteStatus.UP, capturedSite.getCurrentStatus());
+        verify(siteRepository).updateStatuses(Collections.singletonMap(1L, MonitoredSite.SiteStatus.UP));
+        verify(siteRepository, never()).save(any(MonitoredSite.class));
+        assertEquals(MonitoredSite.SiteStatus.UP, site.getCurrentStatus());
         
         // No notifications for initial success
         verify(notificationService, never()).sendAlert(any(), any());
@@ -218,10 +228,9 @@ public class MonitoringServiceTest {
         
         verify(siteChecker).check(site);
         verify(siteRepository).saveCheckResult(any(CheckResult.class));
-        verify(siteRepository).save(siteCaptor.capture());
-        
-        MonitoredSite capturedSite = siteCaptor.getValue();
-        assertEquals(MonitoredSite.SiteStatus.DOWN, capturedSite.getCurrentStatus());
+        verify(siteRepository).updateStatuses(Collections.singletonMap(1L, MonitoredSite.SiteStatus.DOWN));
+        verify(siteRepository, never()).save(any(MonitoredSite.class));
+        assertEquals(MonitoredSite.SiteStatus.DOWN, site.getCurrentStatus());
         
         // Should send alert
         verify(notificationService).sendAlert(eq(site), any(CheckResult.class));
@@ -255,15 +264,253 @@ public class MonitoringServiceTest {
         
         verify(siteChecker).check(site);
         verify(siteRepository).saveCheckResult(any(CheckResult.class));
-        verify(siteRepository).save(siteCaptor.capture());
-        
-        MonitoredSite capturedSite = siteCaptor.getValue();
-        assertEquals(MonitoredSite.SiteStatus.UP, capturedSite.getCurrentStatus());
+        verify(siteRepository).updateStatuses(Collections.singletonMap(1L, MonitoredSite.SiteStatus.UP));
+        verify(siteRepository, never()).save(any(MonitoredSite.class));
+        assertEquals(MonitoredSite.SiteStatus.UP, site.getCurrentStatus());
         
         // Should send recovery notification
         verify(notificationService).sendRecoveryNotification(eq(site), any(CheckResult.class));
     }
 
+    @Test
+    public void testConcurrentChecksNotifyEachTransitionOnce() throws Exception {
+        // Arrange : plusieurs threads vérifient le même site, chacun avec sa propre instance lue avant les transitions
+        int threads = 8;
+        int checksPerThread = 500;
+        when(siteChecker.check(any(MonitoredSite.class))).thenAnswer(invocation -> CheckResult.builder()
+                .status(ThreadLocalRandom.current().nextBoolean()
+                        ? CheckResult.CheckStatus.SUCCESS : CheckResult.CheckStatus.FAILURE)
+                .severity(CheckResult.AlertSeverity.NONE)
+                .build());
+        
+        List<String> notifications = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> notifications.add("ALERT"))
+                .when(notificationService).sendAlert(any(MonitoredSite.class), any(CheckResult.class));
+        doAnswer(invocation -> notifications.add("RECOVERY"))
+                .when(notificationService).sendRecoveryNotification(any(MonitoredSite.class), any(CheckResult.class));
+        
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                for (int i = 0; i < checksPerThread; i++) {
+                    monitoringService.checkSite(MonitoredSite.builder()
+                            .id(1L)
+                            .url("https://example.com")
+                            .name("Example Site")
+                            .notifyOnIssue(true)
+                            .currentStatus(MonitoredSite.SiteStatus.UP)
+                            .build());
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // Assert : alertes et récupérations alternent, sans doublon ni transition perdue
+        assertFalse(notifications.isEmpty());
+        for (int i = 0; i < notifications.size(); i++) {
+            assertEquals(i % 2 == 0 ? "ALERT" : "RECOVERY", notifications.get(i));
+        }
+        verify(siteRepository, times(notifications.size())).updateStatuses(any());
+    }
+
+    @Test
+    public void testCheckSiteAlertsOnlyAfterNFailuresOfM() {
+        // Arrange : panne après 2 échecs parmi les 3 dernières vérifications
+        MonitoringService service = new MonitoringService(siteChecker, siteRepository, notificationService,
+                new DirectAsyncSiteRepository(siteRepository),
+                StatusTransitionSettings.builder().failThreshold(2).failWindow(3).build());
+        MonitoredSite site = MonitoredSite.builder()
+                .id(1L)
+                .url("https://example.com")
+                .name("Example Site")
+                .notifyOnIssue(true)
+                .currentStatus(MonitoredSite.SiteStatus.UP)
+                .build();
+        when(siteChecker.check(site)).thenReturn(
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.SUCCESS),
+                checkResult(CheckResult.CheckStatus.FAILURE));
+
+        // Act & Assert : un échec isolé ne change pas le statut
+        service.checkSite(site);
+        assertEquals(MonitoredSite.SiteStatus.UP, site.getCurrentStatus());
+        service.checkSite(site);
+        assertEquals(MonitoredSite.SiteStatus.UP, site.getCurrentStatus());
+        verify(notificationService, never()).sendAlert(any(), any());
+        
+        service.checkSite(site);
+        assertEquals(MonitoredSite.SiteStatus.DOWN, site.getCurrentStatus());
+        verify(notificationService).sendAlert(eq(site), any(CheckResult.class));
+    }
+
+    @Test
+    public void testFlappingSiteSuspendsNotificationsUntilStable() {
+        // Arrange : instable à 3 alternances parmi les 5 dernières vérifications, stable à 0
+        MonitoringService service = new MonitoringService(siteChecker, siteRepository, notificationService,
+                new DirectAsyncSiteRepository(siteRepository),
+                StatusTransitionSettings.builder().flapWindow(5).flapEnterChanges(3).flapLeaveChanges(0).build());
+        MonitoredSite site = MonitoredSite.builder()
+                .id(1L)
+                .url("https://example.com")
+                .name("Example Site")
+                .notifyOnIssue(true)
+                .currentStatus(MonitoredSite.SiteStatus.UP)
+                .build();
+        when(siteChecker.check(site)).thenReturn(
+                checkResult(CheckResult.CheckStatus.SUCCESS),
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.SUCCESS),
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.SUCCESS),
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.FAILURE));
+
+        // Act : une alerte et une récupération, puis l'alternance suivante rend le site instable
+        for (int i = 0; i < 4; i++) {
+            service.checkSite(site);
+        }
+        assertEquals(MonitoredSite.SiteStatus.FLAPPING, site.getCurrentStatus());
+        for (int i = 0; i < 5; i++) {
+            service.checkSite(site);
+        }
+        assertEquals(MonitoredSite.SiteStatus.FLAPPING, site.getCurrentStatus());
+        service.checkSite(site);
+
+        // Assert : une seule alerte de plus, une fois la panne stable
+        assertEquals(MonitoredSite.SiteStatus.DOWN, site.getCurrentStatus());
+        verify(notificationService, times(2)).sendAlert(eq(site), any(CheckResult.class));
+        verify(notificationService, times(1)).sendRecoveryNotification(eq(site), any(CheckResult.class));
+    }
+
+    @Test
+    public void testChildAlertSuspendedWhileParentIsDown() {
+        // Arrange
+        MonitoredSite parent = dependencySite(1L, "https://proxy.example.com");
+        MonitoredSite child = dependencySite(2L, "https://app.example.com");
+        child.getDependsOn().add(1L);
+        monitoringService.loadDependencies(List.of(parent, child));
+        when(siteChecker.check(parent)).thenReturn(
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.SUCCESS));
+        when(siteChecker.check(child)).thenReturn(checkResult(CheckResult.CheckStatus.FAILURE));
+
+        // Act
+        monitoringService.checkSite(parent);
+        monitoringService.checkSite(child);
+
+        // Assert : panne du site enfant enregistrée, alerte suspendue
+        assertEquals(MonitoredSite.SiteStatus.DOWN, child.getCurrentStatus());
+        verify(notificationService).sendAlert(eq(parent), any(CheckResult.class));
+        verify(notificationService, never()).sendAlert(eq(child), any(CheckResult.class));
+
+        // Au retour du parent, l'enfant toujours en panne est signalé
+        monitoringService.checkSite(parent);
+        verify(notificationService, timeout(5000)).sendAlert(eq(child), any(CheckResult.class));
+    }
+
+    @Test
+    public void testChildRecoveringBeforeParentIsNeverNotified() {
+        // Arrange
+        MonitoredSite parent = dependencySite(1L, "https://proxy.example.com");
+        MonitoredSite child = dependencySite(2L, "https://app.example.com");
+        child.getDependsOn().add(1L);
+        monitoringService.loadDependencies(List.of(parent, child));
+        when(siteChecker.check(parent)).thenReturn(
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.SUCCESS));
+        when(siteChecker.check(child)).thenReturn(
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.SUCCESS));
+
+        // Act
+        monitoringService.checkSite(parent);
+        monitoringService.checkSite(child);
+        monitoringService.checkSite(child);
+        monitoringService.checkSite(parent);
+        // Une vérification de l'enfant passe derrière toute libération d'alerte en attente
+        monitoringService.checkSite(child);
+
+        // Assert
+        verify(notificationService, never()).sendAlert(eq(child), any(CheckResult.class));
+        verify(notificationService, never()).sendRecoveryNotification(eq(child), any(CheckResult.class));
+        verify(notificationService).sendRecoveryNotification(eq(parent), any(CheckResult.class));
+    }
+
+    @Test
+    public void testParentDegradedKeepsChildAlertUntilRecovery() {
+        // Arrange
+        MonitoredSite parent = dependencySite(1L, "https://proxy.example.com");
+        MonitoredSite child = dependencySite(2L, "https://app.example.com");
+        child.getDependsOn().add(1L);
+        monitoringService.loadDependencies(List.of(parent, child));
+        when(siteChecker.check(parent)).thenReturn(
+                checkResult(CheckResult.CheckStatus.FAILURE),
+                checkResult(CheckResult.CheckStatus.TIMEOUT),
+                checkResult(CheckResult.CheckStatus.SUCCESS));
+        when(siteChecker.check(child)).thenReturn(checkResult(CheckResult.CheckStatus.FAILURE));
+
+        // Act : le parent passe de DOWN à DEGRADED, toujours en échec
+        monitoringService.checkSite(parent);
+        monitoringService.checkSite(child);
+        monitoringService.checkSite(parent);
+        // Une vérification de l'enfant passe derrière toute libération d'alerte en attente
+        monitoringService.checkSite(child);
+
+        // Assert
+        assertEquals(MonitoredSite.SiteStatus.DEGRADED, parent.getCurrentStatus());
+        verify(notificationService, never()).sendAlert(eq(child), any(CheckResult.class));
+
+        // Au rétablissement du parent, l'enfant toujours en panne est signalé
+        monitoringService.checkSite(parent);
+        verify(notificationService, timeout(5000)).sendAlert(eq(child), any(CheckResult.class));
+    }
+
+    @Test
+    public void testChildAlertReleasedWhenParentIsRemoved() {
+        // Arrange
+        MonitoredSite parent = dependencySite(1L, "https://proxy.example.com");
+        MonitoredSite child = dependencySite(2L, "https://app.example.com");
+        child.getDependsOn().add(1L);
+        monitoringService.loadDependencies(List.of(parent, child));
+        when(siteChecker.check(parent)).thenReturn(checkResult(CheckResult.CheckStatus.FAILURE));
+        when(siteChecker.check(child)).thenReturn(checkResult(CheckResult.CheckStatus.FAILURE));
+        when(siteRepository.findByUrl(parent.getUrl())).thenReturn(Optional.of(parent));
+        monitoringService.checkSite(parent);
+        monitoringService.checkSite(child);
+
+        // Act
+        boolean removed = monitoringService.removeSite(parent.getUrl());
+
+        // Assert
+        assertTrue(removed);
+        verify(notificationService, timeout(5000)).sendAlert(eq(child), any(CheckResult.class));
+    }
+
+    @Test
+    public void testMaintenanceModeWithdrawsSiteFromNotifications() {
+        // Arrange
+        MonitoredSite site = dependencySite(1L, "https://example.com");
+        when(siteRepository.findByUrl(site.getUrl())).thenReturn(Optional.of(site));
+        when(siteRepository.save(any(MonitoredSite.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        boolean result = monitoringService.setMaintenanceMode(site.getUrl(), true);
+
+        // Assert
+        assertTrue(result);
+        assertTrue(site.isMaintenanceMode());
+        verify(notificationService).withdrawSite(site);
+    }
+
     @Test
     public void testCheckSiteInMaintenanceMode() {
         // Arrange
@@ -302,16 +549,15 @@ public class MonitoringServiceTest {
         List<MonitoredSite> sites = List.of(site);
         when(siteRepository.findAll()).thenReturn(sites);
         
-        CheckResult checkResult = CheckResult.builder()
-                .site(site)
-                .statusCode(200)
-                .status(CheckResult.CheckStatus.SUCCESS)
-                .timestamp(LocalDateTime.now())
-                .responseTime(Duration.ofMillis(150))
+        SiteCheckSummary summary = SiteCheckSummary.builder()
+                .siteId(1L)
+                .totalChecks(3)
+                .successChecks(2)
+                .incidents(1)
+                .averageResponseTimeMillis(150.0)
                 .build();
         
-        List<CheckResult> history = List.of(checkResult);
-        when(siteRepository.getCheckHistory(eq(1L), any(), any())).thenReturn(history);
+        when(siteRepository.getCheckSummaries(any(), any())).thenReturn(Map.of(1L, summary));
 
         // Act
         String report = monitoringService.generateReport(
@@ -324,8 +570,47 @@ public class MonitoringServiceTest {
         assertTrue(report.contains("Example Site"));
         assertTrue(report.contains("Rapport Quotidien"));
         assertTrue(report.contains("<!DOCTYPE html>"));
+        assertTrue(report.contains("66.67%"));
+        assertTrue(report.contains("150.00 ms"));
         
         verify(siteRepository).findAll();
-        verify(siteRepository).getCheckHistory(eq(1L), any(), any());
+        verify(siteRepository).getCheckSummaries(any(), any());
+        verify(siteRepository, never()).getCheckHistory(any(), any(), any());
+    }
+
+    @Test
+    public void testGetSitesAfterFetchesOneExtraSiteToDetectNextPage() {
+        // Arrange
+        List<MonitoredSite> sites = Arrays.asList(
+                MonitoredSite.builder().id(11L).build(),
+                MonitoredSite.builder().id(12L).build(),
+                MonitoredSite.builder().id(13L).build());
+        when(siteRepository.findPageAfter(10L, 3, MonitoredSite.SiteStatus.DOWN)).thenReturn(sites);
+
+        // Act
+        SitePage page = monitoringService.getSitesAfter(10L, 2, MonitoredSite.SiteStatus.DOWN);
+
+        // Assert
+        assertEquals(2, page.getSites().size());
+        assertEquals(11L, page.getPreviousCursor());
+        assertEquals(12L, page.getNextCursor());
+        verify(siteRepository, never()).findAll();
+    }
+
+    private static MonitoredSite dependencySite(Long id, String url) {
+        return MonitoredSite.builder()
+                .id(id)
+                .url(url)
+                .name(url)
+                .notifyOnIssue(true)
+                .currentStatus(MonitoredSite.SiteStatus.UP)
+                .build();
+    }
+
+    private static CheckResult checkResult(CheckResult.CheckStatus status) {
+        return CheckResult.builder()
+                .status(status)
+                .severity(CheckResult.AlertSeverity.NONE)
+                .build();
     }
 }
@@ -0,0 +1,80 @@
+package com.webguardian.core.usecases;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutcomeWindowTest {
+
+    @Test
+    public void testCountsOnlyTheLastChecksOfTheWindow() {
+        // Arrange
+        OutcomeWindow window = new OutcomeWindow();
+
+        // Act : échec, échec, succès, échec (le plus récent en dernier)
+        window.record(false, true);
+        window.record(false, true);
+        window.record(true, false);
+        window.record(false, true);
+
+        // Assert
+        assertEquals(1, window.failures(1));
+        assertEquals(2, window.failures(3));
+        assertEquals(3, window.failures(4));
+        assertEquals(3, window.failures(10));
+        assertEquals(1, window.successes(2));
+    }
+
+    @Test
+    public void testCountsChangesBetweenSuccessAndFailure() {
+        // Arrange
+        OutcomeWindow window = new OutcomeWindow();
+
+        // Act : succès, échec, succès, échec, échec
+        window.record(true, false);
+        window.record(false, true);
+        window.record(true, false);
+        window.record(false, true);
+        window.record(false, true);
+
+        // Assert
+        assertEquals(0, window.changes(1));
+        assertEquals(0, window.changes(2));
+        assertEquals(1, window.changes(3));
+        assertEquals(3, window.changes(5));
+        assertEquals(3, window.changes(OutcomeWindow.CAPACITY));
+    }
+
+    @Test
+    public void testForgetsChecksBeyondCapacity() {
+        // Arrange
+        OutcomeWindow window = new OutcomeWindow();
+        window.record(false, true);
+
+        // Act
+        for (int i = 0; i < OutcomeWindow.CAPACITY; i++) {
+            window.record(true, false);
+        }
+
+        // Assert
+        assertEquals(0, window.failures(OutcomeWindow.CAPACITY));
+        assertEquals(OutcomeWindow.CAPACITY, window.successes(OutcomeWindow.CAPACITY));
+        assertEquals(0, window.changes(OutcomeWindow.CAPACITY));
+    }
+
+    @Test
+    public void testClearForgetsEverything() {
+        // Arrange
+        OutcomeWindow window = new OutcomeWindow();
+        window.record(true, false);
+        window.record(false, true);
+
+        // Act
+        window.clear();
+
+        // Assert
+        assertEquals(0, window.failures(OutcomeWindow.CAPACITY));
+        assertEquals(0, window.successes(OutcomeWindow.CAPACITY));
+        assertEquals(0, window.changes(OutcomeWindow.CAPACITY));
+    }
+}
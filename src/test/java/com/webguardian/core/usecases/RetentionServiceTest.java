@@ -0,0 +1,85 @@
+package com.webguardian.core.usecases;
+
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.RetentionPolicy;
+import com.webguardian.core.ports.CheckResultArchivePort;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RetentionServiceTest {
+
+    @Mock
+    private SiteRepositoryPort siteRepository;
+
+    @Mock
+    private CheckResultArchivePort archiver;
+
+    private final RetentionPolicy policy = RetentionPolicy.builder()
+            .chunkSize(100)
+            .pauseBetweenChunksMillis(0)
+            .build();
+
+    @Test
+    public void testApplyRetentionPurgesInChunksUntilEmptyChunk() {
+        // Arrange
+        RetentionService retentionService = new RetentionService(siteRepository, policy, null);
+        when(siteRepository.purgeCheckResultsBefore(any(), eq(100), isNull()))
+                .thenReturn(100, 100, 42, 0);
+        when(siteRepository.purgeRollupsBefore(any(), eq(100))).thenReturn(0);
+
+        // Act
+        long purged = retentionService.applyRetention();
+
+        // Assert
+        assertEquals(242, purged);
+        verify(siteRepository, times(4)).purgeCheckResultsBefore(any(), eq(100), isNull());
+        verify(siteRepository, times(1)).purgeRollupsBefore(any(), eq(100));
+    }
+
+    @Test
+    public void testApplyRetentionPassesArchiverToRepository() {
+        // Arrange
+        RetentionService retentionService = new RetentionService(siteRepository, policy, archiver);
+        when(siteRepository.purgeCheckResultsBefore(any(), eq(100), notNull())).thenReturn(0);
+        when(siteRepository.purgeRollupsBefore(any(), eq(100))).thenReturn(0);
+
+        // Act
+        long purged = retentionService.applyRetention();
+
+        // Assert
+        assertEquals(0, purged);
+        verify(siteRepository).purgeCheckResultsBefore(any(), eq(100), notNull());
+    }
+
+    @Test
+    public void testPurgeDeletedSitesPurgesEachSiteUntilRemoved() {
+        // Arrange
+        RetentionService retentionService = new RetentionService(siteRepository, policy, null);
+        MonitoredSite site = MonitoredSite.builder().id(7L).url("https://example.com").deleted(true).build();
+        when(siteRepository.findDeleted()).thenReturn(List.of(site));
+        when(siteRepository.countCheckResults(7L)).thenReturn(150L);
+        when(siteRepository.purgeDeletedSite(7L, 100)).thenReturn(100, 50, 3, 0);
+
+        // Act
+        long purged = retentionService.purgeDeletedSites();
+
+        // Assert
+        assertEquals(153, purged);
+        verify(siteRepository, times(4)).purgeDeletedSite(7L, 100);
+    }
+}
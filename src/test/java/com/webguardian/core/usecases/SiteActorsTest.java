@@ -0,0 +1,150 @@
+package com.webguardian.core.usecases;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SiteActorsTest {
+
+    private ExecutorService executor;
+    private SiteActors actors;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(8);
+        actors = new SiteActors(executor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMessagesOfOneSiteNeverRunConcurrently() throws Exception {
+        // Arrange
+        int senders = 8;
+        int messagesPerSender = 2000;
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] processed = new int[1];
+        ExecutorService senderPool = Executors.newFixedThreadPool(senders);
+
+        // Act
+        List<Future<CompletableFuture<Integer>>> lastMessages = new ArrayList<>();
+        for (int s = 0; s < senders; s++) {
+            lastMessages.add(senderPool.submit(() -> {
+                CompletableFuture<Integer> last = null;
+                for (int i = 0; i < messagesPerSender; i++) {
+                    last = actors.ask(1L, state -> {
+                        if (active.incrementAndGet() != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        // Compteur non protégé : seul l'acteur y écrit
+                        int count = ++processed[0];
+                        active.decrementAndGet();
+                        return count;
+                    });
+                }
+                return last;
+            }));
+        }
+        for (Future<CompletableFuture<Integer>> last : lastMessages) {
+            last.get(30, TimeUnit.SECONDS).get(30, TimeUnit.SECONDS);
+        }
+        senderPool.shutdown();
+        int total = actors.ask(1L, state -> processed[0]).get(30, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(0, overlaps.get());
+        assertEquals(senders * messagesPerSender, total);
+    }
+
+    @Test
+    public void testMessagesOfOneSenderAreProcessedInOrder() throws Exception {
+        // Arrange
+        List<Integer> seen = new ArrayList<>();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            futures.add(actors.ask(1L, state -> seen.add(value)));
+        }
+        for (CompletableFuture<Boolean> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertEquals(500, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    public void testDifferentSitesRunInParallel() throws Exception {
+        // Arrange
+        CountDownLatch secondSiteRan = new CountDownLatch(1);
+
+        // Act : le message du site 1 attend celui du site 2, qui ne peut passer que sur un autre thread
+        CompletableFuture<Boolean> first = actors.ask(1L, state -> {
+            try {
+                return secondSiteRan.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        actors.ask(2L, state -> {
+            secondSiteRan.countDown();
+            return null;
+        });
+
+        // Assert
+        assertTrue(first.get(30, TimeUnit.SECONDS));
+        assertEquals(2, actors.size());
+    }
+
+    @Test
+    public void testFailedMessageDoesNotStopTheActor() throws Exception {
+        // Arrange
+        CompletableFuture<Object> failed = actors.ask(1L, state -> {
+            throw new IllegalStateException("échec");
+        });
+
+        // Act
+        CompletableFuture<String> next = actors.ask(1L, state -> "ok");
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(30, TimeUnit.SECONDS));
+        assertTrue(error.getCause() instanceof IllegalStateException);
+        assertEquals("ok", next.get(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRemoveForgetsTheActor() throws Exception {
+        // Arrange
+        actors.ask(1L, state -> null).get(30, TimeUnit.SECONDS);
+        actors.ask(2L, state -> null).get(30, TimeUnit.SECONDS);
+
+        // Act
+        actors.remove(1L);
+
+        // Assert
+        assertEquals(1, actors.size());
+    }
+}
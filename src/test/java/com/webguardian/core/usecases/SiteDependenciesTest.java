@@ -0,0 +1,90 @@
+package com.webguardian.core.usecases;
+
+import com.webguardian.core.entities.MonitoredSite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SiteDependenciesTest {
+
+    private SiteDependencies dependencies;
+
+    @BeforeEach
+    public void setup() {
+        dependencies = new SiteDependencies();
+    }
+
+    @Test
+    public void testCycleIsRejected() {
+        // Arrange : 3 dépend de 2, qui dépend de 1
+        dependencies.setParents(2L, List.of(1L));
+        dependencies.setParents(3L, List.of(2L));
+
+        // Act
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> dependencies.setParents(1L, List.of(3L)));
+
+        // Assert : le graphe est inchangé
+        assertTrue(error.getMessage().contains("circulaire"));
+        assertEquals(Set.of(2L, 3L), dependencies.descendantsOf(1L));
+        assertThrows(IllegalArgumentException.class, () -> dependencies.setParents(4L, List.of(4L)));
+    }
+
+    @Test
+    public void testDownAncestorIsFoundTransitively() {
+        // Arrange
+        dependencies.setParents(2L, List.of(1L));
+        dependencies.setParents(3L, List.of(2L));
+        dependencies.publishStatus(1L, MonitoredSite.SiteStatus.UP);
+        dependencies.publishStatus(2L, MonitoredSite.SiteStatus.UP);
+
+        // Act
+        Long beforeOutage = dependencies.downAncestorOf(3L);
+        dependencies.publishStatus(1L, MonitoredSite.SiteStatus.DOWN);
+        Long duringOutage = dependencies.downAncestorOf(3L);
+
+        // Assert
+        assertNull(beforeOutage);
+        assertEquals(1L, duringOutage);
+        assertNull(dependencies.downAncestorOf(1L));
+    }
+
+    @Test
+    public void testRemovedParentNoLongerSuppresses() {
+        // Arrange
+        dependencies.setParents(2L, List.of(1L));
+        dependencies.publishStatus(1L, MonitoredSite.SiteStatus.DOWN);
+
+        // Act
+        dependencies.remove(1L);
+
+        // Assert
+        assertNull(dependencies.downAncestorOf(2L));
+        assertTrue(dependencies.descendantsOf(1L).isEmpty());
+    }
+
+    @Test
+    public void testChecksAreDeferredOnlyWhileParentIsDown() {
+        // Arrange
+        dependencies.setParents(2L, List.of(1L));
+        dependencies.publishStatus(1L, MonitoredSite.SiteStatus.DOWN);
+
+        // Act : une vérification sur trois
+        int performed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (!dependencies.deferCheck(2L, 3)) {
+                performed++;
+            }
+        }
+        dependencies.publishStatus(1L, MonitoredSite.SiteStatus.UP);
+
+        // Assert
+        assertEquals(3, performed);
+        assertFalse(dependencies.deferCheck(2L, 3));
+        assertFalse(dependencies.deferCheck(2L, 3));
+    }
+}
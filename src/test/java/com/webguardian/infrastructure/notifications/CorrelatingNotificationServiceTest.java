@@ -0,0 +1,235 @@
+package com.webguardian.infrastructure.notifications;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.Incident;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.NotificationPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CorrelatingNotificationServiceTest {
+
+    @Mock
+    private NotificationPort delegate;
+
+    private final Map<String, InetAddress> dns = new HashMap<>();
+
+    private CorrelatingNotificationService service;
+
+    @BeforeEach
+    public void setup() {
+        service = new CorrelatingNotificationService(delegate, 0, 3, host -> {
+            InetAddress address = dns.get(host);
+            if (address == null) {
+                throw new UnknownHostException(host);
+            }
+            return address;
+        });
+    }
+
+    @Test
+    public void testIsolatedAlertIsForwarded() throws Exception {
+        // Arrange
+        MonitoredSite site = site(1L, "one.test", 10);
+        CheckResult result = failure();
+
+        // Act
+        service.sendAlert(site, result);
+        service.flush();
+
+        // Assert
+        verify(delegate).sendAlert(site, result);
+        verify(delegate, never()).sendIncidentNotification(any());
+    }
+
+    @Test
+    public void testSitesOnSameAddressOpenOneIncident() throws Exception {
+        // Arrange
+        MonitoredSite first = site(1L, "one.test", 10);
+        MonitoredSite second = site(2L, "two.test", 10);
+        MonitoredSite third = site(3L, "three.test", 10);
+
+        // Act
+        service.sendAlert(first, failure());
+        service.sendAlert(second, failure());
+        service.sendAlert(third, failure());
+        service.flush();
+
+        // Assert
+        verify(delegate, never()).sendAlert(any(), any());
+        Incident incident = lastIncident(1);
+        assertEquals("adresse IP 203.0.113.10", incident.getGroupLabel());
+        assertEquals(List.of(first, second, third), incident.getDownSites());
+        assertFalse(incident.isResolved());
+    }
+
+    @Test
+    public void testSitesOnSameNetworkOpenOneIncident() throws Exception {
+        // Arrange : adresses différentes, même réseau /24
+        service.sendAlert(site(1L, "one.test", 10), failure());
+        service.sendAlert(site(2L, "two.test", 11), failure());
+        service.sendAlert(site(3L, "three.test", 12), failure());
+
+        // Act
+        service.flush();
+
+        // Assert
+        Incident incident = lastIncident(1);
+        assertEquals("réseau 203.0.113.0/24", incident.getGroupLabel());
+        assertEquals(3, incident.getDownSites().size());
+    }
+
+    @Test
+    public void testLateSiteJoinsTheOpenIncident() throws Exception {
+        // Arrange
+        service.sendAlert(site(1L, "one.test", 10), failure());
+        service.sendAlert(site(2L, "two.test", 10), failure());
+        service.sendAlert(site(3L, "three.test", 10), failure());
+        service.flush();
+
+        // Act : un seul site dans la fenêtre suivante, sur la même adresse
+        MonitoredSite late = site(4L, "four.test", 10);
+        service.sendAlert(late, failure());
+        service.flush();
+
+        // Assert
+        verify(delegate, never()).sendAlert(any(), any());
+        Incident update = lastIncident(2);
+        assertEquals(1L, update.getId());
+        assertEquals(4, update.getDownSites().size());
+        assertTrue(update.getDownSites().contains(late));
+    }
+
+    @Test
+    public void testIncidentIsResolvedWhenAllSitesRecover() throws Exception {
+        // Arrange
+        MonitoredSite first = site(1L, "one.test", 10);
+        MonitoredSite second = site(2L, "two.test", 10);
+        MonitoredSite third = site(3L, "three.test", 10);
+        service.sendAlert(first, failure());
+        service.sendAlert(second, failure());
+        service.sendAlert(third, failure());
+        service.flush();
+
+        // Act
+        service.sendRecoveryNotification(first, success());
+        service.flush();
+        service.sendRecoveryNotification(second, success());
+        service.sendRecoveryNotification(third, success());
+        service.flush();
+
+        // Assert : pas de notification individuelle, un incident mis à jour puis résolu
+        verify(delegate, never()).sendRecoveryNotification(any(), any());
+        Incident resolved = lastIncident(3);
+        assertTrue(resolved.isResolved());
+        assertEquals(3, resolved.getRecoveredSites().size());
+
+        // Un nouveau site isolé sur la même adresse est de nouveau notifié seul
+        MonitoredSite next = site(5L, "five.test", 10);
+        service.sendAlert(next, failure());
+        service.flush();
+        verify(delegate).sendAlert(eq(next), any(CheckResult.class));
+    }
+
+    @Test
+    public void testWithdrawnSitesLeaveTheIncident() throws Exception {
+        // Arrange
+        MonitoredSite first = site(1L, "one.test", 10);
+        MonitoredSite second = site(2L, "two.test", 10);
+        MonitoredSite third = site(3L, "three.test", 10);
+        service.sendAlert(first, failure());
+        service.sendAlert(second, failure());
+        service.sendAlert(third, failure());
+        service.flush();
+
+        // Act : deux sites supprimés ou mis en maintenance pendant la panne, le troisième se rétablit
+        service.withdrawSite(first);
+        service.withdrawSite(second);
+        service.sendRecoveryNotification(third, success());
+        service.flush();
+
+        // Assert
+        verify(delegate).withdrawSite(first);
+        verify(delegate).withdrawSite(second);
+        Incident resolved = lastIncident(2);
+        assertTrue(resolved.isResolved());
+        assertEquals(List.of(third), resolved.getRecoveredSites());
+
+        // L'incident fermé n'absorbe plus les alertes suivantes
+        MonitoredSite next = site(4L, "four.test", 10);
+        service.sendAlert(next, failure());
+        service.flush();
+        verify(delegate).sendAlert(eq(next), any(CheckResult.class));
+    }
+
+    @Test
+    public void testWithdrawalOfSiteOutsideAnIncidentSendsNothing() throws Exception {
+        // Arrange
+        MonitoredSite site = site(1L, "one.test", 10);
+
+        // Act
+        service.withdrawSite(site);
+        service.flush();
+
+        // Assert
+        verify(delegate).withdrawSite(site);
+        verify(delegate, never()).sendIncidentNotification(any());
+        verify(delegate, never()).sendRecoveryNotification(any(), any());
+    }
+
+    @Test
+    public void testAlertAndRecoveryOfIsolatedSiteKeepTheirOrder() throws Exception {
+        // Arrange
+        MonitoredSite site = site(1L, "one.test", 10);
+
+        // Act
+        service.sendAlert(site, failure());
+        service.sendRecoveryNotification(site, success());
+        service.flush();
+
+        // Assert
+        InOrder order = inOrder(delegate);
+        order.verify(delegate).sendAlert(eq(site), any(CheckResult.class));
+        order.verify(delegate).sendRecoveryNotification(eq(site), any(CheckResult.class));
+    }
+
+    private Incident lastIncident(int expectedNotifications) {
+        ArgumentCaptor<Incident> captor = ArgumentCaptor.forClass(Incident.class);
+        verify(delegate, times(expectedNotifications)).sendIncidentNotification(captor.capture());
+        return captor.getValue();
+    }
+
+    private MonitoredSite site(long id, String host, int lastOctet) throws UnknownHostException {
+        dns.put(host, InetAddress.getByAddress(host, new byte[] {(byte) 203, 0, 113, (byte) lastOctet}));
+        return MonitoredSite.builder()
+                .id(id)
+                .name(host)
+                .url("https://" + host + "/")
+                .build();
+    }
+
+    private static CheckResult failure() {
+        return CheckResult.builder().status(CheckResult.CheckStatus.FAILURE).severity(CheckResult.AlertSeverity.HIGH).build();
+    }
+
+    private static CheckResult success() {
+        return CheckResult.builder().status(CheckResult.CheckStatus.SUCCESS).severity(CheckResult.AlertSeverity.NONE).build();
+    }
+}
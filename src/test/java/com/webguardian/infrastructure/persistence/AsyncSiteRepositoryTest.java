@@ -0,0 +1,203 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class AsyncSiteRepositoryTest {
+
+    private SiteRepositoryPort siteRepository;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup() {
+        siteRepository = mock(SiteRepositoryPort.class);
+        release = new CountDownLatch(1);
+        // Lecture bloquée jusqu'au signal : occupe l'unique thread du pool
+        when(siteRepository.findAll()).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Collections.emptyList();
+        });
+    }
+
+    @Test
+    public void testQueuedWritesAreFlushedInOrderedBatches() throws Exception {
+        // Arrange
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 10, 2, 100);
+        CompletableFuture<List<MonitoredSite>> blocking = repository.findAll();
+
+        // Act
+        CompletableFuture<CheckResult> first = repository.saveCheckResult(result(1L));
+        CompletableFuture<CheckResult> second = repository.saveCheckResult(result(2L));
+        CompletableFuture<CheckResult> third = repository.saveCheckResult(result(3L));
+        int pendingWhileBlocked = repository.getPendingWrites();
+        release.countDown();
+        CompletableFuture.allOf(blocking, first, second, third).get(10, TimeUnit.SECONDS);
+        repository.close();
+
+        // Assert
+        assertEquals(3, pendingWhileBlocked);
+        assertEquals(0, repository.getPendingWrites());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CheckResult>> captor = ArgumentCaptor.forClass(List.class);
+        verify(siteRepository, times(2)).saveCheckResults(captor.capture());
+        verify(siteRepository, never()).saveCheckResult(any());
+        List<CheckResult> firstBatch = captor.getAllValues().get(0);
+        assertEquals(2, firstBatch.size());
+        assertEquals(1L, firstBatch.get(0).getSite().getId().longValue());
+        assertEquals(2L, firstBatch.get(1).getSite().getId().longValue());
+        assertEquals(3L, captor.getAllValues().get(1).get(0).getSite().getId().longValue());
+    }
+
+    @Test
+    public void testOnlyLatestStatusOfEachSiteIsWritten() throws Exception {
+        // Arrange
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 10, 10, 100);
+        repository.findAll();
+
+        // Act
+        CompletableFuture<Void> down = repository.updateStatus(1L, MonitoredSite.SiteStatus.DOWN);
+        CompletableFuture<Void> up = repository.updateStatus(1L, MonitoredSite.SiteStatus.UP);
+        CompletableFuture<Void> other = repository.updateStatus(2L, MonitoredSite.SiteStatus.DEGRADED);
+        release.countDown();
+        CompletableFuture.allOf(down, up, other).get(10, TimeUnit.SECONDS);
+        repository.close();
+
+        // Assert
+        Map<Long, MonitoredSite.SiteStatus> expected = new HashMap<>();
+        expected.put(1L, MonitoredSite.SiteStatus.UP);
+        expected.put(2L, MonitoredSite.SiteStatus.DEGRADED);
+        verify(siteRepository).updateStatuses(expected);
+    }
+
+    @Test
+    public void testReadsAreRejectedWhenQueueIsFull() throws Exception {
+        // Arrange
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 1, 10, 10);
+        repository.findAll();
+        repository.findAll();
+
+        // Act
+        CompletableFuture<List<MonitoredSite>> rejectedRead = repository.findAll();
+        release.countDown();
+        repository.close();
+
+        // Assert
+        ExecutionException readError = assertThrows(ExecutionException.class, rejectedRead::get);
+        assertTrue(readError.getCause().getMessage().contains("surchargée"));
+    }
+
+    @Test
+    public void testOverflowingResultIsWrittenByCaller() throws Exception {
+        // Arrange
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 1, 10, 1);
+        CheckResult overflowing = result(2L);
+        when(siteRepository.saveCheckResult(overflowing)).thenReturn(overflowing);
+        repository.findAll();
+
+        // Act
+        CompletableFuture<CheckResult> queued = repository.saveCheckResult(result(1L));
+        CompletableFuture<CheckResult> direct = repository.saveCheckResult(overflowing);
+        boolean writtenBeforeRelease = direct.isDone();
+        release.countDown();
+        queued.get(10, TimeUnit.SECONDS);
+        repository.close();
+
+        // Assert
+        assertTrue(writtenBeforeRelease);
+        assertSame(overflowing, direct.get());
+        verify(siteRepository).saveCheckResult(overflowing);
+        verify(siteRepository).saveCheckResults(argThat(results -> results.size() == 1));
+    }
+
+    @Test
+    public void testStatusIsQueuedEvenWhenQueueIsFull() throws Exception {
+        // Arrange
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 1, 10, 1);
+        repository.findAll();
+        repository.saveCheckResult(result(1L));
+
+        // Act
+        CompletableFuture<Void> status = repository.updateStatus(1L, MonitoredSite.SiteStatus.DOWN);
+        release.countDown();
+        status.get(10, TimeUnit.SECONDS);
+        repository.close();
+
+        // Assert
+        verify(siteRepository).updateStatuses(Collections.singletonMap(1L, MonitoredSite.SiteStatus.DOWN));
+    }
+
+    @Test
+    public void testSiteSaveAndStatusChangesAreWrittenInRequestOrder() throws Exception {
+        // Arrange : site passé en maintenance entre deux changements de statut
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 10, 10, 100);
+        MonitoredSite site = MonitoredSite.builder()
+                .id(1L)
+                .currentStatus(MonitoredSite.SiteStatus.MAINTENANCE)
+                .maintenanceMode(true)
+                .build();
+        when(siteRepository.save(site)).thenReturn(site);
+        repository.findAll();
+
+        // Act
+        CompletableFuture<Void> down = repository.updateStatus(1L, MonitoredSite.SiteStatus.DOWN);
+        CompletableFuture<MonitoredSite> saved = repository.save(site);
+        CompletableFuture<Void> other = repository.updateStatus(2L, MonitoredSite.SiteStatus.UP);
+        release.countDown();
+        CompletableFuture.allOf(down, saved, other).get(10, TimeUnit.SECONDS);
+        repository.close();
+
+        // Assert
+        assertSame(site, saved.get());
+        InOrder inOrder = inOrder(siteRepository);
+        inOrder.verify(siteRepository).updateStatuses(Collections.singletonMap(1L, MonitoredSite.SiteStatus.DOWN));
+        inOrder.verify(siteRepository).save(site);
+        inOrder.verify(siteRepository).updateStatuses(Collections.singletonMap(2L, MonitoredSite.SiteStatus.UP));
+    }
+
+    @Test
+    public void testSiteSaveIsQueuedEvenWhenQueueIsFull() throws Exception {
+        // Arrange
+        AsyncSiteRepository repository = new AsyncSiteRepository(siteRepository, 1, 1, 10, 1);
+        MonitoredSite site = MonitoredSite.builder().id(1L).build();
+        when(siteRepository.save(site)).thenReturn(site);
+        repository.findAll();
+        repository.saveCheckResult(result(1L));
+
+        // Act
+        CompletableFuture<MonitoredSite> saved = repository.save(site);
+        boolean savedBeforeRelease = saved.isDone();
+        release.countDown();
+        saved.get(10, TimeUnit.SECONDS);
+        repository.close();
+
+        // Assert
+        assertFalse(savedBeforeRelease);
+        verify(siteRepository).save(site);
+    }
+
+    private CheckResult result(Long siteId) {
+        return CheckResult.builder()
+                .site(MonitoredSite.builder().id(siteId).build())
+                .statusCode(200)
+                .build();
+    }
+}
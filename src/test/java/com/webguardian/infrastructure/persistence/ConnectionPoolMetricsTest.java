@@ -0,0 +1,41 @@
+package com.webguardian.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolMetricsTest {
+
+    @Test
+    public void testRecordsAcquisitionWaitTimes() {
+        // Arrange
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("reporting");
+
+        // Act
+        metrics.recordConnectionAcquiredNanos(1_000_000L);
+        metrics.recordConnectionAcquiredNanos(3_000_000L);
+        metrics.recordConnectionAcquiredNanos(20_000_000L);
+        metrics.recordConnectionTimeout();
+
+        // Assert
+        assertEquals("reporting", metrics.getPoolName());
+        assertEquals(3, metrics.getAcquisitions());
+        assertEquals(8.0, metrics.getAverageWaitMillis(), 0.001);
+        assertEquals(20, metrics.getMaxWaitMillis());
+        assertEquals(1, metrics.getTimeouts());
+        assertEquals(0, metrics.getPendingThreads());
+    }
+
+    @Test
+    public void testAverageWaitIsZeroWithoutAcquisition() {
+        // Arrange
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics("ingest");
+
+        // Act
+        double average = metrics.getAverageWaitMillis();
+
+        // Assert
+        assertEquals(0.0, average);
+        assertEquals(0, metrics.getMaxWaitMillis());
+    }
+}
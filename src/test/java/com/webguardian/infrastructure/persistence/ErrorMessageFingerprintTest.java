@@ -0,0 +1,32 @@
+package com.webguardian.infrastructure.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ErrorMessageFingerprintTest {
+
+    @Test
+    public void testAddressesAndPortsAreMasked() {
+        // Act
+        String first = ErrorMessageFingerprint.of("Failed to connect to exemple.fr/93.184.216.34:443");
+        String second = ErrorMessageFingerprint.of("Failed to connect to exemple.fr/10.0.0.12:8443");
+        String ipv6 = ErrorMessageFingerprint.of("Failed to connect to exemple.fr/[2001:db8::1]:443");
+
+        // Assert
+        assertEquals("Failed to connect to exemple.fr/<ip>:<port>", first);
+        assertEquals(first, second);
+        assertEquals(first, ipv6);
+    }
+
+    @Test
+    public void testNumbersAreMaskedButNotInsideNames() {
+        // Act
+        String timeout = ErrorMessageFingerprint.of("timeout after 10000ms on server01.exemple.fr:80");
+
+        // Assert
+        assertEquals("timeout after <n>ms on server01.exemple.fr:<port>", timeout);
+        assertEquals("connect timed out", ErrorMessageFingerprint.of("connect  timed out "));
+        assertNull(ErrorMessageFingerprint.of(null));
+    }
+}
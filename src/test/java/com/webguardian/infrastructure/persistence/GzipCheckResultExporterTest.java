@@ -0,0 +1,131 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.ExportFormat;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class GzipCheckResultExporterTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 3, 31, 23, 59);
+
+    private SiteRepositoryPort siteRepository;
+    private GzipCheckResultExporter exporter;
+
+    @BeforeEach
+    public void setup() {
+        siteRepository = mock(SiteRepositoryPort.class);
+        exporter = new GzipCheckResultExporter(siteRepository);
+        doAnswer(invocation -> {
+            Long siteId = invocation.getArgument(0);
+            Consumer<CheckResult> consumer = invocation.getArgument(3);
+            consumer.accept(result(siteId * 10, siteId, 200, null));
+            consumer.accept(result(siteId * 10 + 1, siteId, 503, "Service \"Unavailable\", retry"));
+            return null;
+        }).when(siteRepository).forEachCheckResult(any(), eq(FROM), eq(TO), any());
+    }
+
+    @Test
+    public void testCsvExportOfAllSitesIsGzipped() throws IOException {
+        // Arrange
+        when(siteRepository.findPageAfter(isNull(), anyInt(), isNull())).thenReturn(Arrays.asList(
+                MonitoredSite.builder().id(1L).build(),
+                MonitoredSite.builder().id(2L).build()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = exporter.export(null, FROM, TO, ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals(4, count);
+        String[] lines = gunzip(new ByteArrayInputStream(out.toByteArray())).split("\n");
+        assertEquals(5, lines.length);
+        assertEquals(CheckResultCsv.HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("10,1,2024-03-01T12:00,SUCCESS,200,250,"));
+        assertTrue(lines[2].endsWith(",\"Service \"\"Unavailable\"\", retry\""));
+        assertTrue(lines[3].startsWith("20,2,"));
+    }
+
+    @Test
+    public void testNdjsonExportOfOneSiteToFile() throws IOException {
+        // Arrange
+        Path directory = Files.createTempDirectory("export");
+        Path file = directory.resolve("historique.ndjson.gz");
+
+        // Act
+        long count = exporter.export(3L, FROM, TO, ExportFormat.NDJSON, file);
+
+        // Assert
+        assertEquals(2, count);
+        verify(siteRepository, never()).findPageAfter(any(), anyInt(), any());
+        assertFalse(Files.exists(directory.resolve("historique.ndjson.gz.part")));
+        String[] lines;
+        try (InputStream in = Files.newInputStream(file)) {
+            lines = gunzip(in).split("\n");
+        }
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":30,\"site_id\":3,\"timestamp\":\"2024-03-01T12:00\",\"status\":\"SUCCESS\""));
+        assertTrue(lines[0].endsWith("\"error_message\":null}"));
+        assertTrue(lines[1].contains("\"error_message\":\"Service \\\"Unavailable\\\", retry\""));
+    }
+
+    @Test
+    public void testEmptyPeriodProducesHeaderOnly() throws IOException {
+        // Arrange
+        when(siteRepository.findPageAfter(isNull(), anyInt(), isNull())).thenReturn(Collections.emptyList());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long count = exporter.export(null, FROM, TO, ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals(0, count);
+        assertEquals(CheckResultCsv.HEADER + "\n", gunzip(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    private static String gunzip(InputStream in) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(in)) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private CheckResult result(Long id, Long siteId, int statusCode, String errorMessage) {
+        return CheckResult.builder()
+                .id(id)
+                .site(MonitoredSite.builder().id(siteId).build())
+                .timestamp(LocalDateTime.of(2024, 3, 1, 12, 0))
+                .statusCode(statusCode)
+                .responseTime(Duration.ofMillis(250))
+                .contentSize(1024L)
+                .status(statusCode < 400 ? CheckResult.CheckStatus.SUCCESS : CheckResult.CheckStatus.FAILURE)
+                .severity(CheckResult.AlertSeverity.NONE)
+                .contentCheckPassed(true)
+                .sslCheckPassed(true)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GzipCsvCheckResultArchiverTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private Path directory;
+    private GzipCsvCheckResultArchiver archiver;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("archives");
+        archiver = new GzipCsvCheckResultArchiver(directory.toString());
+    }
+
+    @Test
+    public void testArchivingSameChunkTwiceDoesNotDuplicateRows() throws IOException {
+        // Arrange : la suppression du lot a échoué après un premier archivage
+        List<CheckResult> chunk = Arrays.asList(result(10L, DAY), result(11L, DAY.plusMinutes(5)));
+        archiver.archive(chunk);
+
+        // Act
+        archiver.archive(chunk);
+
+        // Assert
+        List<Path> files = files();
+        assertEquals(1, files.size());
+        assertEquals("check_results-2024-03-01-10-11.csv.gz", files.get(0).getFileName().toString());
+        assertEquals(3, read(files.get(0)).split("\n").length);
+    }
+
+    @Test
+    public void testChunkSpanningTwoDaysWritesOneFilePerDay() throws IOException {
+        // Arrange
+        List<CheckResult> chunk = Arrays.asList(result(10L, DAY), result(11L, DAY.plusDays(1)));
+
+        // Act
+        archiver.archive(chunk);
+
+        // Assert
+        List<Path> files = files();
+        assertEquals(2, files.size());
+        assertEquals("check_results-2024-03-01-10-10.csv.gz", files.get(0).getFileName().toString());
+        assertEquals("check_results-2024-03-02-11-11.csv.gz", files.get(1).getFileName().toString());
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static CheckResult result(Long id, LocalDateTime timestamp) {
+        return CheckResult.builder()
+                .id(id)
+                .site(MonitoredSite.builder().id(1L).build())
+                .timestamp(timestamp)
+                .statusCode(200)
+                .responseTime(Duration.ofMillis(120))
+                .status(CheckResult.CheckStatus.SUCCESS)
+                .severity(CheckResult.AlertSeverity.NONE)
+                .build();
+    }
+}
@@ -0,0 +1,128 @@
+package com.webguardian.infrastructure.persistence;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.entities.SiteState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mise à jour de site_state par saveCheckResult et saveCheckResults, sur une base H2 temporaire
+ */
+public class H2SiteRepositorySiteStateTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    private H2SiteRepository repository;
+    private MonitoredSite site;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        // Base fichier : le dépôt ajoute AUTO_SERVER=TRUE à l'URL, refusé par une base en mémoire
+        Path directory = Files.createTempDirectory("site-state");
+        repository = new H2SiteRepository("jdbc:h2:" + directory.resolve("webguardian") + ";AUTO_SERVER=TRUE",
+                "sa", "", 2);
+        site = repository.save(MonitoredSite.builder()
+                .name("Test Site")
+                .url("https://example.com")
+                .checkInterval(Duration.ofMinutes(5))
+                .responseTimeThreshold(Duration.ofSeconds(2))
+                .maxRetries(3)
+                .currentStatus(MonitoredSite.SiteStatus.UNKNOWN)
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    public void testOlderResultDoesNotOverwriteSiteState() {
+        // Arrange
+        repository.saveCheckResult(result(NOW, CheckResult.CheckStatus.SUCCESS));
+
+        // Act : résultat en retard, enregistré après un plus récent
+        repository.saveCheckResult(result(NOW.minusMinutes(5), CheckResult.CheckStatus.FAILURE));
+
+        // Assert
+        SiteState state = state();
+        assertEquals(NOW, state.getLastCheckedAt());
+        assertEquals(CheckResult.CheckStatus.SUCCESS, state.getLastStatus());
+        assertEquals(0, state.getConsecutiveFailures());
+        assertNull(state.getLastFailureAt());
+    }
+
+    @Test
+    public void testOlderResultInSameBatchIsIgnored() {
+        // Act
+        repository.saveCheckResults(Arrays.asList(
+                result(NOW, CheckResult.CheckStatus.FAILURE),
+                result(NOW.minusMinutes(5), CheckResult.CheckStatus.FAILURE)));
+
+        // Assert
+        SiteState state = state();
+        assertEquals(NOW, state.getLastCheckedAt());
+        assertEquals(1, state.getConsecutiveFailures());
+    }
+
+    @Test
+    public void testConsecutiveFailuresAreResetBySuccess() {
+        // Arrange
+        repository.saveCheckResults(Arrays.asList(
+                result(NOW.minusMinutes(10), CheckResult.CheckStatus.FAILURE),
+                result(NOW.minusMinutes(5), CheckResult.CheckStatus.TIMEOUT)));
+        assertEquals(2, state().getConsecutiveFailures());
+
+        // Act
+        repository.saveCheckResult(result(NOW, CheckResult.CheckStatus.SUCCESS));
+
+        // Assert
+        SiteState state = state();
+        assertEquals(0, state.getConsecutiveFailures());
+        assertEquals(NOW, state.getLastSuccessAt());
+        assertEquals(NOW.minusMinutes(5), state.getLastFailureAt());
+    }
+
+    @Test
+    public void testTransitionDateChangesOnlyWithStatus() {
+        // Arrange
+        repository.saveCheckResults(Arrays.asList(
+                result(NOW.minusMinutes(10), CheckResult.CheckStatus.SUCCESS),
+                result(NOW.minusMinutes(5), CheckResult.CheckStatus.SUCCESS)));
+        assertEquals(NOW.minusMinutes(10), state().getLastTransitionAt());
+
+        // Act
+        repository.saveCheckResult(result(NOW, CheckResult.CheckStatus.ERROR));
+
+        // Assert
+        SiteState state = state();
+        assertEquals(NOW, state.getLastTransitionAt());
+        assertEquals(CheckResult.CheckStatus.ERROR, state.getLastStatus());
+    }
+
+    private SiteState state() {
+        return repository.getSiteStates().get(site.getId());
+    }
+
+    private CheckResult result(LocalDateTime timestamp, CheckResult.CheckStatus status) {
+        return CheckResult.builder()
+                .site(site)
+                .timestamp(timestamp)
+                .statusCode(status == CheckResult.CheckStatus.SUCCESS ? 200 : 500)
+                .responseTime(Duration.ofMillis(120))
+                .status(status)
+                .severity(CheckResult.AlertSeverity.NONE)
+                .build();
+    }
+}
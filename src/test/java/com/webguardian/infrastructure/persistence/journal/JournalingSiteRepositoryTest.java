@@ -0,0 +1,199 @@
+package com.webguardian.infrastructure.persistence.journal;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class JournalingSiteRepositoryTest {
+
+    private Path directory;
+    private SiteRepositoryPort siteRepository;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        siteRepository = mock(SiteRepositoryPort.class);
+    }
+
+    @Test
+    public void testResultIsJournaledWhenDatabaseIsUnavailableThenReplayed() {
+        // Arrange
+        JournalingSiteRepository repository = new JournalingSiteRepository(
+                siteRepository, new CheckResultJournal(directory.toString(), 1), 10);
+        when(siteRepository.saveCheckResult(any())).thenThrow(new RuntimeException("Base verrouillée"));
+        CheckResult failed = result(1L, 503, "Service Unavailable");
+
+        // Act
+        CheckResult saved = repository.saveCheckResult(failed);
+        repository.saveCheckResult(result(1L, 200, null));
+        reset(siteRepository);
+        int replayed = repository.replayPending();
+
+        // Assert
+        assertSame(failed, saved);
+        assertEquals(2, replayed);
+        assertFalse(repository.hasPendingResults());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CheckResult>> captor = ArgumentCaptor.forClass(List.class);
+        verify(siteRepository).saveCheckResults(captor.capture());
+        verify(siteRepository, never()).saveCheckResult(any());
+        assertEquals(2, captor.getValue().size());
+        CheckResult first = captor.getValue().get(0);
+        assertEquals(1L, first.getSite().getId().longValue());
+        assertEquals(503, first.getStatusCode().intValue());
+        assertEquals("Service Unavailable", first.getErrorMessage());
+        assertEquals(Duration.ofMillis(250), first.getResponseTime());
+        assertEquals(CheckResult.CheckStatus.FAILURE, first.getStatus());
+        assertEquals(failed.getTimestamp(), first.getTimestamp());
+        assertNull(captor.getValue().get(1).getErrorMessage());
+    }
+
+    @Test
+    public void testReplayStopsAtFirstFailureAndResumesAfterLastSavedResult() {
+        // Arrange
+        JournalingSiteRepository repository = new JournalingSiteRepository(
+                siteRepository, new CheckResultJournal(directory.toString(), 1), 10);
+        when(siteRepository.saveCheckResult(any())).thenThrow(new RuntimeException("Base verrouillée"));
+        for (int i = 0; i < 3; i++) {
+            repository.saveCheckResult(result(1L, 200 + i, null));
+        }
+        when(siteRepository.findById(1L)).thenReturn(Optional.of(MonitoredSite.builder().id(1L).build()));
+        when(siteRepository.saveCheckResults(any())).thenThrow(new RuntimeException("Base verrouillée"));
+        doReturn(null)
+                .doThrow(new RuntimeException("Base verrouillée"))
+                .doReturn(null)
+                .when(siteRepository).saveCheckResult(any());
+
+        // Act
+        int firstPass = repository.replayPending();
+        int secondPass = repository.replayPending();
+
+        // Assert
+        assertEquals(1, firstPass);
+        assertEquals(2, secondPass);
+        ArgumentCaptor<CheckResult> captor = ArgumentCaptor.forClass(CheckResult.class);
+        verify(siteRepository, times(5)).saveCheckResult(captor.capture());
+        List<CheckResult> attempts = captor.getAllValues();
+        assertEquals(201, attempts.get(2).getStatusCode().intValue());
+        assertEquals(201, attempts.get(3).getStatusCode().intValue());
+        assertEquals(202, attempts.get(4).getStatusCode().intValue());
+        assertFalse(repository.hasPendingResults());
+    }
+
+    @Test
+    public void testResultRejectedByReachableDatabaseIsDiscardedAfterMaxAttempts() {
+        // Arrange
+        JournalingSiteRepository repository = new JournalingSiteRepository(
+                siteRepository, new CheckResultJournal(directory.toString(), 1), 10, 2);
+        when(siteRepository.saveCheckResult(any())).thenThrow(new RuntimeException("Base verrouillée"));
+        repository.saveCheckResult(result(1L, 200, null));
+        repository.saveCheckResult(result(1L, 201, null));
+        reset(siteRepository);
+        when(siteRepository.findById(1L)).thenReturn(Optional.of(MonitoredSite.builder().id(1L).build()));
+        when(siteRepository.saveCheckResults(any())).thenThrow(new RuntimeException("Valeur invalide"));
+        when(siteRepository.saveCheckResult(argThat(result -> result.getStatusCode() == 200)))
+                .thenThrow(new RuntimeException("Valeur invalide"));
+
+        // Act
+        int firstPass = repository.replayPending();
+        int secondPass = repository.replayPending();
+
+        // Assert
+        assertEquals(0, firstPass);
+        assertEquals(1, secondPass);
+        assertFalse(repository.hasPendingResults());
+        verify(siteRepository).saveCheckResult(argThat(result -> result.getStatusCode() == 201));
+    }
+
+    @Test
+    public void testRejectedResultIsKeptWhileDatabaseIsUnreachable() {
+        // Arrange
+        JournalingSiteRepository repository = new JournalingSiteRepository(
+                siteRepository, new CheckResultJournal(directory.toString(), 1), 10, 2);
+        when(siteRepository.saveCheckResult(any())).thenThrow(new RuntimeException("Base verrouillée"));
+        repository.saveCheckResult(result(1L, 200, null));
+        when(siteRepository.saveCheckResults(any())).thenThrow(new RuntimeException("Base verrouillée"));
+        when(siteRepository.findById(1L)).thenThrow(new RuntimeException("Base verrouillée"));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            repository.replayPending();
+        }
+
+        // Assert
+        assertTrue(repository.hasPendingResults());
+    }
+
+    @Test
+    public void testFullJournalRejectsNewResults() {
+        // Arrange : place pour un seul enregistrement sans message d'erreur
+        CheckResultJournal journal = new CheckResultJournal(directory.toString(), 1, 60);
+        journal.append(result(1L, 200, null));
+
+        // Act & Assert
+        RuntimeException error = assertThrows(RuntimeException.class, () -> journal.append(result(2L, 200, null)));
+        assertTrue(error.getMessage().contains("plein"));
+        assertEquals(1, journal.readBatch(10).getResults().size());
+        journal.close();
+    }
+
+    @Test
+    public void testIncompleteRecordIsDiscardedOnReopen() throws IOException {
+        // Arrange : arrêt brutal simulé pendant l'écriture du dernier enregistrement
+        CheckResultJournal journal = new CheckResultJournal(directory.toString(), 1);
+        journal.append(result(1L, 200, null));
+        journal.append(result(2L, 500, "Internal Server Error"));
+        journal.close();
+        Path file = directory.resolve("check-results.journal");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 60}), channel.size());
+        }
+
+        // Act
+        CheckResultJournal reopened = new CheckResultJournal(directory.toString(), 1);
+        JournalBatch batch = reopened.readBatch(10);
+
+        // Assert
+        assertEquals(1, batch.getResults().size());
+        assertEquals(1L, batch.getResults().get(0).getSite().getId().longValue());
+        reopened.acknowledge(batch.getEndOffset());
+        assertFalse(reopened.hasPending());
+        assertEquals(0L, Files.size(file));
+        reopened.close();
+    }
+
+    private CheckResult result(Long siteId, int statusCode, String errorMessage) {
+        return CheckResult.builder()
+                .site(MonitoredSite.builder().id(siteId).build())
+                .timestamp(LocalDateTime.of(2024, 3, 1, 12, 0, 0))
+                .statusCode(statusCode)
+                .responseTime(Duration.ofMillis(250))
+                .contentSize(1024L)
+                .status(statusCode < 400 ? CheckResult.CheckStatus.SUCCESS : CheckResult.CheckStatus.FAILURE)
+                .severity(CheckResult.AlertSeverity.NONE)
+                .contentCheckPassed(true)
+                .sslCheckPassed(true)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
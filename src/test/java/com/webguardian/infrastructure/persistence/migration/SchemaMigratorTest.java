@@ -0,0 +1,162 @@
+package com.webguardian.infrastructure.persistence.migration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaMigratorTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    public void testMigrateEmptyDatabase() throws SQLException {
+        // Arrange
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+
+        // Act
+        int version = migrator.migrate();
+
+        // Assert
+        assertEquals(migrator.getLatestVersion(), version);
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(SchemaMigrator.columnExists(connection, "check_results", "checked_at"));
+            assertTrue(SchemaMigrator.tableExists(connection, "error_messages"));
+            assertTrue(SchemaMigrator.columnExists(connection, "monitored_sites", "priority"));
+            assertTrue(SchemaMigrator.columnExists(connection, "monitored_sites", "dependsOn"));
+            assertFalse(SchemaMigrator.tableExists(connection, "check_results_compact"));
+        }
+    }
+
+    @Test
+    public void testMigrateIsIdempotent() {
+        // Arrange
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+        migrator.migrate();
+
+        // Act
+        int version = migrator.migrate();
+
+        // Assert
+        assertEquals(migrator.getLatestVersion(), version);
+    }
+
+    @Test
+    public void testMigrateDropsHibernateStatusCheck() throws SQLException {
+        // Arrange : table créée par hbm2ddl, qui limite currentStatus aux statuts connus à l'époque
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE monitored_sites (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "name VARCHAR(255), url VARCHAR(255), checkInterval INTERVAL SECOND(18, 9), " +
+                    "responseTimeThreshold INTERVAL SECOND(18, 9), maxRetries INT NOT NULL, " +
+                    "currentStatus VARCHAR(255) CHECK (currentStatus IN ('UP','DOWN','DEGRADED','MAINTENANCE','UNKNOWN')), " +
+                    "contentCheckString VARCHAR(255), checkContent BOOLEAN NOT NULL, sslCheck BOOLEAN NOT NULL, " +
+                    "notifyOnIssue BOOLEAN NOT NULL, maintenanceMode BOOLEAN NOT NULL)");
+        }
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+
+        // Act
+        migrator.migrate();
+
+        // Assert
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO monitored_sites (name, url, maxRetries, currentStatus, checkContent, " +
+                    "sslCheck, notifyOnIssue, maintenanceMode) VALUES ('Test', 'https://example.com', 3, 'FLAPPING', " +
+                    "false, false, true, false)");
+            try (ResultSet resultSet = statement.executeQuery("SELECT currentStatus FROM monitored_sites")) {
+                assertTrue(resultSet.next());
+                assertEquals("FLAPPING", resultSet.getString(1));
+            }
+        }
+    }
+
+    @Test
+    public void testMigrateConvertsLegacyCheckResults() throws SQLException {
+        // Arrange
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            new BaselineSchemaMigration().migrate(connection);
+            statement.execute("INSERT INTO monitored_sites (name, url, maxRetries, currentStatus, checkContent, " +
+                    "sslCheck, notifyOnIssue, maintenanceMode) VALUES ('Test', 'https://example.com', 3, 'UP', " +
+                    "false, false, true, false)");
+            statement.execute("INSERT INTO check_results (site_id, timestamp, statusCode, responseTime, contentSize, " +
+                    "status, contentCheckPassed, sslCheckPassed, errorMessage, severity) VALUES " +
+                    "(1, TIMESTAMP '2024-01-01 10:00:00', 200, INTERVAL '0.150' SECOND, 10, 'SUCCESS', true, true, NULL, 'NONE'), " +
+                    "(1, TIMESTAMP '2024-01-01 10:05:00', 500, INTERVAL '0.300' SECOND, 0, 'FAILURE', false, true, 'Erreur HTTP', 'HIGH'), " +
+                    "(1, TIMESTAMP '2024-01-01 10:10:00', NULL, NULL, 0, 'ERROR', false, false, 'Erreur HTTP', 'CRITICAL')");
+        }
+
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+
+        // Act
+        int version = migrator.migrate();
+
+        // Assert
+        assertEquals(migrator.getLatestVersion(), version);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT status, severity, response_time_ms, error_message_id FROM check_results ORDER BY id")) {
+                assertTrue(resultSet.next());
+                assertEquals(0, resultSet.getInt("status"));
+                assertEquals(150, resultSet.getInt("response_time_ms"));
+                assertNull(resultSet.getObject("error_message_id"));
+
+                assertTrue(resultSet.next());
+                assertEquals(1, resultSet.getInt("status"));
+                assertEquals(3, resultSet.getInt("severity"));
+                long messageId = resultSet.getLong("error_message_id");
+
+                assertTrue(resultSet.next());
+                assertNull(resultSet.getObject("response_time_ms"));
+                assertEquals(messageId, resultSet.getLong("error_message_id"));
+                assertFalse(resultSet.next());
+            }
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM error_messages")) {
+                assertTrue(resultSet.next());
+                assertEquals(1, resultSet.getInt(1));
+            }
+
+            // Occurrences de l'empreinte comptées dans leur tranche horaire
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT occurrences, last_seen_at - bucket_start FROM error_message_counts")) {
+                assertTrue(resultSet.next());
+                assertEquals(2, resultSet.getLong(1));
+                assertEquals(600_000L, resultSet.getLong(2));
+                assertFalse(resultSet.next());
+            }
+
+            // Dernier état initialisé depuis l'historique
+            try (ResultSet resultSet = statement.executeQuery("SELECT last_status, consecutive_failures, " +
+                    "last_checked_at, last_transition_at, last_success_at FROM site_state WHERE site_id = 1")) {
+                assertTrue(resultSet.next());
+                assertEquals(3, resultSet.getInt("last_status"));
+                assertEquals(2, resultSet.getInt("consecutive_failures"));
+                assertEquals(resultSet.getLong("last_checked_at"), resultSet.getLong("last_transition_at"));
+                assertEquals(resultSet.getLong("last_checked_at") - 600_000L, resultSet.getLong("last_success_at"));
+            }
+
+            // L'identité reprend après les ID recopiés
+            statement.execute("INSERT INTO check_results (site_id, checked_at, content_size, " +
+                    "content_check_passed, ssl_check_passed) VALUES (1, 0, 0, true, true)");
+            try (ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM check_results")) {
+                assertTrue(resultSet.next());
+                assertEquals(4, resultSet.getLong(1));
+            }
+        }
+    }
+}
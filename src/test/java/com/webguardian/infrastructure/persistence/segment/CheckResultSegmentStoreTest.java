@@ -0,0 +1,126 @@
+package com.webguardian.infrastructure.persistence.segment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckResultSegmentStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private Path directory;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("segments");
+    }
+
+    @Test
+    public void testScanReturnsOnlyRecordsOfSiteAndPeriod() {
+        // Arrange
+        CheckResultSegmentStore store = new CheckResultSegmentStore(directory.toString(), Duration.ofHours(1), 4096);
+        for (int i = 0; i < 3000; i++) {
+            append(store, 1 + i % 3, i * 1000L, 100 + i);
+        }
+
+        // Act
+        List<Long> timestamps = new ArrayList<>();
+        store.scan(2, 100_000L, 200_000L, (segment, record) -> timestamps.add(segment.timestamp(record)));
+
+        // Assert
+        assertEquals(34, timestamps.size());
+        assertEquals(100_000L, timestamps.get(0).longValue());
+        assertEquals(199_000L, timestamps.get(timestamps.size() - 1).longValue());
+        store.close();
+    }
+
+    @Test
+    public void testNewWindowSealsPreviousSegment() throws IOException {
+        // Arrange
+        CheckResultSegmentStore store = new CheckResultSegmentStore(directory.toString(), Duration.ofHours(1), 4096);
+        append(store, 1, 0L, 100);
+        append(store, 1, HOUR + 1, 200);
+
+        // Act
+        store.close();
+        CheckResultSegmentStore reopened = new CheckResultSegmentStore(directory.toString(), Duration.ofHours(1), 4096);
+
+        // Assert
+        assertEquals(2, countFiles(".dat"));
+        assertEquals(2, countFiles(".idx"));
+        List<Integer> responseTimes = new ArrayList<>();
+        reopened.scan(1, 0L, 2 * HOUR, (segment, record) -> responseTimes.add(segment.responseTimeMillis(record)));
+        assertEquals(List.of(100, 200), responseTimes);
+        reopened.close();
+    }
+
+    @Test
+    public void testUnsealedSegmentIsRecoveredUpToLastValidRecord() throws IOException {
+        // Arrange : arrêt brutal simulé (pas de close) puis dernier enregistrement corrompu
+        CheckResultSegmentStore store = new CheckResultSegmentStore(directory.toString(), Duration.ofHours(1), 4096);
+        for (int i = 0; i < 10; i++) {
+            append(store, 1, i * 1000L, i);
+        }
+        Path segmentFile;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFile = files.filter(file -> file.toString().endsWith(".dat")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}),
+                    CheckResultSegment.HEADER_SIZE + 9L * CheckResultSegment.RECORD_SIZE + 8);
+        }
+
+        // Act
+        CheckResultSegmentStore reopened = new CheckResultSegmentStore(directory.toString(), Duration.ofHours(1), 4096);
+
+        // Assert
+        List<Integer> responseTimes = new ArrayList<>();
+        reopened.scan(1, 0L, HOUR, (segment, record) -> responseTimes.add(segment.responseTimeMillis(record)));
+        assertEquals(9, responseTimes.size());
+        assertEquals(8, responseTimes.get(8).intValue());
+        reopened.close();
+    }
+
+    @Test
+    public void testDropOldestSegmentBeforeRemovesExpiredSegment() throws IOException {
+        // Arrange
+        CheckResultSegmentStore store = new CheckResultSegmentStore(directory.toString(), Duration.ofHours(1), 4096);
+        append(store, 1, 0L, 100);
+        append(store, 1, 1000L, 100);
+        append(store, 1, 2 * HOUR, 100);
+        List<Integer> rolledUp = new ArrayList<>();
+
+        // Act
+        int dropped = store.dropOldestSegmentBefore(HOUR, segment -> rolledUp.add(segment.getCount()));
+        int droppedAgain = store.dropOldestSegmentBefore(HOUR, segment -> rolledUp.add(segment.getCount()));
+
+        // Assert
+        assertEquals(2, dropped);
+        assertEquals(0, droppedAgain);
+        assertEquals(List.of(2), rolledUp);
+        assertEquals(1, countFiles(".dat"));
+        store.close();
+    }
+
+    private void append(CheckResultSegmentStore store, long siteId, long timestamp, int responseTime) {
+        store.append(siteId, timestamp, 200, responseTime, 1024L, 0, 0, true, true, 0L);
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).count();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.webguardian.infrastructure.persistence.segment;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.infrastructure.persistence.H2SiteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SegmentedSiteRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0, 0);
+
+    private H2SiteRepository h2Repository;
+    private CheckResultSegmentStore store;
+    private SegmentedSiteRepository repository;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        h2Repository = mock(H2SiteRepository.class);
+        store = new CheckResultSegmentStore(Files.createTempDirectory("segments").toString(), Duration.ofDays(1), 4096);
+        repository = new SegmentedSiteRepository(h2Repository, store);
+        // Transaction simulée : l'ajout aux segments est exécuté avant la validation
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(1)).run();
+            return null;
+        }).when(h2Repository).updateSiteStates(anyList(), any(Runnable.class));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(1)).run();
+            return null;
+        }).when(h2Repository).updateSiteState(any(CheckResult.class), any(Runnable.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void testHistoryIsSortedFromNewestToOldest() {
+        // Arrange
+        List<CheckResult> legacy = new ArrayList<>();
+        legacy.add(result(1L, NOW.minusHours(3)));
+        when(h2Repository.getCheckHistory(eq(1L), any(), any())).thenReturn(legacy);
+        repository.saveCheckResult(result(1L, NOW.minusHours(2)));
+        repository.saveCheckResult(result(1L, NOW.minusHours(1)));
+
+        // Act
+        List<CheckResult> history = repository.getCheckHistory(1L, NOW.minusDays(1), NOW);
+
+        // Assert
+        assertEquals(3, history.size());
+        assertEquals(NOW.minusHours(1), history.get(0).getTimestamp());
+        assertEquals(NOW.minusHours(2), history.get(1).getTimestamp());
+        assertEquals(NOW.minusHours(3), history.get(2).getTimestamp());
+    }
+
+    @Test
+    public void testCountIncludesSegmentRecords() {
+        // Arrange
+        when(h2Repository.countCheckResults(1L)).thenReturn(2L);
+        List<CheckResult> results = new ArrayList<>();
+        results.add(result(1L, NOW.minusMinutes(2)));
+        results.add(result(2L, NOW.minusMinutes(1)));
+        results.add(result(1L, NOW));
+        repository.saveCheckResults(results);
+
+        // Act
+        long count = repository.countCheckResults(1L);
+
+        // Assert
+        assertEquals(4L, count);
+    }
+
+    @Test
+    public void testFailedStateUpdateAddsNothingToSegments() {
+        // Arrange
+        doThrow(new RuntimeException("Base verrouillée"))
+                .when(h2Repository).updateSiteStates(anyList(), any(Runnable.class));
+        List<CheckResult> results = Collections.singletonList(result(1L, NOW));
+
+        // Act
+        assertThrows(RuntimeException.class, () -> repository.saveCheckResults(results));
+
+        // Assert
+        assertEquals(0L, repository.countCheckResults(1L));
+        assertNull(results.get(0).getId());
+    }
+
+    private CheckResult result(Long siteId, LocalDateTime timestamp) {
+        return CheckResult.builder()
+                .site(MonitoredSite.builder().id(siteId).build())
+                .timestamp(timestamp)
+                .statusCode(200)
+                .responseTime(Duration.ofMillis(120))
+                .status(CheckResult.CheckStatus.SUCCESS)
+                .build();
+    }
+}
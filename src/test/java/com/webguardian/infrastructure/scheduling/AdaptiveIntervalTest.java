@@ -0,0 +1,143 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.entities.CheckResult;
+import com.webguardian.core.entities.MonitoredSite;
+import com.webguardian.core.ports.AsyncSiteRepositoryPort;
+import com.webguardian.core.ports.NotificationPort;
+import com.webguardian.core.ports.SiteCheckerPort;
+import com.webguardian.core.ports.SiteRepositoryPort;
+import com.webguardian.core.usecases.MonitoringService;
+import com.webguardian.core.usecases.StatusTransitionSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveIntervalTest {
+    
+    private static final long BASE = 60_000;
+    
+    private AdaptiveInterval interval;
+    
+    @BeforeEach
+    public void setup() {
+        interval = new AdaptiveInterval(AdaptiveIntervalSettings.builder()
+                .fastIntervalMillis(10_000)
+                .maxIntervalMillis(300_000)
+                .confirmChecks(3)
+                .stretchAfter(2)
+                .build());
+    }
+    
+    @Test
+    public void testFailureIsConfirmedAtFastInterval() {
+        // Act
+        long first = interval.next(false, BASE);
+        long second = interval.next(false, BASE);
+        long confirmed = interval.next(false, BASE);
+        
+        // Assert
+        assertEquals(10_000, first);
+        assertEquals(10_000, second);
+        assertEquals(BASE, confirmed);
+        assertFalse(interval.isConfirming());
+    }
+    
+    @Test
+    public void testRecoveryIsConfirmedAtFastInterval() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            interval.next(false, BASE);
+        }
+        
+        // Act
+        long first = interval.next(true, BASE);
+        long second = interval.next(true, BASE);
+        long confirmed = interval.next(true, BASE);
+        
+        // Assert
+        assertEquals(10_000, first);
+        assertEquals(10_000, second);
+        assertTrue(confirmed >= BASE);
+    }
+    
+    @Test
+    public void testHealthyStreakStretchesUpToMaximum() {
+        // Act
+        long first = interval.next(true, BASE);
+        long second = interval.next(true, BASE);
+        long later = 0;
+        for (int i = 0; i < 20; i++) {
+            later = interval.next(true, BASE);
+        }
+        
+        // Assert
+        assertEquals(BASE, first);
+        assertEquals(2 * BASE, second);
+        assertEquals(300_000, later);
+    }
+    
+    @Test
+    public void testFailureResetsStretchedInterval() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            interval.next(true, BASE);
+        }
+        
+        // Act
+        long afterFailure = interval.next(false, BASE);
+        
+        // Assert
+        assertEquals(10_000, afterFailure);
+        assertTrue(interval.isConfirming());
+    }
+    
+    @Test
+    public void testFastIntervalNeverExceedsConfiguredInterval() {
+        // Act
+        long next = interval.next(false, 5_000);
+        
+        // Assert
+        assertEquals(5_000, next);
+    }
+    
+    @Test
+    public void testFirstFailureStartsConfirmationBeforeStatusChanges() {
+        // Arrange : site déclaré en panne après 3 échecs sur 3, intervalle étiré au maximum
+        SiteCheckerPort siteChecker = mock(SiteCheckerPort.class);
+        AsyncSiteRepositoryPort asyncRepository = mock(AsyncSiteRepositoryPort.class);
+        when(asyncRepository.saveCheckResult(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(asyncRepository.updateStatus(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        MonitoringService monitoringService = new MonitoringService(siteChecker, mock(SiteRepositoryPort.class),
+                mock(NotificationPort.class), asyncRepository,
+                StatusTransitionSettings.builder().failThreshold(3).failWindow(3).build());
+        MonitoredSite site = MonitoredSite.builder()
+                .id(1L)
+                .url("https://example.com")
+                .currentStatus(MonitoredSite.SiteStatus.UP)
+                .build();
+        when(siteChecker.check(site)).thenReturn(CheckResult.builder()
+                .status(CheckResult.CheckStatus.FAILURE)
+                .severity(CheckResult.AlertSeverity.HIGH)
+                .build());
+        for (int i = 0; i < 20; i++) {
+            interval.next(true, BASE);
+        }
+        
+        // Act
+        long first = interval.next(SiteCheckJob.runCheck(monitoringService, null, site), BASE);
+        MonitoredSite.SiteStatus statusAfterFirst = site.getCurrentStatus();
+        interval.next(SiteCheckJob.runCheck(monitoringService, null, site), BASE);
+        long confirmed = interval.next(SiteCheckJob.runCheck(monitoringService, null, site), BASE);
+        
+        // Assert : confirmation rapide dès le premier échec, panne déclarée au troisième
+        assertEquals(MonitoredSite.SiteStatus.UP, statusAfterFirst);
+        assertEquals(10_000, first);
+        assertEquals(MonitoredSite.SiteStatus.DOWN, site.getCurrentStatus());
+        assertEquals(BASE, confirmed);
+    }
+}
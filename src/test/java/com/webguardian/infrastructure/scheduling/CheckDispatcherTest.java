@@ -0,0 +1,138 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.entities.MonitoredSite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckDispatcherTest {
+    
+    private CheckDispatcher dispatcher;
+    
+    @AfterEach
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+    
+    @Test
+    public void testOrdersByPriorityThenDeadline() throws InterruptedException {
+        // Arrange
+        dispatcher = new CheckDispatcher(1, 0);
+        dispatcher.start();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        List<String> order = new ArrayList<>();
+        dispatcher.submit(MonitoredSite.Priority.NORMAL, CheckDispatcher.NO_DEADLINE, () -> await(blocker), () -> { });
+        waitUntilQueued(0);
+        long now = System.nanoTime();
+        
+        // Act
+        dispatcher.submit(MonitoredSite.Priority.LOW, now + seconds(10), record(order, "low", done), () -> { });
+        dispatcher.submit(MonitoredSite.Priority.NORMAL, now + seconds(20), record(order, "normal-late", done), () -> { });
+        dispatcher.submit(MonitoredSite.Priority.NORMAL, now + seconds(10), record(order, "normal-early", done), () -> { });
+        dispatcher.submit(MonitoredSite.Priority.CRITICAL, now + seconds(30), record(order, "critical", done), () -> { });
+        blocker.countDown();
+        
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        synchronized (order) {
+            assertEquals(List.of("critical", "normal-early", "normal-late", "low"), order);
+        }
+    }
+    
+    @Test
+    public void testDropsChecksPastTheirDeadline() throws InterruptedException {
+        // Arrange
+        dispatcher = new CheckDispatcher(1, 0);
+        dispatcher.start();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch expired = new CountDownLatch(1);
+        List<String> order = new ArrayList<>();
+        dispatcher.submit(MonitoredSite.Priority.NORMAL, CheckDispatcher.NO_DEADLINE, () -> await(blocker), () -> { });
+        waitUntilQueued(0);
+        
+        // Act
+        dispatcher.submit(MonitoredSite.Priority.NORMAL, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50),
+                record(order, "late", new CountDownLatch(1)), expired::countDown);
+        Thread.sleep(100);
+        blocker.countDown();
+        
+        // Assert
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getExpiredCount());
+        synchronized (order) {
+            assertTrue(order.isEmpty());
+        }
+    }
+    
+    @Test
+    public void testReservedWorkerServesCriticalSitesWhenOthersAreBusy() throws InterruptedException {
+        // Arrange
+        dispatcher = new CheckDispatcher(3, 1);
+        dispatcher.start();
+        CountDownLatch blocker = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.submit(MonitoredSite.Priority.NORMAL, CheckDispatcher.NO_DEADLINE, () -> await(blocker), () -> { });
+        }
+        waitUntilQueued(8);
+        
+        // Act
+        CountDownLatch critical = new CountDownLatch(1);
+        dispatcher.submit(MonitoredSite.Priority.CRITICAL, System.nanoTime() + seconds(10), critical::countDown, () -> { });
+        
+        // Assert
+        assertTrue(critical.await(5, TimeUnit.SECONDS));
+        assertEquals(8, dispatcher.getQueuedCount());
+        blocker.countDown();
+    }
+    
+    @Test
+    public void testRejectsChecksAfterShutdown() {
+        // Arrange
+        dispatcher = new CheckDispatcher(1, 0);
+        dispatcher.start();
+        dispatcher.shutdown();
+        
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> dispatcher.submit(
+                MonitoredSite.Priority.NORMAL, CheckDispatcher.NO_DEADLINE, () -> { }, () -> { }));
+    }
+    
+    private void waitUntilQueued(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds(5);
+        while (dispatcher.getQueuedCount() != count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, dispatcher.getQueuedCount());
+    }
+    
+    private static Runnable record(List<String> order, String name, CountDownLatch done) {
+        return () -> {
+            synchronized (order) {
+                order.add(name);
+            }
+            done.countDown();
+        };
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static long seconds(long seconds) {
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+}
@@ -0,0 +1,141 @@
+package com.webguardian.infrastructure.scheduling;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mesure du coût de planification/annulation et de la gigue de déclenchement de la roue temporelle,
+ * pour 10 000 et 100 000 sites. Lancement manuel (hors suite de tests) :
+ * <pre>
+ * java -cp target/classes:target/test-classes:... com.webguardian.infrastructure.scheduling.HashedTimingWheelBenchmark [durée_s]
+ * </pre>
+ * La gigue est le retard entre l'échéance théorique et le début de la tâche sur l'exécuteur ;
+ * elle inclut la précision du tick (100 ms, comme en production).
+ */
+public class HashedTimingWheelBenchmark {
+    private static final long TICK_MILLIS = 100;
+    private static final int WHEEL_SIZE = 4096;
+    private static final long PERIOD_MILLIS = 2000;
+    private static final int[] SITE_COUNTS = {10_000, 100_000};
+
+    public static void main(String[] args) throws InterruptedException {
+        long durationSeconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+
+        for (int sites : SITE_COUNTS) {
+            runOverhead(sites);
+            runJitter(sites, durationSeconds);
+        }
+    }
+
+    /**
+     * Coût moyen d'une planification et d'une annulation, côté appelant
+     */
+    private static void runOverhead(int sites) {
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE,
+                Runnable::run, "bench-overhead");
+        wheel.start();
+        try {
+            HashedTimingWheel.Timeout[] timeouts = new HashedTimingWheel.Timeout[sites];
+            Runnable task = () -> { };
+
+            // Échauffement
+            for (int i = 0; i < sites; i++) {
+                wheel.schedule(task, 1, 1, TimeUnit.HOURS).cancel();
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < sites; i++) {
+                timeouts[i] = wheel.schedule(task, 1 + i % 300, 300, TimeUnit.SECONDS);
+            }
+            long scheduleNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < sites; i++) {
+                timeouts[i].cancel();
+            }
+            long cancelNanos = System.nanoTime() - start;
+
+            System.out.printf("%,d sites : planification %.0f ns/site, annulation %.0f ns/site%n",
+                    sites, (double) scheduleNanos / sites, (double) cancelNanos / sites);
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    /**
+     * Retard de déclenchement de sites périodiques répartis uniformément sur la période
+     */
+    private static void runJitter(int sites, long durationSeconds) throws InterruptedException {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8,
+                (long) sites * (TimeUnit.SECONDS.toMillis(durationSeconds) / PERIOD_MILLIS + 2));
+        long[] latenessNanos = new long[capacity];
+        AtomicInteger samples = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        HashedTimingWheel wheel = new HashedTimingWheel(TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE,
+                executor, "bench-jitter");
+        wheel.start();
+
+        try {
+            long origin = System.nanoTime();
+            for (int i = 0; i < sites; i++) {
+                long delayMillis = PERIOD_MILLIS * i / sites;
+                long firstDeadline = origin + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                wheel.schedule(new Probe(firstDeadline, latenessNanos, samples), delayMillis,
+                        PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+            }
+
+            TimeUnit.SECONDS.sleep(durationSeconds);
+        } finally {
+            wheel.stop();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        int count = Math.min(samples.get(), capacity);
+        long[] sorted = Arrays.copyOf(latenessNanos, count);
+        Arrays.sort(sorted);
+        System.out.printf("%,d sites : %,d déclenchements en %d s, retard p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                sites, count, durationSeconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)), millis(percentile(sorted, 1.0)));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Tâche qui mesure son retard par rapport à son échéance théorique
+     */
+    private static final class Probe implements Runnable {
+        private final long[] latenessNanos;
+        private final AtomicInteger samples;
+        private volatile long nextDeadline;
+
+        Probe(long firstDeadline, long[] latenessNanos, AtomicInteger samples) {
+            this.nextDeadline = firstDeadline;
+            this.latenessNanos = latenessNanos;
+            this.samples = samples;
+        }
+
+        @Override
+        public void run() {
+            long lateness = System.nanoTime() - nextDeadline;
+            nextDeadline += TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS);
+            int index = samples.getAndIncrement();
+            if (index < latenessNanos.length) {
+                latenessNanos[index] = lateness;
+            }
+        }
+    }
+}
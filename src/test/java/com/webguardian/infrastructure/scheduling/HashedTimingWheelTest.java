@@ -0,0 +1,192 @@
+package com.webguardian.infrastructure.scheduling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @BeforeEach
+    public void setup() {
+        // Petite roue : les délais de plusieurs tours sont couverts
+        wheel = new HashedTimingWheel(10, TimeUnit.MILLISECONDS, 6, Runnable::run, "test-wheel");
+        wheel.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    public void testWheelSizeIsRoundedToPowerOfTwo() {
+        // Assert
+        assertEquals(8, wheel.getWheelSize());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), wheel.getTickNanos());
+    }
+
+    @Test
+    public void testOneShotTaskFiresAfterDelayAcrossRounds() throws InterruptedException {
+        // Arrange
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // Act
+        wheel.schedule(fired::countDown, 250, 0, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 250);
+    }
+
+    @Test
+    public void testPeriodicTaskFiresRepeatedly() throws InterruptedException {
+        // Arrange
+        CountDownLatch fired = new CountDownLatch(5);
+
+        // Act
+        wheel.schedule(fired::countDown, 0, 30, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPeriodEqualToWheelLengthIsNotDelayedByOneRound() throws InterruptedException {
+        // Arrange : une période d'un tour complet (8 ticks de 10 ms)
+        long[] firings = new long[2];
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(2);
+
+        // Act
+        wheel.schedule(() -> {
+            int index = count.getAndIncrement();
+            if (index < firings.length) {
+                firings[index] = System.nanoTime();
+                fired.countDown();
+            }
+        }, 0, 80, TimeUnit.MILLISECONDS);
+
+        // Assert : une période de 80 ms, et non un tour de retard (160 ms)
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(firings[1] - firings[0]);
+        assertTrue(elapsed >= 70, "Écart mesuré: " + elapsed + " ms");
+        assertTrue(elapsed < 120, "Écart mesuré: " + elapsed + " ms");
+    }
+
+    @Test
+    public void testCancelledTaskNeverFires() throws InterruptedException {
+        // Arrange
+        AtomicInteger count = new AtomicInteger();
+        HashedTimingWheel.Timeout timeout = wheel.schedule(count::incrementAndGet, 50, 20, TimeUnit.MILLISECONDS);
+
+        // Act
+        boolean cancelled = timeout.cancel();
+        Thread.sleep(200);
+
+        // Assert
+        assertTrue(cancelled);
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testCancelStopsPeriodicTask() throws InterruptedException {
+        // Arrange
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(2);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> {
+            count.incrementAndGet();
+            fired.countDown();
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+
+        // Act
+        timeout.cancel();
+        Thread.sleep(50);
+        int afterCancel = count.get();
+        Thread.sleep(150);
+
+        // Assert
+        assertEquals(afterCancel, count.get());
+    }
+
+    @Test
+    public void testRescheduleMovesTimeoutInPlace() throws InterruptedException {
+        // Arrange
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(fired::countDown, 10, 0, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+
+        // Act
+        boolean rescheduled = timeout.reschedule(50, 0, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(rescheduled);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    public void testRescheduleChangesPeriod() throws InterruptedException {
+        // Arrange
+        CountDownLatch fired = new CountDownLatch(5);
+        HashedTimingWheel.Timeout timeout = wheel.schedule(fired::countDown, 0, 10, TimeUnit.SECONDS);
+
+        // Act
+        timeout.reschedule(0, 20, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRescheduleOfCancelledTimeoutIsRejected() throws InterruptedException {
+        // Arrange
+        AtomicInteger count = new AtomicInteger();
+        HashedTimingWheel.Timeout timeout = wheel.schedule(count::incrementAndGet, 50, 0, TimeUnit.MILLISECONDS);
+        timeout.cancel();
+
+        // Act
+        boolean rescheduled = timeout.reschedule(0, 0, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+
+        // Assert
+        assertFalse(rescheduled);
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testFailingTaskDoesNotStopTheWheel() throws InterruptedException {
+        // Arrange
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException("Échec");
+        }, 0, 0, TimeUnit.MILLISECONDS);
+
+        // Act
+        wheel.schedule(fired::countDown, 30, 0, TimeUnit.MILLISECONDS);
+
+        // Assert
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testScheduleBeforeStartIsRejected() {
+        // Arrange
+        HashedTimingWheel stopped = new HashedTimingWheel(10, TimeUnit.MILLISECONDS, 8, Runnable::run, "stopped");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> stopped.schedule(() -> { }, 0, 0, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,140 @@
+package com.webguardian.infrastructure.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhaseSpreaderTest {
+
+    private static final long INTERVAL_MILLIS = 300_000;
+
+    private PhaseSpreader spreader;
+
+    @BeforeEach
+    public void setup() {
+        spreader = new PhaseSpreader();
+    }
+
+    @Test
+    public void testOffsetsAreDeterministic() {
+        // Arrange
+        PhaseSpreader other = new PhaseSpreader();
+
+        // Act & Assert
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(spreader.assign(id, INTERVAL_MILLIS), other.assign(id, INTERVAL_MILLIS));
+        }
+    }
+
+    @Test
+    public void testAssignIsStableForSameInterval() {
+        // Arrange
+        long offset = spreader.assign(42L, INTERVAL_MILLIS);
+
+        // Act
+        long again = spreader.assign(42L, INTERVAL_MILLIS);
+
+        // Assert
+        assertEquals(offset, again);
+        assertEquals(1, spreader.size());
+    }
+
+    @Test
+    public void testSitesAreSpreadEvenlyAcrossInterval() {
+        // Arrange
+        int[] perSecond = new int[300];
+
+        // Act
+        for (long id = 1; id <= 10_000; id++) {
+            long offset = spreader.assign(id, INTERVAL_MILLIS);
+            assertTrue(offset >= 0 && offset < INTERVAL_MILLIS);
+            perSecond[(int) (offset / 1000)]++;
+        }
+
+        // Assert : 10 000 sites sur 300 secondes, soit 33 ou 34 par seconde
+        for (int count : perSecond) {
+            assertTrue(count == 33 || count == 34, "Charge non plate: " + count);
+        }
+    }
+
+    @Test
+    public void testReleasedSlotIsReused() {
+        // Arrange
+        for (long id = 1; id <= 300; id++) {
+            spreader.assign(id, 300_000);
+        }
+        long released = spreader.assign(7L, 300_000) / 1000;
+        spreader.release(7L);
+
+        // Act
+        long reused = spreader.assign(1000L, 300_000) / 1000;
+
+        // Assert
+        assertEquals(released, reused);
+        assertEquals(300, spreader.size());
+    }
+
+    @Test
+    public void testIntervalChangeMovesSiteToNewInterval() {
+        // Act
+        spreader.assign(1L, 60_000);
+        long offset = spreader.assign(1L, 10_000);
+
+        // Assert
+        assertTrue(offset < 10_000);
+        assertEquals(1, spreader.size());
+    }
+
+    @Test
+    public void testDelayUntilPhase() {
+        // Assert
+        assertEquals(500, PhaseSpreader.delayUntilPhase(1500, 60_000, 1000));
+        assertEquals(59_500, PhaseSpreader.delayUntilPhase(500, 60_000, 1000));
+        assertEquals(0, PhaseSpreader.delayUntilPhase(1000, 60_000, 61_000));
+    }
+
+    @Test
+    public void testCheckDensityIsFlatWithSpreadPhases() {
+        // Arrange
+        CheckDensityMetrics density = new CheckDensityMetrics(300);
+        long start = 1_700_000_000_000L;
+        Set<Long> offsets = new HashSet<>();
+
+        // Act : un déclenchement par site sur un intervalle complet
+        for (long id = 1; id <= 3000; id++) {
+            long offset = spreader.assign(id, INTERVAL_MILLIS);
+            offsets.add(offset);
+            density.record(start + PhaseSpreader.delayUntilPhase(offset, INTERVAL_MILLIS, start));
+        }
+        CheckDensityMetrics.Snapshot snapshot = density.snapshot(start + INTERVAL_MILLIS);
+
+        // Assert
+        assertTrue(offsets.size() > 2900);
+        assertEquals(3000, snapshot.getTotal());
+        assertEquals(10.0, snapshot.getMean(), 0.001);
+        assertEquals(10, snapshot.getPeak());
+        assertEquals(1.0, snapshot.getPeakToMeanRatio(), 0.001);
+    }
+
+    @Test
+    public void testCheckDensityShowsBurst() {
+        // Arrange
+        CheckDensityMetrics density = new CheckDensityMetrics(60);
+        long start = 1_700_000_000_000L;
+
+        // Act : tous les sites au même instant
+        for (int i = 0; i < 600; i++) {
+            density.record(start);
+        }
+        CheckDensityMetrics.Snapshot snapshot = density.snapshot(start + 60_000);
+
+        // Assert
+        assertEquals(600, snapshot.getTotal());
+        assertEquals(600, snapshot.getPeak());
+        assertEquals(60.0, snapshot.getPeakToMeanRatio(), 0.001);
+    }
+}
@@ -0,0 +1,120 @@
+package com.webguardian.infrastructure.scheduling;
+
+import com.webguardian.core.ports.NotificationPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SchedulerLagMonitorTest {
+    
+    @Mock
+    private NotificationPort notificationService;
+    
+    private SchedulerLagMonitor lagMonitor;
+    
+    @BeforeEach
+    public void setup() {
+        lagMonitor = new SchedulerLagMonitor(notificationService, 1000, 3);
+    }
+    
+    @Test
+    public void testAlertAfterSustainedLag() {
+        // Arrange
+        for (int i = 0; i < 2; i++) {
+            recordWindow(5000);
+            lagMonitor.evaluate();
+        }
+        
+        // Act
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        
+        // Assert
+        assertTrue(lagMonitor.isOverloaded());
+        verify(notificationService, times(1)).sendSystemAlert(eq("Planificateur surchargé"), anyString());
+    }
+    
+    @Test
+    public void testNoAlertWhenLagIsNotSustained() {
+        // Arrange
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        
+        // Act
+        recordWindow(10);
+        lagMonitor.evaluate();
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        
+        // Assert
+        assertFalse(lagMonitor.isOverloaded());
+        verify(notificationService, never()).sendSystemAlert(anyString(), anyString());
+    }
+    
+    @Test
+    public void testRecoveryAlert() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            recordWindow(5000);
+            lagMonitor.evaluate();
+        }
+        
+        // Act
+        recordWindow(10);
+        lagMonitor.evaluate();
+        
+        // Assert
+        assertFalse(lagMonitor.isOverloaded());
+        verify(notificationService).sendSystemAlert(eq("Planificateur surchargé"), anyString());
+        verify(notificationService).sendSystemAlert(eq("Planificateur rétabli"), anyString());
+    }
+    
+    @Test
+    public void testEmptyWindowDoesNotResetCount() {
+        // Arrange
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        
+        // Act
+        lagMonitor.evaluate();
+        recordWindow(5000);
+        lagMonitor.evaluate();
+        
+        // Assert
+        assertTrue(lagMonitor.isOverloaded());
+    }
+    
+    @Test
+    public void testPercentileUsesHistogramBounds() {
+        // Arrange
+        SchedulerLagMetrics metrics = new SchedulerLagMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.record(5);
+        }
+        
+        // Act
+        metrics.record(400_000);
+        
+        // Assert
+        assertEquals(10, metrics.percentileMillis(0.5));
+        assertEquals(Long.MAX_VALUE, metrics.percentileMillis(1.0));
+        assertEquals(100, metrics.getCount());
+    }
+    
+    private void recordWindow(long lagMillis) {
+        for (int i = 0; i < 20; i++) {
+            lagMonitor.getMetrics().record(lagMillis);
+        }
+    }
+}
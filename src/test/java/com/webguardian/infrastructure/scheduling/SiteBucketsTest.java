@@ -0,0 +1,119 @@
+package com.webguardian.infrastructure.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SiteBucketsTest {
+    
+    private SiteBuckets buckets;
+    
+    @BeforeEach
+    public void setup() {
+        buckets = new SiteBuckets();
+    }
+    
+    @Test
+    public void testBucketCountScalesWithSlotsNotSites() {
+        // Arrange
+        Set<String> names = new HashSet<>();
+        
+        // Act
+        for (long siteId = 1; siteId <= 10_000; siteId++) {
+            names.add(buckets.assign(siteId, 60).getBucket().getName());
+        }
+        
+        // Assert
+        assertEquals(60, names.size());
+        assertEquals(60, buckets.size());
+    }
+    
+    @Test
+    public void testBucketPhaseIsOnItsSlot() {
+        // Act
+        SiteBuckets.Bucket bucket = buckets.assign(42L, 300).getBucket();
+        
+        // Assert
+        assertEquals(300, bucket.getIntervalSeconds());
+        assertEquals(0, bucket.getPhaseOffsetMillis() % 1000);
+        assertTrue(bucket.getPhaseOffsetMillis() < 300_000);
+        assertTrue(bucket.getName().startsWith(SiteBuckets.NAME_PREFIX + "300-"));
+        assertEquals(1, buckets.members(bucket.getName()).size());
+    }
+    
+    @Test
+    public void testSameSiteKeepsItsBucket() {
+        // Arrange
+        String first = buckets.assign(7L, 60).getBucket().getName();
+        
+        // Act
+        SiteBuckets.Assignment again = buckets.assign(7L, 60);
+        
+        // Assert
+        assertEquals(first, again.getBucket().getName());
+        assertNull(again.getEmptiedBucket());
+    }
+    
+    @Test
+    public void testIntervalChangeMovesSiteAndReportsEmptiedBucket() {
+        // Arrange
+        String first = buckets.assign(7L, 60).getBucket().getName();
+        
+        // Act
+        SiteBuckets.Assignment moved = buckets.assign(7L, 120);
+        
+        // Assert
+        assertNotEquals(first, moved.getBucket().getName());
+        assertEquals(first, moved.getEmptiedBucket());
+        assertTrue(buckets.members(first).isEmpty());
+    }
+    
+    @Test
+    public void testReleaseReportsEmptiedBucketOnlyWhenLastSiteLeaves() {
+        // Arrange
+        String name = buckets.assign(1L, 10).getBucket().getName();
+        Long sibling = null;
+        for (long siteId = 2; sibling == null; siteId++) {
+            if (buckets.assign(siteId, 10).getBucket().getName().equals(name)) {
+                sibling = siteId;
+            }
+        }
+        
+        // Act
+        String afterFirst = buckets.release(1L);
+        String afterSecond = buckets.release(sibling);
+        
+        // Assert
+        assertNull(afterFirst);
+        assertEquals(name, afterSecond);
+    }
+    
+    @Test
+    public void testInFlightSiteIsRerunOnceAfterFinish() {
+        // Arrange
+        assertTrue(buckets.tryStart(5L));
+        
+        // Act
+        boolean started = buckets.tryStart(5L);
+        boolean requested = buckets.requestRerun(5L);
+        boolean requestedAgain = buckets.requestRerun(5L);
+        
+        // Assert
+        assertFalse(started);
+        assertTrue(requested);
+        assertTrue(requestedAgain);
+        assertTrue(buckets.finish(5L));
+        assertFalse(buckets.finish(5L));
+        assertTrue(buckets.tryStart(5L));
+    }
+    
+    @Test
+    public void testRerunRequestWithoutCheckInFlightIsRejected() {
+        // Act & Assert
+        assertFalse(buckets.requestRerun(9L));
+    }
+}